@@ -0,0 +1,62 @@
+package ru.grigorii.calendar_reminder_system.benchmark;
+
+import ru.grigorii.calendar_reminder_system.model.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сущности для бенчмарков: те же поля, что заполняются при создании события через {@code EventFactory}
+ */
+final class BenchmarkData
+{
+    static final LocalDateTime START = LocalDateTime.of(2026, 3, 2, 10, 0);
+
+    private BenchmarkData()
+    {
+    }
+
+    static User user(String email)
+    {
+        User user = new User();
+        user.setEmail(email);
+        user.setName("Bench");
+        user.setSurname("User");
+        user.setRole(Role.USER);
+        user.setPasswordHash("hash");
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+
+    static Calendar calendar(User owner)
+    {
+        Calendar calendar = new Calendar();
+        calendar.setName("Calendar");
+        calendar.setOwner(owner);
+        return calendar;
+    }
+
+    static Event event(Calendar calendar, LocalDateTime start)
+    {
+        Event event = new Event();
+        event.setTitle("Планёрка команды");
+        event.setDescription("Статус задач, блокеры, планы на неделю");
+        event.setStartTime(start);
+        event.setEndTime(start.plusHours(1));
+        event.setPriority(EventPriority.MEDIUM);
+        event.setDone(false);
+        event.setCalendar(calendar);
+        event.setCreatedAt(LocalDateTime.now());
+        return event;
+    }
+
+    static Reminder reminder(Event event, LocalDateTime remindAt, boolean read)
+    {
+        Reminder reminder = new Reminder();
+        reminder.setEvent(event);
+        reminder.setRemindAt(remindAt);
+        reminder.setChannel(ReminderChannel.EMAIL);
+        reminder.setRead(read);
+        event.setReminder(reminder);
+        return reminder;
+    }
+}
@@ -0,0 +1,68 @@
+package ru.grigorii.calendar_reminder_system.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.grigorii.calendar_reminder_system.dto.EventDto;
+import ru.grigorii.calendar_reminder_system.dto.ReminderDto;
+import ru.grigorii.calendar_reminder_system.model.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование сущностей в DTO: простое событие, событие с повторением и напоминанием, напоминание
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoMappingBenchmark
+{
+    private Event plain;
+    private Event full;
+    private Reminder reminder;
+
+    @Setup
+    public void setUp()
+    {
+        User owner = BenchmarkData.user("bench@test.com");
+        owner.setId(1L);
+        Calendar calendar = BenchmarkData.calendar(owner);
+        calendar.setId(10L);
+
+        plain = BenchmarkData.event(calendar, BenchmarkData.START);
+        plain.setId(100L);
+
+        full = BenchmarkData.event(calendar, BenchmarkData.START);
+        full.setId(101L);
+
+        EventRecurrence recurrence = new EventRecurrence();
+        recurrence.setId(7L);
+        recurrence.setEvent(full);
+        recurrence.setRecurrenceType(RecurrenceType.WEEKLY);
+        recurrence.setFromDate(LocalDate.of(2026, 3, 2));
+        full.setRecurrence(recurrence);
+
+        reminder = BenchmarkData.reminder(full, BenchmarkData.START.minusMinutes(15), false);
+        reminder.setId(1000L);
+    }
+
+    @Benchmark
+    public EventDto eventFromEntity()
+    {
+        return EventDto.fromEntity(plain);
+    }
+
+    @Benchmark
+    public EventDto eventWithRecurrenceAndReminderFromEntity()
+    {
+        return EventDto.fromEntity(full);
+    }
+
+    @Benchmark
+    public ReminderDto reminderFromEntity()
+    {
+        return ReminderDto.fromEntity(reminder);
+    }
+}
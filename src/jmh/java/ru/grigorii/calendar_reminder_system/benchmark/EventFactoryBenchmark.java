@@ -0,0 +1,54 @@
+package ru.grigorii.calendar_reminder_system.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.grigorii.calendar_reminder_system.model.Calendar;
+import ru.grigorii.calendar_reminder_system.model.Event;
+import ru.grigorii.calendar_reminder_system.model.Reminder;
+import ru.grigorii.calendar_reminder_system.service.impl.EventFactory;
+import ru.grigorii.calendar_reminder_system.service.recurrence.RecurrenceRuleCompiler;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Материализация вхождения серии: копия события (выполнение и изменение вхождения) и копия напоминания серии
+ * для изменённого вхождения (вместе с записью outbox на доставку)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventFactoryBenchmark
+{
+    private final EventFactory factory = new EventFactory(new RecurrenceRuleCompiler(100));
+
+    private Event source;
+    private Event target;
+    private LocalDateTime nextStart;
+
+    @Setup
+    public void setUp()
+    {
+        Calendar calendar = BenchmarkData.calendar(BenchmarkData.user("bench@test.com"));
+
+        source = BenchmarkData.event(calendar, BenchmarkData.START);
+        BenchmarkData.reminder(source, BenchmarkData.START.minusMinutes(15), false);
+
+        target = BenchmarkData.event(calendar, BenchmarkData.START.plusWeeks(1));
+        nextStart = BenchmarkData.START.plusWeeks(1);
+    }
+
+    @Benchmark
+    public Event createNextEvent()
+    {
+        return factory.createNextEvent(source, nextStart);
+    }
+
+    @Benchmark
+    public Reminder copyReminder()
+    {
+        return factory.copyReminder(source.getReminder(), target, nextStart, source.getStartTime());
+    }
+}
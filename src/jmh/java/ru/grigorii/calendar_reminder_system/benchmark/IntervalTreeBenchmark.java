@@ -0,0 +1,80 @@
+package ru.grigorii.calendar_reminder_system.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.grigorii.calendar_reminder_system.service.availability.IntervalTree;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск пересечений с окном в один день (проверка конфликтов, занятость): дерево интервалов против
+ * линейного прохода по списку, как без индекса. Интервалы от 15 минут до 2 часов в пределах года
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IntervalTreeBenchmark
+{
+    private static final int WINDOWS = 1024;
+
+    @Param({"1000", "50000"})
+    public int intervals;
+
+    private final IntervalTree<Integer> tree = new IntervalTree<>();
+    private final List<IntervalTree.Entry<Integer>> list = new ArrayList<>();
+    private final LocalDateTime[] windows = new LocalDateTime[WINDOWS];
+
+    private int next;
+
+    @Setup
+    public void setUp()
+    {
+        Random random = new Random(42);
+        for (int i = 0; i < intervals; i++)
+        {
+            LocalDateTime start = BenchmarkData.START.plusMinutes(random.nextInt(365 * 24 * 60));
+            list.add(tree.add(start, start.plusMinutes(15 + random.nextInt(106)), i));
+        }
+
+        for (int i = 0; i < WINDOWS; i++)
+        {
+            windows[i] = BenchmarkData.START.plusHours(random.nextInt(365 * 24));
+        }
+    }
+
+    @Benchmark
+    public List<IntervalTree.Entry<Integer>> tree()
+    {
+        LocalDateTime from = nextWindow();
+        return tree.overlapping(from, from.plusDays(1));
+    }
+
+    @Benchmark
+    public List<IntervalTree.Entry<Integer>> linearScan()
+    {
+        LocalDateTime from = nextWindow();
+        LocalDateTime to = from.plusDays(1);
+
+        List<IntervalTree.Entry<Integer>> result = new ArrayList<>();
+        for (IntervalTree.Entry<Integer> entry : list)
+        {
+            if (entry.start().isBefore(to) && entry.end().isAfter(from))
+            {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    private LocalDateTime nextWindow()
+    {
+        next = (next + 1) & (WINDOWS - 1);
+        return windows[next];
+    }
+}
@@ -0,0 +1,75 @@
+package ru.grigorii.calendar_reminder_system.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.grigorii.calendar_reminder_system.dto.EventRecurrenceDto;
+import ru.grigorii.calendar_reminder_system.model.EventRecurrence;
+import ru.grigorii.calendar_reminder_system.model.RecurrenceType;
+import ru.grigorii.calendar_reminder_system.service.recurrence.RecurrenceExpander;
+import ru.grigorii.calendar_reminder_system.service.recurrence.RecurrenceRuleCompiler;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Следующее вхождение серии (как при выполнении текущего) и проверка вхождения. Серия начинается
+ * {@code ageDays} дней назад: для старой серии важно, что до момента поиска выполняется прыжок, а не перебор
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecurrenceBenchmark
+{
+    /**
+     * Простой тип повторения (DAILY, WEEKLY) или правило RRULE
+     */
+    @Param({"DAILY", "WEEKLY", "FREQ=WEEKLY;BYDAY=MO,WE,FR", "FREQ=MONTHLY;BYDAY=-1FR"})
+    public String rule;
+
+    @Param({"0", "730"})
+    public int ageDays;
+
+    private final RecurrenceRuleCompiler ruleCompiler = new RecurrenceRuleCompiler(100);
+    private final RecurrenceExpander expander = new RecurrenceExpander(ruleCompiler);
+
+    private EventRecurrence recurrence;
+    private LocalDateTime seriesStart;
+    private LocalDateTime after;
+    private LocalDateTime occurrence;
+
+    @Setup
+    public void setUp()
+    {
+        seriesStart = BenchmarkData.START.minusDays(ageDays);
+        after = BenchmarkData.START;
+
+        boolean rrule = rule.startsWith("FREQ=");
+        recurrence = new EventRecurrence();
+        recurrence.setFromDate(seriesStart.toLocalDate());
+        ruleCompiler.applyTo(recurrence, new EventRecurrenceDto(
+                null,
+                null,
+                seriesStart.toLocalDate(),
+                null,
+                rrule ? null : RecurrenceType.valueOf(rule),
+                rrule ? rule : null
+        ));
+
+        occurrence = expander.firstAfter(recurrence, seriesStart, after).orElseThrow();
+    }
+
+    @Benchmark
+    public Optional<LocalDateTime> nextOccurrence()
+    {
+        return expander.firstAfter(recurrence, seriesStart, after);
+    }
+
+    @Benchmark
+    public boolean isOccurrence()
+    {
+        return expander.isOccurrence(recurrence, seriesStart, occurrence);
+    }
+}
@@ -0,0 +1,132 @@
+package ru.grigorii.calendar_reminder_system.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.grigorii.calendar_reminder_system.CalendarReminderSystemApplication;
+import ru.grigorii.calendar_reminder_system.model.Calendar;
+import ru.grigorii.calendar_reminder_system.model.Event;
+import ru.grigorii.calendar_reminder_system.model.Reminder;
+import ru.grigorii.calendar_reminder_system.model.User;
+import ru.grigorii.calendar_reminder_system.repository.CalendarRepository;
+import ru.grigorii.calendar_reminder_system.repository.EventRepository;
+import ru.grigorii.calendar_reminder_system.repository.ReminderRepository;
+import ru.grigorii.calendar_reminder_system.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запросы счётчика и списка уведомлений ({@code countActiveUnread} / {@code findActiveUnread}) на H2 в памяти
+ * (профиль test). В базе {@code users} пользователей, у каждого {@code remindersPerUser} событий с напоминанием
+ * в пределах месяца до и после текущего момента; прошедшие напоминания прочитаны с вероятностью 70%
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReminderQueryBenchmark
+{
+    private static final int CHUNK = 1_000;
+
+    @Param({"50"})
+    public int users;
+
+    @Param({"200", "2000"})
+    public int remindersPerUser;
+
+    private ConfigurableApplicationContext context;
+    private ReminderRepository reminderRepository;
+    private TransactionTemplate readOnly;
+
+    private Long userId;
+    private LocalDateTime now;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        context = new SpringApplicationBuilder(CalendarReminderSystemApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "reminder.dispatcher.enabled=false",
+                        "reminder.delivery.enabled=false"
+                )
+                .run();
+
+        reminderRepository = context.getBean(ReminderRepository.class);
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+
+        now = LocalDateTime.now();
+        seed(transactionTemplate);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        context.close();
+    }
+
+    @Benchmark
+    public long countActiveUnread()
+    {
+        return readOnly.execute(status -> reminderRepository.countActiveUnread(userId, now));
+    }
+
+    @Benchmark
+    public List<Reminder> findActiveUnread()
+    {
+        return readOnly.execute(status -> reminderRepository.findActiveUnread(userId, now));
+    }
+
+    /**
+     * Заполнение пачками, одна транзакция на пачку (напоминание сохраняется каскадом вместе с событием)
+     */
+    private void seed(TransactionTemplate transactionTemplate)
+    {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        CalendarRepository calendarRepository = context.getBean(CalendarRepository.class);
+        EventRepository eventRepository = context.getBean(EventRepository.class);
+        Random random = new Random(42);
+
+        for (int u = 0; u < users; u++)
+        {
+            int index = u;
+            Calendar calendar = transactionTemplate.execute(status -> {
+                User user = userRepository.save(BenchmarkData.user("bench-" + index + "@test.com"));
+                return calendarRepository.save(BenchmarkData.calendar(user));
+            });
+            if (u == 0)
+            {
+                userId = calendar.getOwner().getId();
+            }
+
+            for (int from = 0; from < remindersPerUser; from += CHUNK)
+            {
+                int size = Math.min(CHUNK, remindersPerUser - from);
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<Event> events = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++)
+                    {
+                        LocalDateTime remindAt = now.plusMinutes(random.nextInt(60 * 24 * 60) - 60 * 24 * 30);
+                        Event event = BenchmarkData.event(calendar, remindAt.plusMinutes(15));
+                        BenchmarkData.reminder(event, remindAt, remindAt.isBefore(now) && random.nextInt(10) < 7);
+                        events.add(event);
+                    }
+                    eventRepository.saveAll(events);
+                });
+            }
+        }
+    }
+}
@@ -3,8 +3,13 @@ package ru.grigorii.calendar_reminder_system.config;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.servers.Server;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationManagers;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -12,6 +17,8 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
 import java.util.List;
 
 /**
@@ -42,18 +49,30 @@ public class GeneralConfig
 
     /**
      * Бин цепочки фильтров для Spring Security
+     *
+     * @param scrapeAddresses адреса (IP или CIDR), с которых метрики Prometheus доступны без входа
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity security) throws Exception
+    public SecurityFilterChain securityFilterChain(
+            HttpSecurity security,
+            @Value("${metrics.scrape.allowed-addresses:127.0.0.1,::1}") List<String> scrapeAddresses) throws Exception
     {
         return security
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/auth/login", "/auth/register", "/perform_login", "/css/**", "/js/**").permitAll()
+                        // ленты iCalendar защищены секретным токеном в адресе - клиенты подписки не входят в систему
+                        .requestMatchers("/feeds/**").permitAll()
+                        // сборщик метрик ходит без сессии, поэтому доступ к нему ограничен адресом
+                        .requestMatchers("/actuator/prometheus").access(AuthorizationManagers.anyOf(
+                                fromAddresses(scrapeAddresses),
+                                AuthorityAuthorizationManager.hasRole("ADMIN")
+                        ))
                         .requestMatchers(
                                 "/swagger-ui/**",
                                 "/v3/api-docs/**",
-                                "/api/**"
+                                "/api/**",
+                                "/actuator/**"
                         ).hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
@@ -75,6 +94,20 @@ public class GeneralConfig
                 .build();
     }
 
+    /**
+     * Доступ только с перечисленных адресов
+     */
+    private static AuthorizationManager<RequestAuthorizationContext> fromAddresses(List<String> addresses)
+    {
+        List<IpAddressMatcher> matchers = addresses.stream()
+                .map(String::trim)
+                .map(IpAddressMatcher::new)
+                .toList();
+
+        return (authentication, context) -> new AuthorizationDecision(
+                matchers.stream().anyMatch(matcher -> matcher.matches(context.getRequest())));
+    }
+
     /**
      * Бин шифратора паролей с реализацией через BCrypt
      */
@@ -0,0 +1,25 @@
+package ru.grigorii.calendar_reminder_system.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Конфигурация метрик. <br/>
+ * Методы сервисов, отмеченных {@code @Timed}, замеряются таймером service.calls (теги class, method, exception):
+ * число вызовов, ошибки и гистограмма задержек. Запросы репозиториев Spring Data замеряет Spring Boot
+ * (spring.data.repository.invocations), Hibernate и пул соединений Hikari публикуют свою статистику сами
+ */
+@Configuration
+public class MetricsConfig
+{
+    /**
+     * Бин аспекта, обрабатывающего {@code @Timed}
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry)
+    {
+        return new TimedAspect(meterRegistry);
+    }
+}
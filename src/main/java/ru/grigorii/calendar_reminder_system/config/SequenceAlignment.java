@@ -0,0 +1,75 @@
+package ru.grigorii.calendar_reminder_system.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.Map;
+
+/**
+ * Выравнивание последовательностей id с уже существующими данными (PostgreSQL). <br/>
+ * Раньше id выдавались столбцами IDENTITY, и в базе, обновлённой через ddl-auto=update, новые
+ * последовательности начинаются с 1, тогда как в таблицах уже есть строки. Перед первой вставкой
+ * каждая последовательность сдвигается за max(id) с запасом на один пул (allocationSize = 50),
+ * так что выдаваемые Hibernate диапазоны не пересекаются с существующими id. Повторный запуск безопасен:
+ * последовательность никогда не сдвигается назад
+ */
+@Component
+public class SequenceAlignment implements InitializingBean
+{
+    private static final Logger log = LoggerFactory.getLogger(SequenceAlignment.class);
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    /**
+     * Таблица -> последовательность (см. @SequenceGenerator в сущностях)
+     */
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "users", "users_seq",
+            "calendars", "calendars_seq",
+            "events", "events_seq",
+            "event_recurrences", "event_recurrences_seq",
+            "reminder", "reminder_seq",
+            "reminder_deliveries", "reminder_deliveries_seq"
+    );
+
+    private final DataSource dataSource;
+
+    /**
+     * Зависимость от EntityManagerFactory гарантирует, что схема (и последовательности) уже созданы
+     */
+    public SequenceAlignment(DataSource dataSource, EntityManagerFactory entityManagerFactory)
+    {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws MetaDataAccessException
+    {
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        if (!"PostgreSQL".equals(product))
+        {
+            return;
+        }
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        SEQUENCES.forEach((table, sequence) ->
+        {
+            Long value = jdbc.queryForObject(
+                    """
+                    select setval('%1$s', greatest(
+                        (select coalesce(max(id), 0) from %2$s) + %3$d,
+                        (select last_value from %1$s)))
+                    """.formatted(sequence, table, ALLOCATION_SIZE),
+                    Long.class);
+            log.debug("Sequence {} aligned to {}", sequence, value);
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package ru.grigorii.calendar_reminder_system.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.grigorii.calendar_reminder_system.security.CurrentUserArgumentResolver;
+
+import java.util.List;
+
+/**
+ * Конфигурация Spring MVC
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer
+{
+    /**
+     * Регистрирует резолвер {@link ru.grigorii.calendar_reminder_system.security.CurrentUser}
+     */
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers)
+    {
+        resolvers.add(new CurrentUserArgumentResolver());
+    }
+}
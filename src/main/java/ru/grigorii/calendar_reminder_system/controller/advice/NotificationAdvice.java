@@ -1,13 +1,11 @@
 package ru.grigorii.calendar_reminder_system.controller.advice;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ModelAttribute;
-import ru.grigorii.calendar_reminder_system.dto.UserDto;
+import ru.grigorii.calendar_reminder_system.security.AuthenticatedUser;
+import ru.grigorii.calendar_reminder_system.security.CurrentUser;
 import ru.grigorii.calendar_reminder_system.service.mvc.ReminderMvcService;
-import ru.grigorii.calendar_reminder_system.service.mvc.UserMvcService;
 
 /**
  * Advice для счётчика уведомлений
@@ -17,31 +15,28 @@ public class NotificationAdvice
 {
 
     private final ReminderMvcService reminderService;
-    private final UserMvcService userService;
 
     @Autowired
-    public NotificationAdvice(ReminderMvcService reminderService, UserMvcService userService)
+    public NotificationAdvice(ReminderMvcService reminderService)
     {
         this.reminderService = reminderService;
-        this.userService = userService;
     }
 
     /**
      * Счётчик непрочитанных уведовлений пользователя
-     * @param principal данные пользовтаеля
+     * @param user текущий пользователь (null для анонимных запросов)
      * @return число уведомлений
      */
     @ModelAttribute("notificationCount")
     public Long notificationCount(
-            @AuthenticationPrincipal UserDetails principal
+            @CurrentUser(required = false) AuthenticatedUser user
     )
     {
-        if (principal == null)
+        if (user == null)
         {
             return 0L;
         }
 
-        UserDto user = userService.getByEmail(principal.getUsername());
-        return reminderService.countActive(user.id());
+        return reminderService.countActive(user.getId());
     }
 }
\ No newline at end of file
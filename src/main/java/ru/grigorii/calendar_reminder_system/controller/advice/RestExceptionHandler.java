@@ -2,12 +2,15 @@ package ru.grigorii.calendar_reminder_system.controller.advice;
 
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.grigorii.calendar_reminder_system.service.exception.InvalidRecurrenceRuleException;
+import ru.grigorii.calendar_reminder_system.service.exception.VersionConflictException;
 
 import java.time.Instant;
 import java.util.stream.Collectors;
@@ -57,6 +60,60 @@ public class RestExceptionHandler
         );
     }
 
+    @ExceptionHandler(InvalidRecurrenceRuleException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiError handleInvalidRecurrenceRule(
+            InvalidRecurrenceRuleException ex,
+            HttpServletRequest request
+    )
+    {
+        return new ApiError(
+                400,
+                "INVALID_RRULE",
+                ex.getMessage(),
+                request.getRequestURI(),
+                Instant.now()
+        );
+    }
+
+    /**
+     * Запись изменилась после чтения клиентом (If-Match не совпал)
+     */
+    @ExceptionHandler(VersionConflictException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ApiError handleVersionConflict(
+            VersionConflictException ex,
+            HttpServletRequest request
+    )
+    {
+        return new ApiError(
+                412,
+                "VERSION_CONFLICT",
+                ex.getMessage(),
+                request.getRequestURI(),
+                Instant.now()
+        );
+    }
+
+    /**
+     * Параллельное изменение той же записи зафиксировано раньше (проверка @Version при коммите)
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ApiError handleOptimisticLock(
+            OptimisticLockingFailureException ex,
+            HttpServletRequest request
+    )
+    {
+        return new ApiError(
+                409,
+                "CONFLICT",
+                "Resource was modified concurrently, reload and retry",
+                request.getRequestURI(),
+                Instant.now()
+        );
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     @ResponseStatus(HttpStatus.FORBIDDEN)
     public ApiError handleAccessDenied(
@@ -2,10 +2,16 @@ package ru.grigorii.calendar_reminder_system.controller.rest;
 
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.grigorii.calendar_reminder_system.controller.support.ConditionalRequests;
 import ru.grigorii.calendar_reminder_system.dto.CalendarDto;
 import ru.grigorii.calendar_reminder_system.service.rest.CalendarRestService;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.util.List;
 
@@ -19,22 +25,50 @@ public class CalendarRestController
 {
 
     private final CalendarRestService calendarService;
+    private final JsonMapper jsonMapper;
 
-    public CalendarRestController(CalendarRestService calendarService)
+    public CalendarRestController(CalendarRestService calendarService,
+                                  JsonMapper jsonMapper)
     {
         this.calendarService = calendarService;
+        this.jsonMapper = jsonMapper;
     }
 
+    /**
+     * Страница по ключу: записи с id больше after, упорядоченные по id. Если страница заполнена,
+     * курсор следующей страницы возвращается в заголовке X-Next-Cursor
+     */
     @GetMapping
-    public List<CalendarDto> getAll()
+    public ResponseEntity<List<CalendarDto>> getAll(@RequestParam(defaultValue = "0") Long after,
+                                                    @RequestParam(defaultValue = "100") int limit)
     {
-        return calendarService.findAll();
+        int size = KeysetResponses.limit(limit);
+        return KeysetResponses.page(calendarService.findPage(after, size), size, CalendarDto::id);
     }
 
+    /**
+     * Выгрузка всех записей в NDJSON (одна запись JSON на строку) потоком, без загрузки таблицы в память
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export()
+    {
+        return KeysetResponses.ndjson(jsonMapper, calendarService::exportAll);
+    }
+
+    /**
+     * Запись по id. Условный запрос с актуальной версией получает 304 без загрузки записи
+     */
     @GetMapping("/{id}")
-    public CalendarDto getById(@PathVariable Long id)
+    public ResponseEntity<CalendarDto> getById(@PathVariable Long id, WebRequest request)
     {
-        return calendarService.findById(id);
+        if (ConditionalRequests.notModified(request, calendarService.findVersion(id)))
+        {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(ConditionalRequests.REVALIDATE)
+                .body(calendarService.findById(id));
     }
 
     @PostMapping
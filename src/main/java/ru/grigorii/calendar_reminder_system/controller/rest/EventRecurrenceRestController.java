@@ -3,10 +3,14 @@ package ru.grigorii.calendar_reminder_system.controller.rest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.grigorii.calendar_reminder_system.dto.EventRecurrenceDto;
 import ru.grigorii.calendar_reminder_system.service.rest.EventRecurrenceRestService;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.util.List;
 
@@ -20,17 +24,35 @@ public class EventRecurrenceRestController
 {
 
     private final EventRecurrenceRestService service;
+    private final JsonMapper jsonMapper;
 
     @Autowired
-    public EventRecurrenceRestController(EventRecurrenceRestService service)
+    public EventRecurrenceRestController(EventRecurrenceRestService service,
+                                         JsonMapper jsonMapper)
     {
         this.service = service;
+        this.jsonMapper = jsonMapper;
     }
 
+    /**
+     * Страница по ключу: записи с id больше after, упорядоченные по id. Если страница заполнена,
+     * курсор следующей страницы возвращается в заголовке X-Next-Cursor
+     */
     @GetMapping
-    public List<EventRecurrenceDto> getAll()
+    public ResponseEntity<List<EventRecurrenceDto>> getAll(@RequestParam(defaultValue = "0") Long after,
+                                                           @RequestParam(defaultValue = "100") int limit)
     {
-        return service.findAll();
+        int size = KeysetResponses.limit(limit);
+        return KeysetResponses.page(service.findPage(after, size), size, EventRecurrenceDto::id);
+    }
+
+    /**
+     * Выгрузка всех записей в NDJSON (одна запись JSON на строку) потоком, без загрузки таблицы в память
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export()
+    {
+        return KeysetResponses.ndjson(jsonMapper, service::exportAll);
     }
 
     @GetMapping("/{id}")
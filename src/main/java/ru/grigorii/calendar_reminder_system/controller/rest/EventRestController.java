@@ -1,12 +1,21 @@
 package ru.grigorii.calendar_reminder_system.controller.rest;
 
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.grigorii.calendar_reminder_system.controller.support.ConditionalRequests;
 import ru.grigorii.calendar_reminder_system.dto.EventDto;
 import ru.grigorii.calendar_reminder_system.service.rest.EventRestService;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -18,22 +27,50 @@ import java.util.List;
 public class EventRestController
 {
     private final EventRestService eventService;
+    private final JsonMapper jsonMapper;
 
-    public EventRestController(EventRestService eventService)
+    public EventRestController(EventRestService eventService,
+                               JsonMapper jsonMapper)
     {
         this.eventService = eventService;
+        this.jsonMapper = jsonMapper;
     }
 
+    /**
+     * Страница по ключу: записи с id больше after, упорядоченные по id. Если страница заполнена,
+     * курсор следующей страницы возвращается в заголовке X-Next-Cursor
+     */
     @GetMapping
-    public List<EventDto> getAll()
+    public ResponseEntity<List<EventDto>> getAll(@RequestParam(defaultValue = "0") Long after,
+                                                 @RequestParam(defaultValue = "100") int limit)
     {
-        return eventService.findAll();
+        int size = KeysetResponses.limit(limit);
+        return KeysetResponses.page(eventService.findPage(after, size), size, EventDto::id);
     }
 
+    /**
+     * Выгрузка всех записей в NDJSON (одна запись JSON на строку) потоком, без загрузки таблицы в память
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export()
+    {
+        return KeysetResponses.ndjson(jsonMapper, eventService::exportAll);
+    }
+
+    /**
+     * Запись по id. Условный запрос с актуальной версией получает 304 без загрузки записи
+     */
     @GetMapping("/{id}")
-    public EventDto getById(@PathVariable Long id)
+    public ResponseEntity<EventDto> getById(@PathVariable Long id, WebRequest request)
     {
-        return eventService.findById(id);
+        if (ConditionalRequests.notModified(request, eventService.findVersion(id)))
+        {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(ConditionalRequests.REVALIDATE)
+                .body(eventService.findById(id));
     }
 
     @PostMapping
@@ -43,10 +80,38 @@ public class EventRestController
         return eventService.create(dto);
     }
 
+    /**
+     * Пакетное создание событий одним запросом
+     */
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<EventDto> createAll(@RequestBody List<@Valid EventDto> dtos)
+    {
+        return eventService.createAll(dtos);
+    }
+
+    /**
+     * Изменение записи. С заголовком If-Match (ETag из GET) изменение применяется, только если запись
+     * не менялась с тех пор, иначе - 412
+     */
     @PutMapping("/{id}")
-    public EventDto update(@PathVariable Long id, @RequestBody @Valid EventDto dto)
+    public EventDto update(@PathVariable Long id,
+                           @RequestBody @Valid EventDto dto,
+                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+    {
+        return eventService.update(id, dto, ConditionalRequests.expectedVersion(ifMatch));
+    }
+
+    /**
+     * Изменение одного вхождения повторяющегося события (start - время вхождения по расписанию серии):
+     * вхождение сохраняется событием-исключением, остальные вхождения серии не меняются
+     */
+    @PutMapping("/{id}/occurrences/{start}")
+    public EventDto updateOccurrence(@PathVariable Long id,
+                                     @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                     @RequestBody @Valid EventDto dto)
     {
-        return eventService.update(id, dto);
+        return eventService.updateOccurrence(id, start, dto);
     }
 
     @DeleteMapping("/{id}")
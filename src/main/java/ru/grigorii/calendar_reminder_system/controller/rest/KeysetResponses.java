@@ -0,0 +1,89 @@
+package ru.grigorii.calendar_reminder_system.controller.rest;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Общие ответы REST API для постраничной выдачи по ключу (id > after) и потоковой выгрузки в NDJSON
+ */
+final class KeysetResponses
+{
+    /**
+     * Заголовок с курсором следующей страницы. Отсутствует, если страница последняя
+     */
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    static final int MAX_LIMIT = 1000;
+
+    private KeysetResponses()
+    {
+    }
+
+    /**
+     * Приводит запрошенный размер страницы к диапазону [1, MAX_LIMIT]
+     */
+    static int limit(int requested)
+    {
+        return Math.clamp(requested, 1, MAX_LIMIT);
+    }
+
+    /**
+     * Страница с курсором следующей страницы в заголовке, если страница заполнена полностью
+     *
+     * @param items страница, упорядоченная по id
+     * @param limit размер страницы
+     * @param id    id элемента
+     */
+    static <D> ResponseEntity<List<D>> page(List<D> items, int limit, Function<D, Long> id)
+    {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (items.size() == limit)
+        {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(id.apply(items.getLast())));
+        }
+        return response.body(items);
+    }
+
+    /**
+     * Потоковая выгрузка: каждый DTO пишется отдельной строкой JSON по мере чтения из базы
+     *
+     * @param jsonMapper маппер JSON
+     * @param export     выгрузка, передающая DTO в получателя
+     */
+    static <D> ResponseEntity<StreamingResponseBody> ndjson(JsonMapper jsonMapper, Consumer<Consumer<D>> export)
+    {
+        StreamingResponseBody body = out ->
+        {
+            OutputStream buffered = new BufferedOutputStream(out);
+            export.accept(dto -> writeLine(buffered, jsonMapper.writeValueAsBytes(dto)));
+            buffered.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private static void writeLine(OutputStream out, byte[] json)
+    {
+        try
+        {
+            out.write(json);
+            out.write('\n');
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
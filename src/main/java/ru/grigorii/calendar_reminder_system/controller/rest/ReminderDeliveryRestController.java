@@ -0,0 +1,58 @@
+package ru.grigorii.calendar_reminder_system.controller.rest;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import ru.grigorii.calendar_reminder_system.dto.DeadLetterDto;
+import ru.grigorii.calendar_reminder_system.dto.DeadLetterReplayDto;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+import ru.grigorii.calendar_reminder_system.service.rest.ReminderDeliveryRestService;
+
+import java.util.List;
+
+/**
+ * Контроллер для REST API доставок напоминаний (dead-letter и повторная отправка), доступен только админу
+ */
+@RestController
+@RequestMapping("/api/admin/reminder-deliveries")
+@PreAuthorize("hasRole('ADMIN')")
+public class ReminderDeliveryRestController
+{
+
+    private final ReminderDeliveryRestService service;
+
+    public ReminderDeliveryRestController(ReminderDeliveryRestService service)
+    {
+        this.service = service;
+    }
+
+    /**
+     * Страница dead-letter по ключу, при необходимости по одному каналу. Курсор следующей страницы - в заголовке
+     * X-Next-Cursor
+     */
+    @GetMapping("/dead-letters")
+    public ResponseEntity<List<DeadLetterDto>> getDeadLetters(@RequestParam(required = false) ReminderChannel channel,
+                                                              @RequestParam(defaultValue = "0") Long after,
+                                                              @RequestParam(defaultValue = "100") int limit)
+    {
+        int size = KeysetResponses.limit(limit);
+        return KeysetResponses.page(service.findDeadLetters(channel, after, size), size, DeadLetterDto::id);
+    }
+
+    /**
+     * Возврат первых limit доставок из dead-letter в outbox. Попытки расставляются с ограниченной частотой,
+     * ответ показывает, до какого времени они растянуты
+     */
+    @PostMapping("/dead-letters/replay")
+    public DeadLetterReplayDto replay(@RequestParam(required = false) ReminderChannel channel,
+                                      @RequestParam(defaultValue = "1000") int limit)
+    {
+        return service.replay(channel, KeysetResponses.limit(limit));
+    }
+
+    @PostMapping("/dead-letters/{id}/replay")
+    public DeadLetterReplayDto replayOne(@PathVariable Long id)
+    {
+        return service.replay(id);
+    }
+}
@@ -1,11 +1,18 @@
 package ru.grigorii.calendar_reminder_system.controller.rest;
 
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.grigorii.calendar_reminder_system.controller.support.ConditionalRequests;
 import ru.grigorii.calendar_reminder_system.dto.ReminderDto;
 import ru.grigorii.calendar_reminder_system.service.rest.ReminderRestService;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.util.List;
 
@@ -19,22 +26,50 @@ public class ReminderRestController
 {
 
     private final ReminderRestService service;
+    private final JsonMapper jsonMapper;
 
-    public ReminderRestController(ReminderRestService service)
+    public ReminderRestController(ReminderRestService service,
+                                  JsonMapper jsonMapper)
     {
         this.service = service;
+        this.jsonMapper = jsonMapper;
     }
 
+    /**
+     * Страница по ключу: записи с id больше after, упорядоченные по id. Если страница заполнена,
+     * курсор следующей страницы возвращается в заголовке X-Next-Cursor
+     */
     @GetMapping
-    public List<ReminderDto> getAll()
+    public ResponseEntity<List<ReminderDto>> getAll(@RequestParam(defaultValue = "0") Long after,
+                                                    @RequestParam(defaultValue = "100") int limit)
     {
-        return service.findAll();
+        int size = KeysetResponses.limit(limit);
+        return KeysetResponses.page(service.findPage(after, size), size, ReminderDto::id);
     }
 
+    /**
+     * Выгрузка всех записей в NDJSON (одна запись JSON на строку) потоком, без загрузки таблицы в память
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export()
+    {
+        return KeysetResponses.ndjson(jsonMapper, service::exportAll);
+    }
+
+    /**
+     * Запись по id. Условный запрос с актуальной версией получает 304 без загрузки записи
+     */
     @GetMapping("/{id}")
-    public ReminderDto getById(@PathVariable Long id)
+    public ResponseEntity<ReminderDto> getById(@PathVariable Long id, WebRequest request)
     {
-        return service.findById(id);
+        if (ConditionalRequests.notModified(request, service.findVersion(id)))
+        {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(ConditionalRequests.REVALIDATE)
+                .body(service.findById(id));
     }
 
     @PostMapping
@@ -46,13 +81,18 @@ public class ReminderRestController
         return service.create(dto);
     }
 
+    /**
+     * Изменение записи. С заголовком If-Match (ETag из GET) изменение применяется, только если запись
+     * не менялась с тех пор, иначе - 412
+     */
     @PutMapping("/{id}")
     public ReminderDto update(
             @PathVariable Long id,
-            @RequestBody @Valid ReminderDto dto
+            @RequestBody @Valid ReminderDto dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     )
     {
-        return service.update(id, dto);
+        return service.update(id, dto, ConditionalRequests.expectedVersion(ifMatch));
     }
 
     @DeleteMapping("/{id}")
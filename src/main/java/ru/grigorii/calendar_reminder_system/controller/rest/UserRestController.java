@@ -3,10 +3,14 @@ package ru.grigorii.calendar_reminder_system.controller.rest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.grigorii.calendar_reminder_system.dto.UserDto;
 import ru.grigorii.calendar_reminder_system.service.rest.UserRestService;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.util.List;
 
@@ -19,17 +23,35 @@ import java.util.List;
 public class UserRestController
 {
     private final UserRestService userService;
+    private final JsonMapper jsonMapper;
 
     @Autowired
-    public UserRestController(UserRestService userService)
+    public UserRestController(UserRestService userService,
+                              JsonMapper jsonMapper)
     {
         this.userService = userService;
+        this.jsonMapper = jsonMapper;
     }
 
+    /**
+     * Страница по ключу: записи с id больше after, упорядоченные по id. Если страница заполнена,
+     * курсор следующей страницы возвращается в заголовке X-Next-Cursor
+     */
     @GetMapping
-    public List<UserDto> getAll()
+    public ResponseEntity<List<UserDto>> getAll(@RequestParam(defaultValue = "0") Long after,
+                                                @RequestParam(defaultValue = "100") int limit)
     {
-        return userService.findAll();
+        int size = KeysetResponses.limit(limit);
+        return KeysetResponses.page(userService.findPage(after, size), size, UserDto::id);
+    }
+
+    /**
+     * Выгрузка всех записей в NDJSON (одна запись JSON на строку) потоком, без загрузки таблицы в память
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export()
+    {
+        return KeysetResponses.ndjson(jsonMapper, userService::exportAll);
     }
 
     @GetMapping("/{id}")
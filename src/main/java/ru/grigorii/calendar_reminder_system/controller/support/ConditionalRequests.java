@@ -0,0 +1,81 @@
+package ru.grigorii.calendar_reminder_system.controller.support;
+
+import org.springframework.http.CacheControl;
+import org.springframework.web.context.request.WebRequest;
+import ru.grigorii.calendar_reminder_system.dto.VersionDto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Условные GET-запросы (If-None-Match / If-Modified-Since) по версии ресурса. <br/>
+ * Версия читается дешёвым запросом до загрузки самого ресурса, поэтому при совпадении версии контроллер
+ * отвечает 304, не загружая данные и не формируя тело. Если ресурс изменится между чтением версии и данных,
+ * клиент получит новые данные со старым ETag и просто загрузит их ещё раз при следующем запросе
+ */
+public final class ConditionalRequests
+{
+    /**
+     * Ответ хранится только в кэше клиента и перед каждым использованием сверяется с сервером
+     */
+    public static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalRequests()
+    {
+    }
+
+    /**
+     * Проверяет версию ресурса. Если у клиента актуальная версия, ответ уже переведён в 304 и обработчику
+     * нужно вернуть null; иначе в ответ добавлены ETag и Last-Modified
+     *
+     * @param request запрос
+     * @param version версия ресурса
+     * @return true, если ресурс не изменился
+     */
+    public static boolean notModified(WebRequest request, VersionDto version)
+    {
+        return notModified(request, version.tag(), version.lastModified());
+    }
+
+    /**
+     * То же по отдельному тегу, когда ответ зависит не только от версии ресурса (например, страница)
+     */
+    public static boolean notModified(WebRequest request, String tag, LocalDateTime lastModified)
+    {
+        long timestamp = lastModified != null
+                ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1;
+        return request.checkNotModified(tag, timestamp);
+    }
+
+    /**
+     * Версия записи из заголовка If-Match (ETag, выданный GET по id)
+     *
+     * @param ifMatch значение заголовка
+     * @return версия или null, если заголовка нет или он равен *
+     */
+    public static Long expectedVersion(String ifMatch)
+    {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*"))
+        {
+            return null;
+        }
+
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/"))
+        {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+
+        try
+        {
+            return Long.parseLong(tag);
+        }
+        catch (NumberFormatException e)
+        {
+            // чужой тег не совпадает ни с одной версией
+            return -1L;
+        }
+    }
+}
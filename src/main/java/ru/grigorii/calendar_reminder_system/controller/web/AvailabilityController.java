@@ -0,0 +1,85 @@
+package ru.grigorii.calendar_reminder_system.controller.web;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import ru.grigorii.calendar_reminder_system.dto.BusyIntervalDto;
+import ru.grigorii.calendar_reminder_system.dto.TimeSlotDto;
+import ru.grigorii.calendar_reminder_system.security.AuthenticatedUser;
+import ru.grigorii.calendar_reminder_system.security.CurrentUser;
+import ru.grigorii.calendar_reminder_system.service.mvc.AvailabilityMvcService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Контроллер WEB: занятость текущего пользователя (JSON) - пересечения с окном и свободные промежутки
+ */
+@Controller
+@RequestMapping("/availability")
+public class AvailabilityController
+{
+    /**
+     * Максимальная длина окна запроса
+     */
+    private static final Duration MAX_WINDOW = Duration.ofDays(366);
+
+    private final AvailabilityMvcService availabilityService;
+
+    @Autowired
+    public AvailabilityController(AvailabilityMvcService availabilityService)
+    {
+        this.availabilityService = availabilityService;
+    }
+
+    /**
+     * Занятые интервалы, пересекающие окно [from, to)
+     */
+    @GetMapping("/busy")
+    @ResponseBody
+    public ResponseEntity<List<BusyIntervalDto>> busy(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @CurrentUser AuthenticatedUser user
+    )
+    {
+        if (!isValidWindow(from, to))
+        {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(availabilityService.findBusy(user.getId(), from, to));
+    }
+
+    /**
+     * Свободные промежутки окна [from, to) длиной не меньше minutes минут
+     */
+    @GetMapping("/free")
+    @ResponseBody
+    public ResponseEntity<List<TimeSlotDto>> free(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "30") long minutes,
+            @CurrentUser AuthenticatedUser user
+    )
+    {
+        if (!isValidWindow(from, to) || minutes <= 0)
+        {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(
+                availabilityService.findFreeSlots(user.getId(), from, to, Duration.ofMinutes(minutes)));
+    }
+
+    private static boolean isValidWindow(LocalDateTime from, LocalDateTime to)
+    {
+        return from.isBefore(to) && Duration.between(from, to).compareTo(MAX_WINDOW) <= 0;
+    }
+}
@@ -1,19 +1,30 @@
 package ru.grigorii.calendar_reminder_system.controller.web;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.grigorii.calendar_reminder_system.controller.support.ConditionalRequests;
 import ru.grigorii.calendar_reminder_system.dto.CalendarDto;
+import ru.grigorii.calendar_reminder_system.dto.CalendarViewDto;
 import ru.grigorii.calendar_reminder_system.dto.EventDto;
-import ru.grigorii.calendar_reminder_system.dto.UserDto;
+import ru.grigorii.calendar_reminder_system.dto.VersionDto;
+import ru.grigorii.calendar_reminder_system.security.AuthenticatedUser;
+import ru.grigorii.calendar_reminder_system.security.CurrentUser;
+import ru.grigorii.calendar_reminder_system.service.exception.InvalidRecurrenceRuleException;
+import ru.grigorii.calendar_reminder_system.service.mvc.AvailabilityMvcService;
 import ru.grigorii.calendar_reminder_system.service.mvc.CalendarMvcService;
 import ru.grigorii.calendar_reminder_system.service.mvc.EventMvcService;
-import ru.grigorii.calendar_reminder_system.service.mvc.UserMvcService;
+import ru.grigorii.calendar_reminder_system.service.mvc.IcsFeedMvcService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 /**
  * Контроллер WEB: календарь. Приведены операции как над календарём, так и над событиями (создание, помечивание
@@ -26,39 +37,60 @@ public class CalendarController
 
     private final CalendarMvcService calendarService;
     private final EventMvcService eventService;
-    private final UserMvcService userService;
+    private final AvailabilityMvcService availabilityService;
+    private final IcsFeedMvcService feedService;
 
     @Autowired
     public CalendarController(CalendarMvcService calendarService,
                               EventMvcService eventService,
-                              UserMvcService userService)
+                              AvailabilityMvcService availabilityService,
+                              IcsFeedMvcService feedService)
     {
         this.calendarService = calendarService;
         this.eventService = eventService;
-        this.userService = userService;
+        this.availabilityService = availabilityService;
+        this.feedService = feedService;
     }
 
     /**
-     * Страница календаря
+     * Страница календаря. Показываются только события, начинающиеся в выбранном окне (месяц или неделя). <br/>
+     * Условный запрос с актуальной версией календаря получает 304 без загрузки событий и отрисовки шаблона
      * @param id ID календаря
-     * @param principal информация о пользователе
+     * @param view режим просмотра (MONTH / WEEK)
+     * @param date опорная дата окна, по умолчанию сегодня
+     * @param user текущий пользователь
+     * @param request запрос (для проверки If-None-Match / If-Modified-Since)
+     * @param response ответ
      * @param model модель
-     * @return страница
+     * @return страница или null, если у браузера актуальная версия
      */
     @GetMapping("/{id}")
     public String calendarPage(@PathVariable Long id,
-                               @AuthenticationPrincipal UserDetails principal,
+                               @RequestParam(defaultValue = "MONTH") CalendarViewDto.Mode view,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                               @CurrentUser AuthenticatedUser user,
+                               WebRequest request,
+                               HttpServletResponse response,
                                Model model)
     {
 
-        UserDto user = userService.getByEmail(principal.getUsername());
-        Long userId = user.id();
+        Long userId = user.getId();
+        LocalDate day = date != null ? date : LocalDate.now();
+
+        // страница зависит ещё от окна просмотра и счётчика уведомлений в шапке
+        VersionDto version = calendarService.findVersionForOwner(id, userId);
+        String tag = version.tag() + "-" + view + "-" + day + "-" + model.getAttribute("notificationCount");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, ConditionalRequests.REVALIDATE.getHeaderValue());
+        if (ConditionalRequests.notModified(request, tag, version.lastModified()))
+        {
+            return null;
+        }
 
         CalendarDto calendar = calendarService.findByIdForOwner(id, userId);
 
         model.addAttribute("calendar", calendar);
-        model.addAttribute("events",
-                eventService.findByCalendar(id, userId));
+        model.addAttribute("feedToken", feedService.findFeedToken(id, userId).orElse(null));
+        addEvents(model, id, CalendarViewDto.of(view, day), userId);
 
         model.addAttribute("event", EventDto.forCreate(id));
 
@@ -68,12 +100,10 @@ public class CalendarController
     @PostMapping("/{id}/update")
     public String updateCalendar(@PathVariable Long id,
                                  @ModelAttribute CalendarDto dto,
-                                 @AuthenticationPrincipal UserDetails principal)
+                                 @CurrentUser AuthenticatedUser user)
     {
 
-        UserDto user = userService.getByEmail(principal.getUsername());
-
-        calendarService.updateForOwner(id, dto, user.id());
+        calendarService.updateForOwner(id, dto, user.getId());
 
         return "redirect:/calendar/{id}?updated=true";
     }
@@ -81,12 +111,10 @@ public class CalendarController
 
     @PostMapping("/{id}/delete")
     public String deleteCalendar(@PathVariable Long id,
-                                 @AuthenticationPrincipal UserDetails principal)
+                                 @CurrentUser AuthenticatedUser user)
     {
 
-        UserDto user = userService.getByEmail(principal.getUsername());
-
-        calendarService.deleteById(id, user.id());
+        calendarService.deleteById(id, user.getId());
 
         return "redirect:/calendars?deleted=true";
     }
@@ -95,63 +123,127 @@ public class CalendarController
     public String createEvent(@PathVariable Long id,
                               @Valid @ModelAttribute("event") EventDto dto,
                               BindingResult result,
-                              @AuthenticationPrincipal UserDetails principal,
+                              @CurrentUser AuthenticatedUser user,
                               Model model)
     {
 
-        UserDto user = userService.getByEmail(principal.getUsername());
-        Long userId = user.id();
+        Long userId = user.getId();
 
-        if (result.hasErrors())
+        if (!result.hasErrors())
         {
-            model.addAttribute("calendar",
-                    calendarService.findByIdForOwner(id, userId));
-            model.addAttribute("events",
-                    eventService.findByCalendar(id, userId));
-            return "calendar";
+            try
+            {
+                int conflicts = countConflicts(dto, userId);
+                eventService.create(dto, userId);
+                return "redirect:/calendar/{id}?eventCreated=true&date=" + dto.startTime().toLocalDate()
+                        + (conflicts > 0 ? "&conflicts=" + conflicts : "");
+            }
+            catch (InvalidRecurrenceRuleException ex)
+            {
+                result.rejectValue("recurrence.rrule", "rrule.invalid", ex.getMessage());
+            }
         }
 
-        eventService.create(dto, userId);
-
-        return "redirect:/calendar/{id}?eventCreated=true";
+        model.addAttribute("calendar",
+                calendarService.findByIdForOwner(id, userId));
+        model.addAttribute("feedToken", feedService.findFeedToken(id, userId).orElse(null));
+        LocalDate date = dto.startTime() != null ? dto.startTime().toLocalDate() : LocalDate.now();
+        addEvents(model, id, CalendarViewDto.of(CalendarViewDto.Mode.MONTH, date), userId);
+        return "calendar";
     }
 
     @PostMapping("/{calendarId}/events/{eventId}/delete")
     public String deleteEvent(@PathVariable Long calendarId,
                               @PathVariable Long eventId,
-                              @AuthenticationPrincipal UserDetails principal)
+                              @RequestParam(defaultValue = "MONTH") CalendarViewDto.Mode view,
+                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                              @CurrentUser AuthenticatedUser user)
     {
 
-        UserDto user = userService.getByEmail(principal.getUsername());
+        eventService.delete(eventId, user.getId());
 
-        eventService.delete(eventId, user.id());
-
-        return "redirect:/calendar/{calendarId}?eventDeleted=true";
+        return "redirect:/calendar/{calendarId}?eventDeleted=true" + viewQuery(view, date, "&");
     }
 
+    /**
+     * Выполнение события (для серии - её текущего вхождения)
+     * @param start время вхождения, которое видел пользователь: с ним повторная отправка формы не выполнит
+     *              следующее вхождение серии
+     */
     @PostMapping("/{calendarId}/events/{eventId}/done")
     public String markEventDone(@PathVariable Long calendarId,
                                 @PathVariable Long eventId,
-                                @AuthenticationPrincipal UserDetails principal)
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                @RequestParam(defaultValue = "MONTH") CalendarViewDto.Mode view,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                @CurrentUser AuthenticatedUser user)
     {
 
-        UserDto user = userService.getByEmail(principal.getUsername());
+        if (start != null)
+        {
+            eventService.markOccurrenceDone(eventId, start, user.getId());
+        }
+        else
+        {
+            eventService.markDone(eventId, user.getId());
+        }
 
-        eventService.markDone(eventId, user.id());
+        return "redirect:/calendar/{calendarId}" + viewQuery(view, date, "?");
+    }
 
-        return "redirect:/calendar/{calendarId}";
+    /**
+     * Выполнение вычисленного вхождения повторяющегося события
+     * @param start время начала вхождения
+     */
+    @PostMapping("/{calendarId}/events/{eventId}/occurrences/done")
+    public String markOccurrenceDone(@PathVariable Long calendarId,
+                                     @PathVariable Long eventId,
+                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                     @RequestParam(defaultValue = "MONTH") CalendarViewDto.Mode view,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                     @CurrentUser AuthenticatedUser user)
+    {
+
+        eventService.markOccurrenceDone(eventId, start, user.getId());
+
+        return "redirect:/calendar/{calendarId}" + viewQuery(view, date, "?");
     }
 
     @PostMapping("/{calendarId}/events/{eventId}/undone")
     public String markEventUndone(@PathVariable Long calendarId,
                                   @PathVariable Long eventId,
-                                  @AuthenticationPrincipal UserDetails principal)
+                                  @RequestParam(defaultValue = "MONTH") CalendarViewDto.Mode view,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                  @CurrentUser AuthenticatedUser user)
     {
 
-        UserDto user = userService.getByEmail(principal.getUsername());
+        eventService.markUndone(eventId, user.getId());
 
-        eventService.markUndone(eventId, user.id());
+        return "redirect:/calendar/{calendarId}" + viewQuery(view, date, "?");
+    }
+
+    private void addEvents(Model model, Long calendarId, CalendarViewDto view, Long userId)
+    {
+        model.addAttribute("view", view);
+        model.addAttribute("events",
+                eventService.findOccurrencesInWindow(calendarId, view, userId));
+    }
 
-        return "redirect:/calendar/{calendarId}";
+    /**
+     * Число событий пользователя (во всех календарях), с которыми пересекается создаваемое событие
+     */
+    private int countConflicts(EventDto dto, Long userId)
+    {
+        if (dto.endTime() == null || !dto.endTime().isAfter(dto.startTime()))
+        {
+            return 0;
+        }
+        return availabilityService.findBusy(userId, dto.startTime(), dto.endTime()).size();
+    }
+
+    private static String viewQuery(CalendarViewDto.Mode view, LocalDate date, String separator)
+    {
+        String query = separator + "view=" + view;
+        return date != null ? query + "&date=" + date : query;
     }
 }
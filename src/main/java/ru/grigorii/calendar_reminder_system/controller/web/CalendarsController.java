@@ -1,15 +1,13 @@
 package ru.grigorii.calendar_reminder_system.controller.web;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import ru.grigorii.calendar_reminder_system.dto.CalendarDto;
-import ru.grigorii.calendar_reminder_system.dto.UserDto;
+import ru.grigorii.calendar_reminder_system.security.AuthenticatedUser;
+import ru.grigorii.calendar_reminder_system.security.CurrentUser;
 import ru.grigorii.calendar_reminder_system.service.mvc.CalendarMvcService;
-import ru.grigorii.calendar_reminder_system.service.mvc.UserMvcService;
 
 /**
  * Контроллер WEB: календари
@@ -20,26 +18,22 @@ public class CalendarsController
 {
 
     private final CalendarMvcService calendarService;
-    private final UserMvcService userService;
 
     @Autowired
-    public CalendarsController(CalendarMvcService calendarService, UserMvcService userService)
+    public CalendarsController(CalendarMvcService calendarService)
     {
         this.calendarService = calendarService;
-        this.userService = userService;
     }
 
     @GetMapping
     public String calendars(Model model,
-                            @AuthenticationPrincipal UserDetails principal)
+                            @CurrentUser AuthenticatedUser user)
     {
 
-        UserDto user = userService.getByEmail(principal.getUsername());
-
         model.addAttribute("calendar",
-                CalendarDto.forCreate("", "", user.id()));
+                CalendarDto.forCreate("", "", user.getId()));
         model.addAttribute("calendars",
-                calendarService.findByOwner(user.id()));
+                calendarService.findByOwner(user.getId()));
 
         return "calendars";
     }
@@ -53,11 +47,10 @@ public class CalendarsController
 
     @PostMapping("/{id}/delete")
     public String delete(@PathVariable Long id,
-                         @AuthenticationPrincipal UserDetails principal)
+                         @CurrentUser AuthenticatedUser user)
     {
 
-        UserDto user = userService.getByEmail(principal.getUsername());
-        calendarService.deleteById(id, user.id());
+        calendarService.deleteById(id, user.getId());
 
         return "redirect:/calendars?deleted=true";
     }
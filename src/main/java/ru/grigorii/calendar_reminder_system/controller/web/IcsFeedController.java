@@ -0,0 +1,116 @@
+package ru.grigorii.calendar_reminder_system.controller.web;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.grigorii.calendar_reminder_system.controller.support.ConditionalRequests;
+import ru.grigorii.calendar_reminder_system.dto.IcsFeedDto;
+import ru.grigorii.calendar_reminder_system.security.AuthenticatedUser;
+import ru.grigorii.calendar_reminder_system.security.CurrentUser;
+import ru.grigorii.calendar_reminder_system.service.mvc.IcsFeedMvcService;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Контроллер WEB: выгрузка календаря в iCalendar (.ics) и лента для подписки по секретной ссылке. <br/>
+ * Ответ пишется потоком прямо из курсора базы. ETag и Last-Modified строятся по сводной версии календаря и его
+ * событий, поэтому опрашивающие клиенты без изменений получают 304 без выгрузки
+ */
+@Controller
+public class IcsFeedController
+{
+    static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
+    private final IcsFeedMvcService feedService;
+
+    @Autowired
+    public IcsFeedController(IcsFeedMvcService feedService)
+    {
+        this.feedService = feedService;
+    }
+
+    /**
+     * Выгрузка календаря владельцем
+     */
+    @GetMapping("/calendar/{id}/export.ics")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable Long id,
+                                                        @CurrentUser AuthenticatedUser user,
+                                                        WebRequest request)
+    {
+        return ics(feedService.findFeed(id, user.getId()), request, true);
+    }
+
+    /**
+     * Лента для подписки: доступна без входа, по токену
+     */
+    @GetMapping("/feeds/{token}.ics")
+    public ResponseEntity<StreamingResponseBody> feed(@PathVariable String token,
+                                                      WebRequest request)
+    {
+        Optional<IcsFeedDto> feed = feedService.findFeedByToken(token);
+        if (feed.isEmpty())
+        {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ics(feed.get(), request, false);
+    }
+
+    /**
+     * Включение подписки или смена ссылки (прежняя перестаёт работать)
+     */
+    @PostMapping("/calendar/{id}/feed")
+    public String resetFeed(@PathVariable Long id,
+                            @CurrentUser AuthenticatedUser user)
+    {
+
+        feedService.resetFeedToken(id, user.getId());
+
+        return "redirect:/calendar/{id}?feedReset=true";
+    }
+
+    /**
+     * Условный ответ: 304, если у клиента актуальная версия, иначе поток .ics. <br/>
+     * 304 возвращается явным ответом, а не null: null внутри Optional.map превратился бы в 404
+     */
+    private ResponseEntity<StreamingResponseBody> ics(IcsFeedDto feed, WebRequest request, boolean attachment)
+    {
+        if (ConditionalRequests.notModified(request, feed.version()))
+        {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+
+        StreamingResponseBody body = out ->
+        {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            feedService.export(feed.calendarId(), writer);
+            writer.flush();
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(TEXT_CALENDAR)
+                .cacheControl(CacheControl.noCache());
+        if (attachment)
+        {
+            response.header(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.attachment().filename("calendar-" + feed.calendarId() + ".ics").build().toString());
+        }
+        return response.body(body);
+    }
+}
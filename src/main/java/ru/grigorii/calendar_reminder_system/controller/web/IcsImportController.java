@@ -0,0 +1,73 @@
+package ru.grigorii.calendar_reminder_system.controller.web;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import ru.grigorii.calendar_reminder_system.dto.IcsImportProgressDto;
+import ru.grigorii.calendar_reminder_system.security.AuthenticatedUser;
+import ru.grigorii.calendar_reminder_system.security.CurrentUser;
+import ru.grigorii.calendar_reminder_system.service.mvc.IcsImportMvcService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Контроллер WEB: импорт файла iCalendar (.ics) в календарь. Импорт идёт в фоне, прогресс отдаётся в JSON
+ */
+@Controller
+@RequestMapping("/calendar/{calendarId}/import")
+public class IcsImportController
+{
+
+    private final IcsImportMvcService importService;
+
+    @Autowired
+    public IcsImportController(IcsImportMvcService importService)
+    {
+        this.importService = importService;
+    }
+
+    /**
+     * Загрузка файла. Файл сохраняется во временный, чтобы импорт пережил запрос
+     */
+    @PostMapping
+    public String importFile(@PathVariable Long calendarId,
+                             @RequestParam("file") MultipartFile file,
+                             @CurrentUser AuthenticatedUser user) throws IOException
+    {
+
+        if (file.isEmpty())
+        {
+            return "redirect:/calendar/{calendarId}?importEmpty=true";
+        }
+
+        Path upload = Files.createTempFile("ics-import-", ".ics");
+        try
+        {
+            file.transferTo(upload);
+            IcsImportProgressDto progress = importService.start(calendarId, upload, user.getId());
+            return "redirect:/calendar/{calendarId}?importId=" + progress.id();
+        }
+        catch (IOException | RuntimeException e)
+        {
+            Files.deleteIfExists(upload);
+            throw e;
+        }
+    }
+
+    /**
+     * Прогресс импорта
+     */
+    @GetMapping("/{importId}")
+    @ResponseBody
+    public ResponseEntity<IcsImportProgressDto> progress(@PathVariable Long calendarId,
+                                                         @PathVariable String importId,
+                                                         @CurrentUser AuthenticatedUser user)
+    {
+        return ResponseEntity.of(importService.find(importId, user.getId())
+                .filter(progress -> progress.calendarId().equals(calendarId)));
+    }
+}
@@ -1,17 +1,19 @@
 package ru.grigorii.calendar_reminder_system.controller.web;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
-import ru.grigorii.calendar_reminder_system.dto.UserDto;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.grigorii.calendar_reminder_system.security.AuthenticatedUser;
+import ru.grigorii.calendar_reminder_system.security.CurrentUser;
 import ru.grigorii.calendar_reminder_system.service.mvc.ReminderMvcService;
-import ru.grigorii.calendar_reminder_system.service.mvc.UserMvcService;
+import ru.grigorii.calendar_reminder_system.service.notification.NotificationStreamRegistry;
 
 /**
  * Контроллер WEB: напоминания
@@ -21,26 +23,25 @@ import ru.grigorii.calendar_reminder_system.service.mvc.UserMvcService;
 public class NotificationController
 {
     private final ReminderMvcService reminderService;
-    private final UserMvcService userService;
+    private final NotificationStreamRegistry streamRegistry;
 
     @Autowired
-    public NotificationController(ReminderMvcService reminderService, UserMvcService userService)
+    public NotificationController(ReminderMvcService reminderService,
+                                  NotificationStreamRegistry streamRegistry)
     {
         this.reminderService = reminderService;
-        this.userService = userService;
+        this.streamRegistry = streamRegistry;
     }
 
     @GetMapping
     public String notifications(
-            @AuthenticationPrincipal UserDetails principal,
+            @CurrentUser AuthenticatedUser user,
             Model model
     )
     {
-        UserDto user = userService.getByEmail(principal.getUsername());
-
         model.addAttribute(
                 "reminders",
-                reminderService.findActive(user.id())
+                reminderService.findActive(user.getId())
         );
 
         return "notifications";
@@ -49,12 +50,23 @@ public class NotificationController
     @PostMapping("/{id}/read")
     public String markRead(
             @PathVariable Long id,
-            @AuthenticationPrincipal UserDetails principal
+            @CurrentUser AuthenticatedUser user
     )
     {
-        UserDto user = userService.getByEmail(principal.getUsername());
-        reminderService.markAsRead(id, user.id());
+        reminderService.markAsRead(id, user.getId());
 
         return "redirect:/notifications";
     }
+
+    /**
+     * Поток SSE: наступившие напоминания и изменения значка уведомлений
+     * @param user текущий пользователь
+     * @return открытый поток
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter stream(@CurrentUser AuthenticatedUser user)
+    {
+        return streamRegistry.register(user.getId(), reminderService.countActive(user.getId()));
+    }
 }
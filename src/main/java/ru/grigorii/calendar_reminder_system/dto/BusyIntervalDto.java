@@ -0,0 +1,69 @@
+package ru.grigorii.calendar_reminder_system.dto;
+
+import ru.grigorii.calendar_reminder_system.model.Event;
+import ru.grigorii.calendar_reminder_system.repository.projection.BusyInterval;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * DTO занятого интервала пользователя: сохранённое событие или вычисленное вхождение повторяющегося события
+ * @param eventId id события; для вычисленного вхождения - id серии
+ * @param calendarId id календаря
+ * @param title название события
+ * @param start начало
+ * @param end конец (не включительно)
+ * @param virtual вычисленное вхождение серии
+ */
+public record BusyIntervalDto(
+        Long eventId,
+        Long calendarId,
+        String title,
+        LocalDateTime start,
+        LocalDateTime end,
+        boolean virtual
+)
+{
+    public static BusyIntervalDto fromInterval(BusyInterval interval)
+    {
+        return new BusyIntervalDto(
+                interval.eventId(),
+                interval.calendarId(),
+                interval.title(),
+                interval.start(),
+                interval.end(),
+                false
+        );
+    }
+
+    public static BusyIntervalDto fromEvent(Event event)
+    {
+        return new BusyIntervalDto(
+                event.getId(),
+                event.getCalendar().getId(),
+                event.getTitle(),
+                event.getStartTime(),
+                event.getEndTime() != null ? event.getEndTime() : event.getStartTime(),
+                false
+        );
+    }
+
+    /**
+     * Вычисленное вхождение серии, сдвинутое на время начала вхождения
+     */
+    public static BusyIntervalDto virtual(Event series, LocalDateTime start)
+    {
+        Duration length = series.getEndTime() != null
+                ? Duration.between(series.getStartTime(), series.getEndTime())
+                : Duration.ZERO;
+
+        return new BusyIntervalDto(
+                series.getId(),
+                series.getCalendar().getId(),
+                series.getTitle(),
+                start,
+                start.plus(length),
+                true
+        );
+    }
+}
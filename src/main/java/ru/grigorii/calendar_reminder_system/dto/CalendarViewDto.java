@@ -0,0 +1,78 @@
+package ru.grigorii.calendar_reminder_system.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * DTO окна просмотра календаря (месяц или неделя). Окно полуоткрытое: [from, to)
+ * @param mode режим просмотра
+ * @param date опорная дата, по которой построено окно
+ * @param from начало окна (включительно)
+ * @param to конец окна (не включительно)
+ * @param previous опорная дата предыдущего окна
+ * @param next опорная дата следующего окна
+ */
+public record CalendarViewDto(
+        Mode mode,
+        LocalDate date,
+        LocalDateTime from,
+        LocalDateTime to,
+        LocalDate previous,
+        LocalDate next
+)
+{
+    /**
+     * Режим просмотра календаря
+     */
+    public enum Mode
+    {
+        MONTH,
+        WEEK
+    }
+
+    /**
+     * Окно просмотра, содержащее опорную дату. Неделя начинается с понедельника
+     * @param mode режим просмотра
+     * @param date опорная дата
+     * @return окно просмотра
+     */
+    public static CalendarViewDto of(Mode mode, LocalDate date)
+    {
+        return switch (mode)
+        {
+            case MONTH ->
+            {
+                LocalDate first = date.withDayOfMonth(1);
+                yield new CalendarViewDto(
+                        mode,
+                        date,
+                        first.atStartOfDay(),
+                        first.plusMonths(1).atStartOfDay(),
+                        first.minusMonths(1),
+                        first.plusMonths(1));
+            }
+            case WEEK ->
+            {
+                LocalDate monday = date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                yield new CalendarViewDto(
+                        mode,
+                        date,
+                        monday.atStartOfDay(),
+                        monday.plusWeeks(1).atStartOfDay(),
+                        monday.minusWeeks(1),
+                        monday.plusWeeks(1));
+            }
+        };
+    }
+
+    /**
+     * Последний день окна (для отображения)
+     * @return последний день, входящий в окно
+     */
+    public LocalDate lastDay()
+    {
+        return to.toLocalDate().minusDays(1);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.grigorii.calendar_reminder_system.dto;
+
+import ru.grigorii.calendar_reminder_system.model.ReminderDeadLetter;
+import ru.grigorii.calendar_reminder_system.model.ReminderDelivery;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO доставки напоминания в dead-letter
+ * @param id id записи dead-letter
+ * @param deliveryId id доставки
+ * @param reminderId id напоминания
+ * @param channel канал доставки
+ * @param attempts сколько попыток было сделано
+ * @param reason причина последней неудачи
+ * @param createdAt когда доставка попала в dead-letter
+ */
+public record DeadLetterDto(
+        Long id,
+        Long deliveryId,
+        Long reminderId,
+        String channel,
+        int attempts,
+        String reason,
+        LocalDateTime createdAt
+)
+{
+    public static DeadLetterDto fromEntity(ReminderDeadLetter letter)
+    {
+        ReminderDelivery delivery = letter.getDelivery();
+
+        return new DeadLetterDto(
+                letter.getId(),
+                delivery.getId(),
+                delivery.getReminder().getId(),
+                delivery.getReminder().getChannel().name(),
+                letter.getAttempts(),
+                letter.getReason(),
+                letter.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,21 @@
+package ru.grigorii.calendar_reminder_system.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Результат повторной отправки из dead-letter
+ * @param replayed сколько доставок возвращено в outbox
+ * @param firstAttemptAt время первой из новых попыток (null, если ничего не возвращено)
+ * @param lastAttemptAt время последней из новых попыток (null, если ничего не возвращено)
+ */
+public record DeadLetterReplayDto(
+        int replayed,
+        LocalDateTime firstAttemptAt,
+        LocalDateTime lastAttemptAt
+)
+{
+    public static DeadLetterReplayDto empty()
+    {
+        return new DeadLetterReplayDto(0, null, null);
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import ru.grigorii.calendar_reminder_system.model.Event;
+import ru.grigorii.calendar_reminder_system.repository.projection.EventRow;
 
 import java.time.LocalDateTime;
 
@@ -88,4 +89,36 @@ public record EventDto(
                         : null
         );
     }
+
+    public static EventDto fromRow(EventRow row) {
+        return new EventDto(
+                row.id(),
+                row.title(),
+                row.description(),
+                row.startTime(),
+                row.endTime(),
+                row.priority().name(),
+                row.done(),
+                row.calendarId(),
+                row.createdAt(),
+                row.recurrenceId() != null
+                        ? new EventRecurrenceDto(
+                                row.recurrenceId(),
+                                row.id(),
+                                row.recurrenceFromDate(),
+                                row.recurrenceUntilDate(),
+                                row.recurrenceType(),
+                                row.recurrenceRule())
+                        : null,
+                row.reminderId() != null
+                        ? new ReminderDto(
+                                row.reminderId(),
+                                row.id(),
+                                row.remindAt(),
+                                row.reminderChannel().name(),
+                                row.reminderRead(),
+                                row.title())
+                        : null
+        );
+    }
 }
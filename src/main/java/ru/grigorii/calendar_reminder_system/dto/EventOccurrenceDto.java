@@ -0,0 +1,67 @@
+package ru.grigorii.calendar_reminder_system.dto;
+
+import ru.grigorii.calendar_reminder_system.model.Event;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * DTO вхождения события в окне просмотра календаря: либо сохранённое событие, либо вычисленное
+ * на лету вхождение повторяющегося события (virtual), у которого нет своей строки в базе
+ * @param id id события; для вычисленного вхождения - id серии
+ * @param title название
+ * @param description описание
+ * @param startTime время начала
+ * @param endTime время окончания
+ * @param priority приоритет
+ * @param done сделано / не сделано
+ * @param virtual вычисленное вхождение серии
+ */
+public record EventOccurrenceDto(
+        Long id,
+        String title,
+        String description,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        String priority,
+        boolean done,
+        boolean virtual
+)
+{
+    public static EventOccurrenceDto fromEvent(EventDto event)
+    {
+        return new EventOccurrenceDto(
+                event.id(),
+                event.title(),
+                event.description(),
+                event.startTime(),
+                event.endTime(),
+                event.priority(),
+                Boolean.TRUE.equals(event.done()),
+                false
+        );
+    }
+
+    /**
+     * Вычисленное вхождение серии: данные серии, сдвинутые на время начала вхождения
+     * @param series повторяющееся событие
+     * @param start время начала вхождения
+     */
+    public static EventOccurrenceDto virtual(Event series, LocalDateTime start)
+    {
+        LocalDateTime end = series.getEndTime() != null
+                ? start.plus(Duration.between(series.getStartTime(), series.getEndTime()))
+                : null;
+
+        return new EventOccurrenceDto(
+                series.getId(),
+                series.getTitle(),
+                series.getDescription(),
+                start,
+                end,
+                series.getPriority().name(),
+                false,
+                true
+        );
+    }
+}
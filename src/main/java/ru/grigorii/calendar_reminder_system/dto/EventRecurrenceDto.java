@@ -1,6 +1,7 @@
 package ru.grigorii.calendar_reminder_system.dto;
 
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import ru.grigorii.calendar_reminder_system.dto.validation_groups.OnAdmin;
 import ru.grigorii.calendar_reminder_system.model.EventRecurrence;
 import ru.grigorii.calendar_reminder_system.model.RecurrenceType;
@@ -14,6 +15,7 @@ import java.time.LocalDate;
  * @param fromDate дата начала повторений
  * @param untilDate дата окончания повторений
  * @param type тип повторений
+ * @param rrule правило повторения RFC 5545 (RRULE и, возможно, EXDATE), важнее типа
  */
 public record EventRecurrenceDto(
         Long id,
@@ -26,17 +28,25 @@ public record EventRecurrenceDto(
 
         LocalDate untilDate,
 
-        RecurrenceType type
+        RecurrenceType type,
+
+        @Size(max = 1000)
+        String rrule
 )
 {
     public boolean isEnabled()
     {
-        return type != null && type != RecurrenceType.NONE;
+        return type != null && type != RecurrenceType.NONE || hasRule();
+    }
+
+    public boolean hasRule()
+    {
+        return rrule != null && !rrule.isBlank();
     }
 
     public static EventRecurrenceDto nullDto()
     {
-        return new EventRecurrenceDto(null, null, null, null, null);
+        return new EventRecurrenceDto(null, null, null, null, null, null);
     }
 
     public static EventRecurrenceDto forCreate(Long eventId,
@@ -49,7 +59,8 @@ public record EventRecurrenceDto(
                 eventId,
                 fromDate,
                 untilDate,
-                type
+                type,
+                null
         );
     }
 
@@ -60,7 +71,8 @@ public record EventRecurrenceDto(
                 recurrence.getEvent().getId(),
                 recurrence.getFromDate(),
                 recurrence.getUntilDate(),
-                recurrence.getRecurrenceType()
+                recurrence.getRecurrenceType(),
+                recurrence.getRrule()
         );
     }
 }
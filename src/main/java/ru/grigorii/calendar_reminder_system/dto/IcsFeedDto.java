@@ -0,0 +1,13 @@
+package ru.grigorii.calendar_reminder_system.dto;
+
+/**
+ * DTO ленты iCalendar календаря
+ * @param calendarId id календаря
+ * @param version версия календаря вместе с событиями (для условных запросов)
+ */
+public record IcsFeedDto(
+        Long calendarId,
+        VersionDto version
+)
+{
+}
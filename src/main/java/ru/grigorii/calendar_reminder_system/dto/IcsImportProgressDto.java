@@ -0,0 +1,49 @@
+package ru.grigorii.calendar_reminder_system.dto;
+
+import ru.grigorii.calendar_reminder_system.service.ics.IcsImportJob;
+
+import java.util.List;
+
+/**
+ * DTO прогресса импорта файла iCalendar
+ * @param id id импорта
+ * @param calendarId id календаря, в который импортируются события
+ * @param state состояние (RUNNING / DONE / FAILED)
+ * @param percent доля прочитанного файла, в процентах
+ * @param imported сколько событий сохранено
+ * @param skipped сколько событий пропущено
+ * @param chunks сколько пачек сохранено
+ * @param errors причины пропуска первых событий
+ * @param failure причина остановки импорта (для FAILED)
+ */
+public record IcsImportProgressDto(
+        String id,
+        Long calendarId,
+        String state,
+        int percent,
+        int imported,
+        int skipped,
+        int chunks,
+        List<String> errors,
+        String failure
+)
+{
+    public static IcsImportProgressDto fromJob(IcsImportJob job)
+    {
+        int percent = job.getState() == IcsImportJob.State.DONE || job.getTotalBytes() == 0
+                ? 100
+                : (int) (job.getBytesRead() * 100 / job.getTotalBytes());
+
+        return new IcsImportProgressDto(
+                job.getId(),
+                job.getCalendarId(),
+                job.getState().name(),
+                percent,
+                job.getImported(),
+                job.getSkipped(),
+                job.getChunks(),
+                job.getErrors(),
+                job.getFailure()
+        );
+    }
+}
@@ -0,0 +1,15 @@
+package ru.grigorii.calendar_reminder_system.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO свободного промежутка времени
+ * @param start начало
+ * @param end конец (не включительно)
+ */
+public record TimeSlotDto(
+        LocalDateTime start,
+        LocalDateTime end
+)
+{
+}
@@ -0,0 +1,47 @@
+package ru.grigorii.calendar_reminder_system.dto;
+
+import ru.grigorii.calendar_reminder_system.repository.projection.CalendarVersion;
+import ru.grigorii.calendar_reminder_system.repository.projection.EntityVersion;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * DTO версии ресурса для условных запросов: из неё строятся ETag и Last-Modified
+ * @param tag значение ETag (без кавычек); меняется при любом изменении ресурса
+ * @param lastModified время последнего изменения
+ */
+public record VersionDto(
+        String tag,
+        LocalDateTime lastModified
+)
+{
+    public static VersionDto fromEntity(EntityVersion version)
+    {
+        return new VersionDto(
+                String.valueOf(version.version()),
+                version.updatedAt()
+        );
+    }
+
+    /**
+     * Версия календаря вместе с событиями. Число событий входит в тег, чтобы его меняло и удаление события
+     */
+    public static VersionDto fromCalendar(Long calendarId, CalendarVersion version)
+    {
+        long events = version.events() != null ? version.events() : 0;
+        LocalDateTime eventsUpdatedAt = version.eventsUpdatedAt();
+
+        return new VersionDto(
+                calendarId + "-" + version.version() + "-" + events + "-" + micros(eventsUpdatedAt),
+                eventsUpdatedAt != null && eventsUpdatedAt.isAfter(version.updatedAt())
+                        ? eventsUpdatedAt
+                        : version.updatedAt()
+        );
+    }
+
+    private static long micros(LocalDateTime time)
+    {
+        return time != null ? time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000 : 0;
+    }
+}
@@ -1,6 +1,7 @@
 package ru.grigorii.calendar_reminder_system.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,7 +14,8 @@ import java.util.List;
 public class Calendar
 {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "calendars_seq")
+    @SequenceGenerator(name = "calendars_seq", sequenceName = "calendars_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -41,6 +43,27 @@ public class Calendar
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    /**
+     * Время последнего изменения календаря
+     */
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    /**
+     * Версия календаря (оптимистическая блокировка и ETag)
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    /**
+     * Секретный токен ленты iCalendar (подписка без входа); null - подписка не включена
+     */
+    @Column(name = "feed_token", length = 64, unique = true)
+    private String feedToken;
+
     @OneToMany(mappedBy = "calendar", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<Event> events;
 
@@ -105,4 +128,38 @@ public class Calendar
     {
         this.createdAt = createdAt;
     }
+
+    public String getFeedToken()
+    {
+        return feedToken;
+    }
+
+    public void setFeedToken(String feedToken)
+    {
+        this.feedToken = feedToken;
+    }
+
+    public LocalDateTime getUpdatedAt()
+    {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt)
+    {
+        this.updatedAt = updatedAt;
+    }
+
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Отметка времени изменения при каждом обновлении строки
+     */
+    @PreUpdate
+    void touch()
+    {
+        updatedAt = LocalDateTime.now();
+    }
 }
@@ -0,0 +1,16 @@
+package ru.grigorii.calendar_reminder_system.model;
+
+/**
+ * Состояния доставки напоминания: <br/>
+ * PENDING - ждёт первой отправки; IN_FLIGHT - забрана обработчиком и отправляется; SENT - отправлена;
+ * FAILED - попытка не удалась, следующая назначена на {@code dueAt}; DEAD - попытки исчерпаны,
+ * доставка лежит в dead-letter до ручного повтора
+ */
+public enum DeliveryStatus
+{
+    PENDING,
+    IN_FLIGHT,
+    SENT,
+    FAILED,
+    DEAD
+}
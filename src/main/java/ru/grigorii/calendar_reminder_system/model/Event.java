@@ -1,18 +1,30 @@
 package ru.grigorii.calendar_reminder_system.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import ru.grigorii.calendar_reminder_system.service.availability.AvailabilityListener;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Сущность событие
  */
 @Entity
-@Table(name = "events")
+@EntityListeners(AvailabilityListener.class)
+@Table(name = "events",
+        indexes = {
+                @Index(name = "idx_events_calendar_start", columnList = "calendar_id, start_time"),
+                @Index(name = "idx_events_calendar_updated", columnList = "calendar_id, updated_at")
+        },
+        uniqueConstraints = @UniqueConstraint(name = "uk_events_series_original_start",
+                columnNames = {"series_id", "original_start"}))
 public class Event
 {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "events_seq")
+    @SequenceGenerator(name = "events_seq", sequenceName = "events_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -66,6 +78,21 @@ public class Event
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    /**
+     * Время последнего изменения события (для условных запросов)
+     */
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    /**
+     * Версия события: растёт при каждом изменении (в том числе повторения и напоминания), по ней строится ETag
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
     /**
      * Правило повторения события
      */
@@ -78,6 +105,27 @@ public class Event
     @OneToOne(mappedBy = "event", cascade = CascadeType.ALL, orphanRemoval = true)
     private Reminder reminder;
 
+    /**
+     * Повторяющееся событие (серия), вхождение которого материализовано этим событием-исключением. <br/>
+     * Вхождения серии не хранятся, а вычисляются на лету; строка появляется, только когда вхождение
+     * выполнено или изменено
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "series_id")
+    private Event series;
+
+    /**
+     * Время начала вхождения серии, которое заменяет это событие-исключение
+     */
+    @Column(name = "original_start")
+    private LocalDateTime originalStart;
+
+    /**
+     * Исключения серии (удаляются вместе с ней)
+     */
+    @OneToMany(mappedBy = "series", cascade = CascadeType.REMOVE)
+    private List<Event> exceptions = new ArrayList<>();
+
     /**
      * Фабричный метод для создания события с необходимыми полями
      */
@@ -181,6 +229,30 @@ public class Event
         this.createdAt = createdAt;
     }
 
+    public LocalDateTime getUpdatedAt()
+    {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt)
+    {
+        this.updatedAt = updatedAt;
+    }
+
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Отметка времени изменения при каждом обновлении строки
+     */
+    @PreUpdate
+    void touch()
+    {
+        updatedAt = LocalDateTime.now();
+    }
+
     public EventRecurrence getRecurrence()
     {
         return recurrence;
@@ -200,4 +272,34 @@ public class Event
     {
         this.reminder = reminder;
     }
+
+    public Event getSeries()
+    {
+        return series;
+    }
+
+    public void setSeries(Event series)
+    {
+        this.series = series;
+    }
+
+    public LocalDateTime getOriginalStart()
+    {
+        return originalStart;
+    }
+
+    public void setOriginalStart(LocalDateTime originalStart)
+    {
+        this.originalStart = originalStart;
+    }
+
+    public List<Event> getExceptions()
+    {
+        return exceptions;
+    }
+
+    public void setExceptions(List<Event> exceptions)
+    {
+        this.exceptions = exceptions;
+    }
 }
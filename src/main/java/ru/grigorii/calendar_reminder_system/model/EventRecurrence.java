@@ -1,8 +1,10 @@
 package ru.grigorii.calendar_reminder_system.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 /**
  * Сущность повторение события
  */
@@ -12,7 +14,8 @@ public class EventRecurrence
 {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_recurrences_seq")
+    @SequenceGenerator(name = "event_recurrences_seq", sequenceName = "event_recurrences_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -35,11 +38,33 @@ public class EventRecurrence
     private LocalDate untilDate;
 
     /**
-     * Правило повторения события, буду реализовывать через RRULE, RFC 5545.
+     * Начало первого вхождения серии - точка отсчёта вхождений. Не меняется, когда серия сдвигается выполнением,
+     * поэтому месячная серия с 31-го числа после февраля возвращается на 31-е
+     */
+    @Column(name = "series_start")
+    private LocalDateTime seriesStart;
+
+    /**
+     * Тип повторения события. Для правила RRULE - его частота (FREQ)
      */
     @Column(name = "type", nullable = false)
     private RecurrenceType recurrenceType;
 
+    /**
+     * Правило повторения RFC 5545 (RRULE и строки EXDATE) в нормализованном виде.
+     * Если задано, вхождения вычисляются по нему, иначе - по типу повторения
+     */
+    @Column(name = "rrule", length = 1000)
+    private String rrule;
+
+    /**
+     * Версия правила: растёт при каждом изменении повторения и входит в ключ кэша вхождений
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
     public Long getId()
     {
         return id;
@@ -80,6 +105,25 @@ public class EventRecurrence
         this.untilDate = untilDate;
     }
 
+    public LocalDateTime getSeriesStart()
+    {
+        return seriesStart;
+    }
+
+    public void setSeriesStart(LocalDateTime seriesStart)
+    {
+        this.seriesStart = seriesStart;
+    }
+
+    /**
+     * Точка отсчёта вхождений серии, которая сейчас начинается в {@code currentStart}. Для повторений, созданных
+     * до появления начала серии, - само текущее начало
+     */
+    public LocalDateTime origin(LocalDateTime currentStart)
+    {
+        return seriesStart != null ? seriesStart : currentStart;
+    }
+
     public RecurrenceType getRecurrenceType()
     {
         return recurrenceType;
@@ -89,4 +133,19 @@ public class EventRecurrence
     {
         this.recurrenceType = recurrenceType;
     }
+
+    public String getRrule()
+    {
+        return rrule;
+    }
+
+    public void setRrule(String rrule)
+    {
+        this.rrule = rrule;
+    }
+
+    public long getVersion()
+    {
+        return version;
+    }
 }
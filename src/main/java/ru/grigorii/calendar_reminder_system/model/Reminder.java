@@ -1,18 +1,25 @@
 package ru.grigorii.calendar_reminder_system.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import ru.grigorii.calendar_reminder_system.service.dispatch.ReminderScheduleListener;
+import ru.grigorii.calendar_reminder_system.service.notification.UnreadReminderCounterListener;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Сущность напоминание
  */
 @Entity
-@Table(name = "reminder")
+@Table(name = "reminder", indexes = @Index(name = "idx_reminder_remind_at", columnList = "remind_at"))
+@EntityListeners({ReminderScheduleListener.class, UnreadReminderCounterListener.class})
 public class Reminder
 {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reminder_seq")
+    @SequenceGenerator(name = "reminder_seq", sequenceName = "reminder_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -41,6 +48,27 @@ public class Reminder
     @Column(length = 20, nullable = false)
     private ReminderChannel channel = ReminderChannel.PUSH;
 
+    /**
+     * Время последнего изменения напоминания
+     */
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    /**
+     * Версия напоминания (оптимистическая блокировка и ETag)
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    /**
+     * Записи outbox на доставку напоминания
+     */
+    @OneToMany(mappedBy = "reminder", cascade = CascadeType.PERSIST)
+    private List<ReminderDelivery> deliveries = new ArrayList<>();
+
     /**
      * Фабричный метод для создания напоминания с необходимыми полями
      */
@@ -53,6 +81,20 @@ public class Reminder
         return reminder;
     }
 
+    /**
+     * Переносит ожидающую доставку на текущее время напоминания или ставит новую, если прежняя уже забрана
+     */
+    public void reschedulePendingDelivery()
+    {
+        deliveries.stream()
+                .filter(d -> d.getProcessedAt() == null)
+                .findFirst()
+                .ifPresentOrElse(
+                        d -> d.restart(remindAt),
+                        () -> deliveries.add(ReminderDelivery.pendingFor(this))
+                );
+    }
+
     public Long getId()
     {
         return id;
@@ -102,4 +144,38 @@ public class Reminder
     {
         this.channel = channel;
     }
+
+    public List<ReminderDelivery> getDeliveries()
+    {
+        return deliveries;
+    }
+
+    public void setDeliveries(List<ReminderDelivery> deliveries)
+    {
+        this.deliveries = deliveries;
+    }
+
+    public LocalDateTime getUpdatedAt()
+    {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt)
+    {
+        this.updatedAt = updatedAt;
+    }
+
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Отметка времени изменения при каждом обновлении строки
+     */
+    @PreUpdate
+    void touch()
+    {
+        updatedAt = LocalDateTime.now();
+    }
 }
@@ -0,0 +1,121 @@
+package ru.grigorii.calendar_reminder_system.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dead-letter доставки: попытки исчерпаны (или канал не настроен). Запись остаётся для истории и после
+ * повторной отправки, у неё лишь проставляется {@code replayedAt}
+ */
+@Entity
+@Table(name = "reminder_dead_letters",
+        indexes = @Index(name = "idx_reminder_dead_letters_open", columnList = "replayed_at, id"))
+public class ReminderDeadLetter
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reminder_dead_letters_seq")
+    @SequenceGenerator(name = "reminder_dead_letters_seq", sequenceName = "reminder_dead_letters_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "delivery_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private ReminderDelivery delivery;
+
+    /**
+     * Сколько попыток было сделано
+     */
+    @Column(nullable = false)
+    private int attempts;
+
+    /**
+     * Причина последней неудачи
+     */
+    @Column(length = 500)
+    private String reason;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    /**
+     * Когда доставка была отправлена повторно (null - ещё не отправлялась)
+     */
+    @Column(name = "replayed_at")
+    private LocalDateTime replayedAt;
+
+    /**
+     * Фабричный метод для dead-letter доставки, которая только что перешла в DEAD
+     */
+    public static ReminderDeadLetter of(ReminderDelivery delivery)
+    {
+        ReminderDeadLetter letter = new ReminderDeadLetter();
+        letter.setDelivery(delivery);
+        letter.setAttempts(delivery.getAttempts());
+        letter.setReason(delivery.getLastError());
+
+        return letter;
+    }
+
+    public Long getId()
+    {
+        return id;
+    }
+
+    public void setId(Long id)
+    {
+        this.id = id;
+    }
+
+    public ReminderDelivery getDelivery()
+    {
+        return delivery;
+    }
+
+    public void setDelivery(ReminderDelivery delivery)
+    {
+        this.delivery = delivery;
+    }
+
+    public int getAttempts()
+    {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts)
+    {
+        this.attempts = attempts;
+    }
+
+    public String getReason()
+    {
+        return reason;
+    }
+
+    public void setReason(String reason)
+    {
+        this.reason = reason;
+    }
+
+    public LocalDateTime getCreatedAt()
+    {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt)
+    {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getReplayedAt()
+    {
+        return replayedAt;
+    }
+
+    public void setReplayedAt(LocalDateTime replayedAt)
+    {
+        this.replayedAt = replayedAt;
+    }
+}
@@ -0,0 +1,209 @@
+package ru.grigorii.calendar_reminder_system.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись outbox на доставку напоминания. Создаётся в той же транзакции, что и само напоминание,
+ * и разбирается фоновым обработчиком пачками. <br/>
+ * Ожидающими считаются записи без {@code processedAt} (PENDING и FAILED), их {@code dueAt} - время следующей
+ * попытки
+ */
+@Entity
+@Table(name = "reminder_deliveries",
+        indexes = @Index(name = "idx_reminder_deliveries_pending", columnList = "processed_at, due_at"))
+public class ReminderDelivery
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reminder_deliveries_seq")
+    @SequenceGenerator(name = "reminder_deliveries_seq", sequenceName = "reminder_deliveries_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Напоминание, которое нужно доставить
+     */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "reminder_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Reminder reminder;
+
+    /**
+     * Когда можно начинать следующую попытку доставки
+     */
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+
+    /**
+     * Время создания записи
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    /**
+     * Когда запись была забрана обработчиком (null - ещё ожидает)
+     */
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Enumerated(EnumType.STRING)
+    @ColumnDefault("'PENDING'")
+    @Column(length = 20, nullable = false)
+    private DeliveryStatus status = DeliveryStatus.PENDING;
+
+    /**
+     * Сколько попыток отправки начато
+     */
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int attempts;
+
+    /**
+     * Причина последней неудачной попытки
+     */
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    /**
+     * Фабричный метод для создания ожидающей доставки напоминания
+     */
+    public static ReminderDelivery pendingFor(Reminder reminder)
+    {
+        ReminderDelivery delivery = new ReminderDelivery();
+        delivery.setReminder(reminder);
+        delivery.setDueAt(reminder.getRemindAt());
+
+        return delivery;
+    }
+
+    /**
+     * Попытка не удалась: запись снова ожидает, но не раньше {@code nextAttemptAt}
+     */
+    public void retryAt(LocalDateTime nextAttemptAt, String error)
+    {
+        status = DeliveryStatus.FAILED;
+        processedAt = null;
+        dueAt = nextAttemptAt;
+        lastError = truncate(error);
+    }
+
+    /**
+     * Попытки исчерпаны: запись остаётся забранной, поэтому обработчик её больше не берёт
+     */
+    public void markDead(String error)
+    {
+        status = DeliveryStatus.DEAD;
+        lastError = truncate(error);
+    }
+
+    /**
+     * Отправка отложена, не начавшись (очередь канала заполнена или сработало ограничение частоты):
+     * попытка не засчитывается, запись снова ожидает с {@code dueAt}
+     */
+    public void defer(LocalDateTime dueAt)
+    {
+        attempts = Math.max(0, attempts - 1);
+        status = attempts == 0 ? DeliveryStatus.PENDING : DeliveryStatus.FAILED;
+        processedAt = null;
+        this.dueAt = dueAt;
+    }
+
+    /**
+     * Новая серия попыток, начиная с {@code dueAt} (перенос напоминания, повтор из dead-letter)
+     */
+    public void restart(LocalDateTime dueAt)
+    {
+        status = DeliveryStatus.PENDING;
+        attempts = 0;
+        processedAt = null;
+        this.dueAt = dueAt;
+    }
+
+    private static String truncate(String error)
+    {
+        return error != null && error.length() > 500 ? error.substring(0, 500) : error;
+    }
+
+    public Long getId()
+    {
+        return id;
+    }
+
+    public void setId(Long id)
+    {
+        this.id = id;
+    }
+
+    public Reminder getReminder()
+    {
+        return reminder;
+    }
+
+    public void setReminder(Reminder reminder)
+    {
+        this.reminder = reminder;
+    }
+
+    public LocalDateTime getDueAt()
+    {
+        return dueAt;
+    }
+
+    public void setDueAt(LocalDateTime dueAt)
+    {
+        this.dueAt = dueAt;
+    }
+
+    public LocalDateTime getCreatedAt()
+    {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt)
+    {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getProcessedAt()
+    {
+        return processedAt;
+    }
+
+    public void setProcessedAt(LocalDateTime processedAt)
+    {
+        this.processedAt = processedAt;
+    }
+
+    public DeliveryStatus getStatus()
+    {
+        return status;
+    }
+
+    public void setStatus(DeliveryStatus status)
+    {
+        this.status = status;
+    }
+
+    public int getAttempts()
+    {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts)
+    {
+        this.attempts = attempts;
+    }
+
+    public String getLastError()
+    {
+        return lastError;
+    }
+
+    public void setLastError(String lastError)
+    {
+        this.lastError = lastError;
+    }
+}
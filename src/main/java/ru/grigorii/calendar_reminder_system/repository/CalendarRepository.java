@@ -1,13 +1,71 @@
 package ru.grigorii.calendar_reminder_system.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.grigorii.calendar_reminder_system.model.Calendar;
+import ru.grigorii.calendar_reminder_system.repository.projection.CalendarVersion;
+import ru.grigorii.calendar_reminder_system.repository.projection.EntityVersion;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CalendarRepository extends JpaRepository<Calendar, Long>
 {
     List<Calendar> findByOwnerId(Long ownerId);
+
+    /**
+     * WEB: календарь по токену ленты iCalendar
+     */
+    Optional<Calendar> findByFeedToken(String feedToken);
+
+    /**
+     * REST API: страница по ключу - следующие limit записей с id больше afterId
+     */
+    @EntityGraph(attributePaths = "owner")
+    List<Calendar> findByIdGreaterThanOrderById(Long afterId, Limit limit);
+
+    /**
+     * REST API: все записи потоком для выгрузки, читаются порциями по {@link ExportHints#FETCH_SIZE}
+     */
+    @EntityGraph(attributePaths = "owner")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ExportHints.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from Calendar c order by c.id")
+    Stream<Calendar> streamAll();
+
+    /**
+     * Сводная версия календаря: версия самого календаря, число его событий (меняется при удалении) и время
+     * последнего изменения события. События считаются по индексу idx_events_calendar_updated
+     * (calendar_id, updated_at), сами строки не читаются
+     */
+    @Query("""
+            select new ru.grigorii.calendar_reminder_system.repository.projection.CalendarVersion(
+                c.owner.id, c.version, c.updatedAt, count(e), max(e.updatedAt))
+            from Calendar c
+            left join c.events e
+            where c.id = :calendarId
+            group by c.owner.id, c.version, c.updatedAt
+            """)
+    Optional<CalendarVersion> findVersion(@Param("calendarId") Long calendarId);
+
+    /**
+     * REST API: версия календаря без его загрузки
+     */
+    @Query("""
+            select new ru.grigorii.calendar_reminder_system.repository.projection.EntityVersion(c.version, c.updatedAt)
+            from Calendar c
+            where c.id = :id
+            """)
+    Optional<EntityVersion> findVersionById(@Param("id") Long id);
 }
@@ -1,13 +1,35 @@
 package ru.grigorii.calendar_reminder_system.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import ru.grigorii.calendar_reminder_system.model.EventRecurrence;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EventRecurrenceRepository extends JpaRepository<EventRecurrence, Long>
 {
     Optional<EventRecurrence> findByEventId(Long eventId);
+
+    /**
+     * REST API: страница по ключу - следующие limit записей с id больше afterId
+     */
+    List<EventRecurrence> findByIdGreaterThanOrderById(Long afterId, Limit limit);
+
+    /**
+     * REST API: все записи потоком для выгрузки, читаются порциями по {@link ExportHints#FETCH_SIZE}
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ExportHints.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select r from EventRecurrence r order by r.id")
+    Stream<EventRecurrence> streamAll();
 }
@@ -1,13 +1,224 @@
 package ru.grigorii.calendar_reminder_system.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.grigorii.calendar_reminder_system.model.Event;
+import ru.grigorii.calendar_reminder_system.repository.projection.BusyInterval;
+import ru.grigorii.calendar_reminder_system.repository.projection.EventRow;
+import ru.grigorii.calendar_reminder_system.repository.projection.EntityVersion;
+import ru.grigorii.calendar_reminder_system.repository.projection.OccurrenceKey;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, Long>
 {
+    /**
+     * Все события вместе с повторением и напоминанием (без N+1 при маппинге в EventDto)
+     */
+    @Override
+    @EntityGraph(attributePaths = {"recurrence", "reminder"})
+    List<Event> findAll();
+
+    /**
+     * События календаря вместе с повторением и напоминанием (без N+1 при маппинге в EventDto)
+     */
+    @EntityGraph(attributePaths = {"recurrence", "reminder"})
     List<Event> findByCalendarId(Long calendarId);
+
+    /**
+     * События календаря, начинающиеся в окне [from, to), упорядоченные по времени начала,
+     * вместе с повторением и напоминанием. <br/>
+     * Граница to не включается, чтобы соседние окна (месяцы, недели) не пересекались.
+     * Запрос обслуживается индексом idx_events_calendar_start (calendar_id, start_time)
+     */
+    @Query("""
+            select e
+            from Event e
+            left join fetch e.recurrence
+            left join fetch e.reminder
+            where e.calendar.id = :calendarId
+              and e.startTime >= :from
+              and e.startTime < :to
+            order by e.startTime, e.id
+            """)
+    List<Event> findInWindow(@Param("calendarId") Long calendarId,
+                             @Param("from") LocalDateTime from,
+                             @Param("to") LocalDateTime to);
+
+    /**
+     * То же окно, что и {@link #findInWindow}, но в виде плоских строк:
+     * один запрос и никаких управляемых сущностей - для страницы календаря
+     */
+    @Query("""
+            select new ru.grigorii.calendar_reminder_system.repository.projection.EventRow(
+                e.id, e.title, e.description, e.startTime, e.endTime, e.priority, e.done,
+                e.calendar.id, e.createdAt,
+                rec.id, rec.fromDate, rec.untilDate, rec.recurrenceType, rec.rrule,
+                r.id, r.remindAt, r.channel, r.read)
+            from Event e
+            left join e.recurrence rec
+            left join e.reminder r
+            where e.calendar.id = :calendarId
+              and e.startTime >= :from
+              and e.startTime < :to
+            order by e.startTime, e.id
+            """)
+    List<EventRow> findRowsInWindow(@Param("calendarId") Long calendarId,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to);
+
+    /**
+     * Незавершённые серии календаря, вхождения которых могут попасть в окно [from, to):
+     * серия началась до конца окна и не закончилась до его начала
+     */
+    @Query("""
+            select e
+            from Event e
+            join fetch e.recurrence r
+            where e.calendar.id = :calendarId
+              and e.done = false
+              and r.recurrenceType <> ru.grigorii.calendar_reminder_system.model.RecurrenceType.NONE
+              and e.startTime < :to
+              and (r.untilDate is null or r.untilDate >= :fromDate)
+            """)
+    List<Event> findSeriesIntersecting(@Param("calendarId") Long calendarId,
+                                       @Param("fromDate") LocalDate fromDate,
+                                       @Param("to") LocalDateTime to);
+
+    /**
+     * Вхождения серий, материализованные исключениями, с исходным началом в окне [from, to)
+     */
+    @Query("""
+            select new ru.grigorii.calendar_reminder_system.repository.projection.OccurrenceKey(
+                e.series.id, e.originalStart)
+            from Event e
+            where e.series.id in :seriesIds
+              and e.originalStart >= :from
+              and e.originalStart < :to
+            """)
+    List<OccurrenceKey> findOccurrenceKeys(@Param("seriesIds") Collection<Long> seriesIds,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to);
+
+    /**
+     * Исходные времена вхождений серии после указанного момента, уже материализованных исключениями
+     */
+    @Query("""
+            select e.originalStart
+            from Event e
+            where e.series.id = :seriesId
+              and e.originalStart > :after
+            """)
+    List<LocalDateTime> findMaterializedStartsAfter(@Param("seriesId") Long seriesId,
+                                                    @Param("after") LocalDateTime after);
+
+    Optional<Event> findBySeriesIdAndOriginalStart(Long seriesId, LocalDateTime originalStart);
+
+    /**
+     * Интервалы сохранённых событий всех календарей пользователя, пересекающие окно [from, to)
+     */
+    @Query("""
+            select new ru.grigorii.calendar_reminder_system.repository.projection.BusyInterval(
+                e.id, e.calendar.id, e.title, e.startTime, coalesce(e.endTime, e.startTime))
+            from Event e
+            where e.calendar.owner.id = :ownerId
+              and e.startTime < :to
+              and coalesce(e.endTime, e.startTime) > :from
+            order by e.startTime
+            """)
+    List<BusyInterval> findBusyByOwner(@Param("ownerId") Long ownerId,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
+
+    /**
+     * Незавершённые серии всех календарей пользователя, вхождения которых могут попасть в окно [from, to)
+     */
+    @Query("""
+            select e
+            from Event e
+            join fetch e.recurrence r
+            where e.calendar.owner.id = :ownerId
+              and e.done = false
+              and r.recurrenceType <> ru.grigorii.calendar_reminder_system.model.RecurrenceType.NONE
+              and e.startTime < :to
+              and (r.untilDate is null or r.untilDate >= :fromDate)
+            """)
+    List<Event> findSeriesByOwnerIntersecting(@Param("ownerId") Long ownerId,
+                                              @Param("fromDate") LocalDate fromDate,
+                                              @Param("to") LocalDateTime to);
+
+    /**
+     * REST API: страница по ключу - следующие limit записей с id больше afterId
+     */
+    @EntityGraph(attributePaths = {"recurrence", "reminder"})
+    List<Event> findByIdGreaterThanOrderById(Long afterId, Limit limit);
+
+    /**
+     * REST API: все записи потоком для выгрузки, читаются порциями по {@link ExportHints#FETCH_SIZE}
+     */
+    @EntityGraph(attributePaths = {"recurrence", "reminder"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ExportHints.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from Event e order by e.id")
+    Stream<Event> streamAll();
+
+    /**
+     * WEB: события календаря потоком для ленты iCalendar, вместе с повторением, напоминанием и серией
+     * (для исключений), читаются порциями по {@link ExportHints#FETCH_SIZE}
+     */
+    @EntityGraph(attributePaths = {"recurrence", "reminder", "series", "series.recurrence"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ExportHints.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from Event e where e.calendar.id = :calendarId order by e.id")
+    Stream<Event> streamByCalendarId(@Param("calendarId") Long calendarId);
+
+    /**
+     * REST API: версия события без загрузки повторения и напоминания
+     */
+    @Query("""
+            select new ru.grigorii.calendar_reminder_system.repository.projection.EntityVersion(e.version, e.updatedAt)
+            from Event e
+            where e.id = :id
+            """)
+    Optional<EntityVersion> findVersionById(@Param("id") Long id);
+
+    /**
+     * Отметка изменения события, повторение которого меняется или удаляется отдельно от него
+     */
+    @Modifying
+    @Query("""
+            update Event e
+            set e.updatedAt = :now, e.version = e.version + 1
+            where e.id = (select r.event.id from EventRecurrence r where r.id = :recurrenceId)
+            """)
+    int touchByRecurrenceId(@Param("recurrenceId") Long recurrenceId, @Param("now") LocalDateTime now);
+
+    /**
+     * Отметка изменения события, напоминание которого меняется или удаляется отдельно от него
+     */
+    @Modifying
+    @Query("""
+            update Event e
+            set e.updatedAt = :now, e.version = e.version + 1
+            where e.id = (select r.event.id from Reminder r where r.id = :reminderId)
+            """)
+    int touchByReminderId(@Param("reminderId") Long reminderId, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,21 @@
+package ru.grigorii.calendar_reminder_system.repository;
+
+/**
+ * Параметры потоковых запросов выгрузки (REST API: NDJSON)
+ */
+public final class ExportHints
+{
+    /**
+     * Размер выборки JDBC (строк за один round-trip к базе) - значение подсказки org.hibernate.fetchSize
+     */
+    public static final String FETCH_SIZE = "500";
+
+    /**
+     * Через сколько строк очищать контекст персистентности при выгрузке. Совпадает с размером выборки
+     */
+    public static final int DETACH_EVERY = 500;
+
+    private ExportHints()
+    {
+    }
+}
@@ -0,0 +1,30 @@
+package ru.grigorii.calendar_reminder_system.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+import ru.grigorii.calendar_reminder_system.model.ReminderDeadLetter;
+
+import java.util.List;
+
+@Repository
+public interface ReminderDeadLetterRepository extends JpaRepository<ReminderDeadLetter, Long>
+{
+    /**
+     * Страница ещё не отправленных повторно dead-letter с id больше afterId, по возрастанию id,
+     * вместе с доставкой и напоминанием. Канал необязателен
+     */
+    @Query("""
+                select l
+                from ReminderDeadLetter l
+                join fetch l.delivery d
+                join fetch d.reminder r
+                where l.replayedAt is null
+                  and l.id > :afterId
+                  and (:channel is null or r.channel = :channel)
+                order by l.id
+            """)
+    List<ReminderDeadLetter> findOpen(ReminderChannel channel, Long afterId, Limit limit);
+}
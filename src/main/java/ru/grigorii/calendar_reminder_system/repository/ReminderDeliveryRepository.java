@@ -0,0 +1,116 @@
+package ru.grigorii.calendar_reminder_system.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.grigorii.calendar_reminder_system.model.ReminderDelivery;
+import ru.grigorii.calendar_reminder_system.repository.projection.DeliveryBacklog;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReminderDeliveryRepository extends JpaRepository<ReminderDelivery, Long>
+{
+    /**
+     * Забирает пачку наступивших доставок под блокировку, пропуская строки, уже заблокированные
+     * другими узлами ({@code SELECT ... FOR UPDATE SKIP LOCKED})
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+                select d
+                from ReminderDelivery d
+                where d.processedAt is null
+                  and d.dueAt <= :now
+                order by d.dueAt
+            """)
+    List<ReminderDelivery> lockDue(LocalDateTime now, Limit limit);
+
+    /**
+     * Забранные доставки переходят в IN_FLIGHT, начатая попытка засчитывается
+     */
+    @Modifying
+    @Query("""
+                update ReminderDelivery d
+                set d.processedAt = :processedAt,
+                    d.status = ru.grigorii.calendar_reminder_system.model.DeliveryStatus.IN_FLIGHT,
+                    d.attempts = d.attempts + 1
+                where d.id in :ids
+            """)
+    int markProcessed(Collection<Long> ids, LocalDateTime processedAt);
+
+    @Transactional
+    @Modifying
+    @Query("""
+                update ReminderDelivery d
+                set d.status = ru.grigorii.calendar_reminder_system.model.DeliveryStatus.SENT,
+                    d.lastError = null
+                where d.id in :ids
+            """)
+    int markSent(Collection<Long> ids);
+
+    /**
+     * Забирает под блокировку доставки, забранные раньше {@code before} и так и не завершённые
+     * (узел упал посреди отправки), вместе с напоминанием. Строки, которые сейчас завершает другой узел,
+     * пропускаются ({@code SKIP LOCKED})
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+                select d
+                from ReminderDelivery d
+                join fetch d.reminder
+                where d.processedAt < :before
+                  and d.status = ru.grigorii.calendar_reminder_system.model.DeliveryStatus.IN_FLIGHT
+                order by d.processedAt
+            """)
+    List<ReminderDelivery> lockStaleInFlight(LocalDateTime before, Limit limit);
+
+    /**
+     * Забирает под блокировку доставки, которые всё ещё в IN_FLIGHT, вместе с напоминанием (канал нужен
+     * для метрик). Уже завершённые (отправленные, возвращённые по таймауту) и заблокированные другим узлом
+     * строки не возвращаются, поэтому исход попытки применяется к доставке не больше одного раза
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+                select d
+                from ReminderDelivery d
+                join fetch d.reminder
+                where d.id in :ids
+                  and d.status = ru.grigorii.calendar_reminder_system.model.DeliveryStatus.IN_FLIGHT
+            """)
+    List<ReminderDelivery> lockInFlight(Collection<Long> ids);
+
+    /**
+     * Доставки вместе со всем, что нужно для отправки, одним запросом
+     */
+    @Query("""
+                select d
+                from ReminderDelivery d
+                join fetch d.reminder r
+                join fetch r.event e
+                join fetch e.calendar c
+                join fetch c.owner
+                where d.id in :ids
+            """)
+    List<ReminderDelivery> findWithDetails(Collection<Long> ids);
+
+    /**
+     * Размер и возраст очереди наступивших доставок одним запросом по индексу {@code (processed_at, due_at)}
+     */
+    @Query("""
+                select new ru.grigorii.calendar_reminder_system.repository.projection.DeliveryBacklog(
+                    count(d), min(d.dueAt)
+                )
+                from ReminderDelivery d
+                where d.processedAt is null
+                  and d.dueAt <= :now
+            """)
+    DeliveryBacklog findBacklog(LocalDateTime now);
+}
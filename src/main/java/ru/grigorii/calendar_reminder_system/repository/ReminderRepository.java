@@ -1,13 +1,21 @@
 package ru.grigorii.calendar_reminder_system.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import ru.grigorii.calendar_reminder_system.model.Reminder;
+import ru.grigorii.calendar_reminder_system.repository.projection.EntityVersion;
+import ru.grigorii.calendar_reminder_system.repository.projection.ReminderSchedule;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReminderRepository extends JpaRepository<Reminder, Long>
@@ -36,4 +44,73 @@ public interface ReminderRepository extends JpaRepository<Reminder, Long>
     long countActiveUnread(Long userId, LocalDateTime now);
 
     Optional<Reminder> findByEventId(Long eventId);
-}
\ No newline at end of file
+
+    @Query("""
+                select r
+                from Reminder r
+                join fetch r.event
+                where r.id = :id
+            """)
+    Optional<Reminder> findWithEvent(Long id);
+
+    /**
+     * Страница непрочитанных напоминаний, идущих после курсора (afterTime, afterId) и не позже until.
+     * Используется для дозагрузки колеса таймеров
+     */
+    @Query("""
+                select new ru.grigorii.calendar_reminder_system.repository.projection.ReminderSchedule(
+                    r.id, c.owner.id, r.remindAt)
+                from Reminder r
+                join r.event e
+                join e.calendar c
+                where r.read = false
+                  and r.remindAt <= :until
+                  and (r.remindAt > :afterTime or (r.remindAt = :afterTime and r.id > :afterId))
+                order by r.remindAt, r.id
+            """)
+    List<ReminderSchedule> findScheduledAfter(LocalDateTime afterTime,
+                                              Long afterId,
+                                              LocalDateTime until,
+                                              Limit limit);
+
+    /**
+     * Все наступившие непрочитанные напоминания - для пересборки счётчиков уведомлений
+     */
+    @Query("""
+                select new ru.grigorii.calendar_reminder_system.repository.projection.ReminderSchedule(
+                    r.id, c.owner.id, r.remindAt)
+                from Reminder r
+                join r.event e
+                join e.calendar c
+                where r.read = false
+                  and r.remindAt <= :now
+            """)
+    List<ReminderSchedule> findDueUnread(LocalDateTime now);
+
+    /**
+     * REST API: страница по ключу - следующие limit записей с id больше afterId
+     */
+    @EntityGraph(attributePaths = "event")
+    List<Reminder> findByIdGreaterThanOrderById(Long afterId, Limit limit);
+
+    /**
+     * REST API: все записи потоком для выгрузки, читаются порциями по {@link ExportHints#FETCH_SIZE}
+     */
+    @EntityGraph(attributePaths = "event")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ExportHints.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select r from Reminder r order by r.id")
+    Stream<Reminder> streamAll();
+
+    /**
+     * REST API: версия напоминания без его загрузки
+     */
+    @Query("""
+                select new ru.grigorii.calendar_reminder_system.repository.projection.EntityVersion(r.version, r.updatedAt)
+                from Reminder r
+                where r.id = :id
+            """)
+    Optional<EntityVersion> findVersionById(Long id);
+}
@@ -1,14 +1,36 @@
 package ru.grigorii.calendar_reminder_system.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import ru.grigorii.calendar_reminder_system.model.User;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long>
 {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    /**
+     * REST API: страница по ключу - следующие limit записей с id больше afterId
+     */
+    List<User> findByIdGreaterThanOrderById(Long afterId, Limit limit);
+
+    /**
+     * REST API: все записи потоком для выгрузки, читаются порциями по {@link ExportHints#FETCH_SIZE}
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ExportHints.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u from User u order by u.id")
+    Stream<User> streamAll();
 }
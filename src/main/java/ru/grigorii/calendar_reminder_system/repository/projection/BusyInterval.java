@@ -0,0 +1,21 @@
+package ru.grigorii.calendar_reminder_system.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Интервал, занятый сохранённым событием (конец равен началу, если у события нет времени окончания)
+ * @param eventId id события
+ * @param calendarId id календаря
+ * @param title название
+ * @param start начало
+ * @param end конец
+ */
+public record BusyInterval(
+        Long eventId,
+        Long calendarId,
+        String title,
+        LocalDateTime start,
+        LocalDateTime end
+)
+{
+}
@@ -0,0 +1,21 @@
+package ru.grigorii.calendar_reminder_system.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сводная версия календаря вместе с его событиями
+ * @param ownerId id владельца
+ * @param version версия самого календаря
+ * @param updatedAt время изменения самого календаря
+ * @param events число событий календаря
+ * @param eventsUpdatedAt время последнего изменения события (null, если событий нет)
+ */
+public record CalendarVersion(
+        Long ownerId,
+        Long version,
+        LocalDateTime updatedAt,
+        Long events,
+        LocalDateTime eventsUpdatedAt
+)
+{
+}
@@ -0,0 +1,15 @@
+package ru.grigorii.calendar_reminder_system.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Наступившие, но ещё не забранные доставки outbox
+ * @param pending сколько их
+ * @param oldestDueAt срок самой старой из них (null, если их нет)
+ */
+public record DeliveryBacklog(
+        Long pending,
+        LocalDateTime oldestDueAt
+)
+{
+}
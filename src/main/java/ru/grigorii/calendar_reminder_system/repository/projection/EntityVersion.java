@@ -0,0 +1,15 @@
+package ru.grigorii.calendar_reminder_system.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Версия сущности без её загрузки
+ * @param version версия
+ * @param updatedAt время последнего изменения
+ */
+public record EntityVersion(
+        Long version,
+        LocalDateTime updatedAt
+)
+{
+}
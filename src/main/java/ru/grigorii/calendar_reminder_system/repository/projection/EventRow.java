@@ -0,0 +1,53 @@
+package ru.grigorii.calendar_reminder_system.repository.projection;
+
+import ru.grigorii.calendar_reminder_system.model.EventPriority;
+import ru.grigorii.calendar_reminder_system.model.RecurrenceType;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Плоская строка события вместе с повторением и напоминанием - для отображения списков событий
+ * одним запросом, без загрузки сущностей. Поля повторения и напоминания равны null, если их нет
+ * @param id id события
+ * @param title название
+ * @param description описание
+ * @param startTime время начала
+ * @param endTime время окончания
+ * @param priority приоритет
+ * @param done сделано / не сделано
+ * @param calendarId id календаря
+ * @param createdAt время создания
+ * @param recurrenceId id повторения
+ * @param recurrenceFromDate дата начала повторений
+ * @param recurrenceUntilDate дата окончания повторений
+ * @param recurrenceType тип повторений
+ * @param recurrenceRule правило повторения RRULE
+ * @param reminderId id напоминания
+ * @param remindAt когда напомнить
+ * @param reminderChannel канал напоминания
+ * @param reminderRead флаг прочтения напоминания
+ */
+public record EventRow(
+        Long id,
+        String title,
+        String description,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        EventPriority priority,
+        Boolean done,
+        Long calendarId,
+        LocalDateTime createdAt,
+        Long recurrenceId,
+        LocalDate recurrenceFromDate,
+        LocalDate recurrenceUntilDate,
+        RecurrenceType recurrenceType,
+        String recurrenceRule,
+        Long reminderId,
+        LocalDateTime remindAt,
+        ReminderChannel reminderChannel,
+        Boolean reminderRead
+)
+{
+}
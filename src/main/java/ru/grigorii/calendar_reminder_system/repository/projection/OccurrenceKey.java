@@ -0,0 +1,15 @@
+package ru.grigorii.calendar_reminder_system.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Вхождение серии, уже материализованное событием-исключением
+ * @param seriesId id повторяющегося события
+ * @param originalStart исходное время начала вхождения
+ */
+public record OccurrenceKey(
+        Long seriesId,
+        LocalDateTime originalStart
+)
+{
+}
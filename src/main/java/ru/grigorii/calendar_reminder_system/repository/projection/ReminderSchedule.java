@@ -0,0 +1,17 @@
+package ru.grigorii.calendar_reminder_system.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Минимальная информация о напоминании для планировщика
+ * @param reminderId id напоминания
+ * @param userId id владельца календаря
+ * @param remindAt когда напомнить
+ */
+public record ReminderSchedule(
+        Long reminderId,
+        Long userId,
+        LocalDateTime remindAt
+)
+{
+}
@@ -0,0 +1,96 @@
+package ru.grigorii.calendar_reminder_system.security;
+
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import ru.grigorii.calendar_reminder_system.model.Role;
+import ru.grigorii.calendar_reminder_system.model.User;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal аутентифицированного пользователя. Собирается один раз при входе и хранится в сессии,
+ * поэтому id и роль доступны обработчикам без повторного поиска пользователя по email
+ */
+public class AuthenticatedUser implements UserDetails, CredentialsContainer
+{
+    private final Long id;
+    private final String email;
+    private final Role role;
+    private final List<GrantedAuthority> authorities;
+    private String passwordHash;
+
+    public AuthenticatedUser(Long id, String email, String passwordHash, Role role)
+    {
+        this.id = id;
+        this.email = email;
+        this.passwordHash = passwordHash;
+        this.role = role;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+
+    /**
+     * Фабричный метод для создания principal по пользователю
+     */
+    public static AuthenticatedUser fromEntity(User user)
+    {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getPasswordHash(), user.getRole());
+    }
+
+    public Long getId()
+    {
+        return id;
+    }
+
+    public Role getRole()
+    {
+        return role;
+    }
+
+    @Override
+    public String getUsername()
+    {
+        return email;
+    }
+
+    @Override
+    public String getPassword()
+    {
+        return passwordHash;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities()
+    {
+        return authorities;
+    }
+
+    /**
+     * После входа хэш пароля в сессии не нужен
+     */
+    @Override
+    public void eraseCredentials()
+    {
+        passwordHash = null;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        return o instanceof AuthenticatedUser other && id.equals(other.id);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return id.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "AuthenticatedUser[id=" + id + ", email=" + email + ", role=" + role + "]";
+    }
+}
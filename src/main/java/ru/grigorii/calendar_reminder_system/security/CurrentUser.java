@@ -0,0 +1,17 @@
+package ru.grigorii.calendar_reminder_system.security;
+
+import java.lang.annotation.*;
+
+/**
+ * Параметр обработчика, в который подставляется {@link AuthenticatedUser} текущего запроса
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser
+{
+    /**
+     * Если false, для анонимного запроса подставляется null вместо ошибки
+     */
+    boolean required() default true;
+}
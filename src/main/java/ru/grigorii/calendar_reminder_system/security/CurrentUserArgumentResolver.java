@@ -0,0 +1,47 @@
+package ru.grigorii.calendar_reminder_system.security;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Подставляет {@link AuthenticatedUser} из контекста безопасности в параметры с {@link CurrentUser}.
+ * В базу не ходит: всё нужное уже лежит в principal
+ */
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver
+{
+    @Override
+    public boolean supportsParameter(MethodParameter parameter)
+    {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && AuthenticatedUser.class.isAssignableFrom(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter,
+                                  ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest,
+                                  WebDataBinderFactory binderFactory)
+    {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user)
+        {
+            return user;
+        }
+
+        CurrentUser annotation = parameter.getParameterAnnotation(CurrentUser.class);
+
+        if (annotation != null && !annotation.required())
+        {
+            return null;
+        }
+
+        throw new AuthenticationCredentialsNotFoundException("No authenticated user in request");
+    }
+}
@@ -0,0 +1,104 @@
+package ru.grigorii.calendar_reminder_system.service.availability;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.grigorii.calendar_reminder_system.dto.BusyIntervalDto;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Индексы занятости пользователей в памяти (ограниченный кэш: id пользователя -> {@link UserAvailability}). <br/>
+ * Индекс строится при первом запросе и дальше поддерживается точечно после коммитов, меняющих события.
+ * Чтобы построение, читавшее базу до чужого коммита, не сохранило устаревший индекс, изменения увеличивают
+ * счётчик пользователя (счётчики разбиты на полосы по id), и индекс кэшируется, только если счётчик за время
+ * построения не изменился
+ */
+@Component
+public class AvailabilityIndex
+{
+    static final String CACHE_NAME = "availability.users";
+    private static final int STRIPES = 64;
+
+    private final Cache<Long, UserAvailability> indexes;
+    private final AtomicLongArray changes = new AtomicLongArray(STRIPES);
+
+    public AvailabilityIndex(MeterRegistry meterRegistry,
+                             @Value("${availability.index.max-users:10000}") long maxUsers,
+                             @Value("${availability.index.expire-after-write-ms:3600000}") long expireAfterWriteMs)
+    {
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, indexes, CACHE_NAME);
+    }
+
+    /**
+     * Индекс пользователя из кэша или построенный заново
+     *
+     * @param ownerId id пользователя
+     * @param builder построение индекса по базе
+     * @return индекс
+     */
+    public UserAvailability get(Long ownerId, Supplier<UserAvailability> builder)
+    {
+        UserAvailability cached = indexes.getIfPresent(ownerId);
+        if (cached != null)
+        {
+            return cached;
+        }
+
+        long before = changes.get(stripe(ownerId));
+        UserAvailability built = builder.get();
+        if (changes.get(stripe(ownerId)) == before)
+        {
+            indexes.asMap().putIfAbsent(ownerId, built);
+        }
+        return built;
+    }
+
+    /**
+     * Событие создано или изменено: его интервал заменяется в индексе, если индекс пользователя построен
+     */
+    public void replace(Long ownerId, BusyIntervalDto interval)
+    {
+        changes.incrementAndGet(stripe(ownerId));
+        find(ownerId).ifPresent(index -> index.replace(interval.eventId(), interval));
+    }
+
+    /**
+     * Событие удалено
+     */
+    public void remove(Long ownerId, Long eventId)
+    {
+        changes.incrementAndGet(stripe(ownerId));
+        find(ownerId).ifPresent(index -> index.remove(eventId));
+    }
+
+    /**
+     * Изменилась повторяющаяся серия: индекс пользователя будет построен заново при следующем запросе
+     */
+    public void invalidate(Long ownerId)
+    {
+        changes.incrementAndGet(stripe(ownerId));
+        indexes.invalidate(ownerId);
+    }
+
+    private Optional<UserAvailability> find(Long ownerId)
+    {
+        return Optional.ofNullable(indexes.getIfPresent(ownerId));
+    }
+
+    private static int stripe(Long ownerId)
+    {
+        return Long.hashCode(ownerId) & (STRIPES - 1);
+    }
+}
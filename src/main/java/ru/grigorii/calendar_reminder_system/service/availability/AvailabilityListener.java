@@ -0,0 +1,93 @@
+package ru.grigorii.calendar_reminder_system.service.availability;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import ru.grigorii.calendar_reminder_system.dto.BusyIntervalDto;
+import ru.grigorii.calendar_reminder_system.model.Event;
+import ru.grigorii.calendar_reminder_system.service.support.AfterCommit;
+
+import java.util.function.Consumer;
+
+/**
+ * JPA-слушатель событий: после коммита точечно обновляет индекс занятости владельца. Обычное событие заменяется
+ * или удаляется в дереве интервалов, а изменение повторяющейся серии (или её вхождения) сбрасывает индекс
+ * пользователя - его вычисленные вхождения проще построить заново
+ */
+@Component
+public class AvailabilityListener
+{
+    private final ObjectProvider<AvailabilityIndex> index;
+
+    public AvailabilityListener(ObjectProvider<AvailabilityIndex> index)
+    {
+        this.index = index;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Event event)
+    {
+        Long ownerId = ownerId(event);
+        if (ownerId == null)
+        {
+            return;
+        }
+
+        if (isSeries(event))
+        {
+            afterCommit(i -> i.invalidate(ownerId));
+            return;
+        }
+
+        BusyIntervalDto interval = BusyIntervalDto.fromEvent(event);
+        afterCommit(i -> i.replace(ownerId, interval));
+    }
+
+    @PostRemove
+    public void onRemoved(Event event)
+    {
+        Long ownerId = ownerId(event);
+        if (ownerId == null)
+        {
+            return;
+        }
+
+        Long eventId = event.getId();
+        if (isSeries(event))
+        {
+            afterCommit(i -> i.invalidate(ownerId));
+            return;
+        }
+
+        afterCommit(i -> i.remove(ownerId, eventId));
+    }
+
+    private void afterCommit(Consumer<AvailabilityIndex> action)
+    {
+        AvailabilityIndex target = index.getIfAvailable();
+        if (target == null)
+        {
+            return;
+        }
+
+        AfterCommit.run(() -> action.accept(target));
+    }
+
+    private static boolean isSeries(Event event)
+    {
+        return event.getRecurrence() != null || event.getSeries() != null;
+    }
+
+    private static Long ownerId(Event event)
+    {
+        if (event.getCalendar() == null || event.getCalendar().getOwner() == null)
+        {
+            return null;
+        }
+
+        return event.getCalendar().getOwner().getId();
+    }
+}
@@ -0,0 +1,284 @@
+package ru.grigorii.calendar_reminder_system.service.availability;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Дерево интервалов [start, end): сбалансированное (AVL) дерево поиска по началу интервала, в каждом узле которого
+ * хранится максимальный конец интервалов поддерева. Поиск пересечений обходит только поддеревья, которые могут
+ * пересекать окно, поэтому стоит O(log n + k) для непересекающихся между собой интервалов (и не больше O(k log n)
+ * в общем случае), вставка и удаление - O(log n). <br/>
+ * Интервалы нулевой длины ничего не занимают и ни с чем не пересекаются. Не потокобезопасно
+ *
+ * @param <T> данные интервала
+ */
+public final class IntervalTree<T>
+{
+    private static final Comparator<Entry<?>> ORDER = Comparator
+            .comparing((Entry<?> e) -> e.start())
+            .thenComparing(Entry::end)
+            .thenComparingLong(Entry::seq);
+
+    private Node<T> root;
+    private long nextSeq;
+    private int size;
+    private boolean removed;
+
+    /**
+     * Интервал дерева
+     *
+     * @param start начало (включительно)
+     * @param end   конец (не включительно)
+     * @param seq   порядковый номер вставки, различает одинаковые интервалы
+     * @param value данные
+     */
+    public record Entry<T>(LocalDateTime start, LocalDateTime end, long seq, T value)
+    {
+    }
+
+    /**
+     * Свободный промежуток
+     */
+    public record Gap(LocalDateTime start, LocalDateTime end)
+    {
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Добавление интервала
+     *
+     * @return запись дерева, по которой интервал можно удалить
+     */
+    public Entry<T> add(LocalDateTime start, LocalDateTime end, T value)
+    {
+        if (end.isBefore(start))
+        {
+            throw new IllegalArgumentException("end < start");
+        }
+
+        Entry<T> entry = new Entry<>(start, end, nextSeq++, value);
+        root = insert(root, entry);
+        size++;
+        return entry;
+    }
+
+    /**
+     * Удаление интервала
+     *
+     * @return true, если интервал был в дереве
+     */
+    public boolean remove(Entry<T> entry)
+    {
+        removed = false;
+        root = delete(root, entry);
+        if (removed)
+        {
+            size--;
+        }
+        return removed;
+    }
+
+    /**
+     * Интервалы, пересекающие окно [from, to), по возрастанию начала
+     */
+    public List<Entry<T>> overlapping(LocalDateTime from, LocalDateTime to)
+    {
+        List<Entry<T>> result = new ArrayList<>();
+        collect(root, from, to, result);
+        return result;
+    }
+
+    /**
+     * Свободные промежутки окна [from, to) длиной не меньше minLength, по возрастанию
+     */
+    public List<Gap> gaps(LocalDateTime from, LocalDateTime to, Duration minLength)
+    {
+        List<Gap> gaps = new ArrayList<>();
+        LocalDateTime cursor = from;
+
+        for (Entry<T> busy : overlapping(from, to))
+        {
+            if (!Duration.between(cursor, busy.start()).minus(minLength).isNegative())
+            {
+                gaps.add(new Gap(cursor, busy.start()));
+            }
+            if (busy.end().isAfter(cursor))
+            {
+                cursor = busy.end();
+            }
+        }
+
+        if (cursor.isBefore(to) && !Duration.between(cursor, to).minus(minLength).isNegative())
+        {
+            gaps.add(new Gap(cursor, to));
+        }
+        return gaps;
+    }
+
+    private void collect(Node<T> node, LocalDateTime from, LocalDateTime to, List<Entry<T>> result)
+    {
+        // в поддереве нет интервала, заканчивающегося после начала окна
+        if (node == null || !node.maxEnd.isAfter(from))
+        {
+            return;
+        }
+
+        collect(node.left, from, to, result);
+
+        // правее начинаются только более поздние интервалы
+        if (!node.entry.start().isBefore(to))
+        {
+            return;
+        }
+        if (node.entry.end().isAfter(from) && node.entry.end().isAfter(node.entry.start()))
+        {
+            result.add(node.entry);
+        }
+
+        collect(node.right, from, to, result);
+    }
+
+    private Node<T> insert(Node<T> node, Entry<T> entry)
+    {
+        if (node == null)
+        {
+            return new Node<>(entry);
+        }
+
+        if (ORDER.compare(entry, node.entry) < 0)
+        {
+            node.left = insert(node.left, entry);
+        }
+        else
+        {
+            node.right = insert(node.right, entry);
+        }
+        return balance(node);
+    }
+
+    private Node<T> delete(Node<T> node, Entry<T> entry)
+    {
+        if (node == null)
+        {
+            return null;
+        }
+
+        int c = ORDER.compare(entry, node.entry);
+        if (c < 0)
+        {
+            node.left = delete(node.left, entry);
+        }
+        else if (c > 0)
+        {
+            node.right = delete(node.right, entry);
+        }
+        else
+        {
+            removed = true;
+            if (node.left == null)
+            {
+                return node.right;
+            }
+            if (node.right == null)
+            {
+                return node.left;
+            }
+
+            Node<T> successor = node.right;
+            while (successor.left != null)
+            {
+                successor = successor.left;
+            }
+            node.entry = successor.entry;
+            node.right = delete(node.right, successor.entry);
+        }
+        return balance(node);
+    }
+
+    private Node<T> balance(Node<T> node)
+    {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+
+        if (factor > 1)
+        {
+            if (height(node.left.left) < height(node.left.right))
+            {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1)
+        {
+            if (height(node.right.right) < height(node.right.left))
+            {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<T> rotateRight(Node<T> node)
+    {
+        Node<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<T> rotateLeft(Node<T> node)
+    {
+        Node<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static <T> void update(Node<T> node)
+    {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+
+        LocalDateTime maxEnd = node.entry.end();
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd))
+        {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd))
+        {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node<?> node)
+    {
+        return node == null ? 0 : node.height;
+    }
+
+    private static final class Node<T>
+    {
+        private Entry<T> entry;
+        private Node<T> left;
+        private Node<T> right;
+        private int height = 1;
+        private LocalDateTime maxEnd;
+
+        private Node(Entry<T> entry)
+        {
+            this.entry = entry;
+            this.maxEnd = entry.end();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package ru.grigorii.calendar_reminder_system.service.availability;
+
+import ru.grigorii.calendar_reminder_system.dto.BusyIntervalDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Занятость одного пользователя на горизонте [horizonFrom, horizonTo): дерево интервалов его событий и вычисленных
+ * вхождений серий, плюс индекс интервалов по id события для точечных изменений. Запросы выполняются под блокировкой
+ * чтения, изменения - под блокировкой записи
+ */
+public final class UserAvailability
+{
+    private final LocalDateTime horizonFrom;
+    private final LocalDateTime horizonTo;
+    private final IntervalTree<BusyIntervalDto> tree = new IntervalTree<>();
+    private final Map<Long, List<IntervalTree.Entry<BusyIntervalDto>>> byEvent = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public UserAvailability(LocalDateTime horizonFrom, LocalDateTime horizonTo, List<BusyIntervalDto> intervals)
+    {
+        this.horizonFrom = horizonFrom;
+        this.horizonTo = horizonTo;
+        intervals.forEach(this::insert);
+    }
+
+    /**
+     * Покрывает ли горизонт окно [from, to)
+     */
+    public boolean covers(LocalDateTime from, LocalDateTime to)
+    {
+        return !from.isBefore(horizonFrom) && !to.isAfter(horizonTo);
+    }
+
+    /**
+     * Занятые интервалы, пересекающие окно [from, to), по возрастанию начала
+     */
+    public List<BusyIntervalDto> overlapping(LocalDateTime from, LocalDateTime to)
+    {
+        lock.readLock().lock();
+        try
+        {
+            return tree.overlapping(from, to).stream()
+                    .map(IntervalTree.Entry::value)
+                    .toList();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Свободные промежутки окна [from, to) длиной не меньше minLength
+     */
+    public List<IntervalTree.Gap> gaps(LocalDateTime from, LocalDateTime to, Duration minLength)
+    {
+        lock.readLock().lock();
+        try
+        {
+            return tree.gaps(from, to, minLength);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Замена всех интервалов события (обычное событие после создания или изменения)
+     */
+    public void replace(Long eventId, BusyIntervalDto interval)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            removeUnlocked(eventId);
+            if (interval.end().isAfter(horizonFrom) && interval.start().isBefore(horizonTo))
+            {
+                insert(interval);
+            }
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаление всех интервалов события
+     */
+    public void remove(Long eventId)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            removeUnlocked(eventId);
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return tree.size();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insert(BusyIntervalDto interval)
+    {
+        byEvent.computeIfAbsent(interval.eventId(), id -> new ArrayList<>(1))
+                .add(tree.add(interval.start(), interval.end(), interval));
+    }
+
+    private void removeUnlocked(Long eventId)
+    {
+        List<IntervalTree.Entry<BusyIntervalDto>> entries = byEvent.remove(eventId);
+        if (entries != null)
+        {
+            entries.forEach(tree::remove);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+import ru.grigorii.calendar_reminder_system.service.support.BackgroundThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Исполнитель одного канала доставки. <br/>
+ * Входящие сообщения (дайджесты) копятся в буфере, пока не наберётся {@code batchSize} или не истечёт окно
+ * {@code batchWindowMs}, затем пачка уходит в собственный ограниченный пул канала. Если пул и его очередь
+ * заняты, пачка отдаётся в {@code onRejected} (отправка не начиналась), а если упал отправитель - в
+ * {@code onFailure} вместе с причиной. Медленный канал не забирает потоки у остальных и не копит
+ * неограниченную очередь в памяти.
+ */
+public class ChannelDeliveryExecutor
+{
+    private static final Logger log = LoggerFactory.getLogger(ChannelDeliveryExecutor.class);
+
+    private final ReminderSender sender;
+    private final ChannelSettings settings;
+    private final Consumer<List<ReminderDigest>> onSent;
+    private final BiConsumer<List<ReminderDigest>, RuntimeException> onFailure;
+    private final Consumer<List<ReminderDigest>> onRejected;
+
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService windowTimer;
+
+    private final Object bufferLock = new Object();
+    private List<ReminderDigest> buffer = new ArrayList<>();
+    private ScheduledFuture<?> pendingFlush;
+
+    /**
+     * @param sender отправитель канала
+     * @param settings настройки канала
+     * @param onSent что сделать с успешно отправленной пачкой
+     * @param onFailure куда отдавать пачки, которые не удалось отправить, и причину
+     * @param onRejected куда отдавать пачки, которые не поместились в очередь канала
+     */
+    public ChannelDeliveryExecutor(ReminderSender sender,
+                                   ChannelSettings settings,
+                                   Consumer<List<ReminderDigest>> onSent,
+                                   BiConsumer<List<ReminderDigest>, RuntimeException> onFailure,
+                                   Consumer<List<ReminderDigest>> onRejected)
+    {
+        this.sender = sender;
+        this.settings = settings;
+        this.onSent = onSent;
+        this.onFailure = onFailure;
+        this.onRejected = onRejected;
+
+        String name = "reminder-" + sender.channel().name().toLowerCase(Locale.ROOT);
+
+        this.workers = new ThreadPoolExecutor(
+                settings.concurrency(),
+                settings.concurrency(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(settings.queueCapacity()),
+                BackgroundThreadFactory.create(name + "-send", settings.virtualThreads()),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.workers.allowCoreThreadTimeOut(true);
+        this.windowTimer = Executors.newSingleThreadScheduledExecutor(
+                BackgroundThreadFactory.create(name + "-window", settings.virtualThreads()));
+    }
+
+    public ReminderChannel channel()
+    {
+        return sender.channel();
+    }
+
+    /**
+     * Принимает дайджесты канала. Полные пачки уходят сразу, остаток ждёт окна добора
+     */
+    public void submit(List<ReminderDigest> digests)
+    {
+        List<List<ReminderDigest>> ready = new ArrayList<>();
+
+        synchronized (bufferLock)
+        {
+            for (ReminderDigest digest : digests)
+            {
+                buffer.add(digest);
+
+                if (buffer.size() >= settings.batchSize())
+                {
+                    ready.add(takeBuffer());
+                }
+            }
+
+            if (!buffer.isEmpty() && pendingFlush == null)
+            {
+                if (settings.batchWindowMs() == 0)
+                {
+                    ready.add(takeBuffer());
+                }
+                else
+                {
+                    pendingFlush = windowTimer.schedule(this::flush, settings.batchWindowMs(), TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+
+        ready.forEach(this::dispatch);
+    }
+
+    /**
+     * Отправляет то, что накопилось в буфере, не дожидаясь окна
+     */
+    public void flush()
+    {
+        List<ReminderDigest> batch;
+
+        synchronized (bufferLock)
+        {
+            batch = takeBuffer();
+        }
+
+        if (!batch.isEmpty())
+        {
+            dispatch(batch);
+        }
+    }
+
+    /**
+     * Сколько пачек ждёт свободного потока
+     */
+    public int queuedBatches()
+    {
+        return workers.getQueue().size();
+    }
+
+    /**
+     * Отправляет остаток буфера и дожидается завершения начатых отправок
+     */
+    public void shutdown(long timeoutMs)
+    {
+        windowTimer.shutdownNow();
+        flush();
+        workers.shutdown();
+
+        try
+        {
+            if (!workers.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS))
+            {
+                workers.shutdownNow();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch(List<ReminderDigest> batch)
+    {
+        try
+        {
+            workers.execute(() -> send(batch));
+        }
+        catch (RejectedExecutionException e)
+        {
+            log.warn("{} channel is saturated, returning {} reminders to outbox", channel(),
+                    ReminderDigest.reminders(batch).size());
+            onRejected.accept(batch);
+        }
+    }
+
+    private void send(List<ReminderDigest> batch)
+    {
+        try
+        {
+            sender.send(batch);
+        }
+        catch (RuntimeException e)
+        {
+            log.warn("{} channel failed to send {} messages", channel(), batch.size(), e);
+            onFailure.accept(batch, e);
+            return;
+        }
+
+        onSent.accept(batch);
+    }
+
+    /**
+     * Забирает буфер целиком и снимает отложенный сброс. Вызывать под {@code bufferLock}
+     */
+    private List<ReminderDigest> takeBuffer()
+    {
+        List<ReminderDigest> batch = buffer;
+        buffer = new ArrayList<>();
+
+        if (pendingFlush != null)
+        {
+            pendingFlush.cancel(false);
+            pendingFlush = null;
+        }
+
+        return batch;
+    }
+}
@@ -0,0 +1,172 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Раскладывает пачки из outbox по каналам. В канале напоминания сначала собираются в дайджесты по пользователю
+ * ({@link DigestCoalescer}), затем каждый дайджест проходит {@link DeliveryRateLimiter} - сверх квоты пользователя
+ * или канала он откладывается, а не теряется - и попадает в {@link ChannelDeliveryExecutor} канала со своим пулом,
+ * лимитом параллельности и окном добора пачки. Исход отправки передаётся в {@link DeliveryRetryScheduler}:
+ * неотправленное возвращается в outbox с экспоненциальной задержкой или уходит в dead-letter, а не поместившееся
+ * в очередь перегруженного канала возвращается через {@code saturated-retry-ms} без учёта попытки. Отправки и сбои
+ * учитываются в {@link DeliveryMetrics}
+ */
+@Component
+public class ChannelReminderDeliveryHandler implements ReminderDeliveryHandler
+{
+    private static final Logger log = LoggerFactory.getLogger(ChannelReminderDeliveryHandler.class);
+
+    private final DeliveryRetryScheduler retryScheduler;
+    private final DeliveryRateLimiter rateLimiter;
+    private final DeliveryMetrics metrics;
+    private final long shutdownTimeoutMs;
+    private final Duration saturatedRetry;
+
+    private final Map<ReminderChannel, ChannelDeliveryExecutor> executors = new EnumMap<>(ReminderChannel.class);
+    private final Map<ReminderChannel, DigestCoalescer> coalescers = new EnumMap<>(ReminderChannel.class);
+
+    public ChannelReminderDeliveryHandler(List<ReminderSender> senders,
+                                          DeliveryRetryScheduler retryScheduler,
+                                          DeliveryRateLimiter rateLimiter,
+                                          DeliveryMetrics metrics,
+                                          Environment environment,
+                                          @Value("${reminder.delivery.shutdown-timeout-ms:10000}") long shutdownTimeoutMs,
+                                          @Value("${reminder.delivery.saturated-retry-ms:5000}") long saturatedRetryMs)
+    {
+        this.retryScheduler = retryScheduler;
+        this.rateLimiter = rateLimiter;
+        this.metrics = metrics;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.saturatedRetry = Duration.ofMillis(saturatedRetryMs);
+
+        for (ReminderSender sender : senders)
+        {
+            ChannelDeliveryExecutor executor = new ChannelDeliveryExecutor(
+                    sender,
+                    ChannelSettings.fromEnvironment(environment, sender.channel()),
+                    this::sent,
+                    this::returnToOutbox,
+                    this::deferSaturated
+            );
+
+            if (executors.putIfAbsent(sender.channel(), executor) != null)
+            {
+                executor.shutdown(0);
+                throw new IllegalStateException("More than one sender for channel " + sender.channel());
+            }
+
+            coalescers.put(sender.channel(), DigestCoalescer.fromEnvironment(environment, sender.channel(),
+                    digests -> admit(executor, digests)));
+        }
+
+        for (ReminderChannel channel : ReminderChannel.values())
+        {
+            if (!executors.containsKey(channel))
+            {
+                log.warn("No sender configured for {} channel, its reminders will go to dead-letter", channel);
+            }
+        }
+    }
+
+    @Override
+    public void handle(List<ReminderMessage> batch)
+    {
+        Map<ReminderChannel, List<ReminderMessage>> byChannel = new EnumMap<>(ReminderChannel.class);
+
+        for (ReminderMessage message : batch)
+        {
+            byChannel.computeIfAbsent(message.channel(), c -> new ArrayList<>()).add(message);
+        }
+
+        byChannel.forEach((channel, messages) -> {
+            DigestCoalescer coalescer = coalescers.get(channel);
+
+            if (coalescer == null)
+            {
+                log.warn("Moving {} reminders to dead-letter: no sender for {} channel", messages.size(), channel);
+                retryScheduler.dead(messages, "No sender for " + channel + " channel");
+                return;
+            }
+
+            coalescer.submit(messages);
+        });
+    }
+
+    /**
+     * Готовые дайджесты проходят ограничение частоты (один токен на дайджест) и уходят исполнителю канала
+     */
+    private void admit(ChannelDeliveryExecutor executor, List<ReminderDigest> digests)
+    {
+        List<ReminderDigest> admitted = new ArrayList<>(digests.size());
+        Map<Long, Duration> deferred = new HashMap<>();
+
+        for (ReminderDigest digest : digests)
+        {
+            Duration wait = rateLimiter.acquire(digest);
+            if (wait.isZero())
+            {
+                admitted.add(digest);
+            }
+            else
+            {
+                digest.reminders().forEach(message -> deferred.put(message.deliveryId(), wait));
+            }
+        }
+
+        if (!deferred.isEmpty())
+        {
+            log.debug("Deferring {} {} reminders over the rate limit", deferred.size(), executor.channel());
+            retryScheduler.deferred(deferred);
+        }
+        if (!admitted.isEmpty())
+        {
+            executor.submit(admitted);
+        }
+    }
+
+    private void sent(List<ReminderDigest> digests)
+    {
+        List<ReminderMessage> messages = ReminderDigest.reminders(digests);
+
+        metrics.digests(digests);
+        metrics.sent(messages);
+        retryScheduler.sent(messages);
+    }
+
+    /**
+     * Неотправленные сообщения возвращаются в outbox для повторной попытки (или в dead-letter)
+     */
+    private void returnToOutbox(List<ReminderDigest> digests, RuntimeException error)
+    {
+        List<ReminderMessage> messages = ReminderDigest.reminders(digests);
+
+        metrics.failed(messages);
+        retryScheduler.failed(messages, error.getClass().getSimpleName() + ": " + error.getMessage());
+    }
+
+    /**
+     * Очередь канала заполнена: отправка не начиналась, поэтому это не сбой, а отсрочка без учёта попытки
+     */
+    private void deferSaturated(List<ReminderDigest> digests)
+    {
+        Map<Long, Duration> waits = new HashMap<>();
+        ReminderDigest.reminders(digests).forEach(message -> waits.put(message.deliveryId(), saturatedRetry));
+        retryScheduler.deferred(waits);
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        coalescers.values().forEach(DigestCoalescer::shutdown);
+        executors.values().forEach(executor -> executor.shutdown(shutdownTimeoutMs));
+    }
+}
@@ -0,0 +1,44 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import org.springframework.core.env.Environment;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+
+import java.util.Locale;
+
+/**
+ * Настройки исполнителя одного канала, берутся из {@code reminder.channel.<канал>.*}
+ * @param concurrency сколько пачек канал отправляет одновременно
+ * @param queueCapacity сколько пачек может ждать отправки, остальные возвращаются в outbox
+ * @param batchSize максимальный размер пачки
+ * @param batchWindowMs сколько ждать добора пачки, мс
+ * @param virtualThreads отправлять на виртуальных потоках ({@code spring.threads.virtual.enabled})
+ */
+public record ChannelSettings(
+        int concurrency,
+        int queueCapacity,
+        int batchSize,
+        long batchWindowMs,
+        boolean virtualThreads
+)
+{
+    public ChannelSettings
+    {
+        if (concurrency < 1 || queueCapacity < 1 || batchSize < 1 || batchWindowMs < 0)
+        {
+            throw new IllegalArgumentException("Invalid channel settings");
+        }
+    }
+
+    public static ChannelSettings fromEnvironment(Environment environment, ReminderChannel channel)
+    {
+        String prefix = "reminder.channel." + channel.name().toLowerCase(Locale.ROOT) + ".";
+
+        return new ChannelSettings(
+                environment.getProperty(prefix + "concurrency", Integer.class, 4),
+                environment.getProperty(prefix + "queue-capacity", Integer.class, 100),
+                environment.getProperty(prefix + "batch-size", Integer.class, 50),
+                environment.getProperty(prefix + "batch-window-ms", Long.class, 200L),
+                environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)
+        );
+    }
+}
@@ -0,0 +1,238 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+import ru.grigorii.calendar_reminder_system.repository.ReminderDeliveryRepository;
+import ru.grigorii.calendar_reminder_system.repository.projection.DeliveryBacklog;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Метрики доставки напоминаний: <br/>
+ * reminder.delivery.lag - на сколько отправка опоздала относительно {@code remindAt}, по каналам (гистограмма
+ * с границей SLO); <br/>
+ * reminder.delivery.failures / reminder.delivery.retries / reminder.delivery.dead - сообщения, которые канал
+ * не отправил, и то, что с ними стало: повтор по расписанию или dead-letter; <br/>
+ * reminder.delivery.admitted / reminder.delivery.deferred - решения ограничения частоты по дайджестам
+ * (deferred с тегом limit: чьё ведро пусто, user или channel); <br/>
+ * reminder.delivery.digest.size - сколько напоминаний ушло одним сообщением; <br/>
+ * reminder.delivery.backlog / reminder.delivery.oldest.age - сколько наступивших доставок ещё не забрано и как
+ * давно наступила самая старая. Очередь считается одним запросом раз в {@code reminder.delivery.metrics-refresh-ms},
+ * а не при каждом чтении метрик; возраст фиксируется в момент подсчёта, поэтому разобранная очередь не «стареет»
+ * до следующего подсчёта
+ */
+@Component
+public class DeliveryMetrics
+{
+    private static final Logger log = LoggerFactory.getLogger(DeliveryMetrics.class);
+
+    private final ReminderDeliveryRepository deliveryRepository;
+    private final Duration slo;
+
+    private final Map<ReminderChannel, Timer> lag = new EnumMap<>(ReminderChannel.class);
+    private final Map<ReminderChannel, Counter> failures = new EnumMap<>(ReminderChannel.class);
+    private final Map<ReminderChannel, Counter> retries = new EnumMap<>(ReminderChannel.class);
+    private final Map<ReminderChannel, Counter> dead = new EnumMap<>(ReminderChannel.class);
+    private final Map<ReminderChannel, DistributionSummary> digestSize = new EnumMap<>(ReminderChannel.class);
+    private final Map<ReminderChannel, Counter> admitted = new EnumMap<>(ReminderChannel.class);
+    private final Map<ReminderChannel, Counter> deferredByUser = new EnumMap<>(ReminderChannel.class);
+    private final Map<ReminderChannel, Counter> deferredByChannel = new EnumMap<>(ReminderChannel.class);
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicReference<Duration> oldestAge = new AtomicReference<>(Duration.ZERO);
+
+    public DeliveryMetrics(MeterRegistry meterRegistry,
+                           ReminderDeliveryRepository deliveryRepository,
+                           @Value("${reminder.delivery.slo-ms:60000}") long sloMs)
+    {
+        this.deliveryRepository = deliveryRepository;
+        this.slo = Duration.ofMillis(sloMs);
+
+        for (ReminderChannel channel : ReminderChannel.values())
+        {
+            String tag = channel.name().toLowerCase(Locale.ROOT);
+
+            lag.put(channel, Timer.builder("reminder.delivery.lag")
+                    .description("Actual send time minus the time the reminder was due")
+                    .tag("channel", tag)
+                    .publishPercentileHistogram()
+                    .serviceLevelObjectives(slo)
+                    .register(meterRegistry));
+            failures.put(channel, Counter.builder("reminder.delivery.failures")
+                    .description("Reminders the channel failed to send or had no capacity for")
+                    .tag("channel", tag)
+                    .register(meterRegistry));
+            retries.put(channel, Counter.builder("reminder.delivery.retries")
+                    .description("Reminders scheduled for another attempt")
+                    .tag("channel", tag)
+                    .register(meterRegistry));
+            dead.put(channel, Counter.builder("reminder.delivery.dead")
+                    .description("Reminders moved to the dead-letter store")
+                    .tag("channel", tag)
+                    .register(meterRegistry));
+            digestSize.put(channel, DistributionSummary.builder("reminder.delivery.digest.size")
+                    .description("Reminders sent as one message")
+                    .tag("channel", tag)
+                    .register(meterRegistry));
+            admitted.put(channel, Counter.builder("reminder.delivery.admitted")
+                    .description("Messages let through by the rate limiter")
+                    .tag("channel", tag)
+                    .register(meterRegistry));
+            deferredByUser.put(channel, Counter.builder("reminder.delivery.deferred")
+                    .description("Messages postponed by the rate limiter")
+                    .tag("channel", tag)
+                    .tag("limit", "user")
+                    .register(meterRegistry));
+            deferredByChannel.put(channel, Counter.builder("reminder.delivery.deferred")
+                    .description("Messages postponed by the rate limiter")
+                    .tag("channel", tag)
+                    .tag("limit", "channel")
+                    .register(meterRegistry));
+        }
+
+        Gauge.builder("reminder.delivery.backlog", backlog, AtomicLong::get)
+                .description("Due deliveries not yet taken from the outbox")
+                .register(meterRegistry);
+        TimeGauge.builder("reminder.delivery.oldest.age", this, TimeUnit.MILLISECONDS,
+                        metrics -> metrics.oldestAge().toMillis())
+                .description("How long the oldest due delivery has been waiting")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Пачка отправлена
+     */
+    public void sent(List<ReminderMessage> batch)
+    {
+        LocalDateTime now = LocalDateTime.now();
+
+        for (ReminderMessage message : batch)
+        {
+            Duration late = Duration.between(message.remindAt(), now);
+            lag.get(message.channel()).record(late.isNegative() ? Duration.ZERO : late);
+        }
+    }
+
+    /**
+     * Размеры отправленных дайджестов
+     */
+    public void digests(List<ReminderDigest> batch)
+    {
+        batch.forEach(digest -> digestSize.get(digest.channel()).record(digest.size()));
+    }
+
+    /**
+     * Пачку не удалось отправить
+     */
+    public void failed(List<ReminderMessage> batch)
+    {
+        batch.forEach(message -> failures.get(message.channel()).increment());
+    }
+
+    /**
+     * Доставке назначена следующая попытка
+     */
+    public void retried(ReminderChannel channel)
+    {
+        retries.get(channel).increment();
+    }
+
+    /**
+     * Доставка ушла в dead-letter
+     */
+    public void dead(ReminderChannel channel)
+    {
+        dead.get(channel).increment();
+    }
+
+    /**
+     * Ограничение частоты пропустило дайджест
+     */
+    public void admitted(ReminderChannel channel)
+    {
+        admitted.get(channel).increment();
+    }
+
+    /**
+     * Дайджест отложен: пользователь исчерпал свою квоту
+     */
+    public void deferredByUser(ReminderChannel channel)
+    {
+        deferredByUser.get(channel).increment();
+    }
+
+    /**
+     * Дайджест отложен: исчерпана квота канала
+     */
+    public void deferredByChannel(ReminderChannel channel)
+    {
+        deferredByChannel.get(channel).increment();
+    }
+
+    @Scheduled(fixedDelayString = "${reminder.delivery.metrics-refresh-ms:15000}")
+    public void refreshBacklog()
+    {
+        try
+        {
+            LocalDateTime now = LocalDateTime.now();
+            DeliveryBacklog current = deliveryRepository.findBacklog(now);
+            backlog.set(current.pending());
+
+            Duration age = current.pending() > 0 && current.oldestDueAt() != null
+                    ? Duration.between(current.oldestDueAt(), now)
+                    : Duration.ZERO;
+            oldestAge.set(age.isNegative() ? Duration.ZERO : age);
+        }
+        catch (RuntimeException e)
+        {
+            log.warn("Could not read reminder delivery backlog", e);
+        }
+    }
+
+    public Duration slo()
+    {
+        return slo;
+    }
+
+    public long backlog()
+    {
+        return backlog.get();
+    }
+
+    /**
+     * Сколько ждала самая старая наступившая доставка на момент последнего подсчёта очереди
+     * (ноль, если очередь была пуста)
+     */
+    public Duration oldestAge()
+    {
+        return oldestAge.get();
+    }
+
+    /**
+     * Наибольшее опоздание отправки по каналам за последние пару минут (окно статистики таймера)
+     */
+    public Map<ReminderChannel, Duration> maxLag()
+    {
+        Map<ReminderChannel, Duration> result = new EnumMap<>(ReminderChannel.class);
+        lag.forEach((channel, timer) -> result.put(channel, Duration.ofMillis((long) timer.max(TimeUnit.MILLISECONDS))));
+        return result;
+    }
+}
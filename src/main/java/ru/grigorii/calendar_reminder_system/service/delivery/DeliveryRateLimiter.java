@@ -0,0 +1,115 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограничение частоты отправки сообщений ведрами токенов (дайджест - одно сообщение, один токен): отдельно
+ * на пользователя ({@code reminder.rate-limit.user.*}) и на канал ({@code reminder.channel.<канал>.rate-per-second} /
+ * {@code burst}, квота провайдера). Сначала проверяется ведро пользователя, поэтому пользователь с тысячами
+ * одновременных напоминаний тратит только свою квоту, а не квоту канала; если затем отказывает канал, токен
+ * пользователя возвращается. Нулевая частота - без ограничения. <br/>
+ * Ведро пользователя, простоявшее дольше времени полного пополнения, снова полное, поэтому оно забывается
+ */
+@Component
+public class DeliveryRateLimiter
+{
+    private final DeliveryMetrics metrics;
+    private final LongSupplier nanoClock;
+
+    private final Map<ReminderChannel, TokenBucket> channelBuckets = new EnumMap<>(ReminderChannel.class);
+
+    private final double userRatePerSecond;
+    private final int userBurst;
+    private final Cache<Long, TokenBucket> userBuckets;
+
+    @Autowired
+    public DeliveryRateLimiter(DeliveryMetrics metrics,
+                               Environment environment,
+                               @Value("${reminder.rate-limit.user.per-minute:60}") double userPerMinute,
+                               @Value("${reminder.rate-limit.user.burst:20}") int userBurst)
+    {
+        this(metrics, environment, userPerMinute, userBurst, System::nanoTime);
+    }
+
+    DeliveryRateLimiter(DeliveryMetrics metrics,
+                        Environment environment,
+                        double userPerMinute,
+                        int userBurst,
+                        LongSupplier nanoClock)
+    {
+        this.metrics = metrics;
+        this.nanoClock = nanoClock;
+        this.userRatePerSecond = userPerMinute / 60;
+        this.userBurst = userBurst;
+
+        for (ReminderChannel channel : ReminderChannel.values())
+        {
+            String prefix = "reminder.channel." + channel.name().toLowerCase(Locale.ROOT) + ".";
+            double rate = environment.getProperty(prefix + "rate-per-second", Double.class, 0.0);
+
+            if (rate > 0)
+            {
+                int burst = environment.getProperty(prefix + "burst", Integer.class, (int) Math.ceil(rate));
+                channelBuckets.put(channel, new TokenBucket(rate, burst, nanoClock));
+            }
+        }
+
+        this.userBuckets = userRatePerSecond > 0
+                ? Caffeine.newBuilder()
+                        .expireAfterAccess(Duration.ofNanos((long) (userBurst * 1_000_000_000L / userRatePerSecond)))
+                        .build()
+                : null;
+    }
+
+    /**
+     * Пропустить дайджест на отправку
+     *
+     * @return ноль, если дайджест можно отправлять, иначе через сколько освободится квота
+     */
+    public Duration acquire(ReminderDigest digest)
+    {
+        TokenBucket userBucket = null;
+        if (userBuckets != null)
+        {
+            userBucket = userBuckets.get(digest.userId(),
+                    id -> new TokenBucket(userRatePerSecond, userBurst, nanoClock));
+            long wait = userBucket.tryAcquire();
+            if (wait > 0)
+            {
+                metrics.deferredByUser(digest.channel());
+                return Duration.ofNanos(wait);
+            }
+        }
+
+        TokenBucket channelBucket = channelBuckets.get(digest.channel());
+        if (channelBucket != null)
+        {
+            long wait = channelBucket.tryAcquire();
+            if (wait > 0)
+            {
+                // дайджест не отправлен - токен пользователя возвращается, иначе отсрочки канала съедают его квоту
+                if (userBucket != null)
+                {
+                    userBucket.release();
+                }
+                metrics.deferredByChannel(digest.channel());
+                return Duration.ofNanos(wait);
+            }
+        }
+
+        metrics.admitted(digest.channel());
+        return Duration.ZERO;
+    }
+}
@@ -0,0 +1,59 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Политика повторов доставки: экспоненциальная задержка {@code retry-delay-ms * 2^(попытка - 1)}, ограниченная
+ * {@code max-retry-delay-ms}, из которой случайно берётся от половины до целого - после сбоя шлюза накопленные
+ * повторы расходятся во времени, а не приходят одной волной. После {@code max-attempts} попыток доставка
+ * уходит в dead-letter
+ */
+@Component
+public class DeliveryRetryPolicy
+{
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    public DeliveryRetryPolicy(@Value("${reminder.delivery.max-attempts:6}") int maxAttempts,
+                               @Value("${reminder.delivery.retry-delay-ms:60000}") long baseDelayMs,
+                               @Value("${reminder.delivery.max-retry-delay-ms:3600000}") long maxDelayMs)
+    {
+        if (maxAttempts < 1 || baseDelayMs < 1 || maxDelayMs < baseDelayMs)
+        {
+            throw new IllegalArgumentException("Invalid delivery retry settings");
+        }
+
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    /**
+     * Попытки исчерпаны
+     *
+     * @param attempts сколько попыток уже сделано
+     */
+    public boolean exhausted(int attempts)
+    {
+        return attempts >= maxAttempts;
+    }
+
+    /**
+     * Задержка перед следующей попыткой
+     *
+     * @param attempts сколько попыток уже сделано (не меньше одной)
+     */
+    public Duration delay(int attempts)
+    {
+        // сдвиг ограничен так, чтобы произведение не переполнило long
+        int shift = Math.clamp(attempts - 1, 0, Long.numberOfLeadingZeros(baseDelayMs) - 1);
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << shift);
+
+        return Duration.ofMillis(ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling - ceiling / 2 + 1));
+    }
+}
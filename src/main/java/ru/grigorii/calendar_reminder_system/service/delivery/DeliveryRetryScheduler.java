@@ -0,0 +1,180 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.grigorii.calendar_reminder_system.model.ReminderDeadLetter;
+import ru.grigorii.calendar_reminder_system.model.ReminderDelivery;
+import ru.grigorii.calendar_reminder_system.repository.ReminderDeadLetterRepository;
+import ru.grigorii.calendar_reminder_system.repository.ReminderDeliveryRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Переходы доставки после попытки: IN_FLIGHT -> SENT при успехе; IN_FLIGHT -> FAILED со следующей попыткой
+ * по {@link DeliveryRetryPolicy} или -> DEAD с записью в dead-letter, когда попытки исчерпаны. Отдельно по
+ * расписанию возвращает доставки, которые висят в IN_FLIGHT дольше {@code reminder.delivery.in-flight-timeout-ms}
+ * (узел упал посреди отправки) - как неудачную попытку. <br/>
+ * Переходы берут строки под блокировку ({@code FOR UPDATE SKIP LOCKED}) и только в статусе IN_FLIGHT: исход,
+ * пришедший одновременно с возвратом по таймауту, применяется один раз, а отправленная доставка не
+ * возвращается в outbox
+ */
+@Component
+public class DeliveryRetryScheduler
+{
+    private static final Logger log = LoggerFactory.getLogger(DeliveryRetryScheduler.class);
+
+    private final ReminderDeliveryRepository deliveryRepository;
+    private final ReminderDeadLetterRepository deadLetterRepository;
+    private final DeliveryRetryPolicy retryPolicy;
+    private final DeliveryMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration inFlightTimeout;
+    private final int batchSize;
+
+    public DeliveryRetryScheduler(ReminderDeliveryRepository deliveryRepository,
+                                  ReminderDeadLetterRepository deadLetterRepository,
+                                  DeliveryRetryPolicy retryPolicy,
+                                  DeliveryMetrics metrics,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${reminder.delivery.in-flight-timeout-ms:600000}") long inFlightTimeoutMs,
+                                  @Value("${reminder.delivery.batch-size:100}") int batchSize)
+    {
+        this.deliveryRepository = deliveryRepository;
+        this.deadLetterRepository = deadLetterRepository;
+        this.retryPolicy = retryPolicy;
+        this.metrics = metrics;
+        this.transactionTemplate = transactionTemplate;
+        this.inFlightTimeout = Duration.ofMillis(inFlightTimeoutMs);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Пачка отправлена
+     */
+    public void sent(List<ReminderMessage> batch)
+    {
+        try
+        {
+            deliveryRepository.markSent(ids(batch));
+        }
+        catch (RuntimeException e)
+        {
+            // доставка уже ушла, запись останется IN_FLIGHT и будет повторена после таймаута
+            log.error("Failed to mark {} reminder deliveries as sent", batch.size(), e);
+        }
+    }
+
+    /**
+     * Пачку не удалось отправить: повтор по политике или dead-letter
+     */
+    public void failed(List<ReminderMessage> batch, String error)
+    {
+        transition(() -> deliveryRepository.lockInFlight(ids(batch)), error, true);
+    }
+
+    /**
+     * Пачку отправить нельзя вовсе (например, для канала нет отправителя): сразу dead-letter
+     */
+    public void dead(List<ReminderMessage> batch, String error)
+    {
+        transition(() -> deliveryRepository.lockInFlight(ids(batch)), error, false);
+    }
+
+    /**
+     * Отправка отложена, не начавшись (очередь канала заполнена, ограничение частоты): доставка возвращается
+     * в outbox без учёта попытки. К ожиданию добавляется случайная доля того же размера, чтобы отложенные
+     * разом (например, одним ведром) не вернулись все одновременно
+     *
+     * @param waits через сколько повторить (для ограничения частоты - когда освободится квота), по id доставки
+     */
+    public void deferred(Map<Long, Duration> waits)
+    {
+        try
+        {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+
+                for (ReminderDelivery delivery : deliveryRepository.lockInFlight(waits.keySet()))
+                {
+                    Duration wait = waits.get(delivery.getId());
+                    delivery.defer(now.plus(wait).plusNanos(ThreadLocalRandom.current().nextLong(wait.toNanos() + 1)));
+                }
+            });
+        }
+        catch (RuntimeException e)
+        {
+            // записи остаются IN_FLIGHT и вернутся в работу по таймауту
+            log.error("Failed to defer {} reminder deliveries", waits.size(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reminder.delivery.in-flight-check-ms:60000}")
+    public void recoverStale()
+    {
+        LocalDateTime before = LocalDateTime.now().minus(inFlightTimeout);
+
+        int recovered = transition(() -> deliveryRepository.lockStaleInFlight(before, Limit.of(batchSize)),
+                "No outcome within " + inFlightTimeout.toMillis() + " ms", true);
+
+        if (recovered > 0)
+        {
+            log.warn("{} reminder deliveries were stuck in flight, scheduled a retry", recovered);
+        }
+    }
+
+    /**
+     * @param claim блокировка доставок, которые ещё в IN_FLIGHT
+     * @return сколько доставок перешло
+     */
+    private int transition(Supplier<List<ReminderDelivery>> claim, String error, boolean retry)
+    {
+        try
+        {
+            Integer transitioned = transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<ReminderDelivery> deliveries = claim.get();
+
+                for (ReminderDelivery delivery : deliveries)
+                {
+                    if (retry && !retryPolicy.exhausted(delivery.getAttempts()))
+                    {
+                        delivery.retryAt(now.plus(retryPolicy.delay(delivery.getAttempts())), error);
+                        metrics.retried(delivery.getReminder().getChannel());
+                    }
+                    else
+                    {
+                        delivery.markDead(error);
+                        deadLetterRepository.save(ReminderDeadLetter.of(delivery));
+                        metrics.dead(delivery.getReminder().getChannel());
+                    }
+                }
+                return deliveries.size();
+            });
+            return transitioned != null ? transitioned : 0;
+        }
+        catch (RuntimeException e)
+        {
+            // записи остаются IN_FLIGHT и вернутся в работу по таймауту
+            log.error("Failed to schedule retry for reminder deliveries", e);
+            return 0;
+        }
+    }
+
+    private static List<Long> ids(List<ReminderMessage> batch)
+    {
+        return batch.stream()
+                .map(ReminderMessage::deliveryId)
+                .toList();
+    }
+}
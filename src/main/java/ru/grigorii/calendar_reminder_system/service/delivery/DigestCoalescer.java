@@ -0,0 +1,186 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import org.springframework.core.env.Environment;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+import ru.grigorii.calendar_reminder_system.service.support.BackgroundThreadFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Сборка дайджестов одного канала. <br/>
+ * Напоминания группируются по пользователю: первое напоминание пользователя открывает окно {@code windowMs}, и всё,
+ * что придёт для него за это время, уходит одним сообщением. Группа уходит раньше, если набрала {@code maxSize}
+ * напоминаний. При нулевом окне объединяются только напоминания одной пачки из outbox. <br/>
+ * Пока группа ждёт, её доставки остаются IN_FLIGHT, поэтому окно должно быть заметно меньше
+ * {@code reminder.delivery.in-flight-timeout-ms}, и оно входит в опоздание доставки
+ */
+public class DigestCoalescer
+{
+    private final long windowMs;
+    private final int maxSize;
+    private final Consumer<List<ReminderDigest>> downstream;
+    private final ScheduledExecutorService windowTimer;
+
+    private final Object groupsLock = new Object();
+    private final Map<Long, List<ReminderMessage>> groups = new HashMap<>();
+
+    /**
+     * @param channel канал
+     * @param windowMs сколько ждать остальных напоминаний пользователя, мс
+     * @param maxSize максимальный размер дайджеста
+     * @param virtualThreads таймер окна на виртуальном потоке
+     * @param downstream куда отдавать готовые дайджесты
+     */
+    public DigestCoalescer(ReminderChannel channel,
+                           long windowMs,
+                           int maxSize,
+                           boolean virtualThreads,
+                           Consumer<List<ReminderDigest>> downstream)
+    {
+        if (windowMs < 0 || maxSize < 1)
+        {
+            throw new IllegalArgumentException("Invalid digest settings");
+        }
+
+        this.windowMs = windowMs;
+        this.maxSize = maxSize;
+        this.downstream = downstream;
+        this.windowTimer = windowMs > 0
+                ? Executors.newSingleThreadScheduledExecutor(BackgroundThreadFactory.create(
+                        "reminder-" + channel.name().toLowerCase(Locale.ROOT) + "-digest", virtualThreads))
+                : null;
+    }
+
+    /**
+     * Настройки из {@code reminder.channel.<канал>.digest-window-ms} и {@code digest-max-size}
+     */
+    public static DigestCoalescer fromEnvironment(Environment environment,
+                                                  ReminderChannel channel,
+                                                  Consumer<List<ReminderDigest>> downstream)
+    {
+        String prefix = "reminder.channel." + channel.name().toLowerCase(Locale.ROOT) + ".";
+
+        return new DigestCoalescer(
+                channel,
+                environment.getProperty(prefix + "digest-window-ms", Long.class, 0L),
+                environment.getProperty(prefix + "digest-max-size", Integer.class, 20),
+                environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false),
+                downstream
+        );
+    }
+
+    /**
+     * Принимает напоминания канала. Полные группы уходят сразу, остальные ждут своего окна
+     */
+    public void submit(List<ReminderMessage> messages)
+    {
+        List<ReminderDigest> ready = new ArrayList<>();
+
+        if (windowTimer == null)
+        {
+            Map<Long, List<ReminderMessage>> byUser = new LinkedHashMap<>();
+            for (ReminderMessage message : messages)
+            {
+                List<ReminderMessage> group = byUser.computeIfAbsent(message.userId(), id -> new ArrayList<>());
+                group.add(message);
+
+                if (group.size() >= maxSize)
+                {
+                    ready.add(ReminderDigest.of(group));
+                    byUser.remove(message.userId());
+                }
+            }
+            byUser.values().forEach(group -> ready.add(ReminderDigest.of(group)));
+        }
+        else
+        {
+            synchronized (groupsLock)
+            {
+                for (ReminderMessage message : messages)
+                {
+                    Long userId = message.userId();
+                    List<ReminderMessage> group = groups.get(userId);
+
+                    if (group == null)
+                    {
+                        List<ReminderMessage> opened = new ArrayList<>();
+                        groups.put(userId, opened);
+                        windowTimer.schedule(() -> flush(userId, opened), windowMs, TimeUnit.MILLISECONDS);
+                        group = opened;
+                    }
+
+                    group.add(message);
+
+                    if (group.size() >= maxSize)
+                    {
+                        groups.remove(userId);
+                        ready.add(ReminderDigest.of(group));
+                    }
+                }
+            }
+        }
+
+        if (!ready.isEmpty())
+        {
+            downstream.accept(ready);
+        }
+    }
+
+    /**
+     * Сколько пользователей ждут окончания окна
+     */
+    public int pendingGroups()
+    {
+        synchronized (groupsLock)
+        {
+            return groups.size();
+        }
+    }
+
+    /**
+     * Отдаёт все ждущие группы, не дожидаясь окна
+     */
+    public void shutdown()
+    {
+        if (windowTimer != null)
+        {
+            windowTimer.shutdownNow();
+        }
+
+        List<ReminderDigest> ready = new ArrayList<>();
+        synchronized (groupsLock)
+        {
+            groups.values().forEach(group -> ready.add(ReminderDigest.of(group)));
+            groups.clear();
+        }
+
+        if (!ready.isEmpty())
+        {
+            downstream.accept(ready);
+        }
+    }
+
+    private void flush(Long userId, List<ReminderMessage> group)
+    {
+        synchronized (groupsLock)
+        {
+            // группа уже ушла по размеру; у пользователя может быть новая группа со своим окном
+            if (groups.get(userId) != group)
+            {
+                return;
+            }
+            groups.remove(userId);
+        }
+
+        downstream.accept(List.of(ReminderDigest.of(group)));
+    }
+}
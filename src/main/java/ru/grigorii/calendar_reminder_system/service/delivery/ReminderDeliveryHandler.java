@@ -0,0 +1,11 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import java.util.List;
+
+/**
+ * Получатель пачек сообщений, забранных из outbox
+ */
+public interface ReminderDeliveryHandler
+{
+    void handle(List<ReminderMessage> batch);
+}
@@ -0,0 +1,51 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.boot.health.contributor.Status;
+import org.springframework.stereotype.Component;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Здоровье доставки напоминаний (/actuator/health, компонент reminderDelivery). <br/>
+ * DEGRADED, если самая старая наступившая доставка ждёт дольше SLO ({@code reminder.delivery.slo-ms}) или
+ * какой-то канал недавно отправил напоминание с таким опозданием; приложение при этом продолжает работать
+ */
+@Component
+public class ReminderDeliveryHealthIndicator implements HealthIndicator
+{
+    public static final Status DEGRADED = new Status("DEGRADED", "Reminders are delivered later than the SLO");
+
+    private final DeliveryMetrics metrics;
+
+    public ReminderDeliveryHealthIndicator(DeliveryMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Health health()
+    {
+        Duration slo = metrics.slo();
+        Duration oldestAge = metrics.oldestAge();
+
+        boolean late = oldestAge.compareTo(slo) > 0;
+        Map<ReminderChannel, Long> maxLagMs = new EnumMap<>(ReminderChannel.class);
+        for (Map.Entry<ReminderChannel, Duration> lag : metrics.maxLag().entrySet())
+        {
+            maxLagMs.put(lag.getKey(), lag.getValue().toMillis());
+            late |= lag.getValue().compareTo(slo) > 0;
+        }
+
+        return (late ? Health.status(DEGRADED) : Health.up())
+                .withDetail("sloMs", slo.toMillis())
+                .withDetail("backlog", metrics.backlog())
+                .withDetail("oldestAgeMs", oldestAge.toMillis())
+                .withDetail("maxLagMs", maxLagMs)
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Напоминания одного пользователя по одному каналу, которые уходят одним сообщением. Дайджест из одного
+ * напоминания отправляется как обычное напоминание
+ * @param userId id получателя
+ * @param recipient адрес получателя (email)
+ * @param channel канал отправки
+ * @param reminders напоминания по времени начала события
+ */
+public record ReminderDigest(
+        Long userId,
+        String recipient,
+        ReminderChannel channel,
+        List<ReminderMessage> reminders
+)
+{
+    public ReminderDigest
+    {
+        if (reminders.isEmpty())
+        {
+            throw new IllegalArgumentException("Digest must contain at least one reminder");
+        }
+        reminders = List.copyOf(reminders);
+    }
+
+    /**
+     * Дайджест из напоминаний одного пользователя и канала
+     */
+    public static ReminderDigest of(List<ReminderMessage> reminders)
+    {
+        ReminderMessage first = reminders.getFirst();
+
+        return new ReminderDigest(
+                first.userId(),
+                first.recipient(),
+                first.channel(),
+                reminders.stream()
+                        .sorted(Comparator.comparing(ReminderMessage::eventStart))
+                        .toList()
+        );
+    }
+
+    public int size()
+    {
+        return reminders.size();
+    }
+
+    /**
+     * Самое раннее время напоминания в дайджесте
+     */
+    public LocalDateTime remindAt()
+    {
+        return reminders.stream()
+                .map(ReminderMessage::remindAt)
+                .min(Comparator.naturalOrder())
+                .orElseThrow();
+    }
+
+    /**
+     * Все напоминания пачки дайджестов - исход отправки учитывается по каждой доставке
+     */
+    public static List<ReminderMessage> reminders(List<ReminderDigest> batch)
+    {
+        return batch.stream()
+                .flatMap(digest -> digest.reminders().stream())
+                .toList();
+    }
+}
@@ -0,0 +1,48 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import ru.grigorii.calendar_reminder_system.model.Reminder;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+import ru.grigorii.calendar_reminder_system.model.ReminderDelivery;
+import ru.grigorii.calendar_reminder_system.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сообщение для отправки напоминания по каналу
+ * @param deliveryId id записи outbox
+ * @param reminderId id напоминания
+ * @param userId id получателя
+ * @param recipient адрес получателя (email)
+ * @param channel канал отправки
+ * @param eventTitle название события
+ * @param eventStart время начала события
+ * @param remindAt на когда было назначено напоминание
+ */
+public record ReminderMessage(
+        Long deliveryId,
+        Long reminderId,
+        Long userId,
+        String recipient,
+        ReminderChannel channel,
+        String eventTitle,
+        LocalDateTime eventStart,
+        LocalDateTime remindAt
+)
+{
+    public static ReminderMessage fromEntity(ReminderDelivery delivery)
+    {
+        Reminder reminder = delivery.getReminder();
+        User owner = reminder.getEvent().getCalendar().getOwner();
+
+        return new ReminderMessage(
+                delivery.getId(),
+                reminder.getId(),
+                owner.getId(),
+                owner.getEmail(),
+                reminder.getChannel(),
+                reminder.getEvent().getTitle(),
+                reminder.getEvent().getStartTime(),
+                reminder.getRemindAt()
+        );
+    }
+}
@@ -0,0 +1,198 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.grigorii.calendar_reminder_system.model.ReminderDelivery;
+import ru.grigorii.calendar_reminder_system.repository.ReminderDeliveryRepository;
+import ru.grigorii.calendar_reminder_system.service.dispatch.ReminderDueEvent;
+import ru.grigorii.calendar_reminder_system.service.support.BackgroundThreadFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Фоновый разбор outbox доставок. <br/>
+ * Каждая пачка из {@code batch-size} записей забирается одной транзакцией через
+ * {@code FOR UPDATE SKIP LOCKED} и сразу переводится в IN_FLIGHT, поэтому несколько узлов делят поток
+ * доставок без повторной отправки. Разбор запускается по срабатыванию напоминания в диспетчере
+ * (всплески схлопываются в один проход), сразу после старта и, для подстраховки, по расписанию. <br/>
+ * Восстановление после простоя держится на outbox, а не на окне догона диспетчера: первый проход после старта
+ * забирает все наступившие и не отправленные доставки, как бы давно они ни наступили.
+ */
+@Component
+@ConditionalOnProperty(prefix = "reminder.delivery", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ReminderOutboxDrainer
+{
+    private static final Logger log = LoggerFactory.getLogger(ReminderOutboxDrainer.class);
+
+    private final ReminderDeliveryRepository deliveryRepository;
+    private final ReminderDeliveryHandler deliveryHandler;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final ExecutorService drainExecutor;
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+
+    public ReminderOutboxDrainer(ReminderDeliveryRepository deliveryRepository,
+                                 ReminderDeliveryHandler deliveryHandler,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${reminder.delivery.batch-size:100}") int batchSize,
+                                 @Value("${reminder.delivery.max-batches-per-run:50}") int maxBatchesPerRun,
+                                 @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads)
+    {
+        this.deliveryRepository = deliveryRepository;
+        this.deliveryHandler = deliveryHandler;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.drainExecutor = Executors.newSingleThreadExecutor(
+                BackgroundThreadFactory.create("reminder-outbox-drain", virtualThreads));
+    }
+
+    /**
+     * Напоминание сработало - запросить разбор. Пока запрос не взят в работу, повторные не ставятся
+     */
+    @EventListener
+    public void onReminderDue(ReminderDueEvent event)
+    {
+        requestDrain();
+    }
+
+    /**
+     * Старт приложения - разобрать всё, что наступило за время простоя, не дожидаясь расписания
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStart()
+    {
+        requestDrain();
+    }
+
+    private void requestDrain()
+    {
+        if (drainRequested.compareAndSet(false, true))
+        {
+            drainExecutor.execute(() -> {
+                drainRequested.set(false);
+                drain();
+            });
+        }
+    }
+
+    /**
+     * Разбор по расписанию на случай пропущенных сигналов (другой узел, рестарт)
+     */
+    @Scheduled(fixedDelayString = "${reminder.delivery.drain-ms:30000}")
+    public void drainScheduled()
+    {
+        drain();
+    }
+
+    /**
+     * Разбирает outbox пачками, пока пачки приходят полными
+     * @return количество забранных записей
+     */
+    public synchronized int drain()
+    {
+        int total = 0;
+
+        try
+        {
+            for (int i = 0; i < maxBatchesPerRun; i++)
+            {
+                ClaimedBatch batch = claimBatch();
+                total += batch.claimed();
+
+                if (!batch.messages().isEmpty())
+                {
+                    deliveryHandler.handle(batch.messages());
+                }
+
+                if (batch.claimed() < batchSize)
+                {
+                    break;
+                }
+            }
+        }
+        catch (RuntimeException e)
+        {
+            log.error("Reminder outbox drain failed", e);
+        }
+
+        return total;
+    }
+
+    /**
+     * Одна транзакция: блокировка пачки, пометка обработанной и загрузка данных для отправки
+     */
+    private ClaimedBatch claimBatch()
+    {
+        ClaimedBatch batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+
+            List<Long> ids = deliveryRepository.lockDue(now, Limit.of(batchSize)).stream()
+                    .map(ReminderDelivery::getId)
+                    .toList();
+
+            if (ids.isEmpty())
+            {
+                return ClaimedBatch.EMPTY;
+            }
+
+            deliveryRepository.markProcessed(ids, now);
+
+            List<ReminderMessage> messages = new ArrayList<>(ids.size());
+            List<Long> alreadyRead = new ArrayList<>();
+            for (ReminderDelivery delivery : deliveryRepository.findWithDetails(ids))
+            {
+                if (Boolean.TRUE.equals(delivery.getReminder().getRead()))
+                {
+                    alreadyRead.add(delivery.getId());
+                }
+                else
+                {
+                    messages.add(ReminderMessage.fromEntity(delivery));
+                }
+            }
+
+            // напоминание уже прочитано в приложении - доставлять нечего
+            if (!alreadyRead.isEmpty())
+            {
+                deliveryRepository.markSent(alreadyRead);
+            }
+
+            return new ClaimedBatch(ids.size(), messages);
+        });
+
+        return batch != null ? batch : ClaimedBatch.EMPTY;
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        drainExecutor.shutdownNow();
+    }
+
+    /**
+     * @param claimed сколько записей забрано из outbox
+     * @param messages что из них действительно нужно отправить (прочитанные напоминания пропускаются)
+     */
+    private record ClaimedBatch(int claimed, List<ReminderMessage> messages)
+    {
+        static final ClaimedBatch EMPTY = new ClaimedBatch(0, List.of());
+    }
+}
@@ -0,0 +1,26 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+
+import java.util.List;
+
+/**
+ * Отправитель напоминаний по одному каналу. <br/>
+ * Для каждого канала должна быть ровно одна реализация; вызывается из пула этого канала,
+ * поэтому может блокироваться, не мешая остальным каналам
+ */
+public interface ReminderSender
+{
+    /**
+     * Канал, который обслуживает отправитель
+     */
+    ReminderChannel channel();
+
+    /**
+     * Отправляет пачку сообщений: каждый дайджест - одно сообщение получателю
+     * @param batch дайджесты одного канала
+     * @throws ru.grigorii.calendar_reminder_system.service.exception.ReminderSendException
+     * если пачку не удалось отправить (она будет возвращена в outbox)
+     */
+    void send(List<ReminderDigest> batch);
+}
@@ -0,0 +1,74 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Ведро токенов без блокировок. <br/>
+ * Хранится одно число - теоретическое время прихода следующего запроса (GCRA): ведро пополняется на токен
+ * каждые {@code 1 / ratePerSecond} секунд и вмещает {@code capacity} токенов. Запрос пропускается, если это время
+ * уходит вперёд не дальше ёмкости ведра, и фиксируется одним compareAndSet; при гонке попытка повторяется
+ * с новым значением. Отказ ведро не меняет
+ */
+public final class TokenBucket
+{
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param ratePerSecond сколько токенов добавляется в секунду
+     * @param capacity      сколько токенов можно потратить разом (всплеск)
+     * @param nanoClock     монотонные часы в наносекундах ({@code System::nanoTime})
+     */
+    public TokenBucket(double ratePerSecond, int capacity, LongSupplier nanoClock)
+    {
+        if (!(ratePerSecond > 0) || capacity < 1)
+        {
+            throw new IllegalArgumentException("Invalid token bucket settings");
+        }
+
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.capacityNanos = Math.multiplyExact(intervalNanos, capacity);
+        this.nanoClock = nanoClock;
+        // ведро создаётся полным
+        this.theoreticalArrival = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Взять токен
+     *
+     * @return 0, если токен взят, иначе через сколько наносекунд он появится
+     */
+    public long tryAcquire()
+    {
+        while (true)
+        {
+            long now = nanoClock.getAsLong();
+            long arrival = theoreticalArrival.get();
+            // сравнение разностью: nanoTime может переполняться
+            long next = (arrival - now > 0 ? arrival : now) + intervalNanos;
+
+            long wait = next - now - capacityNanos;
+            if (wait > 0)
+            {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next))
+            {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Вернуть взятый токен, если запрос так и не был выполнен. Время прихода, ушедшее в прошлое, ведро
+     * не переполняет: при следующем запросе отсчёт всё равно идёт от текущего момента
+     */
+    public void release()
+    {
+        theoreticalArrival.addAndGet(-intervalNanos);
+    }
+}
@@ -0,0 +1,38 @@
+package ru.grigorii.calendar_reminder_system.service.delivery.file;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+import ru.grigorii.calendar_reminder_system.service.delivery.ReminderDigest;
+import ru.grigorii.calendar_reminder_system.service.delivery.ReminderMessage;
+
+import java.nio.file.Path;
+
+/**
+ * Письма в файл: адрес, тема и время события; дайджест - одно письмо со списком событий
+ */
+@Component
+@ConditionalOnProperty(prefix = "reminder.sender", name = "mode", havingValue = "file", matchIfMissing = true)
+public class EmailFileReminderSender extends FileReminderSender
+{
+    public EmailFileReminderSender(@Value("${reminder.sender.file.directory:reminders-out}") Path directory,
+                                   @Value("${reminder.channel.email.stub-latency-ms:0}") long latencyMs)
+    {
+        super(ReminderChannel.EMAIL, directory, latencyMs);
+    }
+
+    @Override
+    protected String format(ReminderDigest digest)
+    {
+        if (digest.size() == 1)
+        {
+            ReminderMessage message = digest.reminders().getFirst();
+            return String.format("%s\tto=%s\tsubject=Reminder: %s\tstarts=%s",
+                    message.remindAt(), message.recipient(), message.eventTitle(), message.eventStart());
+        }
+
+        return String.format("%s\tto=%s\tsubject=Reminders: %d events\tevents=%s",
+                digest.remindAt(), digest.recipient(), digest.size(), events(digest));
+    }
+}
@@ -0,0 +1,104 @@
+package ru.grigorii.calendar_reminder_system.service.delivery.file;
+
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+import ru.grigorii.calendar_reminder_system.service.delivery.ReminderDigest;
+import ru.grigorii.calendar_reminder_system.service.delivery.ReminderSender;
+import ru.grigorii.calendar_reminder_system.service.exception.ReminderSendException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Локальная замена настоящего шлюза канала: каждое сообщение (напоминание или дайджест) дописывается строкой
+ * в файл {@code <directory>/<канал>.log}. Задержка {@code latencyMs} на пачку имитирует медленный шлюз
+ */
+public abstract class FileReminderSender implements ReminderSender
+{
+    private final ReminderChannel channel;
+    private final Path file;
+    private final long latencyMs;
+
+    protected FileReminderSender(ReminderChannel channel, Path directory, long latencyMs)
+    {
+        this.channel = channel;
+        this.file = directory.resolve(channel.name().toLowerCase(Locale.ROOT) + ".log");
+        this.latencyMs = latencyMs;
+    }
+
+    @Override
+    public ReminderChannel channel()
+    {
+        return channel;
+    }
+
+    @Override
+    public void send(List<ReminderDigest> batch)
+    {
+        try
+        {
+            if (latencyMs > 0)
+            {
+                Thread.sleep(latencyMs);
+            }
+
+            write(batch);
+        }
+        catch (IOException e)
+        {
+            throw new ReminderSendException(channel, e);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new ReminderSendException(channel, e);
+        }
+    }
+
+    /**
+     * Файл, в который пишет отправитель
+     */
+    public Path file()
+    {
+        return file;
+    }
+
+    /**
+     * Строка, которая попадёт в файл для одного сообщения
+     */
+    protected abstract String format(ReminderDigest digest);
+
+    /**
+     * События дайджеста одной строкой: название и время начала
+     */
+    protected static String events(ReminderDigest digest)
+    {
+        return digest.reminders().stream()
+                .map(message -> message.eventTitle() + " at " + message.eventStart())
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Пачка пишется целиком, чтобы строки параллельных пачек не перемешивались
+     */
+    private synchronized void write(List<ReminderDigest> batch) throws IOException
+    {
+        Files.createDirectories(file.getParent());
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))
+        {
+            for (ReminderDigest digest : batch)
+            {
+                writer.write(format(digest));
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package ru.grigorii.calendar_reminder_system.service.delivery.file;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+import ru.grigorii.calendar_reminder_system.service.delivery.ReminderDigest;
+import ru.grigorii.calendar_reminder_system.service.delivery.ReminderMessage;
+
+import java.nio.file.Path;
+
+/**
+ * PUSH-уведомления в файл: получатель и короткий текст
+ */
+@Component
+@ConditionalOnProperty(prefix = "reminder.sender", name = "mode", havingValue = "file", matchIfMissing = true)
+public class PushFileReminderSender extends FileReminderSender
+{
+    public PushFileReminderSender(@Value("${reminder.sender.file.directory:reminders-out}") Path directory,
+                                  @Value("${reminder.channel.push.stub-latency-ms:0}") long latencyMs)
+    {
+        super(ReminderChannel.PUSH, directory, latencyMs);
+    }
+
+    @Override
+    protected String format(ReminderDigest digest)
+    {
+        if (digest.size() == 1)
+        {
+            ReminderMessage message = digest.reminders().getFirst();
+            return String.format("%s\tuser=%d\t%s at %s",
+                    message.remindAt(), message.userId(), message.eventTitle(), message.eventStart());
+        }
+
+        return String.format("%s\tuser=%d\t%d reminders: %s",
+                digest.remindAt(), digest.userId(), digest.size(), events(digest));
+    }
+}
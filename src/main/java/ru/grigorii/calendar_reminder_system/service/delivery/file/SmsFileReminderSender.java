@@ -0,0 +1,42 @@
+package ru.grigorii.calendar_reminder_system.service.delivery.file;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+import ru.grigorii.calendar_reminder_system.service.delivery.ReminderDigest;
+import ru.grigorii.calendar_reminder_system.service.delivery.ReminderMessage;
+
+import java.nio.file.Path;
+
+/**
+ * SMS в файл: текст (для дайджеста - список событий) обрезается до длины одного сообщения
+ */
+@Component
+@ConditionalOnProperty(prefix = "reminder.sender", name = "mode", havingValue = "file", matchIfMissing = true)
+public class SmsFileReminderSender extends FileReminderSender
+{
+    private static final int MAX_LENGTH = 160;
+
+    public SmsFileReminderSender(@Value("${reminder.sender.file.directory:reminders-out}") Path directory,
+                                 @Value("${reminder.channel.sms.stub-latency-ms:0}") long latencyMs)
+    {
+        super(ReminderChannel.SMS, directory, latencyMs);
+    }
+
+    @Override
+    protected String format(ReminderDigest digest)
+    {
+        ReminderMessage first = digest.reminders().getFirst();
+        String text = digest.size() == 1
+                ? "Reminder: " + first.eventTitle() + " at " + first.eventStart()
+                : "Reminders (" + digest.size() + "): " + events(digest);
+
+        if (text.length() > MAX_LENGTH)
+        {
+            text = text.substring(0, MAX_LENGTH);
+        }
+
+        return String.format("%s\tuser=%d\t%s", digest.remindAt(), digest.userId(), text);
+    }
+}
@@ -0,0 +1,182 @@
+package ru.grigorii.calendar_reminder_system.service.dispatch;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/**
+ * Иерархическое колесо таймеров. <br/>
+ * Нижний уровень делит время на {@code wheelSize} ячеек по {@code tickMs}; всё, что не помещается в его
+ * диапазон, уходит на уровень выше с шагом, равным полному обороту нижнего. Когда верхний уровень доходит
+ * до своей ячейки, её содержимое спускается вниз. Добавление и один тик стоят O(1) (не считая сработавших
+ * элементов). Время срабатывания округляется вверх до тика, поэтому таймер никогда не срабатывает раньше
+ * срока и опаздывает не больше чем на один тик. <br/>
+ * Класс не потокобезопасен: все вызовы должны идти из одного потока.
+ *
+ * @param <T> полезная нагрузка таймера
+ */
+public class HierarchicalTimingWheel<T>
+{
+    private final long tickMs;
+    private final int wheelSize;
+    private final long interval;
+    private final ArrayDeque<Entry<T>>[] buckets;
+
+    private long currentTime;
+    private HierarchicalTimingWheel<T> overflowWheel;
+
+    /**
+     * Число элементов во всей иерархии, ведётся только на нижнем уровне
+     */
+    private int size;
+
+    /**
+     * @param tickMs длительность одного тика, мс
+     * @param wheelSize число ячеек на каждом уровне
+     * @param startMs время, с которого начинается отсчёт
+     */
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs)
+    {
+        if (tickMs <= 0 || wheelSize <= 1)
+        {
+            throw new IllegalArgumentException("tickMs must be > 0 and wheelSize > 1");
+        }
+
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.interval = tickMs * wheelSize;
+        this.buckets = new ArrayDeque[wheelSize];
+        this.currentTime = startMs - Math.floorMod(startMs, tickMs);
+
+        for (int i = 0; i < wheelSize; i++)
+        {
+            buckets[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Добавляет таймер. Если время уже наступило, нагрузка сразу передаётся в {@code expired}
+     * @param expirationMs время срабатывания
+     * @param payload нагрузка
+     * @param expired получатель сработавших таймеров
+     */
+    public void add(long expirationMs, T payload, Consumer<T> expired)
+    {
+        long remainder = Math.floorMod(expirationMs, tickMs);
+        long expiration = remainder == 0 ? expirationMs : expirationMs - remainder + tickMs;
+
+        Entry<T> entry = new Entry<>(expiration, payload);
+
+        if (insert(entry))
+        {
+            size++;
+        }
+        else
+        {
+            expired.accept(payload);
+        }
+    }
+
+    /**
+     * Продвигает часы до {@code timeMs}, отдавая все сработавшие таймеры в {@code expired}
+     * @param timeMs текущее время
+     * @param expired получатель сработавших таймеров
+     */
+    public void advanceClock(long timeMs, Consumer<T> expired)
+    {
+        while (timeMs >= currentTime + tickMs)
+        {
+            currentTime += tickMs;
+
+            if (overflowWheel != null)
+            {
+                overflowWheel.advanceOverflow(currentTime, this, expired);
+            }
+
+            ArrayDeque<Entry<T>> bucket = buckets[bucketIndex(currentTime)];
+            Entry<T> entry;
+            while ((entry = bucket.poll()) != null)
+            {
+                size--;
+                expired.accept(entry.payload());
+            }
+        }
+    }
+
+    /**
+     * Количество таймеров в колесе
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Текущее время колеса (выровнено по тику)
+     */
+    public long currentTime()
+    {
+        return currentTime;
+    }
+
+    /**
+     * Продвижение верхнего уровня: содержимое наступившей ячейки спускается в нижнее колесо
+     */
+    private void advanceOverflow(long timeMs, HierarchicalTimingWheel<T> root, Consumer<T> expired)
+    {
+        while (timeMs >= currentTime + tickMs)
+        {
+            currentTime += tickMs;
+
+            if (overflowWheel != null)
+            {
+                overflowWheel.advanceOverflow(currentTime, root, expired);
+            }
+
+            ArrayDeque<Entry<T>> bucket = buckets[bucketIndex(currentTime)];
+            Entry<T> entry;
+            while ((entry = bucket.poll()) != null)
+            {
+                if (!root.insert(entry))
+                {
+                    root.size--;
+                    expired.accept(entry.payload());
+                }
+            }
+        }
+    }
+
+    /**
+     * Кладёт таймер в подходящую ячейку
+     * @return false, если таймер уже должен сработать
+     */
+    private boolean insert(Entry<T> entry)
+    {
+        if (entry.expirationMs() <= currentTime)
+        {
+            return false;
+        }
+
+        if (entry.expirationMs() < currentTime + interval)
+        {
+            buckets[bucketIndex(entry.expirationMs())].add(entry);
+            return true;
+        }
+
+        if (overflowWheel == null)
+        {
+            overflowWheel = new HierarchicalTimingWheel<>(interval, wheelSize, currentTime);
+        }
+
+        return overflowWheel.insert(entry);
+    }
+
+    private int bucketIndex(long timeMs)
+    {
+        return (int) ((timeMs / tickMs) % wheelSize);
+    }
+
+    private record Entry<T>(long expirationMs, T payload)
+    {
+    }
+}
@@ -0,0 +1,228 @@
+package ru.grigorii.calendar_reminder_system.service.dispatch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.grigorii.calendar_reminder_system.repository.ReminderRepository;
+import ru.grigorii.calendar_reminder_system.repository.projection.ReminderSchedule;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Диспетчер напоминаний. <br/>
+ * Держит в колесе таймеров только напоминания ближайшего горизонта ({@code horizon-ms}) и раз в
+ * {@code refill-ms} дочитывает следующий отрезок по курсору (remindAt, id), поэтому таблица
+ * напоминаний может быть сколь угодно большой. Новые и изменённые напоминания приходят через
+ * {@link ReminderScheduleListener}. При срабатывании публикуется {@link ReminderDueEvent}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "reminder.dispatcher", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ReminderDispatcher
+{
+    private static final Logger log = LoggerFactory.getLogger(ReminderDispatcher.class);
+
+    private final ReminderRepository reminderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long horizonMs;
+    private final long catchUpMs;
+    private final int pageSize;
+
+    /**
+     * Напоминания, ожидающие попадания в колесо (пишут любые потоки, читает только поток тиков)
+     */
+    private final Queue<ReminderSchedule> inbox = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Актуальное время срабатывания по id напоминания. Записи колеса, не совпадающие с этой картой,
+     * считаются устаревшими и молча отбрасываются
+     */
+    private final ConcurrentHashMap<Long, Long> scheduled = new ConcurrentHashMap<>();
+
+    private HierarchicalTimingWheel<ReminderSchedule> wheel;
+
+    /**
+     * Граница загруженного горизонта: всё, что назначено не позже, уже в колесе или во входящей очереди
+     */
+    private volatile long horizonEndMs = Long.MIN_VALUE;
+
+    private LocalDateTime cursorTime;
+    private long cursorId;
+    private volatile boolean started;
+
+    public ReminderDispatcher(ReminderRepository reminderRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${reminder.dispatcher.tick-ms:1000}") long tickMs,
+                              @Value("${reminder.dispatcher.wheel-size:64}") int wheelSize,
+                              @Value("${reminder.dispatcher.horizon-ms:3600000}") long horizonMs,
+                              @Value("${reminder.dispatcher.catch-up-ms:300000}") long catchUpMs,
+                              @Value("${reminder.dispatcher.page-size:1000}") int pageSize)
+    {
+        this.reminderRepository = reminderRepository;
+        this.eventPublisher = eventPublisher;
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.horizonMs = horizonMs;
+        this.catchUpMs = catchUpMs;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Запуск после старта приложения: напоминания, пропущенные за {@code catch-up-ms}, сработают на первом тике.
+     * Окно касается только сигналов о срабатывании; доставку пропущенных напоминаний любой давности
+     * восстанавливает outbox ({@code ReminderOutboxDrainer})
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start()
+    {
+        long now = System.currentTimeMillis();
+
+        wheel = new HierarchicalTimingWheel<>(tickMs, wheelSize, now);
+        cursorTime = toLocalDateTime(now - catchUpMs);
+        cursorId = 0L;
+        started = true;
+
+        refill();
+    }
+
+    /**
+     * Запланировать напоминание (или перепланировать, если время изменилось)
+     * @param schedule напоминание
+     */
+    public void schedule(ReminderSchedule schedule)
+    {
+        long dueAtMs = toMillis(schedule.remindAt());
+
+        if (dueAtMs > horizonEndMs)
+        {
+            scheduled.remove(schedule.reminderId());
+            return;
+        }
+
+        scheduled.put(schedule.reminderId(), dueAtMs);
+        inbox.add(schedule);
+    }
+
+    /**
+     * Отменить напоминание: запись в колесе останется, но при срабатывании будет отброшена
+     * @param reminderId id напоминания
+     */
+    public void cancel(Long reminderId)
+    {
+        scheduled.remove(reminderId);
+    }
+
+    /**
+     * Количество запланированных напоминаний в памяти
+     */
+    public int scheduledCount()
+    {
+        return scheduled.size();
+    }
+
+    /**
+     * Тик колеса: переносит входящие напоминания в колесо и продвигает его часы
+     */
+    @Scheduled(fixedRateString = "${reminder.dispatcher.tick-ms:1000}")
+    public void tick()
+    {
+        if (!started)
+        {
+            return;
+        }
+
+        ReminderSchedule schedule;
+        while ((schedule = inbox.poll()) != null)
+        {
+            wheel.add(toMillis(schedule.remindAt()), schedule, this::fire);
+        }
+
+        wheel.advanceClock(System.currentTimeMillis(), this::fire);
+    }
+
+    /**
+     * Дозагрузка следующего отрезка горизонта
+     */
+    @Scheduled(fixedDelayString = "${reminder.dispatcher.refill-ms:300000}",
+            initialDelayString = "${reminder.dispatcher.refill-ms:300000}")
+    public synchronized void refill()
+    {
+        if (!started)
+        {
+            return;
+        }
+
+        long untilMs = System.currentTimeMillis() + horizonMs;
+        LocalDateTime until = toLocalDateTime(untilMs);
+
+        // граница сдвигается до чтения: всё, что закоммитят во время загрузки, придёт через слушатель
+        horizonEndMs = untilMs;
+
+        int loaded = 0;
+        List<ReminderSchedule> page;
+        do
+        {
+            page = reminderRepository.findScheduledAfter(cursorTime, cursorId, until, Limit.of(pageSize));
+
+            for (ReminderSchedule s : page)
+            {
+                schedule(s);
+                cursorTime = s.remindAt();
+                cursorId = s.reminderId();
+            }
+            loaded += page.size();
+        }
+        while (page.size() == pageSize);
+
+        cursorTime = until;
+        cursorId = Long.MAX_VALUE;
+
+        log.debug("Reminder wheel refilled up to {}: {} loaded, {} scheduled", until, loaded, scheduled.size());
+    }
+
+    private void fire(ReminderSchedule schedule)
+    {
+        if (!scheduled.remove(schedule.reminderId(), toMillis(schedule.remindAt())))
+        {
+            return;
+        }
+
+        try
+        {
+            eventPublisher.publishEvent(new ReminderDueEvent(
+                    schedule.reminderId(),
+                    schedule.userId(),
+                    schedule.remindAt()
+            ));
+        }
+        catch (RuntimeException e)
+        {
+            log.error("Reminder {} due handler failed", schedule.reminderId(), e);
+        }
+    }
+
+    private static long toMillis(LocalDateTime time)
+    {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis)
+    {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
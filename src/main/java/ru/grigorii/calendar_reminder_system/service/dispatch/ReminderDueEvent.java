@@ -0,0 +1,17 @@
+package ru.grigorii.calendar_reminder_system.service.dispatch;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие приложения: наступило время напоминания
+ * @param reminderId id напоминания
+ * @param userId id владельца календаря
+ * @param remindAt на когда было назначено напоминание
+ */
+public record ReminderDueEvent(
+        Long reminderId,
+        Long userId,
+        LocalDateTime remindAt
+)
+{
+}
@@ -0,0 +1,77 @@
+package ru.grigorii.calendar_reminder_system.service.dispatch;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import ru.grigorii.calendar_reminder_system.model.Event;
+import ru.grigorii.calendar_reminder_system.model.Reminder;
+import ru.grigorii.calendar_reminder_system.repository.projection.ReminderSchedule;
+import ru.grigorii.calendar_reminder_system.service.support.AfterCommit;
+
+import java.util.function.Consumer;
+
+/**
+ * JPA-слушатель напоминаний: после коммита сообщает диспетчеру о новых, изменённых и удалённых напоминаниях,
+ * чтобы колесо таймеров не приходилось сверять с таблицей
+ */
+@Component
+public class ReminderScheduleListener
+{
+    private final ObjectProvider<ReminderDispatcher> dispatcher;
+
+    public ReminderScheduleListener(ObjectProvider<ReminderDispatcher> dispatcher)
+    {
+        this.dispatcher = dispatcher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Reminder reminder)
+    {
+        Long reminderId = reminder.getId();
+        Long userId = ownerId(reminder);
+
+        if (Boolean.TRUE.equals(reminder.getRead()) || userId == null)
+        {
+            afterCommit(d -> d.cancel(reminderId));
+            return;
+        }
+
+        ReminderSchedule schedule = new ReminderSchedule(reminderId, userId, reminder.getRemindAt());
+        afterCommit(d -> d.schedule(schedule));
+    }
+
+    @PostRemove
+    public void onRemoved(Reminder reminder)
+    {
+        Long reminderId = reminder.getId();
+        afterCommit(d -> d.cancel(reminderId));
+    }
+
+    /**
+     * Выполняет действие после успешного коммита (или сразу, если транзакции нет)
+     */
+    private void afterCommit(Consumer<ReminderDispatcher> action)
+    {
+        ReminderDispatcher target = dispatcher.getIfAvailable();
+        if (target == null)
+        {
+            return;
+        }
+
+        AfterCommit.run(() -> action.accept(target));
+    }
+
+    private Long ownerId(Reminder reminder)
+    {
+        Event event = reminder.getEvent();
+        if (event == null || event.getCalendar() == null || event.getCalendar().getOwner() == null)
+        {
+            return null;
+        }
+
+        return event.getCalendar().getOwner().getId();
+    }
+}
@@ -0,0 +1,11 @@
+package ru.grigorii.calendar_reminder_system.service.exception;
+
+import jakarta.persistence.EntityNotFoundException;
+
+public class DeadLetterNotFoundException extends EntityNotFoundException
+{
+    public DeadLetterNotFoundException(Long id)
+    {
+        super("Dead letter with id " + id + " not found");
+    }
+}
@@ -0,0 +1,12 @@
+package ru.grigorii.calendar_reminder_system.service.exception;
+
+/**
+ * Исключение, возникающее, когда компонент VEVENT файла iCalendar некорректен или не поддерживается
+ */
+public class IcsParseException extends ServiceException
+{
+    public IcsParseException(int line, String message)
+    {
+        super("Line " + line + ": " + message);
+    }
+}
@@ -0,0 +1,12 @@
+package ru.grigorii.calendar_reminder_system.service.exception;
+
+/**
+ * Исключение, возникающее, когда правило повторения (RRULE) некорректно или не поддерживается
+ */
+public class InvalidRecurrenceRuleException extends ServiceException
+{
+    public InvalidRecurrenceRuleException(String message)
+    {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package ru.grigorii.calendar_reminder_system.service.exception;
+
+import jakarta.persistence.EntityNotFoundException;
+
+import java.time.LocalDateTime;
+
+public class OccurrenceNotFoundException extends EntityNotFoundException
+{
+    public OccurrenceNotFoundException(Long seriesId, LocalDateTime start)
+    {
+        super("Event " + seriesId + " has no occurrence at " + start);
+    }
+}
@@ -0,0 +1,21 @@
+package ru.grigorii.calendar_reminder_system.service.exception;
+
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+
+/**
+ * Исключение, возникающее, когда канал не смог отправить пачку напоминаний
+ */
+public class ReminderSendException extends ServiceException
+{
+    private static final String causeMessage = "Failed to send reminders via %s";
+
+    public ReminderSendException(ReminderChannel channel, Throwable cause)
+    {
+        super(String.format(causeMessage, channel), cause);
+    }
+
+    public ReminderSendException(ReminderChannel channel)
+    {
+        super(String.format(causeMessage, channel));
+    }
+}
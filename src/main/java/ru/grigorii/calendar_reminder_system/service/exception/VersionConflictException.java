@@ -0,0 +1,13 @@
+package ru.grigorii.calendar_reminder_system.service.exception;
+
+/**
+ * Исключение, возникающее, когда запись изменилась после того, как клиент её прочитал
+ * (версия из If-Match не совпадает с текущей)
+ */
+public class VersionConflictException extends ServiceException
+{
+    public VersionConflictException(String entity, Long id, long version)
+    {
+        super(entity + " " + id + " has been modified (current version " + version + ")");
+    }
+}
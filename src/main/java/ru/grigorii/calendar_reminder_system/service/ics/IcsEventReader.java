@@ -0,0 +1,548 @@
+package ru.grigorii.calendar_reminder_system.service.ics;
+
+import ru.grigorii.calendar_reminder_system.dto.EventDto;
+import ru.grigorii.calendar_reminder_system.dto.EventRecurrenceDto;
+import ru.grigorii.calendar_reminder_system.dto.ReminderDto;
+import ru.grigorii.calendar_reminder_system.service.exception.IcsParseException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Потоковый разбор файла iCalendar (RFC 5545): компоненты VEVENT читаются по одному и превращаются в
+ * {@link EventDto} создания события. В памяти держится только текущий компонент, поэтому размер файла не важен. <br/>
+ * Из VEVENT берутся SUMMARY, DESCRIPTION, DTSTART, DTEND / DURATION, PRIORITY, RRULE и EXDATE, из первого VALARM -
+ * TRIGGER и ACTION. Время с суффиксом Z или параметром TZID переводится в зону системы (время событий в системе
+ * локальное), плавающее время берётся как есть. Не потокобезопасно
+ */
+public class IcsEventReader implements Closeable
+{
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("uuuuMMdd");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("uuuuMMdd'T'HHmmss");
+
+    private static final int MAX_TITLE = 200;
+    private static final int MAX_DESCRIPTION = 255;
+    private static final int MAX_RULE = 1000;
+
+    /**
+     * Защита от компонента без END:VEVENT, который иначе съел бы весь файл
+     */
+    private static final int MAX_EVENT_LINES = 10_000;
+
+    private final BufferedReader reader;
+    private final Long calendarId;
+    private final ZoneId zone;
+
+    private String lookahead;
+    private int lineNumber;
+    private int propertyLine;
+
+    public IcsEventReader(Reader reader, Long calendarId, ZoneId zone)
+    {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        this.calendarId = calendarId;
+        this.zone = zone;
+    }
+
+    /**
+     * Следующее событие файла
+     *
+     * @return событие или null, если файл закончился
+     * @throws IcsParseException если очередной VEVENT некорректен; он уже прочитан, и чтение можно продолжать
+     */
+    public EventDto read() throws IOException
+    {
+        while (true)
+        {
+            Property property;
+            try
+            {
+                property = next();
+            }
+            catch (IcsParseException e)
+            {
+                // испорченная строка вне событий (заголовок календаря, VTIMEZONE) ничему не мешает
+                continue;
+            }
+
+            if (property == null)
+            {
+                return null;
+            }
+            if (property.is("BEGIN") && property.value().equalsIgnoreCase("VEVENT"))
+            {
+                return readEvent(propertyLine);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        reader.close();
+    }
+
+    /**
+     * Свойства VEVENT до END:VEVENT; вложенные компоненты, кроме первого VALARM, пропускаются
+     */
+    private EventDto readEvent(int startLine) throws IOException
+    {
+        Map<String, Property> properties = new HashMap<>();
+        List<Property> exdates = new ArrayList<>();
+        Map<String, Property> alarm = null;
+
+        Map<String, Property> target = properties;
+        int depth = 0;
+
+        for (int lines = 0; ; lines++)
+        {
+            Property property = next();
+            if (property == null)
+            {
+                throw new IcsParseException(startLine, "VEVENT is not closed");
+            }
+            if (lines > MAX_EVENT_LINES)
+            {
+                skipTo("VEVENT");
+                throw new IcsParseException(startLine, "VEVENT is too long");
+            }
+
+            if (property.is("BEGIN"))
+            {
+                if (depth++ == 0)
+                {
+                    boolean firstAlarm = property.value().equalsIgnoreCase("VALARM") && alarm == null;
+                    if (firstAlarm)
+                    {
+                        alarm = new HashMap<>();
+                    }
+                    target = firstAlarm ? alarm : null;
+                }
+            }
+            else if (property.is("END"))
+            {
+                if (depth == 0)
+                {
+                    return toEvent(startLine, properties, exdates, alarm);
+                }
+                if (--depth == 0)
+                {
+                    target = properties;
+                }
+            }
+            else if (depth == 0 && property.is("EXDATE"))
+            {
+                exdates.add(property);
+            }
+            else if (target != null && depth <= 1)
+            {
+                target.putIfAbsent(property.name(), property);
+            }
+        }
+    }
+
+    private EventDto toEvent(int line,
+                             Map<String, Property> properties,
+                             List<Property> exdates,
+                             Map<String, Property> alarm)
+    {
+        if (properties.containsKey("RECURRENCE-ID"))
+        {
+            throw new IcsParseException(line, "overridden occurrences (RECURRENCE-ID) are not supported");
+        }
+        Property status = properties.get("STATUS");
+        if (status != null && status.value().equalsIgnoreCase("CANCELLED"))
+        {
+            throw new IcsParseException(line, "event is cancelled");
+        }
+
+        Property dtStart = properties.get("DTSTART");
+        if (dtStart == null)
+        {
+            throw new IcsParseException(line, "DTSTART is missing");
+        }
+        LocalDateTime start = dateTime(line, dtStart);
+        LocalDateTime end = end(line, properties, dtStart, start);
+        if (end.isBefore(start))
+        {
+            throw new IcsParseException(line, "DTEND is before DTSTART");
+        }
+
+        Property summary = properties.get("SUMMARY");
+        String title = summary != null ? truncate(text(summary.value()).strip(), MAX_TITLE) : "";
+        Property description = properties.get("DESCRIPTION");
+
+        return new EventDto(
+                null,
+                title.isEmpty() ? "(без названия)" : title,
+                description != null ? truncate(text(description.value()), MAX_DESCRIPTION) : null,
+                start,
+                end,
+                priority(properties.get("PRIORITY")),
+                false,
+                calendarId,
+                null,
+                recurrence(line, properties.get("RRULE"), exdates, start),
+                reminder(line, alarm, start, end)
+        );
+    }
+
+    private LocalDateTime end(int line, Map<String, Property> properties, Property dtStart, LocalDateTime start)
+    {
+        Property dtEnd = properties.get("DTEND");
+        if (dtEnd != null)
+        {
+            return dateTime(line, dtEnd);
+        }
+
+        Property duration = properties.get("DURATION");
+        if (duration != null)
+        {
+            return start.plus(duration(line, duration.value()));
+        }
+
+        // событие на весь день без DTEND длится один день, событие-момент - ноль
+        return isDate(dtStart) ? start.plusDays(1) : start;
+    }
+
+    /**
+     * RRULE и EXDATE в виде текста правила, который понимает {@code RecurrenceRule}: EXDATE приведены к той же
+     * локальной зоне, что и DTSTART, иначе исключения не совпадут с вхождениями
+     */
+    private EventRecurrenceDto recurrence(int line, Property rrule, List<Property> exdates, LocalDateTime start)
+    {
+        if (rrule == null)
+        {
+            return null;
+        }
+
+        StringBuilder rule = new StringBuilder("RRULE:").append(rrule.value());
+        if (!exdates.isEmpty())
+        {
+            List<String> values = new ArrayList<>();
+            for (Property exdate : exdates)
+            {
+                for (String value : exdate.value().split(","))
+                {
+                    Property single = new Property(exdate.name(), exdate.params(), value.strip());
+                    values.add(isDate(single)
+                            ? date(line, single.value()).format(DATE)
+                            : dateTime(line, single).format(DATE_TIME));
+                }
+            }
+            rule.append("\nEXDATE:").append(String.join(",", values));
+        }
+
+        if (rule.length() > MAX_RULE)
+        {
+            throw new IcsParseException(line, "RRULE with EXDATE is longer than " + MAX_RULE + " characters");
+        }
+        return new EventRecurrenceDto(null, null, start.toLocalDate(), null, null, rule.toString());
+    }
+
+    /**
+     * Напоминание из VALARM: TRIGGER относительно начала (или конца при RELATED=END) либо абсолютный момент.
+     * ACTION:EMAIL - письмо, остальные (DISPLAY, AUDIO) - push
+     */
+    private ReminderDto reminder(int line, Map<String, Property> alarm, LocalDateTime start, LocalDateTime end)
+    {
+        if (alarm == null || !alarm.containsKey("TRIGGER"))
+        {
+            return null;
+        }
+
+        Property trigger = alarm.get("TRIGGER");
+        LocalDateTime remindAt;
+        if ("DATE-TIME".equalsIgnoreCase(trigger.param("VALUE")))
+        {
+            remindAt = dateTime(line, trigger);
+        }
+        else
+        {
+            LocalDateTime anchor = "END".equalsIgnoreCase(trigger.param("RELATED")) ? end : start;
+            remindAt = anchor.plus(duration(line, trigger.value()));
+        }
+
+        Property action = alarm.get("ACTION");
+        String channel = action != null && action.value().equalsIgnoreCase("EMAIL") ? "EMAIL" : "PUSH";
+
+        return ReminderDto.forCreate(null, remindAt, channel);
+    }
+
+    /**
+     * PRIORITY: 1-4 - высокий, 5 и не задан - средний, 6-9 - низкий
+     */
+    private static String priority(Property property)
+    {
+        if (property == null)
+        {
+            return "MEDIUM";
+        }
+        try
+        {
+            int value = Integer.parseInt(property.value().strip());
+            if (value >= 1 && value <= 4)
+            {
+                return "HIGH";
+            }
+            return value >= 6 && value <= 9 ? "LOW" : "MEDIUM";
+        }
+        catch (NumberFormatException e)
+        {
+            return "MEDIUM";
+        }
+    }
+
+    private LocalDateTime dateTime(int line, Property property)
+    {
+        String value = property.value().strip();
+        if (isDate(property))
+        {
+            return date(line, value).atStartOfDay();
+        }
+
+        try
+        {
+            if (value.endsWith("Z") || value.endsWith("z"))
+            {
+                return LocalDateTime.parse(value.substring(0, value.length() - 1), DATE_TIME)
+                        .atOffset(ZoneOffset.UTC)
+                        .atZoneSameInstant(zone)
+                        .toLocalDateTime();
+            }
+
+            LocalDateTime local = LocalDateTime.parse(value, DATE_TIME);
+            String tzid = property.param("TZID");
+            if (tzid == null)
+            {
+                return local;
+            }
+            return local.atZone(zoneOf(tzid)).withZoneSameInstant(zone).toLocalDateTime();
+        }
+        catch (DateTimeParseException e)
+        {
+            throw new IcsParseException(line, "malformed " + property.name() + ": " + value);
+        }
+    }
+
+    /**
+     * Зона TZID; нестандартные имена (описанные только в VTIMEZONE файла) считаются зоной системы
+     */
+    private ZoneId zoneOf(String tzid)
+    {
+        try
+        {
+            return ZoneId.of(tzid.startsWith("/") ? tzid.substring(1) : tzid);
+        }
+        catch (DateTimeException e)
+        {
+            return zone;
+        }
+    }
+
+    private static LocalDate date(int line, String value)
+    {
+        try
+        {
+            return LocalDate.parse(value, DATE);
+        }
+        catch (DateTimeParseException e)
+        {
+            throw new IcsParseException(line, "malformed date: " + value);
+        }
+    }
+
+    private static boolean isDate(Property property)
+    {
+        return "DATE".equalsIgnoreCase(property.param("VALUE")) || property.value().strip().length() == 8;
+    }
+
+    /**
+     * Длительность iCalendar ([+-]P[nW][nD][T[nH][nM][nS]]); недели {@link Duration#parse} не понимает
+     */
+    private static Duration duration(int line, String value)
+    {
+        String text = value.strip().toUpperCase(Locale.ROOT);
+        try
+        {
+            int weeks = text.indexOf('W');
+            if (weeks > 0)
+            {
+                boolean negative = text.startsWith("-");
+                int p = text.indexOf('P');
+                Duration result = Duration.ofDays(7 * Long.parseLong(text.substring(p + 1, weeks)));
+                return negative ? result.negated() : result;
+            }
+            return Duration.parse(text);
+        }
+        catch (RuntimeException e)
+        {
+            throw new IcsParseException(line, "malformed duration: " + value);
+        }
+    }
+
+    /**
+     * Снятие экранирования TEXT: \n, \, \; и \\
+     */
+    private static String text(String value)
+    {
+        if (value.indexOf('\\') < 0)
+        {
+            return value;
+        }
+
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length())
+            {
+                char escaped = value.charAt(++i);
+                result.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+            }
+            else
+            {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    private static String truncate(String value, int max)
+    {
+        return value.length() <= max ? value : value.substring(0, max);
+    }
+
+    private void skipTo(String component) throws IOException
+    {
+        Property property;
+        while ((property = next()) != null)
+        {
+            if (property.is("END") && property.value().equalsIgnoreCase(component))
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Следующая непустая строка содержимого со склеенными продолжениями (строки, начинающиеся с пробела или
+     * табуляции, продолжают предыдущую)
+     */
+    private Property next() throws IOException
+    {
+        String line;
+        do
+        {
+            line = lookahead != null ? lookahead : readLine();
+            lookahead = null;
+            if (line == null)
+            {
+                return null;
+            }
+        }
+        while (line.isBlank());
+
+        propertyLine = lineNumber;
+        StringBuilder unfolded = null;
+        String continuation;
+        while ((continuation = readLine()) != null
+                && !continuation.isEmpty()
+                && (continuation.charAt(0) == ' ' || continuation.charAt(0) == '\t'))
+        {
+            if (unfolded == null)
+            {
+                unfolded = new StringBuilder(line);
+            }
+            unfolded.append(continuation, 1, continuation.length());
+        }
+        lookahead = continuation;
+
+        return Property.parse(propertyLine, unfolded != null ? unfolded.toString() : line);
+    }
+
+    private String readLine() throws IOException
+    {
+        String line = reader.readLine();
+        if (line != null)
+        {
+            lineNumber++;
+        }
+        return line;
+    }
+
+    /**
+     * Строка содержимого NAME;PARAM=VALUE;...:value
+     *
+     * @param name   имя свойства в верхнем регистре
+     * @param params параметры (имена в верхнем регистре, кавычки сняты)
+     * @param value  значение как есть
+     */
+    private record Property(String name, Map<String, String> params, String value)
+    {
+        static Property parse(int line, String text)
+        {
+            int colon = -1;
+            boolean quoted = false;
+            for (int i = 0; i < text.length() && colon < 0; i++)
+            {
+                char c = text.charAt(i);
+                if (c == '"')
+                {
+                    quoted = !quoted;
+                }
+                else if (c == ':' && !quoted)
+                {
+                    colon = i;
+                }
+            }
+            if (colon <= 0)
+            {
+                throw new IcsParseException(line, "malformed content line");
+            }
+
+            String[] head = text.substring(0, colon).split(";");
+            Map<String, String> params = new HashMap<>();
+            for (int i = 1; i < head.length; i++)
+            {
+                int eq = head[i].indexOf('=');
+                if (eq > 0)
+                {
+                    String value = head[i].substring(eq + 1);
+                    if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\""))
+                    {
+                        value = value.substring(1, value.length() - 1);
+                    }
+                    params.put(head[i].substring(0, eq).toUpperCase(Locale.ROOT), value);
+                }
+            }
+
+            return new Property(head[0].toUpperCase(Locale.ROOT), params, text.substring(colon + 1));
+        }
+
+        boolean is(String name)
+        {
+            return this.name.equals(name);
+        }
+
+        String param(String name)
+        {
+            return params.get(name);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package ru.grigorii.calendar_reminder_system.service.ics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Состояние фонового импорта файла iCalendar: пишется потоком импорта, читается запросами прогресса
+ */
+public class IcsImportJob
+{
+    /**
+     * Сколько сообщений о пропущенных событиях хранить
+     */
+    private static final int MAX_ERRORS = 20;
+
+    public enum State
+    {
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Long calendarId;
+    private final Long ownerId;
+    private final long totalBytes;
+
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicInteger imported = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger chunks = new AtomicInteger();
+    private final List<String> errors = new ArrayList<>();
+
+    private volatile State state = State.RUNNING;
+    private volatile String failure;
+
+    public IcsImportJob(Long calendarId, Long ownerId, long totalBytes)
+    {
+        this.calendarId = calendarId;
+        this.ownerId = ownerId;
+        this.totalBytes = totalBytes;
+    }
+
+    public void bytesRead(long bytes)
+    {
+        bytesRead.addAndGet(bytes);
+    }
+
+    /**
+     * Пачка событий сохранена (транзакция пачки зафиксирована)
+     */
+    public void chunkSaved(int events)
+    {
+        imported.addAndGet(events);
+        chunks.incrementAndGet();
+    }
+
+    public void skip(String reason)
+    {
+        skipped.incrementAndGet();
+        synchronized (errors)
+        {
+            if (errors.size() < MAX_ERRORS)
+            {
+                errors.add(reason);
+            }
+        }
+    }
+
+    public void complete()
+    {
+        state = State.DONE;
+    }
+
+    public void fail(String reason)
+    {
+        failure = reason;
+        state = State.FAILED;
+    }
+
+    public String getId()
+    {
+        return id;
+    }
+
+    public Long getCalendarId()
+    {
+        return calendarId;
+    }
+
+    public Long getOwnerId()
+    {
+        return ownerId;
+    }
+
+    public long getTotalBytes()
+    {
+        return totalBytes;
+    }
+
+    public long getBytesRead()
+    {
+        return Math.min(bytesRead.get(), totalBytes);
+    }
+
+    public int getImported()
+    {
+        return imported.get();
+    }
+
+    public int getSkipped()
+    {
+        return skipped.get();
+    }
+
+    public int getChunks()
+    {
+        return chunks.get();
+    }
+
+    public List<String> getErrors()
+    {
+        synchronized (errors)
+        {
+            return List.copyOf(errors);
+        }
+    }
+
+    public State getState()
+    {
+        return state;
+    }
+
+    public String getFailure()
+    {
+        return failure;
+    }
+}
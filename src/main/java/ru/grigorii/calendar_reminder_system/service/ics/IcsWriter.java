@@ -0,0 +1,230 @@
+package ru.grigorii.calendar_reminder_system.service.ics;
+
+import ru.grigorii.calendar_reminder_system.model.Event;
+import ru.grigorii.calendar_reminder_system.model.EventRecurrence;
+import ru.grigorii.calendar_reminder_system.model.RecurrenceType;
+import ru.grigorii.calendar_reminder_system.model.Reminder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Запись файла iCalendar (RFC 5545) по одному событию: ничего не накапливается, каждое событие сразу уходит
+ * в writer. <br/>
+ * Время событий в системе локальное, поэтому пишется плавающим (без TZID), а зона сервера указывается в
+ * X-WR-TIMEZONE - так её понимают распространённые клиенты, и правила повторения не сдвигаются при переходе на
+ * летнее время. Серия пишется с RRULE, её выполненные вхождения - переопределениями (тот же UID и RECURRENCE-ID)
+ */
+public class IcsWriter
+{
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("uuuuMMdd'T'HHmmss");
+
+    /**
+     * Максимальная длина строки содержимого в октетах, длинные строки переносятся
+     */
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final Writer writer;
+    private final ZoneId zone;
+
+    public IcsWriter(Writer writer, ZoneId zone)
+    {
+        this.writer = writer;
+        this.zone = zone;
+    }
+
+    public void begin(String calendarName)
+    {
+        line("BEGIN:VCALENDAR");
+        line("VERSION:2.0");
+        line("PRODID:-//calendar-reminder-system//RU");
+        line("CALSCALE:GREGORIAN");
+        line("X-WR-CALNAME:" + text(calendarName));
+        line("X-WR-TIMEZONE:" + zone.getId());
+    }
+
+    public void end()
+    {
+        line("END:VCALENDAR");
+    }
+
+    public void write(Event event)
+    {
+        Event series = event.getSeries();
+        boolean override = series != null
+                && event.getOriginalStart() != null
+                && series.getRecurrence() != null
+                && !event.getOriginalStart().isBefore(seriesStart(series));
+
+        line("BEGIN:VEVENT");
+        line("UID:" + uid(override ? series : event));
+        line("DTSTAMP:" + utc(event.getUpdatedAt()));
+        if (override)
+        {
+            line("RECURRENCE-ID:" + DATE_TIME.format(event.getOriginalStart()));
+        }
+
+        LocalDateTime start = event.getRecurrence() != null ? seriesStart(event) : event.getStartTime();
+        line("DTSTART:" + DATE_TIME.format(start));
+        if (event.getEndTime() != null)
+        {
+            line("DTEND:" + DATE_TIME.format(start.plus(Duration.between(event.getStartTime(), event.getEndTime()))));
+        }
+
+        line("SUMMARY:" + text(event.getTitle()));
+        if (event.getDescription() != null && !event.getDescription().isBlank())
+        {
+            line("DESCRIPTION:" + text(event.getDescription()));
+        }
+        line("PRIORITY:" + switch (event.getPriority())
+        {
+            case HIGH -> 1;
+            case MEDIUM -> 5;
+            case LOW -> 9;
+        });
+
+        if (event.getRecurrence() != null)
+        {
+            rule(event.getRecurrence());
+        }
+        if (event.getReminder() != null)
+        {
+            alarm(event.getReminder(), event);
+        }
+
+        line("END:VEVENT");
+    }
+
+    /**
+     * Начало серии так, как его отсчитывает {@code RecurrenceExpander}: для правила RRULE - дата начала
+     * повторений со временем события, для простого типа - неизменное начало первого вхождения
+     * (выполненные вхождения остаются в ленте исключениями)
+     */
+    private static LocalDateTime seriesStart(Event series)
+    {
+        EventRecurrence recurrence = series.getRecurrence();
+        if (recurrence.getRrule() != null && recurrence.getFromDate() != null)
+        {
+            return recurrence.getFromDate().atTime(series.getStartTime().toLocalTime());
+        }
+        return recurrence.origin(series.getStartTime());
+    }
+
+    private void rule(EventRecurrence recurrence)
+    {
+        if (recurrence.getRrule() != null)
+        {
+            for (String rule : recurrence.getRrule().split("\n"))
+            {
+                line(rule.startsWith("FREQ=") ? "RRULE:" + rule : rule);
+            }
+            return;
+        }
+
+        if (recurrence.getRecurrenceType() != RecurrenceType.NONE)
+        {
+            line("RRULE:FREQ=" + recurrence.getRecurrenceType().name()
+                    + (recurrence.getUntilDate() != null
+                    ? ";UNTIL=" + DATE_TIME.format(recurrence.getUntilDate().atTime(23, 59, 59))
+                    : ""));
+        }
+    }
+
+    private void alarm(Reminder reminder, Event event)
+    {
+        Duration offset = Duration.between(event.getStartTime(), reminder.getRemindAt());
+
+        line("BEGIN:VALARM");
+        line("ACTION:DISPLAY");
+        line("DESCRIPTION:" + text(event.getTitle()));
+        // Duration.toString пишет знак внутри (PT-15M), а iCalendar - перед P (-PT15M)
+        line("TRIGGER:" + (offset.isNegative() ? "-" + offset.negated() : offset.toString()));
+        line("END:VALARM");
+    }
+
+    private static String uid(Event event)
+    {
+        return "event-" + event.getId() + "@calendar-reminder-system";
+    }
+
+    private String utc(LocalDateTime time)
+    {
+        return DATE_TIME.format(time.atZone(zone).withZoneSameInstant(ZoneOffset.UTC)) + "Z";
+    }
+
+    /**
+     * Экранирование TEXT: \, ; , и перевод строки
+     */
+    private static String text(String value)
+    {
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            if (c == '\r')
+            {
+                // CRLF описания сводится к одному \n
+                continue;
+            }
+
+            switch (c)
+            {
+                case '\\', ';', ',' -> result.append('\\').append(c);
+                case '\n' -> result.append("\\n");
+                default -> result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Строка содержимого с CRLF; строки длиннее 75 октетов переносятся (продолжение начинается с пробела),
+     * не разрывая символы UTF-8
+     */
+    private void line(String content)
+    {
+        try
+        {
+            int octets = 0;
+            int limit = MAX_LINE_OCTETS;
+            for (int i = 0; i < content.length(); )
+            {
+                int codePoint = content.codePointAt(i);
+                int size = utf8Length(codePoint);
+                if (octets + size > limit)
+                {
+                    writer.write("\r\n ");
+                    octets = 0;
+                    limit = MAX_LINE_OCTETS - 1;
+                }
+                writer.write(content, i, Character.charCount(codePoint));
+                octets += size;
+                i += Character.charCount(codePoint);
+            }
+            writer.write("\r\n");
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int utf8Length(int codePoint)
+    {
+        if (codePoint < 0x80)
+        {
+            return 1;
+        }
+        if (codePoint < 0x800)
+        {
+            return 2;
+        }
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+}
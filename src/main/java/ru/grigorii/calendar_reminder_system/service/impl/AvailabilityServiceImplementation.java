@@ -0,0 +1,127 @@
+package ru.grigorii.calendar_reminder_system.service.impl;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.grigorii.calendar_reminder_system.dto.BusyIntervalDto;
+import ru.grigorii.calendar_reminder_system.dto.TimeSlotDto;
+import ru.grigorii.calendar_reminder_system.model.Event;
+import ru.grigorii.calendar_reminder_system.repository.EventRepository;
+import ru.grigorii.calendar_reminder_system.repository.projection.OccurrenceKey;
+import ru.grigorii.calendar_reminder_system.service.availability.AvailabilityIndex;
+import ru.grigorii.calendar_reminder_system.service.availability.UserAvailability;
+import ru.grigorii.calendar_reminder_system.service.mvc.AvailabilityMvcService;
+import ru.grigorii.calendar_reminder_system.service.recurrence.OccurrenceCache;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@Timed(value = "service.calls", histogram = true)
+@Transactional(readOnly = true)
+public class AvailabilityServiceImplementation implements AvailabilityMvcService
+{
+    private final EventRepository eventRepository;
+    private final OccurrenceCache occurrenceCache;
+    private final AvailabilityIndex availabilityIndex;
+    private final int horizonPastDays;
+    private final int horizonFutureDays;
+
+    public AvailabilityServiceImplementation(EventRepository eventRepository,
+                                             OccurrenceCache occurrenceCache,
+                                             AvailabilityIndex availabilityIndex,
+                                             @Value("${availability.horizon.past-days:31}") int horizonPastDays,
+                                             @Value("${availability.horizon.future-days:366}") int horizonFutureDays)
+    {
+        this.eventRepository = eventRepository;
+        this.occurrenceCache = occurrenceCache;
+        this.availabilityIndex = availabilityIndex;
+        this.horizonPastDays = horizonPastDays;
+        this.horizonFutureDays = horizonFutureDays;
+    }
+
+    /**
+     * WEB: занятые интервалы пользователя (во всех его календарях), пересекающие окно [from, to)
+     *
+     * @param ownerId id пользователя
+     * @param from    начало окна
+     * @param to      конец окна (не включительно)
+     * @return интервалы по возрастанию начала
+     */
+    @Override
+    public List<BusyIntervalDto> findBusy(Long ownerId, LocalDateTime from, LocalDateTime to)
+    {
+        return availability(ownerId, from, to).overlapping(from, to);
+    }
+
+    /**
+     * WEB: свободные промежутки пользователя в окне [from, to) длиной не меньше length
+     *
+     * @param ownerId id пользователя
+     * @param from    начало окна
+     * @param to      конец окна (не включительно)
+     * @param length  минимальная длина промежутка
+     * @return промежутки по возрастанию
+     */
+    @Override
+    public List<TimeSlotDto> findFreeSlots(Long ownerId, LocalDateTime from, LocalDateTime to, Duration length)
+    {
+        return availability(ownerId, from, to).gaps(from, to, length).stream()
+                .map(gap -> new TimeSlotDto(gap.start(), gap.end()))
+                .toList();
+    }
+
+    /**
+     * Индекс пользователя на горизонте вокруг текущей даты; для окна за пределами горизонта строится
+     * временное дерево только по этому окну
+     */
+    private UserAvailability availability(Long ownerId, LocalDateTime from, LocalDateTime to)
+    {
+        LocalDate today = LocalDate.now();
+        LocalDateTime horizonFrom = today.minusDays(horizonPastDays).atStartOfDay();
+        LocalDateTime horizonTo = today.plusDays(horizonFutureDays).atStartOfDay();
+
+        UserAvailability index = availabilityIndex.get(ownerId, () -> build(ownerId, horizonFrom, horizonTo));
+        if (index.covers(from, to))
+        {
+            return index;
+        }
+        return build(ownerId, from, to);
+    }
+
+    /**
+     * Построение индекса: сохранённые события и вычисленные вхождения незавершённых серий
+     * (кроме материализованных исключениями - они уже среди сохранённых)
+     */
+    private UserAvailability build(Long ownerId, LocalDateTime from, LocalDateTime to)
+    {
+        List<BusyIntervalDto> intervals = new ArrayList<>();
+        eventRepository.findBusyByOwner(ownerId, from, to)
+                .forEach(interval -> intervals.add(BusyIntervalDto.fromInterval(interval)));
+
+        List<Event> series = eventRepository.findSeriesByOwnerIntersecting(ownerId, from.toLocalDate(), to);
+        if (!series.isEmpty())
+        {
+            Set<OccurrenceKey> materialized = new HashSet<>(eventRepository.findOccurrenceKeys(
+                    series.stream().map(Event::getId).toList(), from, to));
+
+            for (Event head : series)
+            {
+                LocalDateTime origin = head.getRecurrence().origin(head.getStartTime());
+                occurrenceCache.between(head.getRecurrence(), origin, from, to).stream()
+                        .filter(start -> start.isAfter(head.getStartTime()))
+                        .filter(start -> !materialized.contains(new OccurrenceKey(head.getId(), start)))
+                        .map(start -> BusyIntervalDto.virtual(head, start))
+                        .forEach(intervals::add);
+            }
+        }
+
+        return new UserAvailability(from, to, intervals);
+    }
+}
@@ -1,23 +1,32 @@
 package ru.grigorii.calendar_reminder_system.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.grigorii.calendar_reminder_system.dto.CalendarDto;
+import ru.grigorii.calendar_reminder_system.dto.VersionDto;
 import ru.grigorii.calendar_reminder_system.model.Calendar;
 import ru.grigorii.calendar_reminder_system.model.User;
 import ru.grigorii.calendar_reminder_system.repository.CalendarRepository;
 import ru.grigorii.calendar_reminder_system.repository.UserRepository;
+import ru.grigorii.calendar_reminder_system.repository.projection.CalendarVersion;
 import ru.grigorii.calendar_reminder_system.service.exception.CalendarAccessDeniedException;
 import ru.grigorii.calendar_reminder_system.service.exception.CalendarNotFoundException;
 import ru.grigorii.calendar_reminder_system.service.mvc.CalendarMvcService;
 import ru.grigorii.calendar_reminder_system.service.rest.CalendarRestService;
+import ru.grigorii.calendar_reminder_system.service.support.StreamingExport;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
+@Timed(value = "service.calls", histogram = true)
 @Transactional
 public class CalendarServiceImplementation
         implements CalendarMvcService, CalendarRestService
@@ -26,6 +35,9 @@ public class CalendarServiceImplementation
     private final CalendarRepository calendarRepository;
     private final UserRepository userRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     public CalendarServiceImplementation(CalendarRepository calendarRepository, UserRepository userRepository)
     {
@@ -126,6 +138,27 @@ public class CalendarServiceImplementation
         return CalendarDto.fromEntity(calendar);
     }
 
+    /**
+     * WEB: версия календаря вместе с событиями одним запросом, без загрузки событий
+     * @param calendarId id календаря
+     * @param ownerId id владельца
+     * @return версия календаря
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public VersionDto findVersionForOwner(Long calendarId, Long ownerId)
+    {
+        CalendarVersion version = calendarRepository.findVersion(calendarId)
+                .orElseThrow(() -> new CalendarNotFoundException(calendarId));
+
+        if (!version.ownerId().equals(ownerId))
+        {
+            throw new CalendarAccessDeniedException();
+        }
+
+        return VersionDto.fromCalendar(calendarId, version);
+    }
+
     /**
      * REST API: возвращает все календари
      * @return список календарей
@@ -139,6 +172,33 @@ public class CalendarServiceImplementation
                 .toList();
     }
 
+    /**
+     * REST API: страница календари по ключу (id > afterId), упорядоченная по id
+     * @param afterId id последней записи предыдущей страницы (0 - с начала)
+     * @param limit размер страницы
+     * @return страница
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<CalendarDto> findPage(Long afterId, int limit)
+    {
+        return calendarRepository.findByIdGreaterThanOrderById(afterId, Limit.of(limit))
+                .stream()
+                .map(CalendarDto::fromEntity)
+                .toList();
+    }
+
+    /**
+     * REST API: выгрузка всех календарей потоком за постоянную память
+     * @param sink получатель записей
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<CalendarDto> sink)
+    {
+        StreamingExport.forEach(entityManager, calendarRepository.streamAll(), CalendarDto::fromEntity, sink);
+    }
+
     /**
      * REST API: находит календарь по id
      * @param id id календаря
@@ -152,6 +212,20 @@ public class CalendarServiceImplementation
         return CalendarDto.fromEntity(calendar);
     }
 
+    /**
+     * REST API: версия календаря без его загрузки
+     * @param id id календаря
+     * @return версия календаря
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public VersionDto findVersion(Long id)
+    {
+        return calendarRepository.findVersionById(id)
+                .map(VersionDto::fromEntity)
+                .orElseThrow(() -> new EntityNotFoundException("Calendar not found"));
+    }
+
     /**
      * REST API: Найти календари по id владельца
      * @param ownerId id владельца
@@ -5,6 +5,7 @@ import ru.grigorii.calendar_reminder_system.dto.EventDto;
 import ru.grigorii.calendar_reminder_system.dto.EventRecurrenceDto;
 import ru.grigorii.calendar_reminder_system.dto.ReminderDto;
 import ru.grigorii.calendar_reminder_system.model.*;
+import ru.grigorii.calendar_reminder_system.service.recurrence.RecurrenceRuleCompiler;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -15,6 +16,12 @@ import java.time.LocalDateTime;
 @Component
 public class EventFactory
 {
+    private final RecurrenceRuleCompiler ruleCompiler;
+
+    public EventFactory(RecurrenceRuleCompiler ruleCompiler)
+    {
+        this.ruleCompiler = ruleCompiler;
+    }
 
     /**
      * Создание события
@@ -48,7 +55,7 @@ public class EventFactory
     }
 
     /**
-     * Создание повторения события
+     * Создание повторения события (правило RRULE проверяется и компилируется)
      */
     private EventRecurrence createRecurrence(EventRecurrenceDto dto,
                                              Event event)
@@ -57,8 +64,8 @@ public class EventFactory
         EventRecurrence r = new EventRecurrence();
         r.setEvent(event);
         r.setFromDate(dto.fromDate());
-        r.setUntilDate(dto.untilDate());
-        r.setRecurrenceType(dto.type());
+        r.setSeriesStart(event.getStartTime());
+        ruleCompiler.applyTo(r, dto);
 
         return r;
     }
@@ -73,6 +80,7 @@ public class EventFactory
         r.setRemindAt(dto.remindAt());
         r.setChannel(ReminderChannel.valueOf(dto.channel()));
         r.setRead(false);
+        r.getDeliveries().add(ReminderDelivery.pendingFor(r));
         return r;
     }
 
@@ -105,24 +113,8 @@ public class EventFactory
     }
 
     /**
-     * Копирование повторений
-     */
-    public EventRecurrence copyRecurrence(EventRecurrence source,
-                                          Event target,
-                                          LocalDateTime nextStart)
-    {
-
-        EventRecurrence r = new EventRecurrence();
-        r.setEvent(target);
-        r.setFromDate(nextStart.toLocalDate());
-        r.setUntilDate(source.getUntilDate());
-        r.setRecurrenceType(source.getRecurrenceType());
-
-        return r;
-    }
-
-    /**
-     * Копирование напоминания
+     * Копирование напоминания серии для изменённого вхождения (вместе с записью outbox на его доставку):
+     * напоминание отстоит от начала вхождения так же, как напоминание серии от её начала
      */
     public Reminder copyReminder(Reminder source,
                                  Event target,
@@ -140,6 +132,7 @@ public class EventFactory
         reminder.setRemindAt(nextStart.plus(delta));
         reminder.setChannel(source.getChannel());
         reminder.setRead(false);
+        reminder.getDeliveries().add(ReminderDelivery.pendingFor(reminder));
 
         return reminder;
     }
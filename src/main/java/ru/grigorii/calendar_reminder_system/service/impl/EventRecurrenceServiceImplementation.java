@@ -1,30 +1,51 @@
 package ru.grigorii.calendar_reminder_system.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.grigorii.calendar_reminder_system.dto.EventRecurrenceDto;
+import ru.grigorii.calendar_reminder_system.model.Event;
 import ru.grigorii.calendar_reminder_system.model.EventRecurrence;
 import ru.grigorii.calendar_reminder_system.repository.EventRecurrenceRepository;
 import ru.grigorii.calendar_reminder_system.repository.EventRepository;
+import ru.grigorii.calendar_reminder_system.service.availability.AvailabilityIndex;
+import ru.grigorii.calendar_reminder_system.service.recurrence.RecurrenceRuleCompiler;
 import ru.grigorii.calendar_reminder_system.service.rest.EventRecurrenceRestService;
+import ru.grigorii.calendar_reminder_system.service.support.AfterCommit;
+import ru.grigorii.calendar_reminder_system.service.support.StreamingExport;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
+@Timed(value = "service.calls", histogram = true)
 @Transactional
 public class EventRecurrenceServiceImplementation implements EventRecurrenceRestService
 {
     private final EventRecurrenceRepository recurrenceRepository;
     private final EventRepository eventRepository;
+    private final RecurrenceRuleCompiler ruleCompiler;
+    private final AvailabilityIndex availabilityIndex;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public EventRecurrenceServiceImplementation(
             EventRecurrenceRepository recurrenceRepository,
-            EventRepository eventRepository
+            EventRepository eventRepository,
+            RecurrenceRuleCompiler ruleCompiler,
+            AvailabilityIndex availabilityIndex
     )
     {
         this.recurrenceRepository = recurrenceRepository;
         this.eventRepository = eventRepository;
+        this.ruleCompiler = ruleCompiler;
+        this.availabilityIndex = availabilityIndex;
     }
 
     public List<EventRecurrenceDto> findAll()
@@ -35,6 +56,31 @@ public class EventRecurrenceServiceImplementation implements EventRecurrenceRest
                 .toList();
     }
 
+    /**
+     * REST API: страница повторения по ключу (id > afterId), упорядоченная по id
+     * @param afterId id последней записи предыдущей страницы (0 - с начала)
+     * @param limit размер страницы
+     * @return страница
+     */
+    @Transactional(readOnly = true)
+    public List<EventRecurrenceDto> findPage(Long afterId, int limit)
+    {
+        return recurrenceRepository.findByIdGreaterThanOrderById(afterId, Limit.of(limit))
+                .stream()
+                .map(EventRecurrenceDto::fromEntity)
+                .toList();
+    }
+
+    /**
+     * REST API: выгрузка всех повторений потоком за постоянную память
+     * @param sink получатель записей
+     */
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<EventRecurrenceDto> sink)
+    {
+        StreamingExport.forEach(entityManager, recurrenceRepository.streamAll(), EventRecurrenceDto::fromEntity, sink);
+    }
+
     public EventRecurrenceDto findById(Long id)
     {
         EventRecurrence recurrence = recurrenceRepository.findById(id)
@@ -60,6 +106,7 @@ public class EventRecurrenceServiceImplementation implements EventRecurrenceRest
     {
         EventRecurrence recurrence = new EventRecurrence();
         applyDto(recurrence, dto);
+        invalidateAvailability(recurrence.getEvent());
         return EventRecurrenceDto.fromEntity(
                 recurrenceRepository.save(recurrence)
         );
@@ -75,7 +122,9 @@ public class EventRecurrenceServiceImplementation implements EventRecurrenceRest
     {
         EventRecurrence recurrence = recurrenceRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("EventRecurrence not found"));
+        invalidateAvailability(recurrence.getEvent());
         applyDto(recurrence, dto);
+        invalidateAvailability(recurrence.getEvent());
         return EventRecurrenceDto.fromEntity(recurrence);
     }
 
@@ -85,11 +134,28 @@ public class EventRecurrenceServiceImplementation implements EventRecurrenceRest
      */
     public void delete(Long id)
     {
-        if (!recurrenceRepository.existsById(id))
+        EventRecurrence recurrence = recurrenceRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("EventRecurrence not found"));
+        eventRepository.touchByRecurrenceId(id, LocalDateTime.now());
+        recurrenceRepository.deleteById(id);
+        invalidateAvailability(recurrence.getEvent());
+    }
+
+    /**
+     * Правило серии меняется в обход сущности события, и {@code AvailabilityListener} этого не видит:
+     * индекс занятости владельца сбрасывается после коммита
+     *
+     * @param event событие-серия (до или после изменения правила)
+     */
+    private void invalidateAvailability(Event event)
+    {
+        if (event == null || event.getCalendar() == null || event.getCalendar().getOwner() == null)
         {
-            throw new EntityNotFoundException("EventRecurrence not found");
+            return;
         }
-        recurrenceRepository.deleteById(id);
+
+        Long ownerId = event.getCalendar().getOwner().getId();
+        AfterCommit.run(() -> availabilityIndex.invalidate(ownerId));
     }
 
     /**
@@ -97,12 +163,20 @@ public class EventRecurrenceServiceImplementation implements EventRecurrenceRest
      */
     private void applyDto(EventRecurrence recurrence, EventRecurrenceDto dto)
     {
-        recurrence.setRecurrenceType(dto.type());
+        // правило компилируется и проверяется до поиска события: некорректное отклоняется сразу
         recurrence.setFromDate(dto.fromDate());
-        recurrence.setUntilDate(dto.untilDate());
-        recurrence.setEvent(
-                eventRepository.findById(dto.eventId())
-                        .orElseThrow(() -> new EntityNotFoundException("Event not found"))
-        );
+        ruleCompiler.applyTo(recurrence, dto);
+
+        Event event = eventRepository.findById(dto.eventId())
+                .orElseThrow(() -> new EntityNotFoundException("Event not found"));
+
+        // начало серии фиксируется при привязке к событию и дальше не двигается вместе с ним
+        if (recurrence.getSeriesStart() == null || recurrence.getEvent() != event)
+        {
+            recurrence.setSeriesStart(event.getStartTime());
+        }
+
+        recurrence.setEvent(event);
+        event.setUpdatedAt(LocalDateTime.now());
     }
 }
@@ -1,23 +1,49 @@
 package ru.grigorii.calendar_reminder_system.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.grigorii.calendar_reminder_system.dto.CalendarViewDto;
 import ru.grigorii.calendar_reminder_system.dto.EventDto;
+import ru.grigorii.calendar_reminder_system.dto.EventOccurrenceDto;
+import ru.grigorii.calendar_reminder_system.dto.VersionDto;
 import ru.grigorii.calendar_reminder_system.model.*;
 import ru.grigorii.calendar_reminder_system.repository.CalendarRepository;
 import ru.grigorii.calendar_reminder_system.repository.EventRepository;
+import ru.grigorii.calendar_reminder_system.repository.projection.OccurrenceKey;
 import ru.grigorii.calendar_reminder_system.service.exception.CalendarAccessDeniedException;
 import ru.grigorii.calendar_reminder_system.service.exception.CalendarNotFoundException;
 import ru.grigorii.calendar_reminder_system.service.exception.EventNotFoundException;
+import ru.grigorii.calendar_reminder_system.service.exception.OccurrenceNotFoundException;
+import ru.grigorii.calendar_reminder_system.service.exception.VersionConflictException;
 import ru.grigorii.calendar_reminder_system.service.mvc.EventMvcService;
+import ru.grigorii.calendar_reminder_system.service.recurrence.OccurrenceCache;
+import ru.grigorii.calendar_reminder_system.service.recurrence.RecurrenceExpander;
 import ru.grigorii.calendar_reminder_system.service.rest.EventRestService;
+import ru.grigorii.calendar_reminder_system.service.support.OptimisticRetry;
+import ru.grigorii.calendar_reminder_system.service.support.StreamingExport;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 @Service
+@Timed(value = "service.calls", histogram = true)
 @Transactional
 public class EventServiceImplementation
         implements EventMvcService, EventRestService
@@ -26,15 +52,27 @@ public class EventServiceImplementation
     private final EventRepository eventRepository;
     private final CalendarRepository calendarRepository;
     private final EventFactory eventFactory;
+    private final RecurrenceExpander recurrenceExpander;
+    private final OccurrenceCache occurrenceCache;
+    private final OptimisticRetry optimisticRetry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
     public EventServiceImplementation(EventRepository eventRepository,
                                       CalendarRepository calendarRepository,
-                                      EventFactory eventFactory)
+                                      EventFactory eventFactory,
+                                      RecurrenceExpander recurrenceExpander,
+                                      OccurrenceCache occurrenceCache,
+                                      OptimisticRetry optimisticRetry)
     {
         this.eventRepository = eventRepository;
         this.calendarRepository = calendarRepository;
         this.eventFactory = eventFactory;
+        this.recurrenceExpander = recurrenceExpander;
+        this.occurrenceCache = occurrenceCache;
+        this.optimisticRetry = optimisticRetry;
     }
 
     /**
@@ -55,6 +93,71 @@ public class EventServiceImplementation
                 .toList();
     }
 
+    /**
+     * WEB: возвращает события календаря, начинающиеся в окне просмотра (месяц / неделя)
+     *
+     * @param calendarId id календаря
+     * @param view       окно просмотра
+     * @param ownerId    id владельца
+     * @return найденные события, упорядоченные по времени начала
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<EventDto> findByCalendarInWindow(Long calendarId, CalendarViewDto view, Long ownerId)
+    {
+        Calendar calendar = getCalendar(calendarId);
+        checkOwner(calendar, ownerId);
+
+        return eventRepository.findRowsInWindow(calendarId, view.from(), view.to()).stream()
+                .map(EventDto::fromRow)
+                .toList();
+    }
+
+    /**
+     * WEB: вхождения событий в окне просмотра - сохранённые события и вычисленные на лету вхождения
+     * повторяющихся событий (кроме уже материализованных исключениями), упорядоченные по времени начала
+     *
+     * @param calendarId id календаря
+     * @param view       окно просмотра
+     * @param ownerId    id владельца
+     * @return вхождения
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<EventOccurrenceDto> findOccurrencesInWindow(Long calendarId, CalendarViewDto view, Long ownerId)
+    {
+        Calendar calendar = getCalendar(calendarId);
+        checkOwner(calendar, ownerId);
+
+        List<EventOccurrenceDto> occurrences = new ArrayList<>();
+        eventRepository.findRowsInWindow(calendarId, view.from(), view.to())
+                .forEach(row -> occurrences.add(EventOccurrenceDto.fromEvent(EventDto.fromRow(row))));
+
+        List<Event> series = eventRepository.findSeriesIntersecting(calendarId, view.from().toLocalDate(), view.to());
+        if (series.isEmpty())
+        {
+            return occurrences;
+        }
+
+        Set<OccurrenceKey> materialized = new HashSet<>(eventRepository.findOccurrenceKeys(
+                series.stream().map(Event::getId).toList(), view.from(), view.to()));
+
+        for (Event head : series)
+        {
+            // само событие-серия уже есть среди сохранённых, вычисляются только последующие вхождения
+            LocalDateTime origin = head.getRecurrence().origin(head.getStartTime());
+            occurrenceCache.between(head.getRecurrence(), origin, view.from(), view.to()).stream()
+                    .filter(start -> start.isAfter(head.getStartTime()))
+                    .filter(start -> !materialized.contains(new OccurrenceKey(head.getId(), start)))
+                    .map(start -> EventOccurrenceDto.virtual(head, start))
+                    .forEach(occurrences::add);
+        }
+
+        occurrences.sort(Comparator.comparing(EventOccurrenceDto::startTime)
+                .thenComparing(EventOccurrenceDto::id));
+        return occurrences;
+    }
+
     /**
      * WEB: создание события
      *
@@ -87,66 +190,50 @@ public class EventServiceImplementation
     }
 
     /**
-     * WEB: помечивание события как выполненное
+     * WEB: помечивание события как выполненное. Для повторяющегося события выполняется его текущее
+     * (ближайшее) вхождение: оно сохраняется событием-исключением, а серия сдвигается на следующее
+     * невыполненное вхождение вместе с напоминанием. Если вхождений больше нет, выполненной помечается серия. <br/>
+     * При конфликте с параллельным изменением переход повторяется; вхождение фиксируется первой попыткой,
+     * поэтому повтор после чужого выполнения того же вхождения ничего не делает
      *
      * @param eventId id события
      * @param ownerId id владельца
      */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void markDone(Long eventId, Long ownerId)
     {
-        Event event = getEvent(eventId);
-        checkOwner(event.getCalendar(), ownerId);
-
-        if (Boolean.TRUE.equals(event.getDone()))
-        {
-            return;
-        }
-
-        event.setDone(true);
+        AtomicReference<LocalDateTime> occurrence = new AtomicReference<>();
 
-        EventRecurrence recurrence = event.getRecurrence();
-        if (recurrence == null)
+        optimisticRetry.run(() ->
         {
-            return;
-        }
-
-        LocalDateTime nextStart = calculateNextOccurrence(
-                event.getStartTime(),
-                recurrence.getRecurrenceType()
-        );
-
-        if (recurrence.getUntilDate() != null &&
-                nextStart.toLocalDate().isAfter(recurrence.getUntilDate()))
-        {
-            return;
-        }
-
-        Event nextEvent = eventFactory.createNextEvent(event, nextStart);
-        eventRepository.save(nextEvent);
-
-        nextEvent.setRecurrence(
-                eventFactory.copyRecurrence(
-                        recurrence,
-                        nextEvent,
-                        nextStart
-                )
-        );
+            Event event = getEvent(eventId);
+            checkOwner(event.getCalendar(), ownerId);
+            completeOccurrence(event, occurrence.updateAndGet(start -> start != null ? start : event.getStartTime()));
+        });
+    }
 
-        if (event.getReminder() != null)
+    /**
+     * WEB: помечивание вхождения повторяющегося события как выполненного. Вычисленное вхождение
+     * материализуется событием-исключением (одна вставка), сама серия не меняется; текущее вхождение
+     * выполняется как в {@link #markDone}. Повторный вызов для того же вхождения ничего не меняет
+     *
+     * @param seriesId id повторяющегося события
+     * @param start    время начала вхождения
+     * @param ownerId  id владельца
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void markOccurrenceDone(Long seriesId, LocalDateTime start, Long ownerId)
+    {
+        optimisticRetry.run(() ->
         {
-            nextEvent.setReminder(
-                    eventFactory.copyReminder(
-                            event.getReminder(),
-                            nextEvent,
-                            nextStart,
-                            event.getStartTime()
-                    )
-            );
-        }
+            Event series = getEvent(seriesId);
+            checkOwner(series.getCalendar(), ownerId);
+            completeOccurrence(series, start);
+        });
     }
 
-
     /**
      * WEB: помечает событие как невыполненное
      *
@@ -154,17 +241,19 @@ public class EventServiceImplementation
      * @param ownerId id владельца
      */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void markUndone(Long eventId, Long ownerId)
     {
-        Event event = getEvent(eventId);
-        checkOwner(event.getCalendar(), ownerId);
-
-        if (!Boolean.TRUE.equals(event.getDone()))
+        optimisticRetry.run(() ->
         {
-            return;
-        }
-
-        event.setDone(false);
+            Event event = getEvent(eventId);
+            checkOwner(event.getCalendar(), ownerId);
+
+            if (Boolean.TRUE.equals(event.getDone()))
+            {
+                event.setDone(false);
+            }
+        });
     }
 
     /**
@@ -180,6 +269,33 @@ public class EventServiceImplementation
                 .toList();
     }
 
+    /**
+     * REST API: страница события по ключу (id > afterId), упорядоченная по id
+     * @param afterId id последней записи предыдущей страницы (0 - с начала)
+     * @param limit размер страницы
+     * @return страница
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<EventDto> findPage(Long afterId, int limit)
+    {
+        return eventRepository.findByIdGreaterThanOrderById(afterId, Limit.of(limit))
+                .stream()
+                .map(EventDto::fromEntity)
+                .toList();
+    }
+
+    /**
+     * REST API: выгрузка всех событий потоком за постоянную память
+     * @param sink получатель записей
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<EventDto> sink)
+    {
+        StreamingExport.forEach(entityManager, eventRepository.streamAll(), EventDto::fromEntity, sink);
+    }
+
     @Override
     public List<EventDto> findByCalendar(Long calendarId)
     {
@@ -196,6 +312,21 @@ public class EventServiceImplementation
         return EventDto.fromEntity(event);
     }
 
+    /**
+     * REST API: версия события без загрузки повторения и напоминания (их изменения тоже меняют версию события)
+     *
+     * @param id id события
+     * @return версия события
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public VersionDto findVersion(Long id)
+    {
+        return eventRepository.findVersionById(id)
+                .map(VersionDto::fromEntity)
+                .orElseThrow(() -> new EntityNotFoundException("Event not found"));
+    }
+
     @Override
     public EventDto create(EventDto dto)
     {
@@ -204,15 +335,130 @@ public class EventServiceImplementation
         return EventDto.fromEntity(eventRepository.save(event));
     }
 
+    /**
+     * REST API: пакетное создание событий вместе с повторениями и напоминаниями (как в веб-интерфейсе).
+     * Id выдаются из последовательностей без обращения к базе, а вставки уходят при коммите пакетами JDBC
+     * @param dtos события для создания
+     * @return созданные события
+     */
+    @Override
+    public List<EventDto> createAll(List<EventDto> dtos)
+    {
+        Map<Long, Calendar> calendars = new HashMap<>();
+        List<Event> events = dtos.stream()
+                .map(dto -> eventFactory.createEvent(dto,
+                        calendars.computeIfAbsent(dto.calendarId(), this::getCalendar)))
+                .toList();
+
+        return eventRepository.saveAll(events).stream()
+                .map(EventDto::fromEntity)
+                .toList();
+    }
+
+    /**
+     * REST API: изменение события. Если клиент передал версию, по которой он делал изменение, а событие
+     * с тех пор изменилось, изменение отклоняется, а не затирает чужое. Перенос серии переносит и её начало,
+     * от которого отсчитываются вхождения
+     *
+     * @param id              id события
+     * @param dto             содержимое обновления
+     * @param expectedVersion версия, которую видел клиент (null - без проверки)
+     * @return обновлённое событие
+     */
     @Override
-    public EventDto update(Long id, EventDto dto)
+    public EventDto update(Long id, EventDto dto, Long expectedVersion)
     {
         Event event = eventRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Event not found"));
+        if (expectedVersion != null && expectedVersion != event.getVersion())
+        {
+            throw new VersionConflictException("Event", id, event.getVersion());
+        }
+
+        EventRecurrence recurrence = event.getRecurrence();
+        if (recurrence != null && !dto.startTime().equals(event.getStartTime()))
+        {
+            Duration shift = Duration.between(event.getStartTime(), dto.startTime());
+            recurrence.setSeriesStart(recurrence.origin(event.getStartTime()).plus(shift));
+        }
+
         applyDto(event, dto);
         return EventDto.fromEntity(event);
     }
 
+    /**
+     * REST API: изменение одного вхождения повторяющегося события. Вычисленное вхождение материализуется
+     * событием-исключением с новым содержимым (и копией напоминания серии), уже материализованное меняется
+     * на месте, а изменение текущего вхождения сдвигает серию на следующее - сама серия не меняется
+     *
+     * @param seriesId id повторяющегося события
+     * @param start    время начала вхождения по расписанию серии
+     * @param dto      новое содержимое вхождения
+     * @return событие-исключение
+     */
+    @Override
+    public EventDto updateOccurrence(Long seriesId, LocalDateTime start, EventDto dto)
+    {
+        Event series = eventRepository.findById(seriesId)
+                .orElseThrow(() -> new EntityNotFoundException("Event not found"));
+        EventRecurrence recurrence = series.getRecurrence();
+        if (recurrence == null)
+        {
+            throw new OccurrenceNotFoundException(seriesId, start);
+        }
+
+        Optional<Event> materialized = eventRepository.findBySeriesIdAndOriginalStart(seriesId, start);
+        if (materialized.isPresent())
+        {
+            Event exception = materialized.get();
+            Duration shift = Duration.between(exception.getStartTime(), dto.startTime());
+            applyOccurrenceDto(exception, dto);
+            shiftReminder(exception, shift);
+            return EventDto.fromEntity(exception);
+        }
+
+        LocalDateTime origin = recurrence.origin(series.getStartTime());
+        if (Boolean.TRUE.equals(series.getDone())
+                || start.isBefore(series.getStartTime())
+                || !recurrenceExpander.isOccurrence(recurrence, origin, start))
+        {
+            throw new OccurrenceNotFoundException(seriesId, start);
+        }
+
+        Optional<LocalDateTime> nextStart = Optional.empty();
+        if (start.equals(series.getStartTime()))
+        {
+            Set<LocalDateTime> taken = new HashSet<>(eventRepository.findMaterializedStartsAfter(seriesId, start));
+            nextStart = recurrenceExpander.after(recurrence, origin, start)
+                    .filter(next -> !taken.contains(next))
+                    .findFirst();
+
+            if (nextStart.isEmpty())
+            {
+                // вхождений после текущего нет - это последнее, и оно меняется в самой серии
+                applyOccurrenceDto(series, dto);
+                return EventDto.fromEntity(series);
+            }
+        }
+
+        Event exception = occurrenceException(series, start);
+        applyOccurrenceDto(exception, dto);
+        if (series.getReminder() != null)
+        {
+            Reminder reminder = eventFactory.copyReminder(
+                    series.getReminder(), exception, exception.getStartTime(), series.getStartTime());
+            // напоминание о вхождении, время которого уже прошло, не отправляется
+            if (reminder.getRemindAt().isAfter(LocalDateTime.now()))
+            {
+                exception.setReminder(reminder);
+            }
+        }
+        eventRepository.save(exception);
+
+        nextStart.ifPresent(next -> advanceSeries(series, next));
+        return EventDto.fromEntity(exception);
+    }
+
     @Override
     public void delete(Long id)
     {
@@ -247,23 +493,144 @@ public class EventServiceImplementation
     }
 
     /**
-     * Вычисление времени следующего повторения события
-     *
-     * @param current текущее время
-     * @param type    тип повторения
-     * @return вычисленное время
+     * Выполнение вхождения события, начинающегося в start. Переход идемпотентен: вхождение, которое серия
+     * уже прошла (его выполнил параллельный запрос), и уже выполненное событие не меняются
+     */
+    private void completeOccurrence(Event event, LocalDateTime start)
+    {
+        EventRecurrence recurrence = event.getRecurrence();
+        if (recurrence == null || start.equals(event.getStartTime()))
+        {
+            completeCurrent(event);
+            return;
+        }
+
+        if (start.isBefore(event.getStartTime()))
+        {
+            // серия сдвигается только выполнением, значит, это вхождение уже выполнено
+            eventRepository.findBySeriesIdAndOriginalStart(event.getId(), start)
+                    .ifPresent(exception -> exception.setDone(true));
+            return;
+        }
+
+        if (Boolean.TRUE.equals(event.getDone())
+                || !recurrenceExpander.isOccurrence(recurrence, recurrence.origin(event.getStartTime()), start))
+        {
+            throw new OccurrenceNotFoundException(event.getId(), start);
+        }
+
+        eventRepository.findBySeriesIdAndOriginalStart(event.getId(), start)
+                .ifPresentOrElse(
+                        exception -> exception.setDone(true),
+                        () -> eventRepository.save(materializeOccurrence(event, start))
+                );
+    }
+
+    /**
+     * Выполнение текущего вхождения: обычное событие помечается выполненным, серия сдвигается на следующее
+     * невыполненное вхождение
+     */
+    private void completeCurrent(Event event)
+    {
+        if (Boolean.TRUE.equals(event.getDone()))
+        {
+            return;
+        }
+
+        EventRecurrence recurrence = event.getRecurrence();
+        if (recurrence == null)
+        {
+            event.setDone(true);
+            return;
+        }
+
+        LocalDateTime completed = event.getStartTime();
+        Set<LocalDateTime> materialized =
+                new HashSet<>(eventRepository.findMaterializedStartsAfter(event.getId(), completed));
+
+        Optional<LocalDateTime> nextStart = recurrenceExpander
+                .after(recurrence, recurrence.origin(completed), completed)
+                .filter(start -> !materialized.contains(start))
+                .findFirst();
+
+        if (nextStart.isEmpty())
+        {
+            event.setDone(true);
+            return;
+        }
+
+        eventRepository.save(materializeOccurrence(event, completed));
+        advanceSeries(event, nextStart.get());
+    }
+
+    /**
+     * Событие-исключение для вхождения серии: копия серии на время вхождения, помеченная выполненной
+     */
+    private Event materializeOccurrence(Event series, LocalDateTime start)
+    {
+        Event exception = occurrenceException(series, start);
+        exception.setDone(true);
+        return exception;
+    }
+
+    /**
+     * Копия серии на время вхождения, привязанная к серии и вхождению
+     */
+    private Event occurrenceException(Event series, LocalDateTime start)
+    {
+        Event exception = eventFactory.createNextEvent(series, start);
+        exception.setSeries(series);
+        exception.setOriginalStart(start);
+        return exception;
+    }
+
+    /**
+     * Сдвиг серии на следующее вхождение: время начала и окончания, а также напоминание (с переносом доставки).
+     * Начало серии, от которого отсчитываются вхождения, остаётся прежним
+     */
+    private void advanceSeries(Event series, LocalDateTime nextStart)
+    {
+        EventRecurrence recurrence = series.getRecurrence();
+        if (recurrence.getSeriesStart() == null)
+        {
+            recurrence.setSeriesStart(series.getStartTime());
+        }
+
+        Duration shift = Duration.between(series.getStartTime(), nextStart);
+
+        series.setStartTime(nextStart);
+        if (series.getEndTime() != null)
+        {
+            series.setEndTime(series.getEndTime().plus(shift));
+        }
+        shiftReminder(series, shift);
+    }
+
+    /**
+     * Перенос напоминания события вслед за его началом (с переносом доставки)
      */
-    private LocalDateTime calculateNextOccurrence(LocalDateTime current,
-                                                  RecurrenceType type)
+    private void shiftReminder(Event event, Duration shift)
     {
-        return switch (type)
+        Reminder reminder = event.getReminder();
+        if (reminder != null && !shift.isZero())
         {
-            case NONE -> null;
-            case DAILY -> current.plusDays(1);
-            case WEEKLY -> current.plusWeeks(1);
-            case MONTHLY -> current.plusMonths(1);
-            case YEARLY -> current.plusYears(1);
-        };
+            reminder.setRemindAt(reminder.getRemindAt().plus(shift));
+            reminder.setRead(false);
+            reminder.reschedulePendingDelivery();
+        }
+    }
+
+    /**
+     * Маппер для вхождения: календарь и привязка к серии не меняются
+     */
+    private void applyOccurrenceDto(Event event, EventDto dto)
+    {
+        event.setTitle(dto.title());
+        event.setDescription(dto.description());
+        event.setStartTime(dto.startTime());
+        event.setEndTime(dto.endTime());
+        event.setDone(dto.done() != null ? dto.done() : false);
+        event.setPriority(EventPriority.valueOf(dto.priority()));
     }
 
     private void applyDto(Event event, EventDto dto)
@@ -0,0 +1,149 @@
+package ru.grigorii.calendar_reminder_system.service.impl;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.grigorii.calendar_reminder_system.dto.IcsFeedDto;
+import ru.grigorii.calendar_reminder_system.dto.VersionDto;
+import ru.grigorii.calendar_reminder_system.model.Calendar;
+import ru.grigorii.calendar_reminder_system.repository.CalendarRepository;
+import ru.grigorii.calendar_reminder_system.repository.EventRepository;
+import ru.grigorii.calendar_reminder_system.repository.projection.CalendarVersion;
+import ru.grigorii.calendar_reminder_system.service.exception.CalendarAccessDeniedException;
+import ru.grigorii.calendar_reminder_system.service.exception.CalendarNotFoundException;
+import ru.grigorii.calendar_reminder_system.service.ics.IcsWriter;
+import ru.grigorii.calendar_reminder_system.service.mvc.IcsFeedMvcService;
+import ru.grigorii.calendar_reminder_system.service.support.StreamingExport;
+
+import java.io.Writer;
+import java.security.SecureRandom;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.function.Function;
+
+@Service
+@Timed(value = "service.calls", histogram = true)
+@Transactional
+public class IcsFeedServiceImplementation implements IcsFeedMvcService
+{
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final CalendarRepository calendarRepository;
+    private final EventRepository eventRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public IcsFeedServiceImplementation(CalendarRepository calendarRepository,
+                                        EventRepository eventRepository)
+    {
+        this.calendarRepository = calendarRepository;
+        this.eventRepository = eventRepository;
+    }
+
+    /**
+     * WEB: токен ленты календаря
+     *
+     * @param calendarId id календаря
+     * @param ownerId    id владельца
+     * @return токен или пусто, если подписка не включена
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> findFeedToken(Long calendarId, Long ownerId)
+    {
+        return Optional.ofNullable(getOwnedCalendar(calendarId, ownerId).getFeedToken());
+    }
+
+    /**
+     * WEB: новый токен ленты календаря; прежняя ссылка подписки перестаёт работать
+     *
+     * @param calendarId id календаря
+     * @param ownerId    id владельца
+     * @return новый токен
+     */
+    @Override
+    public String resetFeedToken(Long calendarId, Long ownerId)
+    {
+        Calendar calendar = getOwnedCalendar(calendarId, ownerId);
+
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        calendar.setFeedToken(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes));
+
+        return calendar.getFeedToken();
+    }
+
+    /**
+     * WEB: версия ленты календаря владельца (выгрузка .ics)
+     *
+     * @param calendarId id календаря
+     * @param ownerId    id владельца
+     * @return версия ленты
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public IcsFeedDto findFeed(Long calendarId, Long ownerId)
+    {
+        CalendarVersion version = calendarRepository.findVersion(calendarId)
+                .orElseThrow(() -> new CalendarNotFoundException(calendarId));
+        if (!version.ownerId().equals(ownerId))
+        {
+            throw new CalendarAccessDeniedException();
+        }
+        return new IcsFeedDto(calendarId, VersionDto.fromCalendar(calendarId, version));
+    }
+
+    /**
+     * WEB: версия ленты по токену подписки
+     *
+     * @param token токен ленты
+     * @return версия ленты или пусто, если токен неизвестен
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<IcsFeedDto> findFeedByToken(String token)
+    {
+        return calendarRepository.findByFeedToken(token)
+                .map(Calendar::getId)
+                .flatMap(calendarId -> calendarRepository.findVersion(calendarId)
+                        .map(version -> new IcsFeedDto(calendarId, VersionDto.fromCalendar(calendarId, version))));
+    }
+
+    /**
+     * WEB: запись календаря в формате iCalendar. События читаются курсором и пишутся по одному,
+     * без загрузки списка в память. Права проверяются до вызова (по владельцу или токену)
+     *
+     * @param calendarId id календаря
+     * @param writer     получатель текста
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void export(Long calendarId, Writer writer)
+    {
+        Calendar calendar = calendarRepository.findById(calendarId)
+                .orElseThrow(() -> new CalendarNotFoundException(calendarId));
+
+        IcsWriter ics = new IcsWriter(writer, ZoneId.systemDefault());
+        ics.begin(calendar.getName());
+        StreamingExport.forEach(entityManager, eventRepository.streamByCalendarId(calendarId),
+                Function.identity(), ics::write);
+        ics.end();
+    }
+
+    private Calendar getOwnedCalendar(Long calendarId, Long ownerId)
+    {
+        Calendar calendar = calendarRepository.findById(calendarId)
+                .orElseThrow(() -> new CalendarNotFoundException(calendarId));
+        if (!calendar.getOwner().getId().equals(ownerId))
+        {
+            throw new CalendarAccessDeniedException();
+        }
+        return calendar;
+    }
+}
@@ -0,0 +1,292 @@
+package ru.grigorii.calendar_reminder_system.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.grigorii.calendar_reminder_system.dto.EventDto;
+import ru.grigorii.calendar_reminder_system.dto.IcsImportProgressDto;
+import ru.grigorii.calendar_reminder_system.model.Calendar;
+import ru.grigorii.calendar_reminder_system.model.Event;
+import ru.grigorii.calendar_reminder_system.repository.CalendarRepository;
+import ru.grigorii.calendar_reminder_system.repository.EventRepository;
+import ru.grigorii.calendar_reminder_system.service.exception.CalendarAccessDeniedException;
+import ru.grigorii.calendar_reminder_system.service.exception.CalendarNotFoundException;
+import ru.grigorii.calendar_reminder_system.service.exception.IcsParseException;
+import ru.grigorii.calendar_reminder_system.service.exception.InvalidRecurrenceRuleException;
+import ru.grigorii.calendar_reminder_system.service.ics.IcsEventReader;
+import ru.grigorii.calendar_reminder_system.service.ics.IcsImportJob;
+import ru.grigorii.calendar_reminder_system.service.mvc.IcsImportMvcService;
+import ru.grigorii.calendar_reminder_system.service.support.BackgroundThreadFactory;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Импорт файлов iCalendar. <br/>
+ * Файл разбирается потоково в фоне, события собираются в пачки по {@code ics.import.chunk-size} и каждая пачка
+ * сохраняется своей транзакцией (вставки группируются в пакеты JDBC), поэтому память не зависит от размера
+ * файла, а сохранённые пачки остаются и при ошибке в середине файла. Класс намеренно не транзакционный целиком
+ */
+@Service
+@Timed(value = "service.calls", histogram = true)
+public class IcsImportServiceImplementation implements IcsImportMvcService
+{
+    private static final Logger log = LoggerFactory.getLogger(IcsImportServiceImplementation.class);
+
+    private final CalendarRepository calendarRepository;
+    private final EventRepository eventRepository;
+    private final EventFactory eventFactory;
+    private final TransactionOperations transactionOperations;
+    private final int chunkSize;
+
+    private final ExecutorService importExecutor;
+    private final Cache<String, IcsImportJob> jobs;
+
+    public IcsImportServiceImplementation(CalendarRepository calendarRepository,
+                                          EventRepository eventRepository,
+                                          EventFactory eventFactory,
+                                          TransactionOperations transactionOperations,
+                                          @Value("${ics.import.chunk-size:500}") int chunkSize,
+                                          @Value("${ics.import.max-parallel:2}") int maxParallel,
+                                          @Value("${ics.import.keep-progress-ms:3600000}") long keepProgressMs,
+                                          @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads)
+    {
+        this.calendarRepository = calendarRepository;
+        this.eventRepository = eventRepository;
+        this.eventFactory = eventFactory;
+        this.transactionOperations = transactionOperations;
+        this.chunkSize = chunkSize;
+        this.importExecutor = Executors.newFixedThreadPool(maxParallel,
+                BackgroundThreadFactory.create("ics-import", virtualThreads));
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(keepProgressMs))
+                .build();
+    }
+
+    /**
+     * WEB: запуск импорта файла в календарь пользователя
+     *
+     * @param calendarId id календаря
+     * @param file       загруженный файл; переходит во владение импорта и удаляется после него
+     * @param ownerId    id владельца
+     * @return начальный прогресс (id импорта для последующих запросов)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public IcsImportProgressDto start(Long calendarId, Path file, Long ownerId)
+    {
+        Calendar calendar = calendarRepository.findById(calendarId)
+                .orElseThrow(() -> new CalendarNotFoundException(calendarId));
+        if (!calendar.getOwner().getId().equals(ownerId))
+        {
+            throw new CalendarAccessDeniedException();
+        }
+
+        IcsImportJob job;
+        try
+        {
+            job = new IcsImportJob(calendarId, ownerId, Files.size(file));
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+
+        jobs.put(job.getId(), job);
+        importExecutor.execute(() -> run(job, file));
+
+        return IcsImportProgressDto.fromJob(job);
+    }
+
+    /**
+     * WEB: прогресс импорта
+     *
+     * @param importId id импорта
+     * @param ownerId  id владельца
+     * @return прогресс или пусто, если импорт неизвестен (или запущен другим пользователем)
+     */
+    @Override
+    public Optional<IcsImportProgressDto> find(String importId, Long ownerId)
+    {
+        return Optional.ofNullable(jobs.getIfPresent(importId))
+                .filter(job -> job.getOwnerId().equals(ownerId))
+                .map(IcsImportProgressDto::fromJob);
+    }
+
+    private void run(IcsImportJob job, Path file)
+    {
+        try (InputStream in = new CountingInputStream(Files.newInputStream(file), job);
+             IcsEventReader reader = new IcsEventReader(
+                     new InputStreamReader(in, StandardCharsets.UTF_8), job.getCalendarId(), ZoneId.systemDefault()))
+        {
+            List<EventDto> chunk = new ArrayList<>(chunkSize);
+            while (true)
+            {
+                EventDto dto;
+                try
+                {
+                    dto = reader.read();
+                }
+                catch (IcsParseException e)
+                {
+                    job.skip(e.getMessage());
+                    continue;
+                }
+
+                if (dto == null)
+                {
+                    break;
+                }
+                chunk.add(dto);
+                if (chunk.size() == chunkSize)
+                {
+                    saveChunk(job, chunk);
+                    chunk.clear();
+                }
+            }
+
+            if (!chunk.isEmpty())
+            {
+                saveChunk(job, chunk);
+            }
+            job.complete();
+        }
+        catch (IOException | RuntimeException e)
+        {
+            log.warn("ICS import {} into calendar {} failed", job.getId(), job.getCalendarId(), e);
+            job.fail(e.getMessage());
+        }
+        finally
+        {
+            deleteQuietly(file);
+        }
+    }
+
+    /**
+     * Одна транзакция на пачку. События, которые не удалось создать (некорректное правило повторения),
+     * пропускаются; напоминания, время которых уже прошло, отбрасываются - иначе перенос старого календаря
+     * разом отправил бы их все
+     */
+    private void saveChunk(IcsImportJob job, List<EventDto> chunk)
+    {
+        Integer saved = transactionOperations.execute(status -> {
+            Calendar calendar = calendarRepository.getReferenceById(job.getCalendarId());
+            LocalDateTime now = LocalDateTime.now();
+
+            List<Event> events = new ArrayList<>(chunk.size());
+            for (EventDto dto : chunk)
+            {
+                try
+                {
+                    events.add(eventFactory.createEvent(withoutPastReminder(dto, now), calendar));
+                }
+                catch (InvalidRecurrenceRuleException | IllegalArgumentException e)
+                {
+                    job.skip(dto.title() + ": " + e.getMessage());
+                }
+            }
+
+            eventRepository.saveAll(events);
+            return events.size();
+        });
+
+        job.chunkSaved(saved != null ? saved : 0);
+    }
+
+    private static EventDto withoutPastReminder(EventDto dto, LocalDateTime now)
+    {
+        if (dto.reminder() == null || dto.reminder().remindAt().isAfter(now))
+        {
+            return dto;
+        }
+
+        return new EventDto(
+                dto.id(),
+                dto.title(),
+                dto.description(),
+                dto.startTime(),
+                dto.endTime(),
+                dto.priority(),
+                dto.done(),
+                dto.calendarId(),
+                dto.createdAt(),
+                dto.recurrence(),
+                null
+        );
+    }
+
+    private static void deleteQuietly(Path file)
+    {
+        try
+        {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e)
+        {
+            log.warn("Could not delete uploaded file {}", file, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        importExecutor.shutdownNow();
+    }
+
+    /**
+     * Учёт прочитанных байт для прогресса
+     */
+    private static final class CountingInputStream extends FilterInputStream
+    {
+        private final IcsImportJob job;
+
+        private CountingInputStream(InputStream in, IcsImportJob job)
+        {
+            super(in);
+            this.job = job;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            int b = super.read();
+            if (b >= 0)
+            {
+                job.bytesRead(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException
+        {
+            int n = super.read(buffer, offset, length);
+            if (n > 0)
+            {
+                job.bytesRead(n);
+            }
+            return n;
+        }
+    }
+}
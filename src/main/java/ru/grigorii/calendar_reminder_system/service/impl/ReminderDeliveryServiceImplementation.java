@@ -0,0 +1,122 @@
+package ru.grigorii.calendar_reminder_system.service.impl;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.grigorii.calendar_reminder_system.dto.DeadLetterDto;
+import ru.grigorii.calendar_reminder_system.dto.DeadLetterReplayDto;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+import ru.grigorii.calendar_reminder_system.model.ReminderDeadLetter;
+import ru.grigorii.calendar_reminder_system.repository.ReminderDeadLetterRepository;
+import ru.grigorii.calendar_reminder_system.service.exception.DeadLetterNotFoundException;
+import ru.grigorii.calendar_reminder_system.service.rest.ReminderDeliveryRestService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Dead-letter доставок напоминаний: просмотр и повторная отправка. <br/>
+ * Повтор не отдаёт все доставки разом: новые попытки расставляются с шагом
+ * {@code 1 / reminder.delivery.replay-rate-per-second} (со случайным сдвигом внутри шага), поэтому
+ * восстановившийся после сбоя шлюз получает ровный поток, а не волну
+ */
+@Service
+@Timed(value = "service.calls", histogram = true)
+@Transactional
+public class ReminderDeliveryServiceImplementation implements ReminderDeliveryRestService
+{
+    private final ReminderDeadLetterRepository deadLetterRepository;
+    private final Duration replayStep;
+
+    public ReminderDeliveryServiceImplementation(ReminderDeadLetterRepository deadLetterRepository,
+                                                 @Value("${reminder.delivery.replay-rate-per-second:20}") int replayRate)
+    {
+        if (replayRate < 1)
+        {
+            throw new IllegalArgumentException("reminder.delivery.replay-rate-per-second must be positive");
+        }
+
+        this.deadLetterRepository = deadLetterRepository;
+        this.replayStep = Duration.ofNanos(1_000_000_000L / replayRate);
+    }
+
+    /**
+     * REST API: ещё не отправленные повторно доставки из dead-letter
+     *
+     * @param channel канал (null - все)
+     * @param afterId курсор: id последней записи предыдущей страницы
+     * @param limit   размер страницы
+     * @return страница по возрастанию id
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<DeadLetterDto> findDeadLetters(ReminderChannel channel, Long afterId, int limit)
+    {
+        return deadLetterRepository.findOpen(channel, afterId, Limit.of(limit)).stream()
+                .map(DeadLetterDto::fromEntity)
+                .toList();
+    }
+
+    /**
+     * REST API: повторная отправка первых limit доставок из dead-letter
+     *
+     * @param channel канал (null - все)
+     * @param limit   сколько доставок вернуть в outbox
+     * @return сколько возвращено и на какое время расставлены новые попытки
+     */
+    @Override
+    public DeadLetterReplayDto replay(ReminderChannel channel, int limit)
+    {
+        return replay(deadLetterRepository.findOpen(channel, 0L, Limit.of(limit)));
+    }
+
+    /**
+     * REST API: повторная отправка одной доставки. Повтор уже отправленной записи ничего не меняет
+     *
+     * @param deadLetterId id записи dead-letter
+     */
+    @Override
+    public DeadLetterReplayDto replay(Long deadLetterId)
+    {
+        ReminderDeadLetter letter = deadLetterRepository.findById(deadLetterId)
+                .orElseThrow(() -> new DeadLetterNotFoundException(deadLetterId));
+
+        return letter.getReplayedAt() != null
+                ? DeadLetterReplayDto.empty()
+                : replay(List.of(letter));
+    }
+
+    private DeadLetterReplayDto replay(List<ReminderDeadLetter> letters)
+    {
+        if (letters.isEmpty())
+        {
+            return DeadLetterReplayDto.empty();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime first = null;
+        LocalDateTime last = null;
+
+        // сдвиг меньше шага, поэтому попытки идут строго по порядку записей
+        for (int i = 0; i < letters.size(); i++)
+        {
+            ReminderDeadLetter letter = letters.get(i);
+            last = now
+                    .plus(replayStep.multipliedBy(i))
+                    .plusNanos(ThreadLocalRandom.current().nextLong(replayStep.toNanos()));
+            if (first == null)
+            {
+                first = last;
+            }
+
+            letter.getDelivery().restart(last);
+            letter.setReplayedAt(now);
+        }
+
+        return new DeadLetterReplayDto(letters.size(), first, last);
+    }
+}
@@ -1,33 +1,57 @@
 package ru.grigorii.calendar_reminder_system.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.grigorii.calendar_reminder_system.dto.ReminderDto;
+import ru.grigorii.calendar_reminder_system.dto.VersionDto;
 import ru.grigorii.calendar_reminder_system.model.Reminder;
 import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+import ru.grigorii.calendar_reminder_system.model.ReminderDelivery;
 import ru.grigorii.calendar_reminder_system.repository.EventRepository;
 import ru.grigorii.calendar_reminder_system.repository.ReminderRepository;
+import ru.grigorii.calendar_reminder_system.service.exception.VersionConflictException;
 import ru.grigorii.calendar_reminder_system.service.mvc.ReminderMvcService;
+import ru.grigorii.calendar_reminder_system.service.notification.UnreadReminderCounter;
 import ru.grigorii.calendar_reminder_system.service.rest.ReminderRestService;
+import ru.grigorii.calendar_reminder_system.service.support.OptimisticRetry;
+import ru.grigorii.calendar_reminder_system.service.support.StreamingExport;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
+@Timed(value = "service.calls", histogram = true)
 @Transactional
 public class ReminderServiceImplementation implements ReminderMvcService, ReminderRestService
 {
     private final ReminderRepository reminderRepository;
     private final EventRepository eventRepository;
+    private final ObjectProvider<UnreadReminderCounter> unreadCounter;
+    private final OptimisticRetry optimisticRetry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
-    public ReminderServiceImplementation(ReminderRepository reminderRepository, EventRepository eventRepository)
+    public ReminderServiceImplementation(ReminderRepository reminderRepository,
+                                         EventRepository eventRepository,
+                                         ObjectProvider<UnreadReminderCounter> unreadCounter,
+                                         OptimisticRetry optimisticRetry)
     {
         this.reminderRepository = reminderRepository;
         this.eventRepository = eventRepository;
+        this.unreadCounter = unreadCounter;
+        this.optimisticRetry = optimisticRetry;
     }
 
     /**
@@ -47,41 +71,62 @@ public class ReminderServiceImplementation implements ReminderMvcService, Remind
     }
 
     /**
-     * Количество непрочитанных напоминаний пользователя
+     * Количество непрочитанных напоминаний пользователя. Берётся из счётчика в памяти, а пока он
+     * не собран (или выключен вместе с диспетчером) - запросом к базе. Метод вызывается при каждой отрисовке
+     * страницы, поэтому сам транзакцию не открывает: соединение из пула берёт только запрос к базе
      *
      * @param userId id пользователя
      * @return количество напоминаний
      */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public long countActive(Long userId)
     {
+        UnreadReminderCounter counter = unreadCounter.getIfAvailable();
+
+        if (counter != null && counter.isReady())
+        {
+            return counter.count(userId);
+        }
+
         return reminderRepository
                 .countActiveUnread(userId, LocalDateTime.now());
     }
 
     /**
-     * Помечивание напоминания как прочитанное
+     * Помечивание напоминания как прочитанное. Переход идемпотентен и повторяется при конфликте
+     * с параллельным изменением напоминания
      * @param reminderId id напоминания
      * @param userId id пользователя
      */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void markAsRead(Long reminderId, Long userId)
     {
+        optimisticRetry.run(() ->
+        {
+            Reminder r = reminderRepository.findById(reminderId)
+                    .orElseThrow(() -> new EntityNotFoundException("Reminder not found"));
 
-        Reminder r = reminderRepository.findById(reminderId)
-                .orElseThrow(() -> new EntityNotFoundException("Reminder not found"));
+            Long ownerId = r.getEvent()
+                    .getCalendar()
+                    .getOwner()
+                    .getId();
 
-        Long ownerId = r.getEvent()
-                .getCalendar()
-                .getOwner()
-                .getId();
+            if (!ownerId.equals(userId))
+            {
+                throw new AccessDeniedException("Not your reminder");
+            }
 
-        if (!ownerId.equals(userId))
-        {
-            throw new AccessDeniedException("Not your reminder");
-        }
+            if (Boolean.TRUE.equals(r.getRead()))
+            {
+                return;
+            }
 
-        r.setRead(true);
+            // прочтение меняет только версию напоминания: событие не меняется, и If-Match по его версии
+            // не должен отклоняться; страница календаря учитывает прочтение через счётчик уведомлений в ETag
+            r.setRead(true);
+        });
     }
 
     public List<ReminderDto> findAll()
@@ -92,6 +137,31 @@ public class ReminderServiceImplementation implements ReminderMvcService, Remind
                 .toList();
     }
 
+    /**
+     * REST API: страница напоминания по ключу (id > afterId), упорядоченная по id
+     * @param afterId id последней записи предыдущей страницы (0 - с начала)
+     * @param limit размер страницы
+     * @return страница
+     */
+    @Transactional(readOnly = true)
+    public List<ReminderDto> findPage(Long afterId, int limit)
+    {
+        return reminderRepository.findByIdGreaterThanOrderById(afterId, Limit.of(limit))
+                .stream()
+                .map(ReminderDto::fromEntity)
+                .toList();
+    }
+
+    /**
+     * REST API: выгрузка всех напоминаний потоком за постоянную память
+     * @param sink получатель записей
+     */
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<ReminderDto> sink)
+    {
+        StreamingExport.forEach(entityManager, reminderRepository.streamAll(), ReminderDto::fromEntity, sink);
+    }
+
     /**
      * REST API: Возвращает напоминание по id
      *
@@ -105,6 +175,21 @@ public class ReminderServiceImplementation implements ReminderMvcService, Remind
         return ReminderDto.fromEntity(reminder);
     }
 
+    /**
+     * REST API: версия напоминания без его загрузки
+     *
+     * @param id id напоминания
+     * @return версия напоминания
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public VersionDto findVersion(Long id)
+    {
+        return reminderRepository.findVersionById(id)
+                .map(VersionDto::fromEntity)
+                .orElseThrow(() -> new EntityNotFoundException("Reminder not found"));
+    }
+
     /**
      * REST API: возвращает напоминание по id события
      *
@@ -130,6 +215,7 @@ public class ReminderServiceImplementation implements ReminderMvcService, Remind
     {
         Reminder reminder = new Reminder();
         applyDto(reminder, dto);
+        reminder.getDeliveries().add(ReminderDelivery.pendingFor(reminder));
         return ReminderDto.fromEntity(
                 reminderRepository.save(reminder)
         );
@@ -138,15 +224,27 @@ public class ReminderServiceImplementation implements ReminderMvcService, Remind
     /**
      * REST API: изменяет напоминание
      *
-     * @param id  id напоминания
-     * @param dto содержимое обновления
+     * @param id              id напоминания
+     * @param dto             содержимое обновления
+     * @param expectedVersion версия, которую видел клиент (null - без проверки)
      * @return обновлённое напоминание
      */
-    public ReminderDto update(Long id, ReminderDto dto)
+    public ReminderDto update(Long id, ReminderDto dto, Long expectedVersion)
     {
         Reminder reminder = reminderRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Reminder not found"));
+        if (expectedVersion != null && expectedVersion != reminder.getVersion())
+        {
+            throw new VersionConflictException("Reminder", id, reminder.getVersion());
+        }
+        LocalDateTime previousRemindAt = reminder.getRemindAt();
         applyDto(reminder, dto);
+
+        if (!reminder.getRemindAt().equals(previousRemindAt))
+        {
+            reminder.reschedulePendingDelivery();
+        }
+
         return ReminderDto.fromEntity(reminder);
     }
 
@@ -161,6 +259,7 @@ public class ReminderServiceImplementation implements ReminderMvcService, Remind
         {
             throw new EntityNotFoundException("Reminder not found");
         }
+        eventRepository.touchByReminderId(id, LocalDateTime.now());
         reminderRepository.deleteById(id);
     }
 
@@ -176,5 +275,6 @@ public class ReminderServiceImplementation implements ReminderMvcService, Remind
                 eventRepository.findById(dto.eventId())
                         .orElseThrow(() -> new EntityNotFoundException("Event not found"))
         );
+        reminder.getEvent().setUpdatedAt(LocalDateTime.now());
     }
 }
@@ -1,8 +1,11 @@
 package ru.grigorii.calendar_reminder_system.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -13,18 +16,22 @@ import ru.grigorii.calendar_reminder_system.dto.UserDto;
 import ru.grigorii.calendar_reminder_system.model.Role;
 import ru.grigorii.calendar_reminder_system.model.User;
 import ru.grigorii.calendar_reminder_system.repository.UserRepository;
+import ru.grigorii.calendar_reminder_system.security.AuthenticatedUser;
 import ru.grigorii.calendar_reminder_system.service.mvc.UserMvcService;
 import ru.grigorii.calendar_reminder_system.service.exception.UserAlreadyExistsException;
 import ru.grigorii.calendar_reminder_system.service.exception.UserNotFoundException;
 import ru.grigorii.calendar_reminder_system.service.rest.UserRestService;
+import ru.grigorii.calendar_reminder_system.service.support.StreamingExport;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Реализация сервисов пользователя + реализация UserDetailsService из Spring Security
  */
 @Service
+@Timed(value = "service.calls", histogram = true)
 @Transactional
 public class UserServiceImplementation
         implements UserMvcService, UserRestService, UserDetailsService
@@ -33,6 +40,9 @@ public class UserServiceImplementation
     private final UserRepository userRepository;
     private final PasswordEncoder encoder;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     public UserServiceImplementation(UserRepository userRepository,
                                      PasswordEncoder encoder)
@@ -42,7 +52,8 @@ public class UserServiceImplementation
     }
 
     /**
-     * Security: загружает информацию о пользователе по его юзернейму
+     * Security: загружает информацию о пользователе по его юзернейму. Возвращаемый principal сразу
+     * содержит id и роль, чтобы обработчикам не приходилось искать пользователя заново
      * @param email email пользователя (используется как username)
      * @return информация о пользователе
      * @throws UsernameNotFoundException пользоп
@@ -52,13 +63,7 @@ public class UserServiceImplementation
             throws UsernameNotFoundException
     {
 
-        User user = findEntityByEmail(email);
-
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPasswordHash(),
-                List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole()))
-        );
+        return AuthenticatedUser.fromEntity(findEntityByEmail(email));
     }
 
     /**
@@ -185,6 +190,33 @@ public class UserServiceImplementation
                 .toList();
     }
 
+    /**
+     * REST API: страница пользователей по ключу (id > afterId), упорядоченная по id
+     * @param afterId id последней записи предыдущей страницы (0 - с начала)
+     * @param limit размер страницы
+     * @return страница
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserDto> findPage(Long afterId, int limit)
+    {
+        return userRepository.findByIdGreaterThanOrderById(afterId, Limit.of(limit))
+                .stream()
+                .map(UserDto::fromEntity)
+                .toList();
+    }
+
+    /**
+     * REST API: выгрузка всех пользователей потоком за постоянную память
+     * @param sink получатель записей
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<UserDto> sink)
+    {
+        StreamingExport.forEach(entityManager, userRepository.streamAll(), UserDto::fromEntity, sink);
+    }
+
     /**
      * REST API: возвращает пользователя по его id
      *
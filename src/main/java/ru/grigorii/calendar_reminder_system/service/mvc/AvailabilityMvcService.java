@@ -0,0 +1,15 @@
+package ru.grigorii.calendar_reminder_system.service.mvc;
+
+import ru.grigorii.calendar_reminder_system.dto.BusyIntervalDto;
+import ru.grigorii.calendar_reminder_system.dto.TimeSlotDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AvailabilityMvcService
+{
+    List<BusyIntervalDto> findBusy(Long ownerId, LocalDateTime from, LocalDateTime to);
+
+    List<TimeSlotDto> findFreeSlots(Long ownerId, LocalDateTime from, LocalDateTime to, Duration length);
+}
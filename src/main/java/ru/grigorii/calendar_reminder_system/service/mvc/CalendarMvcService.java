@@ -1,6 +1,7 @@
 package ru.grigorii.calendar_reminder_system.service.mvc;
 
 import ru.grigorii.calendar_reminder_system.dto.CalendarDto;
+import ru.grigorii.calendar_reminder_system.dto.VersionDto;
 
 import java.util.List;
 
@@ -11,6 +12,8 @@ public interface CalendarMvcService
 
     CalendarDto findByIdForOwner(Long calendarId, Long ownerId);
 
+    VersionDto findVersionForOwner(Long calendarId, Long ownerId);
+
     CalendarDto createCalendar(CalendarDto dto);
 
     void updateForOwner(Long calendarId,
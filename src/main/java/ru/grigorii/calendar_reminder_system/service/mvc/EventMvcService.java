@@ -1,18 +1,27 @@
 package ru.grigorii.calendar_reminder_system.service.mvc;
 
+import ru.grigorii.calendar_reminder_system.dto.CalendarViewDto;
 import ru.grigorii.calendar_reminder_system.dto.EventDto;
+import ru.grigorii.calendar_reminder_system.dto.EventOccurrenceDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface EventMvcService
 {
     List<EventDto> findByCalendar(Long calendarId, Long ownerId);
 
+    List<EventDto> findByCalendarInWindow(Long calendarId, CalendarViewDto view, Long ownerId);
+
+    List<EventOccurrenceDto> findOccurrencesInWindow(Long calendarId, CalendarViewDto view, Long ownerId);
+
     EventDto create(EventDto dto, Long ownerId);
 
     void delete(Long eventId, Long ownerId);
 
     void markDone(Long eventId, Long ownerId);
 
+    void markOccurrenceDone(Long seriesId, LocalDateTime start, Long ownerId);
+
     void markUndone(Long eventId, Long ownerId);
 }
@@ -0,0 +1,19 @@
+package ru.grigorii.calendar_reminder_system.service.mvc;
+
+import ru.grigorii.calendar_reminder_system.dto.IcsFeedDto;
+
+import java.io.Writer;
+import java.util.Optional;
+
+public interface IcsFeedMvcService
+{
+    Optional<String> findFeedToken(Long calendarId, Long ownerId);
+
+    String resetFeedToken(Long calendarId, Long ownerId);
+
+    IcsFeedDto findFeed(Long calendarId, Long ownerId);
+
+    Optional<IcsFeedDto> findFeedByToken(String token);
+
+    void export(Long calendarId, Writer writer);
+}
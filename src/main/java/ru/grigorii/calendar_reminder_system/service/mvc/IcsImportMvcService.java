@@ -0,0 +1,13 @@
+package ru.grigorii.calendar_reminder_system.service.mvc;
+
+import ru.grigorii.calendar_reminder_system.dto.IcsImportProgressDto;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+public interface IcsImportMvcService
+{
+    IcsImportProgressDto start(Long calendarId, Path file, Long ownerId);
+
+    Optional<IcsImportProgressDto> find(String importId, Long ownerId);
+}
@@ -0,0 +1,305 @@
+package ru.grigorii.calendar_reminder_system.service.notification;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.grigorii.calendar_reminder_system.dto.ReminderDto;
+import ru.grigorii.calendar_reminder_system.repository.ReminderRepository;
+import ru.grigorii.calendar_reminder_system.service.dispatch.ReminderDueEvent;
+import ru.grigorii.calendar_reminder_system.service.support.BackgroundThreadFactory;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Реестр SSE-подключений для живых уведомлений. <br/>
+ * Простаивающее подключение - это только асинхронный запрос сервлета и запись в карте, потоков оно не
+ * держит. Публикация никогда не блокируется: событие кладётся в очередь подключения, а запись в сокет
+ * выполняет общий небольшой пул, по одной задаче на подключение за раз (порядок событий сохраняется).
+ * Медленный клиент, у которого очередь переполнилась, отключается - браузер переподключится сам. <br/>
+ * События: {@code count} - новое значение значка, {@code reminder} - наступившее напоминание
+ */
+@Component
+public class NotificationStreamRegistry
+{
+    private static final Logger log = LoggerFactory.getLogger(NotificationStreamRegistry.class);
+
+    private final ReminderRepository reminderRepository;
+    private final long timeoutMs;
+    private final int queueLimit;
+    private final ExecutorService sendExecutor;
+
+    private final ConcurrentHashMap<Long, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    public NotificationStreamRegistry(ReminderRepository reminderRepository,
+                                      @Value("${notification.stream.timeout-ms:1800000}") long timeoutMs,
+                                      @Value("${notification.stream.queue-limit:64}") int queueLimit,
+                                      @Value("${notification.stream.send-threads:8}") int sendThreads,
+                                      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads)
+    {
+        this.reminderRepository = reminderRepository;
+        this.timeoutMs = timeoutMs;
+        this.queueLimit = queueLimit;
+        this.sendExecutor = Executors.newFixedThreadPool(
+                sendThreads, BackgroundThreadFactory.create("notification-stream", virtualThreads));
+    }
+
+    /**
+     * Открывает поток уведомлений пользователя и сразу отправляет текущее значение значка
+     * @param userId id пользователя
+     * @param unreadCount текущее число непрочитанных напоминаний
+     * @return emitter для ответа контроллера
+     */
+    public SseEmitter register(Long userId, long unreadCount)
+    {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Connection connection = new Connection(userId, emitter);
+
+        connections.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(connection);
+        connectionCount.incrementAndGet();
+
+        emitter.onCompletion(() -> unregister(connection));
+        emitter.onTimeout(() -> unregister(connection));
+        emitter.onError(e -> unregister(connection));
+
+        connection.enqueue(countEvent(unreadCount));
+
+        return emitter;
+    }
+
+    /**
+     * Число открытых подключений на этом узле
+     */
+    public int connectionCount()
+    {
+        return connectionCount.get();
+    }
+
+    public boolean hasConnections(Long userId)
+    {
+        Set<Connection> userConnections = connections.get(userId);
+        return userConnections != null && !userConnections.isEmpty();
+    }
+
+    @EventListener
+    public void onUnreadCountChanged(UnreadCountChangedEvent event)
+    {
+        publish(event.userId(), countEvent(event.count()));
+    }
+
+    /**
+     * Наступившее напоминание уходит только тем, кто сейчас подключён; данные для него загружаются
+     * в пуле отправки, чтобы не задерживать такт диспетчера
+     */
+    @EventListener
+    public void onReminderDue(ReminderDueEvent event)
+    {
+        if (!hasConnections(event.userId()))
+        {
+            return;
+        }
+
+        sendExecutor.execute(() -> {
+            try
+            {
+                reminderRepository.findWithEvent(event.reminderId())
+                        .filter(reminder -> !Boolean.TRUE.equals(reminder.getRead()))
+                        .map(ReminderDto::fromEntity)
+                        .ifPresent(dto -> publish(event.userId(),
+                                new StreamEvent("reminder", String.valueOf(dto.id()), dto, null)));
+            }
+            catch (RuntimeException e)
+            {
+                log.warn("Failed to load reminder {} for notification stream", event.reminderId(), e);
+            }
+        });
+    }
+
+    /**
+     * Комментарий-пульс: не даёт прокси закрыть простаивающее подключение и выявляет отвалившихся клиентов
+     */
+    @Scheduled(fixedRateString = "${notification.stream.heartbeat-ms:25000}")
+    public void heartbeat()
+    {
+        connections.values().forEach(userConnections ->
+                userConnections.forEach(connection -> connection.enqueue(StreamEvent.HEARTBEAT)));
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        connections.values().forEach(userConnections ->
+                userConnections.forEach(connection -> connection.emitter.complete()));
+        sendExecutor.shutdownNow();
+    }
+
+    private void publish(Long userId, StreamEvent event)
+    {
+        Set<Connection> userConnections = connections.get(userId);
+
+        if (userConnections != null)
+        {
+            userConnections.forEach(connection -> connection.enqueue(event));
+        }
+    }
+
+    private void unregister(Connection connection)
+    {
+        if (!connection.closed.compareAndSet(false, true))
+        {
+            return;
+        }
+
+        connections.computeIfPresent(connection.userId, (id, userConnections) -> {
+            userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+        connectionCount.decrementAndGet();
+    }
+
+    private static StreamEvent countEvent(long count)
+    {
+        return new StreamEvent("count", null, count, null);
+    }
+
+    /**
+     * Неизменяемое описание события. Builder из {@link SseEmitter#event()} изменяется при отправке,
+     * поэтому для каждого подключения он собирается заново
+     * @param name имя события (null для комментария)
+     * @param id id события
+     * @param data данные
+     * @param comment комментарий
+     */
+    private record StreamEvent(String name, String id, Object data, String comment)
+    {
+        static final StreamEvent HEARTBEAT = new StreamEvent(null, null, null, "ping");
+
+        SseEmitter.SseEventBuilder toBuilder()
+        {
+            SseEmitter.SseEventBuilder builder = SseEmitter.event();
+
+            if (comment != null)
+            {
+                builder.comment(comment);
+            }
+            if (name != null)
+            {
+                builder.name(name);
+            }
+            if (id != null)
+            {
+                builder.id(id);
+            }
+            if (data != null)
+            {
+                builder.data(data, data instanceof Number ? MediaType.TEXT_PLAIN : MediaType.APPLICATION_JSON);
+            }
+
+            return builder;
+        }
+    }
+
+    /**
+     * Одно подключение: очередь событий и признак того, что её уже разбирает задача пула
+     */
+    private final class Connection
+    {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Queue<StreamEvent> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Connection(Long userId, SseEmitter emitter)
+        {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(StreamEvent event)
+        {
+            if (closed.get())
+            {
+                return;
+            }
+
+            if (queued.incrementAndGet() > queueLimit)
+            {
+                log.debug("Notification stream of user {} is too slow, closing", userId);
+                close(null);
+                return;
+            }
+
+            queue.add(event);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain()
+        {
+            if (draining.compareAndSet(false, true))
+            {
+                try
+                {
+                    sendExecutor.execute(this::drain);
+                }
+                catch (RejectedExecutionException e)
+                {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain()
+        {
+            try
+            {
+                StreamEvent event;
+                while (!closed.get() && (event = queue.poll()) != null)
+                {
+                    queued.decrementAndGet();
+                    emitter.send(event.toBuilder());
+                }
+            }
+            catch (IOException | IllegalStateException e)
+            {
+                close(e);
+            }
+            finally
+            {
+                draining.set(false);
+            }
+
+            if (!closed.get() && !queue.isEmpty())
+            {
+                scheduleDrain();
+            }
+        }
+
+        private void close(Throwable cause)
+        {
+            unregister(this);
+            queue.clear();
+
+            if (cause == null)
+            {
+                emitter.complete();
+            }
+            else
+            {
+                emitter.completeWithError(cause);
+            }
+        }
+    }
+}
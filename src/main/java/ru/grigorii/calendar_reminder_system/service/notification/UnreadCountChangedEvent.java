@@ -0,0 +1,13 @@
+package ru.grigorii.calendar_reminder_system.service.notification;
+
+/**
+ * Событие приложения: у пользователя изменилось число наступивших непрочитанных напоминаний
+ * @param userId id пользователя
+ * @param count новое значение счётчика
+ */
+public record UnreadCountChangedEvent(
+        Long userId,
+        long count
+)
+{
+}
@@ -0,0 +1,253 @@
+package ru.grigorii.calendar_reminder_system.service.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.grigorii.calendar_reminder_system.repository.ReminderRepository;
+import ru.grigorii.calendar_reminder_system.repository.projection.ReminderSchedule;
+import ru.grigorii.calendar_reminder_system.service.dispatch.ReminderDueEvent;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Счётчик наступивших непрочитанных напоминаний по пользователям. <br/>
+ * Для каждого пользователя хранится множество id напоминаний: диспетчер добавляет напоминание, когда
+ * оно наступает, а слушатель сущности убирает его при прочтении, переносе или удалении. Операции
+ * идемпотентны, поэтому повторные сигналы счётчик не портят, а значок уведомлений читается за O(1). <br/>
+ * Счётчик собирается одним запросом при старте и периодически сверяется с базой. Пока первая сборка не
+ * закончена, {@link #isReady()} возвращает false и вызывающий должен посчитать напоминания сам.
+ * Каждое изменение значения публикуется как {@link UnreadCountChangedEvent}. <br/>
+ * Работает только вместе с диспетчером: без него напоминания некому отмечать наступившими
+ */
+@Component
+@ConditionalOnProperty(prefix = "reminder.dispatcher", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class UnreadReminderCounter
+{
+    private static final Logger log = LoggerFactory.getLogger(UnreadReminderCounter.class);
+
+    private final ReminderRepository reminderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile Map<Long, Set<Long>> dueByUser = new ConcurrentHashMap<>();
+    private volatile Map<Long, Long> ownerByReminder = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    /**
+     * Изменения, пришедшие во время пересборки; повторяются поверх её результата. Под {@code this}
+     */
+    private List<Runnable> journal;
+
+    public UnreadReminderCounter(ReminderRepository reminderRepository,
+                                 ApplicationEventPublisher eventPublisher)
+    {
+        this.reminderRepository = reminderRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Готов ли счётчик отвечать без обращения к базе
+     */
+    public boolean isReady()
+    {
+        return ready;
+    }
+
+    /**
+     * Число наступивших непрочитанных напоминаний пользователя
+     */
+    public long count(Long userId)
+    {
+        return size(dueByUser, userId);
+    }
+
+    @EventListener
+    public void onReminderDue(ReminderDueEvent event)
+    {
+        markDue(event.userId(), event.reminderId());
+    }
+
+    /**
+     * Напоминание наступило и не прочитано
+     */
+    public void markDue(Long userId, Long reminderId)
+    {
+        boolean changed;
+
+        synchronized (this)
+        {
+            changed = add(dueByUser, ownerByReminder, userId, reminderId);
+
+            if (journal != null)
+            {
+                journal.add(() -> add(dueByUser, ownerByReminder, userId, reminderId));
+            }
+        }
+
+        if (changed)
+        {
+            publish(userId);
+        }
+    }
+
+    /**
+     * Напоминание прочитано, перенесено в будущее или удалено
+     */
+    public void remove(Long reminderId)
+    {
+        Long userId;
+
+        synchronized (this)
+        {
+            userId = remove(dueByUser, ownerByReminder, reminderId);
+
+            if (journal != null)
+            {
+                journal.add(() -> remove(dueByUser, ownerByReminder, reminderId));
+            }
+        }
+
+        if (userId != null)
+        {
+            publish(userId);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStart()
+    {
+        rebuild();
+    }
+
+    /**
+     * Периодическая сверка с базой на случай потерянных сигналов
+     */
+    @Scheduled(
+            initialDelayString = "${reminder.counter.reconcile-ms:600000}",
+            fixedDelayString = "${reminder.counter.reconcile-ms:600000}"
+    )
+    public void reconcile()
+    {
+        rebuild();
+    }
+
+    /**
+     * Пересобирает счётчики из базы. Запрос идёт без блокировки, а изменения, пришедшие за это время,
+     * записываются в журнал и применяются к новому состоянию перед подменой
+     */
+    public void rebuild()
+    {
+        synchronized (this)
+        {
+            journal = new ArrayList<>();
+        }
+
+        List<ReminderSchedule> due;
+        try
+        {
+            due = reminderRepository.findDueUnread(LocalDateTime.now());
+        }
+        catch (RuntimeException e)
+        {
+            synchronized (this)
+            {
+                journal = null;
+            }
+            log.error("Failed to rebuild unread reminder counters", e);
+            return;
+        }
+
+        Map<Long, Set<Long>> freshDue = new ConcurrentHashMap<>();
+        Map<Long, Long> freshOwners = new ConcurrentHashMap<>();
+
+        for (ReminderSchedule reminder : due)
+        {
+            add(freshDue, freshOwners, reminder.userId(), reminder.reminderId());
+        }
+
+        List<Long> changedUsers = new ArrayList<>();
+
+        synchronized (this)
+        {
+            Map<Long, Set<Long>> liveDue = dueByUser;
+
+            dueByUser = freshDue;
+            ownerByReminder = freshOwners;
+            journal.forEach(Runnable::run);
+            journal = null;
+
+            ready = true;
+
+            Set<Long> users = new HashSet<>(liveDue.keySet());
+            users.addAll(freshDue.keySet());
+
+            for (Long userId : users)
+            {
+                if (size(liveDue, userId) != size(freshDue, userId))
+                {
+                    changedUsers.add(userId);
+                }
+            }
+
+            log.debug("Unread reminder counters rebuilt: {} reminders for {} users, {} users changed",
+                    freshOwners.size(), freshDue.size(), changedUsers.size());
+        }
+
+        changedUsers.forEach(this::publish);
+    }
+
+    private void publish(Long userId)
+    {
+        eventPublisher.publishEvent(new UnreadCountChangedEvent(userId, count(userId)));
+    }
+
+    private static int size(Map<Long, Set<Long>> due, Long userId)
+    {
+        Set<Long> reminders = due.get(userId);
+        return reminders == null ? 0 : reminders.size();
+    }
+
+    /**
+     * @return true, если у пользователя добавилось напоминание
+     */
+    private static boolean add(Map<Long, Set<Long>> due, Map<Long, Long> owners, Long userId, Long reminderId)
+    {
+        Long previousOwner = owners.put(reminderId, userId);
+
+        if (previousOwner != null && !previousOwner.equals(userId))
+        {
+            removeFromUser(due, previousOwner, reminderId);
+        }
+
+        return due.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(reminderId);
+    }
+
+    /**
+     * @return id пользователя, у которого убрали напоминание, или null, если его не было
+     */
+    private static Long remove(Map<Long, Set<Long>> due, Map<Long, Long> owners, Long reminderId)
+    {
+        Long userId = owners.remove(reminderId);
+
+        if (userId != null)
+        {
+            removeFromUser(due, userId, reminderId);
+        }
+
+        return userId;
+    }
+
+    private static void removeFromUser(Map<Long, Set<Long>> due, Long userId, Long reminderId)
+    {
+        due.computeIfPresent(userId, (id, reminders) -> {
+            reminders.remove(reminderId);
+            return reminders.isEmpty() ? null : reminders;
+        });
+    }
+}
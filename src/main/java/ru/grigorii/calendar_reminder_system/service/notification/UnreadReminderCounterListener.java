@@ -0,0 +1,77 @@
+package ru.grigorii.calendar_reminder_system.service.notification;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import ru.grigorii.calendar_reminder_system.model.Event;
+import ru.grigorii.calendar_reminder_system.model.Reminder;
+import ru.grigorii.calendar_reminder_system.service.support.AfterCommit;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * JPA-слушатель напоминаний для счётчика уведомлений: после коммита убирает прочитанные, перенесённые
+ * в будущее и удалённые напоминания и сразу учитывает уже наступившие
+ */
+@Component
+public class UnreadReminderCounterListener
+{
+    private final ObjectProvider<UnreadReminderCounter> counter;
+
+    public UnreadReminderCounterListener(ObjectProvider<UnreadReminderCounter> counter)
+    {
+        this.counter = counter;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Reminder reminder)
+    {
+        Long reminderId = reminder.getId();
+        Long userId = ownerId(reminder);
+
+        boolean due = !Boolean.TRUE.equals(reminder.getRead())
+                && userId != null
+                && reminder.getRemindAt() != null
+                && !reminder.getRemindAt().isAfter(LocalDateTime.now());
+
+        if (due)
+        {
+            afterCommit(c -> c.markDue(userId, reminderId));
+        }
+        else
+        {
+            afterCommit(c -> c.remove(reminderId));
+        }
+    }
+
+    @PostRemove
+    public void onRemoved(Reminder reminder)
+    {
+        Long reminderId = reminder.getId();
+        afterCommit(c -> c.remove(reminderId));
+    }
+
+    private void afterCommit(Consumer<UnreadReminderCounter> action)
+    {
+        UnreadReminderCounter target = counter.getIfAvailable();
+        if (target != null)
+        {
+            AfterCommit.run(() -> action.accept(target));
+        }
+    }
+
+    private Long ownerId(Reminder reminder)
+    {
+        Event event = reminder.getEvent();
+        if (event == null || event.getCalendar() == null || event.getCalendar().getOwner() == null)
+        {
+            return null;
+        }
+
+        return event.getCalendar().getOwner().getId();
+    }
+}
@@ -0,0 +1,86 @@
+package ru.grigorii.calendar_reminder_system.service.recurrence;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.grigorii.calendar_reminder_system.model.EventRecurrence;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Кэш развёрнутых вхождений повторяющихся серий: при просмотре месяца / недели одни и те же серии
+ * разворачиваются для одних и тех же окон раз за разом. <br/>
+ * Ключ - (id повторения, версия повторения, начало серии, окно), поэтому изменённое правило или сдвинутая серия
+ * никогда не читают старые вхождения, а явная инвалидация не нужна: записи изменённых и удалённых серий
+ * больше не запрашиваются и вытесняются по весу или по времени простоя. <br/>
+ * Кэш ограничен суммарным весом (вес записи - число вхождений + 1, так что ограничено и число записей),
+ * статистика попаданий публикуется в Micrometer как cache.* с тегом cache=recurrence.occurrences
+ */
+@Component
+public class OccurrenceCache
+{
+    static final String CACHE_NAME = "recurrence.occurrences";
+
+    private final RecurrenceExpander recurrenceExpander;
+    private final Cache<Key, List<LocalDateTime>> cache;
+
+    public OccurrenceCache(RecurrenceExpander recurrenceExpander,
+                           MeterRegistry meterRegistry,
+                           @Value("${recurrence.occurrence-cache.max-weight:200000}") long maxWeight,
+                           @Value("${recurrence.occurrence-cache.expire-after-access-ms:600000}") long expireAfterAccessMs)
+    {
+        this.recurrenceExpander = recurrenceExpander;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .<Key, List<LocalDateTime>>weigher((key, occurrences) -> occurrences.size() + 1)
+                .expireAfterAccess(Duration.ofMillis(expireAfterAccessMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Вхождения серии в окне [from, to) - из кэша или развёрнутые {@link RecurrenceExpander} и сохранённые.
+     * Несохранённые повторения (без id) разворачиваются без кэша
+     *
+     * @param recurrence  правило повторения
+     * @param seriesStart время начала серии
+     * @param from        начало окна (включительно)
+     * @param to          конец окна (не включительно)
+     * @return неизменяемый список времён начала вхождений по возрастанию
+     */
+    public List<LocalDateTime> between(EventRecurrence recurrence,
+                                       LocalDateTime seriesStart,
+                                       LocalDateTime from,
+                                       LocalDateTime to)
+    {
+        if (recurrence.getId() == null)
+        {
+            return recurrenceExpander.between(recurrence, seriesStart, from, to).toList();
+        }
+
+        Key key = new Key(recurrence.getId(), recurrence.getVersion(), seriesStart, from, to);
+        return cache.get(key, k -> recurrenceExpander.between(recurrence, seriesStart, from, to).toList());
+    }
+
+    /**
+     * Доля попаданий с момента запуска
+     */
+    public double hitRate()
+    {
+        return cache.stats().hitRate();
+    }
+
+    private record Key(Long recurrenceId,
+                       long version,
+                       LocalDateTime seriesStart,
+                       LocalDateTime from,
+                       LocalDateTime to)
+    {
+    }
+}
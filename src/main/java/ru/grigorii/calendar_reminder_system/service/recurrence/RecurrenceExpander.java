@@ -0,0 +1,145 @@
+package ru.grigorii.calendar_reminder_system.service.recurrence;
+
+import org.springframework.stereotype.Component;
+import ru.grigorii.calendar_reminder_system.model.EventRecurrence;
+import ru.grigorii.calendar_reminder_system.model.RecurrenceType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Вычисление вхождений повторяющегося события на лету, без хранения строк в базе. <br/>
+ * k-е вхождение считается от начала серии как seriesStart + k * шаг (а не прибавлением шага к предыдущему),
+ * поэтому месячные и годовые серии не «съезжают» с 31-го числа после короткого месяца. Точка отсчёта - неизменное
+ * начало первого вхождения ({@link EventRecurrence#origin}), а не текущее начало сдвинутой выполнением серии. <br/>
+ * Если у повторения задано правило RRULE, вхождения вычисляет скомпилированное правило (из кэша по тексту),
+ * DTSTART для него - дата начала повторений со временем события
+ */
+@Component
+public class RecurrenceExpander
+{
+    private final RecurrenceRuleCompiler ruleCompiler;
+
+    public RecurrenceExpander(RecurrenceRuleCompiler ruleCompiler)
+    {
+        this.ruleCompiler = ruleCompiler;
+    }
+
+    /**
+     * Вхождения серии, начинающиеся в окне [from, to), по возрастанию. Поток ленивый:
+     * вхождения вне окна не создаются, а до начала окна выполняется прыжок, а не перебор
+     *
+     * @param recurrence  правило повторения
+     * @param seriesStart время начала первого вхождения (точка отсчёта, {@link EventRecurrence#origin})
+     * @param from        начало окна (включительно)
+     * @param to          конец окна (не включительно)
+     * @return поток времён начала вхождений
+     */
+    public Stream<LocalDateTime> between(EventRecurrence recurrence,
+                                         LocalDateTime seriesStart,
+                                         LocalDateTime from,
+                                         LocalDateTime to)
+    {
+        LocalDateTime lower = max(from, seriesStart, recurrence.getFromDate());
+        LocalDateTime upper = recurrence.getUntilDate() != null
+                ? min(to, recurrence.getUntilDate().plusDays(1).atStartOfDay())
+                : to;
+
+        if (!lower.isBefore(upper))
+        {
+            return Stream.empty();
+        }
+
+        if (recurrence.getRrule() != null)
+        {
+            LocalDateTime dtStart = recurrence.getFromDate() != null
+                    ? recurrence.getFromDate().atTime(seriesStart.toLocalTime())
+                    : seriesStart;
+            return ruleCompiler.compile(recurrence.getRrule()).between(dtStart, lower, upper);
+        }
+
+        ChronoUnit unit = unit(recurrence.getRecurrenceType());
+        if (unit == null)
+        {
+            return !seriesStart.isBefore(lower) && seriesStart.isBefore(upper)
+                    ? Stream.of(seriesStart)
+                    : Stream.empty();
+        }
+
+        // ChronoUnit.between округляет вниз, поэтому начинаем на шаг раньше и отбрасываем лишнее фильтром
+        long first = Math.max(0, unit.between(seriesStart, lower) - 1);
+
+        return LongStream.iterate(first, k -> k + 1)
+                .mapToObj(k -> seriesStart.plus(k, unit))
+                .takeWhile(start -> start.isBefore(upper))
+                .filter(start -> !start.isBefore(lower));
+    }
+
+    /**
+     * Первое вхождение серии строго после указанного момента
+     *
+     * @param recurrence  правило повторения
+     * @param seriesStart время начала первого вхождения
+     * @param after       момент, после которого ищется вхождение
+     * @return вхождение или пусто, если серия закончилась
+     */
+    public Optional<LocalDateTime> firstAfter(EventRecurrence recurrence,
+                                              LocalDateTime seriesStart,
+                                              LocalDateTime after)
+    {
+        return after(recurrence, seriesStart, after).findFirst();
+    }
+
+    /**
+     * Все вхождения серии строго после указанного момента (поток бесконечен, если у серии нет даты окончания)
+     */
+    public Stream<LocalDateTime> after(EventRecurrence recurrence,
+                                       LocalDateTime seriesStart,
+                                       LocalDateTime after)
+    {
+        return between(recurrence, seriesStart, after.plusNanos(1), LocalDateTime.MAX);
+    }
+
+    /**
+     * Проверяет, что момент является вхождением серии
+     */
+    public boolean isOccurrence(EventRecurrence recurrence,
+                                LocalDateTime seriesStart,
+                                LocalDateTime candidate)
+    {
+        return between(recurrence, seriesStart, candidate, candidate.plusNanos(1))
+                .findFirst()
+                .isPresent();
+    }
+
+    private static ChronoUnit unit(RecurrenceType type)
+    {
+        return switch (type)
+        {
+            case NONE -> null;
+            case DAILY -> ChronoUnit.DAYS;
+            case WEEKLY -> ChronoUnit.WEEKS;
+            case MONTHLY -> ChronoUnit.MONTHS;
+            case YEARLY -> ChronoUnit.YEARS;
+        };
+    }
+
+    private static LocalDateTime max(LocalDateTime from, LocalDateTime seriesStart, LocalDate fromDate)
+    {
+        LocalDateTime lower = from.isAfter(seriesStart) ? from : seriesStart;
+        if (fromDate != null && lower.isBefore(fromDate.atStartOfDay()))
+        {
+            return fromDate.atStartOfDay();
+        }
+        return lower;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b)
+    {
+        return a.isBefore(b) ? a : b;
+    }
+}
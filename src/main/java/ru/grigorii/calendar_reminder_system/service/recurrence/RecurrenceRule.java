@@ -0,0 +1,641 @@
+package ru.grigorii.calendar_reminder_system.service.recurrence;
+
+import ru.grigorii.calendar_reminder_system.model.RecurrenceType;
+import ru.grigorii.calendar_reminder_system.service.exception.InvalidRecurrenceRuleException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Скомпилированное правило повторения RFC 5545: строка RRULE и (необязательно) строки EXDATE. <br/>
+ * Поддерживаются FREQ (DAILY, WEEKLY, MONTHLY, YEARLY), INTERVAL, COUNT, UNTIL, BYDAY, BYMONTHDAY, BYMONTH и WKST.
+ * Текст разбирается один раз, объект неизменяем и потокобезопасен, поэтому его можно кэшировать по тексту правила
+ * и переиспользовать между запросами. <br/>
+ * Вхождения - только даты, подходящие под правило (DTSTART не добавляется отдельно); время берётся из DTSTART
+ */
+public final class RecurrenceRule
+{
+    /**
+     * Горизонт перебора: правило, не давшее вхождений за 400 лет (полный григорианский цикл), не даст их никогда
+     */
+    private static final int HORIZON_YEARS = 400;
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("uuuuMMdd");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("uuuuMMdd'T'HHmmss");
+
+    private final String text;
+    private final RecurrenceType frequency;
+    private final int interval;
+
+    /**
+     * Число вхождений, 0 - без ограничения
+     */
+    private final int count;
+    private final LocalDateTime until;
+
+    /**
+     * BYDAY без номера: бит (день недели - 1)
+     */
+    private final int weekdayMask;
+
+    /**
+     * BYDAY с номером (1MO, -1FR): номер и день недели
+     */
+    private final int[] nthOrdinals;
+    private final DayOfWeek[] nthDays;
+
+    /**
+     * BYMONTHDAY, отрицательные значения - от конца месяца
+     */
+    private final int[] monthDays;
+
+    /**
+     * BYMONTH: бит (месяц - 1)
+     */
+    private final int monthMask;
+    private final DayOfWeek weekStart;
+
+    /**
+     * EXDATE, отсортированные для бинарного поиска: точные моменты и целые дни
+     */
+    private final LocalDateTime[] excludedStarts;
+    private final LocalDate[] excludedDays;
+
+    private RecurrenceRule(Builder b)
+    {
+        this.text = b.text;
+        this.frequency = b.frequency;
+        this.interval = b.interval;
+        this.count = b.count;
+        this.until = b.until;
+        this.weekdayMask = b.weekdayMask;
+        this.nthOrdinals = b.nthOrdinals.stream().mapToInt(Integer::intValue).toArray();
+        this.nthDays = b.nthDays.toArray(DayOfWeek[]::new);
+        this.monthDays = b.monthDays.stream().mapToInt(Integer::intValue).toArray();
+        this.monthMask = b.monthMask;
+        this.weekStart = b.weekStart;
+        this.excludedStarts = b.excludedStarts.stream().sorted().toArray(LocalDateTime[]::new);
+        this.excludedDays = b.excludedDays.stream().sorted().toArray(LocalDate[]::new);
+    }
+
+    /**
+     * Разбор текста правила. Допускается как голое правило (FREQ=WEEKLY;BYDAY=MO), так и набор строк
+     * в формате iCalendar: RRULE:... и EXDATE:... (значения через запятую, дата или дата-время)
+     *
+     * @param text текст правила
+     * @return скомпилированное правило
+     * @throws InvalidRecurrenceRuleException если правило некорректно или использует неподдерживаемые части
+     */
+    public static RecurrenceRule parse(String text)
+    {
+        if (text == null || text.isBlank())
+        {
+            throw new InvalidRecurrenceRuleException("Recurrence rule is empty");
+        }
+
+        Builder b = new Builder();
+        List<String> lines = new ArrayList<>();
+        String rrule = null;
+
+        for (String raw : text.strip().toUpperCase(Locale.ROOT).split("\\R"))
+        {
+            String line = raw.strip();
+            if (line.isEmpty())
+            {
+                continue;
+            }
+            lines.add(line);
+
+            if (line.startsWith("EXDATE"))
+            {
+                parseExdate(line, b);
+            }
+            else if (rrule == null && line.startsWith("RRULE:"))
+            {
+                rrule = line.substring("RRULE:".length());
+            }
+            else if (rrule == null && line.startsWith("FREQ="))
+            {
+                rrule = line;
+            }
+            else
+            {
+                throw new InvalidRecurrenceRuleException("Unexpected line in recurrence rule: " + line);
+            }
+        }
+
+        if (rrule == null)
+        {
+            throw new InvalidRecurrenceRuleException("Recurrence rule has no RRULE");
+        }
+
+        parseRrule(rrule, b);
+        b.text = String.join("\n", lines);
+        return new RecurrenceRule(b);
+    }
+
+    /**
+     * Нормализованный текст правила (ключ кэша и значение для хранения)
+     */
+    public String text()
+    {
+        return text;
+    }
+
+    /**
+     * Частота правила - она же грубый тип повторения
+     */
+    public RecurrenceType frequency()
+    {
+        return frequency;
+    }
+
+    /**
+     * Момент окончания повторений (UNTIL) или null
+     */
+    public LocalDateTime until()
+    {
+        return until;
+    }
+
+    /**
+     * Вхождения правила, начинающиеся в окне [from, to), по возрастанию. Поток ленивый; если у правила нет COUNT,
+     * перебор начинается сразу с периода, содержащего начало окна, иначе - с DTSTART (COUNT считается от него)
+     *
+     * @param dtStart начало серии (DTSTART), задаёт время вхождений и точку отсчёта INTERVAL
+     * @param from    начало окна (включительно)
+     * @param to      конец окна (не включительно)
+     * @return поток времён начала вхождений
+     */
+    public Stream<LocalDateTime> between(LocalDateTime dtStart, LocalDateTime from, LocalDateTime to)
+    {
+        LocalDateTime horizon = dtStart.plusYears(HORIZON_YEARS);
+        LocalDateTime upper = to.isBefore(horizon) ? to : horizon;
+        if (until != null && until.isBefore(upper))
+        {
+            upper = until.plusNanos(1);
+        }
+        if (!from.isBefore(upper))
+        {
+            return Stream.empty();
+        }
+
+        LocalDateTime end = upper;
+        ChronoUnit unit = unit();
+        LocalDate anchor = periodStart(dtStart.toLocalDate());
+        LocalDate first = count == 0 && from.isAfter(dtStart)
+                ? jump(anchor, periodStart(from.toLocalDate()), unit)
+                : anchor;
+        LocalTime time = dtStart.toLocalTime();
+
+        Stream<LocalDateTime> occurrences = Stream.iterate(first, period -> period.plus(interval, unit))
+                .takeWhile(period -> period.atStartOfDay().isBefore(end))
+                .flatMap(period -> candidates(period, dtStart.toLocalDate()).stream())
+                .map(day -> day.atTime(time))
+                .filter(start -> !start.isBefore(dtStart));
+
+        if (count > 0)
+        {
+            occurrences = occurrences.limit(count);
+        }
+
+        return occurrences
+                .takeWhile(start -> start.isBefore(end))
+                .filter(start -> !start.isBefore(from))
+                .filter(start -> !isExcluded(start));
+    }
+
+    private ChronoUnit unit()
+    {
+        return switch (frequency)
+        {
+            case DAILY -> ChronoUnit.DAYS;
+            case WEEKLY -> ChronoUnit.WEEKS;
+            case MONTHLY -> ChronoUnit.MONTHS;
+            default -> ChronoUnit.YEARS;
+        };
+    }
+
+    /**
+     * Первый день периода (дня, недели с WKST, месяца, года), содержащего дату
+     */
+    private LocalDate periodStart(LocalDate day)
+    {
+        return switch (frequency)
+        {
+            case DAILY -> day;
+            case WEEKLY -> day.with(TemporalAdjusters.previousOrSame(weekStart));
+            case MONTHLY -> day.withDayOfMonth(1);
+            default -> day.withDayOfYear(1);
+        };
+    }
+
+    /**
+     * Прыжок от периода DTSTART к последнему периоду серии (с учётом INTERVAL), не позже целевого
+     */
+    private LocalDate jump(LocalDate anchor, LocalDate target, ChronoUnit unit)
+    {
+        long steps = unit.between(anchor, target) / interval;
+        return anchor.plus(steps * interval, unit);
+    }
+
+    /**
+     * Дни периода, подходящие под правило, по возрастанию
+     */
+    private List<LocalDate> candidates(LocalDate period, LocalDate dtStart)
+    {
+        List<LocalDate> days = new ArrayList<>();
+        switch (frequency)
+        {
+            case DAILY ->
+            {
+                if (monthMatches(period) && monthDayMatches(period)
+                        && (weekdayMask == 0 || weekdayMatches(period.getDayOfWeek())))
+                {
+                    days.add(period);
+                }
+            }
+            case WEEKLY ->
+            {
+                for (int i = 0; i < 7; i++)
+                {
+                    LocalDate day = period.plusDays(i);
+                    boolean weekday = weekdayMask != 0
+                            ? weekdayMatches(day.getDayOfWeek())
+                            : day.getDayOfWeek() == dtStart.getDayOfWeek();
+                    if (weekday && monthMatches(day))
+                    {
+                        days.add(day);
+                    }
+                }
+            }
+            case MONTHLY ->
+            {
+                if (monthMatches(period))
+                {
+                    addMonthDays(YearMonth.from(period), dtStart, days);
+                }
+            }
+            default -> addYearDays(period.getYear(), dtStart, days);
+        }
+        return days;
+    }
+
+    private void addYearDays(int year, LocalDate dtStart, List<LocalDate> days)
+    {
+        if (monthMask != 0 || monthDays.length > 0)
+        {
+            for (int month = 1; month <= 12; month++)
+            {
+                if (monthMask == 0 || (monthMask & (1 << (month - 1))) != 0)
+                {
+                    addMonthDays(YearMonth.of(year, month), dtStart, days);
+                }
+            }
+        }
+        else if (hasByDay())
+        {
+            // BYDAY без BYMONTH в годовом правиле: номер дня недели считается внутри года
+            int length = Year.of(year).length();
+            for (int dayOfYear = 1; dayOfYear <= length; dayOfYear++)
+            {
+                LocalDate day = LocalDate.ofYearDay(year, dayOfYear);
+                if (byDayMatches(day.getDayOfWeek(), (dayOfYear - 1) / 7 + 1, -((length - dayOfYear) / 7 + 1)))
+                {
+                    days.add(day);
+                }
+            }
+        }
+        else if (YearMonth.of(year, dtStart.getMonth()).isValidDay(dtStart.getDayOfMonth()))
+        {
+            days.add(LocalDate.of(year, dtStart.getMonth(), dtStart.getDayOfMonth()));
+        }
+    }
+
+    private void addMonthDays(YearMonth month, LocalDate dtStart, List<LocalDate> days)
+    {
+        int length = month.lengthOfMonth();
+
+        if (monthDays.length > 0)
+        {
+            boolean[] selected = new boolean[length + 1];
+            for (int monthDay : monthDays)
+            {
+                int day = monthDay > 0 ? monthDay : length + 1 + monthDay;
+                if (day >= 1 && day <= length)
+                {
+                    selected[day] = true;
+                }
+            }
+            for (int day = 1; day <= length; day++)
+            {
+                if (selected[day] && (!hasByDay() || byDayMatches(month.atDay(day).getDayOfWeek(),
+                        (day - 1) / 7 + 1, -((length - day) / 7 + 1))))
+                {
+                    days.add(month.atDay(day));
+                }
+            }
+        }
+        else if (hasByDay())
+        {
+            for (int day = 1; day <= length; day++)
+            {
+                if (byDayMatches(month.atDay(day).getDayOfWeek(), (day - 1) / 7 + 1, -((length - day) / 7 + 1)))
+                {
+                    days.add(month.atDay(day));
+                }
+            }
+        }
+        else if (dtStart.getDayOfMonth() <= length)
+        {
+            // как в RFC 5545: месяцы без такого числа (31-е, 30 февраля) пропускаются
+            days.add(month.atDay(dtStart.getDayOfMonth()));
+        }
+    }
+
+    private boolean hasByDay()
+    {
+        return weekdayMask != 0 || nthDays.length > 0;
+    }
+
+    private boolean byDayMatches(DayOfWeek weekday, int fromStart, int fromEnd)
+    {
+        if (weekdayMatches(weekday))
+        {
+            return true;
+        }
+        for (int i = 0; i < nthDays.length; i++)
+        {
+            if (nthDays[i] == weekday && (nthOrdinals[i] == fromStart || nthOrdinals[i] == fromEnd))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean weekdayMatches(DayOfWeek weekday)
+    {
+        return (weekdayMask & (1 << (weekday.getValue() - 1))) != 0;
+    }
+
+    private boolean monthMatches(LocalDate day)
+    {
+        return monthMask == 0 || (monthMask & (1 << (day.getMonthValue() - 1))) != 0;
+    }
+
+    private boolean monthDayMatches(LocalDate day)
+    {
+        if (monthDays.length == 0)
+        {
+            return true;
+        }
+        int length = day.lengthOfMonth();
+        for (int monthDay : monthDays)
+        {
+            if (day.getDayOfMonth() == (monthDay > 0 ? monthDay : length + 1 + monthDay))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isExcluded(LocalDateTime start)
+    {
+        return excludedStarts.length > 0 && Arrays.binarySearch(excludedStarts, start) >= 0
+                || excludedDays.length > 0 && Arrays.binarySearch(excludedDays, start.toLocalDate()) >= 0;
+    }
+
+    private static void parseRrule(String rrule, Builder b)
+    {
+        Set<String> seen = new HashSet<>();
+        for (String part : rrule.split(";"))
+        {
+            int eq = part.indexOf('=');
+            if (eq <= 0 || eq == part.length() - 1)
+            {
+                throw new InvalidRecurrenceRuleException("Malformed RRULE part: " + part);
+            }
+            String key = part.substring(0, eq);
+            String value = part.substring(eq + 1);
+            if (!seen.add(key))
+            {
+                throw new InvalidRecurrenceRuleException("Duplicate RRULE part: " + key);
+            }
+
+            switch (key)
+            {
+                case "FREQ" -> b.frequency = frequency(value);
+                case "INTERVAL" -> b.interval = positive(key, value);
+                case "COUNT" -> b.count = positive(key, value);
+                case "UNTIL" -> b.until = value.length() == 8
+                        ? date(value).atTime(LocalTime.MAX)
+                        : dateTime(value);
+                case "BYDAY" -> parseByDay(value, b);
+                case "BYMONTHDAY" ->
+                {
+                    for (String item : value.split(","))
+                    {
+                        int day = integer(key, item);
+                        if (day == 0 || Math.abs(day) > 31)
+                        {
+                            throw new InvalidRecurrenceRuleException("BYMONTHDAY out of range: " + item);
+                        }
+                        b.monthDays.add(day);
+                    }
+                }
+                case "BYMONTH" ->
+                {
+                    for (String item : value.split(","))
+                    {
+                        int month = integer(key, item);
+                        if (month < 1 || month > 12)
+                        {
+                            throw new InvalidRecurrenceRuleException("BYMONTH out of range: " + item);
+                        }
+                        b.monthMask |= 1 << (month - 1);
+                    }
+                }
+                case "WKST" -> b.weekStart = weekday(value);
+                default -> throw new InvalidRecurrenceRuleException("Unsupported RRULE part: " + key);
+            }
+        }
+
+        if (b.frequency == null)
+        {
+            throw new InvalidRecurrenceRuleException("RRULE has no FREQ");
+        }
+        if (b.count > 0 && b.until != null)
+        {
+            throw new InvalidRecurrenceRuleException("RRULE must not contain both COUNT and UNTIL");
+        }
+        if (!b.nthDays.isEmpty()
+                && (b.frequency == RecurrenceType.DAILY || b.frequency == RecurrenceType.WEEKLY))
+        {
+            throw new InvalidRecurrenceRuleException("Numbered BYDAY is allowed only for MONTHLY and YEARLY rules");
+        }
+        if (!b.monthDays.isEmpty() && b.frequency == RecurrenceType.WEEKLY)
+        {
+            throw new InvalidRecurrenceRuleException("BYMONTHDAY is not allowed for WEEKLY rules");
+        }
+    }
+
+    private static void parseByDay(String value, Builder b)
+    {
+        for (String item : value.split(","))
+        {
+            if (item.length() < 2)
+            {
+                throw new InvalidRecurrenceRuleException("Malformed BYDAY: " + item);
+            }
+            DayOfWeek weekday = weekday(item.substring(item.length() - 2));
+            String ordinal = item.substring(0, item.length() - 2);
+            if (ordinal.isEmpty())
+            {
+                b.weekdayMask |= 1 << (weekday.getValue() - 1);
+                continue;
+            }
+
+            int n = integer("BYDAY", ordinal.startsWith("+") ? ordinal.substring(1) : ordinal);
+            if (n == 0 || Math.abs(n) > 53)
+            {
+                throw new InvalidRecurrenceRuleException("BYDAY ordinal out of range: " + item);
+            }
+            b.nthOrdinals.add(n);
+            b.nthDays.add(weekday);
+        }
+    }
+
+    private static void parseExdate(String line, Builder b)
+    {
+        int colon = line.indexOf(':');
+        if (colon < 0 || colon == line.length() - 1)
+        {
+            throw new InvalidRecurrenceRuleException("Malformed EXDATE: " + line);
+        }
+        for (String value : line.substring(colon + 1).split(","))
+        {
+            if (value.length() == 8)
+            {
+                b.excludedDays.add(date(value));
+            }
+            else
+            {
+                b.excludedStarts.add(dateTime(value));
+            }
+        }
+    }
+
+    private static RecurrenceType frequency(String value)
+    {
+        return switch (value)
+        {
+            case "DAILY" -> RecurrenceType.DAILY;
+            case "WEEKLY" -> RecurrenceType.WEEKLY;
+            case "MONTHLY" -> RecurrenceType.MONTHLY;
+            case "YEARLY" -> RecurrenceType.YEARLY;
+            default -> throw new InvalidRecurrenceRuleException("Unsupported FREQ: " + value);
+        };
+    }
+
+    private static DayOfWeek weekday(String value)
+    {
+        return switch (value)
+        {
+            case "MO" -> DayOfWeek.MONDAY;
+            case "TU" -> DayOfWeek.TUESDAY;
+            case "WE" -> DayOfWeek.WEDNESDAY;
+            case "TH" -> DayOfWeek.THURSDAY;
+            case "FR" -> DayOfWeek.FRIDAY;
+            case "SA" -> DayOfWeek.SATURDAY;
+            case "SU" -> DayOfWeek.SUNDAY;
+            default -> throw new InvalidRecurrenceRuleException("Unknown weekday: " + value);
+        };
+    }
+
+    private static int positive(String key, String value)
+    {
+        int n = integer(key, value);
+        if (n <= 0)
+        {
+            throw new InvalidRecurrenceRuleException(key + " must be positive: " + value);
+        }
+        return n;
+    }
+
+    private static int integer(String key, String value)
+    {
+        try
+        {
+            return Integer.parseInt(value);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new InvalidRecurrenceRuleException("Malformed " + key + ": " + value);
+        }
+    }
+
+    private static LocalDate date(String value)
+    {
+        try
+        {
+            return LocalDate.parse(value, DATE);
+        }
+        catch (DateTimeParseException e)
+        {
+            throw new InvalidRecurrenceRuleException("Malformed date: " + value);
+        }
+    }
+
+    /**
+     * Дата-время iCalendar; суффикс Z (UTC) отбрасывается - время событий в системе локальное
+     */
+    private static LocalDateTime dateTime(String value)
+    {
+        try
+        {
+            return LocalDateTime.parse(value.endsWith("Z") ? value.substring(0, value.length() - 1) : value,
+                    DATE_TIME);
+        }
+        catch (DateTimeParseException e)
+        {
+            throw new InvalidRecurrenceRuleException("Malformed date-time: " + value);
+        }
+    }
+
+    /**
+     * Изменяемое состояние разбора, из которого собирается неизменяемое правило
+     */
+    private static final class Builder
+    {
+        private String text;
+        private RecurrenceType frequency;
+        private int interval = 1;
+        private int count;
+        private LocalDateTime until;
+        private int weekdayMask;
+        private final List<Integer> nthOrdinals = new ArrayList<>();
+        private final List<DayOfWeek> nthDays = new ArrayList<>();
+        private final List<Integer> monthDays = new ArrayList<>();
+        private int monthMask;
+        private DayOfWeek weekStart = DayOfWeek.MONDAY;
+        private final List<LocalDateTime> excludedStarts = new ArrayList<>();
+        private final List<LocalDate> excludedDays = new ArrayList<>();
+    }
+}
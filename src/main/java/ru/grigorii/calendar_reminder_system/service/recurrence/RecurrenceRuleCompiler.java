@@ -0,0 +1,86 @@
+package ru.grigorii.calendar_reminder_system.service.recurrence;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.grigorii.calendar_reminder_system.dto.EventRecurrenceDto;
+import ru.grigorii.calendar_reminder_system.model.EventRecurrence;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Компиляция правил повторения с кэшем по тексту правила: при разворачивании календаря одно и то же правило
+ * разбирается один раз, а не на каждое событие и каждый запрос. <br/>
+ * Кэш ограничен по размеру: когда он заполнен, новые правила компилируются без сохранения
+ */
+@Component
+public class RecurrenceRuleCompiler
+{
+    private final int maxSize;
+    private final ConcurrentMap<String, RecurrenceRule> compiled = new ConcurrentHashMap<>();
+
+    public RecurrenceRuleCompiler(@Value("${recurrence.rule-cache.max-size:10000}") int maxSize)
+    {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Скомпилированное правило по тексту
+     *
+     * @param text текст правила (RRULE и, возможно, EXDATE)
+     * @return правило
+     * @throws ru.grigorii.calendar_reminder_system.service.exception.InvalidRecurrenceRuleException
+     *         если правило некорректно
+     */
+    public RecurrenceRule compile(String text)
+    {
+        RecurrenceRule rule = compiled.get(text);
+        if (rule != null)
+        {
+            return rule;
+        }
+
+        rule = RecurrenceRule.parse(text);
+        if (compiled.size() < maxSize)
+        {
+            compiled.putIfAbsent(text, rule);
+            compiled.putIfAbsent(rule.text(), rule);
+        }
+        return rule;
+    }
+
+    /**
+     * Перенос правила из DTO в повторение. Если задано RRULE, оно проверяется и сохраняется в нормализованном
+     * виде, тип повторения берётся из FREQ, а дата окончания (если не указана явно) - из UNTIL
+     *
+     * @param recurrence повторение
+     * @param dto        данные повторения
+     */
+    public void applyTo(EventRecurrence recurrence, EventRecurrenceDto dto)
+    {
+        recurrence.setRecurrenceType(dto.type());
+        recurrence.setUntilDate(dto.untilDate());
+        recurrence.setRrule(null);
+
+        if (!dto.hasRule())
+        {
+            return;
+        }
+
+        RecurrenceRule rule = compile(dto.rrule());
+        recurrence.setRrule(rule.text());
+        recurrence.setRecurrenceType(rule.frequency());
+        if (dto.untilDate() == null && rule.until() != null)
+        {
+            recurrence.setUntilDate(rule.until().toLocalDate());
+        }
+    }
+
+    /**
+     * Число закэшированных правил
+     */
+    public int size()
+    {
+        return compiled.size();
+    }
+}
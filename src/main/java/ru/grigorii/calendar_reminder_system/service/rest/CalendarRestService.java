@@ -1,15 +1,23 @@
 package ru.grigorii.calendar_reminder_system.service.rest;
 
 import ru.grigorii.calendar_reminder_system.dto.CalendarDto;
+import ru.grigorii.calendar_reminder_system.dto.VersionDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface CalendarRestService {
 
     List<CalendarDto> findAll();
 
+    List<CalendarDto> findPage(Long afterId, int limit);
+
+    void exportAll(Consumer<CalendarDto> sink);
+
     CalendarDto findById(Long id);
 
+    VersionDto findVersion(Long id);
+
     List<CalendarDto> findByOwnerId(Long ownerId);
 
     CalendarDto create(CalendarDto dto);
@@ -3,10 +3,13 @@ package ru.grigorii.calendar_reminder_system.service.rest;
 import ru.grigorii.calendar_reminder_system.dto.EventRecurrenceDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface EventRecurrenceRestService
 {
     List<EventRecurrenceDto> findAll();
+    List<EventRecurrenceDto> findPage(Long afterId, int limit);
+    void exportAll(Consumer<EventRecurrenceDto> sink);
     EventRecurrenceDto findById(Long id);
     EventRecurrenceDto findByEventId(Long eventId);
     EventRecurrenceDto create(EventRecurrenceDto dto);
@@ -1,15 +1,23 @@
 package ru.grigorii.calendar_reminder_system.service.rest;
 
 import ru.grigorii.calendar_reminder_system.dto.EventDto;
+import ru.grigorii.calendar_reminder_system.dto.VersionDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface EventRestService {
 
     List<EventDto> findAll();
+    List<EventDto> findPage(Long afterId, int limit);
+    void exportAll(Consumer<EventDto> sink);
     List<EventDto> findByCalendar(Long calendarId);
     EventDto findById(Long id);
+    VersionDto findVersion(Long id);
     EventDto create(EventDto dto);
-    EventDto update(Long id, EventDto dto);
+    List<EventDto> createAll(List<EventDto> dtos);
+    EventDto update(Long id, EventDto dto, Long expectedVersion);
+    EventDto updateOccurrence(Long seriesId, LocalDateTime start, EventDto dto);
     void delete(Long id);
 }
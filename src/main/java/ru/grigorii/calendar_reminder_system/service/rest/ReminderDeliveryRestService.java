@@ -0,0 +1,16 @@
+package ru.grigorii.calendar_reminder_system.service.rest;
+
+import ru.grigorii.calendar_reminder_system.dto.DeadLetterDto;
+import ru.grigorii.calendar_reminder_system.dto.DeadLetterReplayDto;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+
+import java.util.List;
+
+public interface ReminderDeliveryRestService
+{
+    List<DeadLetterDto> findDeadLetters(ReminderChannel channel, Long afterId, int limit);
+
+    DeadLetterReplayDto replay(ReminderChannel channel, int limit);
+
+    DeadLetterReplayDto replay(Long deadLetterId);
+}
@@ -1,20 +1,28 @@
 package ru.grigorii.calendar_reminder_system.service.rest;
 
 import ru.grigorii.calendar_reminder_system.dto.ReminderDto;
+import ru.grigorii.calendar_reminder_system.dto.VersionDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ReminderRestService
 {
     List<ReminderDto> findAll();
 
+    List<ReminderDto> findPage(Long afterId, int limit);
+
+    void exportAll(Consumer<ReminderDto> sink);
+
     ReminderDto findById(Long id);
 
+    VersionDto findVersion(Long id);
+
     ReminderDto findByEventId(Long eventId);
 
     ReminderDto create(ReminderDto dto);
 
-    ReminderDto update(Long id, ReminderDto dto);
+    ReminderDto update(Long id, ReminderDto dto, Long expectedVersion);
 
     void delete(Long id);
 }
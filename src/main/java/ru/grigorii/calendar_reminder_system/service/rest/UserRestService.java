@@ -3,10 +3,13 @@ package ru.grigorii.calendar_reminder_system.service.rest;
 import ru.grigorii.calendar_reminder_system.dto.UserDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserRestService
 {
     List<UserDto> findAll();
+    List<UserDto> findPage(Long afterId, int limit);
+    void exportAll(Consumer<UserDto> sink);
     UserDto findById(Long id);
     UserDto create(UserDto dto);
     UserDto update(Long id, UserDto dto);
@@ -0,0 +1,35 @@
+package ru.grigorii.calendar_reminder_system.service.support;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Откладывает действие до успешного коммита текущей транзакции
+ */
+public final class AfterCommit
+{
+    private AfterCommit()
+    {
+    }
+
+    /**
+     * Выполняет действие после коммита, или сразу, если транзакции нет. При откате действие не выполняется
+     */
+    public static void run(Runnable action)
+    {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+        {
+            @Override
+            public void afterCommit()
+            {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package ru.grigorii.calendar_reminder_system.service.support;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Потоки для фоновых задач (доставка, рассылка уведомлений). При {@code spring.threads.virtual.enabled=true}
+ * создаются виртуальные потоки, иначе - обычные демоны. Параллельность в обоих случаях ограничивает сам пул,
+ * а не тип потоков
+ */
+public final class BackgroundThreadFactory
+{
+    private BackgroundThreadFactory()
+    {
+    }
+
+    public static ThreadFactory create(String name, boolean virtual)
+    {
+        if (virtual)
+        {
+            return Thread.ofVirtual().name(name + "-", 1).factory();
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+
+        return r -> {
+            Thread thread = new Thread(r, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package ru.grigorii.calendar_reminder_system.service.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Повтор идемпотентных переходов (выполнение события или вхождения, прочтение напоминания) при конфликте
+ * параллельных изменений. <br/>
+ * Каждая попытка - отдельная транзакция со свежим чтением, поэтому вызывающий метод не должен быть
+ * транзакционным сам. Конфликт обнаруживается по версии строки (@Version) или по уникальному ключу
+ * (вхождение серии материализуется один раз), и повтор видит уже сохранённый результат соседнего запроса.
+ * Переход должен быть идемпотентным: повтор после чужого коммита ничего не делает, а не выполняет
+ * следующее вхождение. Обычные изменения (PUT) не повторяются - там конфликт возвращается клиенту
+ */
+@Component
+public class OptimisticRetry
+{
+    private static final Logger log = LoggerFactory.getLogger(OptimisticRetry.class);
+
+    private final TransactionOperations transactionOperations;
+    private final int maxAttempts;
+    private final long backoffMs;
+
+    public OptimisticRetry(TransactionOperations transactionOperations,
+                           @Value("${optimistic-retry.max-attempts:3}") int maxAttempts,
+                           @Value("${optimistic-retry.backoff-ms:20}") long backoffMs)
+    {
+        this.transactionOperations = transactionOperations;
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+    }
+
+    /**
+     * Выполнение перехода в транзакции с повтором при конфликте
+     *
+     * @param transition идемпотентный переход
+     */
+    public void run(Runnable transition)
+    {
+        for (int attempt = 1; ; attempt++)
+        {
+            try
+            {
+                transactionOperations.executeWithoutResult(status -> transition.run());
+                return;
+            }
+            catch (OptimisticLockingFailureException | DataIntegrityViolationException e)
+            {
+                if (attempt >= maxAttempts)
+                {
+                    throw e;
+                }
+                log.debug("Concurrent modification, retrying ({}/{}): {}", attempt, maxAttempts, e.getMessage());
+                pause(attempt);
+            }
+        }
+    }
+
+    /**
+     * Случайная пауза растущей длины, чтобы столкнувшиеся запросы не повторили конфликт одновременно
+     */
+    private void pause(int attempt)
+    {
+        if (backoffMs <= 0)
+        {
+            return;
+        }
+
+        try
+        {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMs * attempt + 1));
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying", e);
+        }
+    }
+}
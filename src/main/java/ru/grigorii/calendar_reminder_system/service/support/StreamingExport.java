@@ -0,0 +1,50 @@
+package ru.grigorii.calendar_reminder_system.service.support;
+
+import jakarta.persistence.EntityManager;
+import ru.grigorii.calendar_reminder_system.repository.ExportHints;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка таблицы через JPA Stream за постоянную память: строки маппятся в DTO по одной,
+ * а контекст персистентности периодически очищается, чтобы прочитанные сущности не накапливались
+ */
+public final class StreamingExport
+{
+    private StreamingExport()
+    {
+    }
+
+    /**
+     * Передаёт каждую строку потока в sink. Должен вызываться внутри транзакции, открывшей поток;
+     * поток закрывается по завершении
+     *
+     * @param entityManager контекст персистентности, из которого читается поток
+     * @param rows          поток сущностей
+     * @param mapper        маппер сущности в DTO
+     * @param sink          получатель DTO
+     */
+    public static <E, D> void forEach(EntityManager entityManager,
+                                      Stream<E> rows,
+                                      Function<E, D> mapper,
+                                      Consumer<D> sink)
+    {
+        try (rows)
+        {
+            Iterator<E> iterator = rows.iterator();
+            int read = 0;
+            while (iterator.hasNext())
+            {
+                sink.accept(mapper.apply(iterator.next()));
+
+                if (++read % ExportHints.DETACH_EVERY == 0)
+                {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+}
@@ -8,21 +8,28 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.http.MediaType;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.grigorii.calendar_reminder_system.dto.CalendarDto;
+import ru.grigorii.calendar_reminder_system.dto.VersionDto;
 import ru.grigorii.calendar_reminder_system.service.rest.CalendarRestService;
 import jakarta.persistence.EntityNotFoundException;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -65,33 +72,97 @@ class CalendarRestControllerTest
     @WithMockUser(roles = "ADMIN")
     void getAll_shouldReturnCalendars() throws Exception
     {
-        given(calendarService.findAll())
+        given(calendarService.findPage(0L, 100))
                 .willReturn(List.of(sampleCalendar()));
 
         mockMvc.perform(get("/api/calendars"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].name").value("Work"));
+                .andExpect(jsonPath("$[0].name").value("Work"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getAll_shouldReturnNextCursor_whenPageIsFull() throws Exception
+    {
+        given(calendarService.findPage(5L, 1))
+                .willReturn(List.of(sampleCalendar()));
+
+        mockMvc.perform(get("/api/calendars")
+                        .param("after", "5")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(header().string("X-Next-Cursor", "1"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void export_shouldStreamNdjson() throws Exception
+    {
+        CalendarDto second = new CalendarDto(2L, "Home", null, 10L, null);
+        willAnswer(invocation ->
+        {
+            Consumer<CalendarDto> sink = invocation.getArgument(0);
+            sink.accept(sampleCalendar());
+            sink.accept(second);
+            return null;
+        }).given(calendarService).exportAll(any());
+
+        MvcResult result = mockMvc.perform(get("/api/calendars/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readTree(lines[0]).get("id").asLong());
+        assertEquals("Home", objectMapper.readTree(lines[1]).get("name").asText());
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getById_shouldReturnCalendar() throws Exception
     {
+        given(calendarService.findVersion(1L))
+                .willReturn(new VersionDto("3", LocalDateTime.of(2026, 3, 2, 9, 0)));
         given(calendarService.findById(1L))
                 .willReturn(sampleCalendar());
 
         mockMvc.perform(get("/api/calendars/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(header().exists("Last-Modified"))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.name").value("Work"));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getById_withCurrentETag_shouldReturn304WithoutLoading() throws Exception
+    {
+        given(calendarService.findVersion(1L))
+                .willReturn(new VersionDto("3", LocalDateTime.of(2026, 3, 2, 9, 0)));
+
+        mockMvc.perform(get("/api/calendars/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        then(calendarService).should(never()).findById(any());
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void getById_notFound_shouldReturn404() throws Exception
     {
-        given(calendarService.findById(1L))
+        given(calendarService.findVersion(1L))
                 .willThrow(new EntityNotFoundException("Calendar not found"));
 
         mockMvc.perform(get("/api/calendars/1"))
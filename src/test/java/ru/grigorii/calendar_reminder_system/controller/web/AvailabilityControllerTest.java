@@ -0,0 +1,100 @@
+package ru.grigorii.calendar_reminder_system.controller.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.grigorii.calendar_reminder_system.dto.BusyIntervalDto;
+import ru.grigorii.calendar_reminder_system.dto.TimeSlotDto;
+import ru.grigorii.calendar_reminder_system.model.Role;
+import ru.grigorii.calendar_reminder_system.security.AuthenticatedUser;
+import ru.grigorii.calendar_reminder_system.service.mvc.AvailabilityMvcService;
+import ru.grigorii.calendar_reminder_system.service.mvc.ReminderMvcService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AvailabilityController.class)
+class AvailabilityControllerTest
+{
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AvailabilityMvcService availabilityService;
+
+    @MockitoBean
+    private ReminderMvcService reminderService;
+
+    private final AuthenticatedUser principal =
+            new AuthenticatedUser(1L, "user@test.com", "hash", Role.USER);
+
+    @Test
+    void busy_shouldReturnIntervalsOfCurrentUser() throws Exception
+    {
+        LocalDateTime from = LocalDateTime.of(2026, 3, 2, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 3, 3, 0, 0);
+
+        when(availabilityService.findBusy(1L, from, to))
+                .thenReturn(List.of(new BusyIntervalDto(
+                        100L,
+                        10L,
+                        "Standup",
+                        LocalDateTime.of(2026, 3, 2, 9, 0),
+                        LocalDateTime.of(2026, 3, 2, 9, 15),
+                        true
+                )));
+
+        mockMvc.perform(get("/availability/busy")
+                        .param("from", "2026-03-02T00:00:00")
+                        .param("to", "2026-03-03T00:00:00")
+                        .with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].eventId").value(100))
+                .andExpect(jsonPath("$[0].title").value("Standup"))
+                .andExpect(jsonPath("$[0].virtual").value(true));
+    }
+
+    @Test
+    void free_shouldPassMinimalLength() throws Exception
+    {
+        LocalDateTime from = LocalDateTime.of(2026, 3, 2, 9, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 3, 2, 18, 0);
+
+        when(availabilityService.findFreeSlots(1L, from, to, Duration.ofMinutes(45)))
+                .thenReturn(List.of(new TimeSlotDto(LocalDateTime.of(2026, 3, 2, 10, 0), to)));
+
+        mockMvc.perform(get("/availability/free")
+                        .param("from", "2026-03-02T09:00:00")
+                        .param("to", "2026-03-02T18:00:00")
+                        .param("minutes", "45")
+                        .with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void busy_shouldReturnBadRequest_whenWindowIsInvalid() throws Exception
+    {
+        mockMvc.perform(get("/availability/busy")
+                        .param("from", "2026-03-03T00:00:00")
+                        .param("to", "2026-03-02T00:00:00")
+                        .with(user(principal)))
+                .andExpect(status().isBadRequest());
+
+        then(availabilityService)
+                .should(never())
+                .findBusy(any(), any(), any());
+    }
+}
@@ -0,0 +1,104 @@
+package ru.grigorii.calendar_reminder_system.controller.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.grigorii.calendar_reminder_system.dto.CalendarDto;
+import ru.grigorii.calendar_reminder_system.dto.VersionDto;
+import ru.grigorii.calendar_reminder_system.model.Role;
+import ru.grigorii.calendar_reminder_system.security.AuthenticatedUser;
+import ru.grigorii.calendar_reminder_system.service.mvc.AvailabilityMvcService;
+import ru.grigorii.calendar_reminder_system.service.mvc.CalendarMvcService;
+import ru.grigorii.calendar_reminder_system.service.mvc.EventMvcService;
+import ru.grigorii.calendar_reminder_system.service.mvc.IcsFeedMvcService;
+import ru.grigorii.calendar_reminder_system.service.mvc.ReminderMvcService;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CalendarController.class)
+class CalendarControllerTest
+{
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CalendarMvcService calendarService;
+
+    @MockitoBean
+    private EventMvcService eventService;
+
+    @MockitoBean
+    private AvailabilityMvcService availabilityService;
+
+    @MockitoBean
+    private IcsFeedMvcService feedService;
+
+    @MockitoBean
+    private ReminderMvcService reminderService;
+
+    private final AuthenticatedUser principal =
+            new AuthenticatedUser(1L, "user@test.com", "hash", Role.USER);
+
+    private final VersionDto version = new VersionDto("10-1-3-5", LocalDateTime.of(2026, 3, 2, 9, 0));
+
+    @Test
+    void calendarPage_shouldRender_withETag() throws Exception
+    {
+        given(calendarService.findVersionForOwner(10L, 1L))
+                .willReturn(version);
+        given(calendarService.findByIdForOwner(10L, 1L))
+                .willReturn(new CalendarDto(10L, "Work", "Work calendar", 1L, LocalDateTime.now()));
+
+        mockMvc.perform(get("/calendar/10").param("date", "2026-03-02").with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(view().name("calendar"))
+                .andExpect(header().string("ETag", "\"10-1-3-5-MONTH-2026-03-02-0\""))
+                .andExpect(header().string("Cache-Control", "no-cache, private"));
+    }
+
+    @Test
+    void calendarPage_shouldReturnNotModified_withoutLoadingEvents() throws Exception
+    {
+        given(calendarService.findVersionForOwner(10L, 1L))
+                .willReturn(version);
+
+        mockMvc.perform(get("/calendar/10")
+                        .param("date", "2026-03-02")
+                        .header("If-None-Match", "\"10-1-3-5-MONTH-2026-03-02-0\"")
+                        .with(user(principal)))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        then(calendarService).should(never()).findByIdForOwner(any(), any());
+        then(eventService).should(never()).findOccurrencesInWindow(any(), any(), any());
+    }
+
+    @Test
+    void calendarPage_shouldRenderAgain_whenNotificationCountChanged() throws Exception
+    {
+        given(calendarService.findVersionForOwner(10L, 1L))
+                .willReturn(version);
+        given(calendarService.findByIdForOwner(10L, 1L))
+                .willReturn(new CalendarDto(10L, "Work", "Work calendar", 1L, LocalDateTime.now()));
+        given(reminderService.countActive(1L))
+                .willReturn(2L);
+
+        mockMvc.perform(get("/calendar/10")
+                        .param("date", "2026-03-02")
+                        .header("If-None-Match", "\"10-1-3-5-MONTH-2026-03-02-0\"")
+                        .with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"10-1-3-5-MONTH-2026-03-02-2\""));
+    }
+}
@@ -0,0 +1,108 @@
+package ru.grigorii.calendar_reminder_system.controller.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.grigorii.calendar_reminder_system.dto.IcsFeedDto;
+import ru.grigorii.calendar_reminder_system.dto.VersionDto;
+import ru.grigorii.calendar_reminder_system.model.Role;
+import ru.grigorii.calendar_reminder_system.security.AuthenticatedUser;
+import ru.grigorii.calendar_reminder_system.service.mvc.IcsFeedMvcService;
+import ru.grigorii.calendar_reminder_system.service.mvc.ReminderMvcService;
+
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(IcsFeedController.class)
+class IcsFeedControllerTest
+{
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private IcsFeedMvcService feedService;
+
+    @MockitoBean
+    private ReminderMvcService reminderService;
+
+    private final AuthenticatedUser principal =
+            new AuthenticatedUser(1L, "user@test.com", "hash", Role.USER);
+
+    private final IcsFeedDto feed = new IcsFeedDto(10L,
+            new VersionDto("10-1-3-1772442000000000", LocalDateTime.of(2026, 3, 2, 9, 0)));
+
+    @Test
+    void feed_shouldStreamCalendar_withValidators() throws Exception
+    {
+        when(feedService.findFeedByToken("secret"))
+                .thenReturn(Optional.of(feed));
+        willAnswer(invocation ->
+        {
+            Writer writer = invocation.getArgument(1);
+            writer.write("BEGIN:VCALENDAR\r\nEND:VCALENDAR\r\n");
+            return null;
+        }).given(feedService).export(eq(10L), any());
+
+        MvcResult result = mockMvc.perform(get("/feeds/secret.ics").with(user(principal)))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(IcsFeedController.TEXT_CALENDAR))
+                .andExpect(content().string("BEGIN:VCALENDAR\r\nEND:VCALENDAR\r\n"));
+    }
+
+    @Test
+    void feed_shouldReturnNotModified_whenEtagMatches() throws Exception
+    {
+        when(feedService.findFeedByToken("secret"))
+                .thenReturn(Optional.of(feed));
+
+        mockMvc.perform(get("/feeds/secret.ics")
+                        .header("If-None-Match", "\"10-1-3-1772442000000000\"")
+                        .with(user(principal)))
+                .andExpect(status().isNotModified());
+
+        then(feedService).should(never()).export(any(), any());
+    }
+
+    @Test
+    void feed_shouldReturnNotFound_whenTokenIsUnknown() throws Exception
+    {
+        when(feedService.findFeedByToken("unknown"))
+                .thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/feeds/unknown.ics").with(user(principal)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void export_shouldCheckOwner_andOfferAttachment() throws Exception
+    {
+        when(feedService.findFeed(10L, 1L))
+                .thenReturn(feed);
+
+        mockMvc.perform(get("/calendar/10/export.ics").with(user(principal)))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"calendar-10.ics\""));
+    }
+}
@@ -3,21 +3,22 @@ package ru.grigorii.calendar_reminder_system.controller.web;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
-import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.grigorii.calendar_reminder_system.dto.ReminderDto;
-import ru.grigorii.calendar_reminder_system.dto.UserDto;
+import ru.grigorii.calendar_reminder_system.model.Role;
+import ru.grigorii.calendar_reminder_system.security.AuthenticatedUser;
 import ru.grigorii.calendar_reminder_system.service.mvc.ReminderMvcService;
-import ru.grigorii.calendar_reminder_system.service.mvc.UserMvcService;
+import ru.grigorii.calendar_reminder_system.service.notification.NotificationStreamRegistry;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
-import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,22 +34,14 @@ class NotificationControllerTest
     private ReminderMvcService reminderService;
 
     @MockitoBean
-    private UserMvcService userService;
+    private NotificationStreamRegistry streamRegistry;
+
+    private final AuthenticatedUser principal =
+            new AuthenticatedUser(1L, "user@test.com", "hash", Role.USER);
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = "USER")
     void notifications_shouldReturnViewWithReminders() throws Exception
     {
-        UserDto user = new UserDto(
-                1L,
-                "Test",
-                "User",
-                "user@test.com",
-                null,
-                "USER",
-                null
-        );
-
         List<ReminderDto> reminders = List.of(
                 new ReminderDto(
                         10L,
@@ -60,13 +53,10 @@ class NotificationControllerTest
                 )
         );
 
-        when(userService.getByEmail("user@test.com"))
-                .thenReturn(user);
-
         when(reminderService.findActive(1L))
                 .thenReturn(reminders);
 
-        mockMvc.perform(get("/notifications"))
+        mockMvc.perform(get("/notifications").with(user(principal)))
                 .andExpect(status().isOk())
                 .andExpect(view().name("notifications"))
                 .andExpect(model().attributeExists("reminders"))
@@ -74,19 +64,11 @@ class NotificationControllerTest
     }
 
     @Test
-    @WithMockUser(username = "user@test.com")
     void markRead_shouldRedirectToNotifications() throws Exception
     {
-        UserDto user = new UserDto(
-                1L, "Test", "User",
-                "user@test.com", null, "USER", null
-        );
-
-        given(userService.getByEmail("user@test.com"))
-                .willReturn(user);
-
         mockMvc.perform(
                         post("/notifications/10/read")
+                                .with(user(principal))
                                 .with(csrf())
                 )
                 .andExpect(status().is3xxRedirection())
@@ -97,4 +79,30 @@ class NotificationControllerTest
                 .markAsRead(10L, 1L);
     }
 
+    @Test
+    void notifications_shouldExposeBadgeCountWithoutUserLookup() throws Exception
+    {
+        when(reminderService.countActive(1L))
+                .thenReturn(3L);
+
+        mockMvc.perform(get("/notifications").with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("notificationCount", 3L));
+    }
+
+    @Test
+    void stream_shouldRegisterConnectionWithCurrentCount() throws Exception
+    {
+        when(reminderService.countActive(1L))
+                .thenReturn(2L);
+        when(streamRegistry.register(1L, 2L))
+                .thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/notifications/stream").with(user(principal)))
+                .andExpect(request().asyncStarted());
+
+        then(streamRegistry)
+                .should()
+                .register(1L, 2L);
+    }
 }
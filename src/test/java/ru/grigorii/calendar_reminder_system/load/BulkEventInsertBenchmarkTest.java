@@ -0,0 +1,165 @@
+package ru.grigorii.calendar_reminder_system.load;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.grigorii.calendar_reminder_system.dto.EventDto;
+import ru.grigorii.calendar_reminder_system.dto.EventRecurrenceDto;
+import ru.grigorii.calendar_reminder_system.dto.ReminderDto;
+import ru.grigorii.calendar_reminder_system.model.*;
+import ru.grigorii.calendar_reminder_system.repository.CalendarRepository;
+import ru.grigorii.calendar_reminder_system.repository.UserRepository;
+import ru.grigorii.calendar_reminder_system.service.rest.EventRestService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Бенчмарк пакетного создания событий: {@code load.bulk-events} событий с повторением, напоминанием и
+ * записью outbox (4 строки на событие) вставляются одной транзакцией через {@link EventRestService#createAll}
+ * с пакетами JDBC размера 1 (как было при IDENTITY) и с настроенным {@code hibernate.jdbc.batch_size}.
+ * Печатается время и число подготовленных выражений. Запуск: {@code mvn test -Pload-test}
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "reminder.dispatcher.enabled=false",
+        "reminder.delivery.enabled=false"
+})
+@ActiveProfiles("test")
+@Tag("load")
+class BulkEventInsertBenchmarkTest
+{
+    private static final Logger log = LoggerFactory.getLogger(BulkEventInsertBenchmarkTest.class);
+
+    private static final int EVENTS = Integer.getInteger("load.bulk-events", 5_000);
+    private static final int ROUNDS = Integer.getInteger("load.bulk-rounds", 3);
+
+    @Autowired
+    private EventRestService eventService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CalendarRepository calendarRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Long calendarId;
+
+    @BeforeEach
+    void setUp()
+    {
+        User user = new User();
+        user.setEmail("bulk-" + System.nanoTime() + "@test.com");
+        user.setName("Bulk");
+        user.setSurname("Test");
+        user.setRole(Role.USER);
+        user.setPasswordHash("hash");
+        user = userRepository.save(user);
+
+        Calendar calendar = new Calendar();
+        calendar.setName("Bulk");
+        calendar.setOwner(user);
+        calendarId = calendarRepository.save(calendar).getId();
+    }
+
+    @Test
+    void bulkInsert_batchedVersusRowByRow()
+    {
+        List<EventDto> dtos = dtos();
+
+        // прогрев
+        insert(dtos, 1);
+        insert(dtos, null);
+
+        Run rowByRow = best(dtos, 1);
+        Run batched = best(dtos, null);
+
+        log.info("bulk insert of {} events: row-by-row {} ms ({} statements), batched {} ms ({} statements), x{}",
+                EVENTS, rowByRow.millis(), rowByRow.statements(), batched.millis(), batched.statements(),
+                "%.1f".formatted((double) rowByRow.millis() / Math.max(1, batched.millis())));
+
+        assertTrue(batched.statements() * 10 < rowByRow.statements(),
+                "batched inserts should prepare far fewer statements");
+    }
+
+    private Run best(List<EventDto> dtos, Integer batchSize)
+    {
+        Run best = null;
+        for (int i = 0; i < ROUNDS; i++)
+        {
+            Run run = insert(dtos, batchSize);
+            if (best == null || run.millis() < best.millis())
+            {
+                best = run;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Одна транзакция со вставкой всех событий
+     * @param batchSize размер пакета JDBC для сессии, null - значение из конфигурации
+     */
+    private Run insert(List<EventDto> dtos, Integer batchSize)
+    {
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status ->
+        {
+            if (batchSize != null)
+            {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            }
+            eventService.createAll(dtos);
+        });
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        return new Run(millis, statistics.getPrepareStatementCount());
+    }
+
+    private List<EventDto> dtos()
+    {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0);
+        List<EventDto> dtos = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++)
+        {
+            LocalDateTime eventStart = start.plusHours(i);
+            dtos.add(new EventDto(
+                    null, "Event " + i, null,
+                    eventStart, eventStart.plusHours(1),
+                    "MEDIUM", false, calendarId, null,
+                    EventRecurrenceDto.forCreate(null, eventStart.toLocalDate(), null, RecurrenceType.WEEKLY),
+                    ReminderDto.forCreate(null, eventStart.minusMinutes(15), "PUSH")));
+        }
+        return dtos;
+    }
+
+    private record Run(long millis, long statements)
+    {
+    }
+}
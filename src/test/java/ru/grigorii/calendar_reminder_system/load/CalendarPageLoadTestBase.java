@@ -0,0 +1,247 @@
+package ru.grigorii.calendar_reminder_system.load;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import ru.grigorii.calendar_reminder_system.model.*;
+import ru.grigorii.calendar_reminder_system.repository.CalendarRepository;
+import ru.grigorii.calendar_reminder_system.repository.EventRepository;
+import ru.grigorii.calendar_reminder_system.repository.UserRepository;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Нагрузочный тест страницы {@code /calendar/{id}}: {@code load.concurrency} клиентов в течение
+ * {@code load.duration-ms} запрашивают страницу одного календаря, в конце печатается пропускная
+ * способность и задержки. Наследники отличаются только режимом потоков, поэтому запуск
+ * {@code mvn test -Pload-test} выводит обе цифры рядом. <br/>
+ * По умолчанию используется H2 в памяти, где блокирующие вызовы почти ничего не стоят и разница
+ * режимов занижена; для честного сравнения базу можно подменить через {@code -Dspring.datasource.url=...}
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.jpa.show-sql=false",
+                "reminder.dispatcher.enabled=false",
+                "reminder.delivery.enabled=false"
+        }
+)
+@Tag("load")
+abstract class CalendarPageLoadTestBase
+{
+    private static final Logger log = LoggerFactory.getLogger(CalendarPageLoadTestBase.class);
+
+    private static final String PASSWORD = "load-test-password";
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 400);
+    private static final long WARMUP_MS = Long.getLong("load.warmup-ms", 5_000);
+    private static final long DURATION_MS = Long.getLong("load.duration-ms", 20_000);
+    private static final int EVENTS = Integer.getInteger("load.events", 50);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CalendarRepository calendarRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private HttpClient client;
+    private Long calendarId;
+
+    /**
+     * Название режима для отчёта
+     */
+    protected abstract String mode();
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        String email = "load-" + System.nanoTime() + "@test.com";
+
+        User user = new User();
+        user.setEmail(email);
+        user.setName("Load");
+        user.setSurname("Test");
+        user.setRole(Role.USER);
+        user.setPasswordHash(passwordEncoder.encode(PASSWORD));
+        user = userRepository.save(user);
+
+        Calendar calendar = new Calendar();
+        calendar.setName("Load");
+        calendar.setOwner(user);
+        calendarId = calendarRepository.save(calendar).getId();
+
+        LocalDateTime start = LocalDateTime.now().withHour(9).withMinute(0);
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++)
+        {
+            Event e = new Event();
+            e.setTitle("Event " + i);
+            e.setStartTime(start.plusDays(i));
+            e.setEndTime(start.plusDays(i).plusHours(1));
+            e.setPriority(EventPriority.MEDIUM);
+            e.setDone(false);
+            e.setCalendar(calendar);
+            e.setCreatedAt(LocalDateTime.now());
+            events.add(e);
+        }
+        eventRepository.saveAll(events);
+
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        login(email);
+    }
+
+    @Test
+    void calendarPage_throughput() throws Exception
+    {
+        run(WARMUP_MS);
+        Result result = run(DURATION_MS);
+
+        log.info("{}: {} clients, {} req/s, p50={} ms, p99={} ms, errors={}",
+                mode(), CONCURRENCY, "%.1f".formatted(result.throughput()),
+                "%.1f".formatted(result.p50Ms()), "%.1f".formatted(result.p99Ms()), result.errors());
+
+        assertTrue(result.requests() > 0);
+        assertEquals(0, result.errors());
+    }
+
+    private void login(String email) throws Exception
+    {
+        String form = "email=" + URLEncoder.encode(email, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(PASSWORD, StandardCharsets.UTF_8);
+
+        HttpResponse<Void> response = client.send(
+                HttpRequest.newBuilder(uri("/perform_login"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(form))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding()
+        );
+
+        assertEquals(302, response.statusCode());
+        assertTrue(response.headers().firstValue("Location").orElse("").endsWith("/calendars"));
+    }
+
+    private Result run(long durationMs) throws Exception
+    {
+        HttpRequest request = HttpRequest.newBuilder(uri("/calendar/" + calendarId))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + durationMs * 1_000_000;
+
+        List<Future<long[]>> futures = new ArrayList<>();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            for (int i = 0; i < CONCURRENCY; i++)
+            {
+                futures.add(clients.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+
+                    while (System.nanoTime() < deadline)
+                    {
+                        long started = System.nanoTime();
+                        try
+                        {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200)
+                            {
+                                errors.incrementAndGet();
+                            }
+                        }
+                        catch (Exception e)
+                        {
+                            errors.incrementAndGet();
+                        }
+
+                        if (count == latencies.length)
+                        {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - started;
+                    }
+
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+
+        long[] all = new long[0];
+        for (Future<long[]> future : futures)
+        {
+            long[] part = future.get();
+            long[] merged = Arrays.copyOf(all, all.length + part.length);
+            System.arraycopy(part, 0, merged, all.length, part.length);
+            all = merged;
+        }
+        Arrays.sort(all);
+
+        return new Result(
+                all.length,
+                errors.get(),
+                all.length * 1000.0 / durationMs,
+                percentileMs(all, 0.50),
+                percentileMs(all, 0.99)
+        );
+    }
+
+    private static double percentileMs(long[] sorted, double percentile)
+    {
+        if (sorted.length == 0)
+        {
+            return 0;
+        }
+
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1_000_000.0;
+    }
+
+    private URI uri(String path)
+    {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private record Result(long requests, long errors, double throughput, double p50Ms, double p99Ms)
+    {
+    }
+}
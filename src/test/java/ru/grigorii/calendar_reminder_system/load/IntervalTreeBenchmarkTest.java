@@ -0,0 +1,79 @@
+package ru.grigorii.calendar_reminder_system.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.grigorii.calendar_reminder_system.service.availability.IntervalTree;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Бенчмарк поиска пересечений: {@code load.tree-intervals} интервалов пользователя, {@code load.tree-queries}
+ * запросов окна в один день через {@link IntervalTree} и линейным проходом по списку (как при проверке
+ * конфликтов без индекса). Время обоих вариантов пишется в лог. Запуск: {@code mvn test -Pload-test}
+ */
+@Tag("load")
+class IntervalTreeBenchmarkTest
+{
+    private static final Logger log = LoggerFactory.getLogger(IntervalTreeBenchmarkTest.class);
+
+    private static final int INTERVALS = Integer.getInteger("load.tree-intervals", 50_000);
+    private static final int QUERIES = Integer.getInteger("load.tree-queries", 20_000);
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Test
+    void overlapping_treeVsLinearScan()
+    {
+        Random random = new Random(42);
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        List<IntervalTree.Entry<Integer>> list = new ArrayList<>();
+
+        // интервалы от 15 минут до 2 часов в пределах года
+        for (int i = 0; i < INTERVALS; i++)
+        {
+            LocalDateTime start = BASE.plusMinutes(random.nextInt(365 * 24 * 60));
+            list.add(tree.add(start, start.plusMinutes(15 + random.nextInt(106)), i));
+        }
+
+        LocalDateTime[] windows = new LocalDateTime[QUERIES];
+        for (int i = 0; i < QUERIES; i++)
+        {
+            windows[i] = BASE.plusHours(random.nextInt(365 * 24));
+        }
+
+        long treeHits = 0;
+        long treeStarted = System.nanoTime();
+        for (LocalDateTime from : windows)
+        {
+            treeHits += tree.overlapping(from, from.plusDays(1)).size();
+        }
+        long treeNanos = System.nanoTime() - treeStarted;
+
+        long scanHits = 0;
+        long scanStarted = System.nanoTime();
+        for (LocalDateTime from : windows)
+        {
+            LocalDateTime to = from.plusDays(1);
+            for (IntervalTree.Entry<Integer> entry : list)
+            {
+                if (entry.start().isBefore(to) && entry.end().isAfter(from))
+                {
+                    scanHits++;
+                }
+            }
+        }
+        long scanNanos = System.nanoTime() - scanStarted;
+
+        assertEquals(scanHits, treeHits);
+        log.info("{} day-window queries over {} intervals: tree {} ms, linear scan {} ms, x{}",
+                QUERIES, INTERVALS, treeNanos / 1_000_000, scanNanos / 1_000_000,
+                "%.1f".formatted((double) scanNanos / treeNanos));
+    }
+}
@@ -0,0 +1,16 @@
+package ru.grigorii.calendar_reminder_system.load;
+
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Режим по умолчанию: пул потоков платформы Tomcat
+ */
+@ActiveProfiles("test")
+class PlatformThreadsCalendarPageLoadTest extends CalendarPageLoadTestBase
+{
+    @Override
+    protected String mode()
+    {
+        return "platform threads";
+    }
+}
@@ -0,0 +1,16 @@
+package ru.grigorii.calendar_reminder_system.load;
+
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Режим виртуальных потоков с настройками пула соединений из профиля {@code virtual}
+ */
+@ActiveProfiles({"test", "virtual"})
+class VirtualThreadsCalendarPageLoadTest extends CalendarPageLoadTestBase
+{
+    @Override
+    protected String mode()
+    {
+        return "virtual threads";
+    }
+}
@@ -0,0 +1,307 @@
+package ru.grigorii.calendar_reminder_system.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import ru.grigorii.calendar_reminder_system.dto.EventDto;
+import ru.grigorii.calendar_reminder_system.model.*;
+import ru.grigorii.calendar_reminder_system.repository.projection.CalendarVersion;
+import ru.grigorii.calendar_reminder_system.repository.projection.OccurrenceKey;
+import ru.grigorii.calendar_reminder_system.service.support.StreamingExport;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class EventRepositoryTest
+{
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CalendarRepository calendarRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private static final int EVENTS = 5;
+
+    @Test
+    void findInWindow_shouldReturnOnlyWindowOrdered()
+    {
+        User owner = userRepository.save(user("owner@test.com"));
+        Calendar calendar = calendarRepository.save(calendar(owner));
+        Calendar otherCalendar = calendarRepository.save(calendar(owner));
+
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 2, 1, 0, 0);
+
+        Event late = eventRepository.save(event(calendar, LocalDateTime.of(2025, 1, 31, 23, 59)));
+        Event atStart = eventRepository.save(event(calendar, from));
+        eventRepository.save(event(calendar, from.minusMinutes(1)));
+        eventRepository.save(event(calendar, to));
+        eventRepository.save(event(otherCalendar, LocalDateTime.of(2025, 1, 15, 10, 0)));
+
+        List<Event> result =
+                eventRepository.findInWindow(calendar.getId(), from, to);
+
+        assertEquals(2, result.size());
+        assertEquals(atStart.getId(), result.get(0).getId());
+        assertEquals(late.getId(), result.get(1).getId());
+    }
+
+    @Test
+    void findByCalendarId_shouldFetchRecurrenceAndReminder_withoutNPlusOne()
+    {
+        Calendar calendar = calendarWithDetailedEvents();
+
+        Statistics statistics = resetStatistics();
+
+        List<EventDto> result = eventRepository.findByCalendarId(calendar.getId()).stream()
+                .map(EventDto::fromEntity)
+                .toList();
+
+        assertEquals(EVENTS, result.size());
+        assertTrue(result.stream().allMatch(dto -> dto.recurrence() != null && dto.reminder() != null));
+        // события с повторениями и напоминаниями + календарь с владельцем, не зависит от числа событий
+        assertTrue(statistics.getPrepareStatementCount() <= 3,
+                "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findInWindow_shouldFetchRecurrenceAndReminder_withoutNPlusOne()
+    {
+        Calendar calendar = calendarWithDetailedEvents();
+
+        Statistics statistics = resetStatistics();
+
+        List<EventDto> result = eventRepository.findInWindow(
+                        calendar.getId(),
+                        LocalDateTime.of(2025, 1, 1, 0, 0),
+                        LocalDateTime.of(2025, 2, 1, 0, 0)).stream()
+                .map(EventDto::fromEntity)
+                .toList();
+
+        assertEquals(EVENTS, result.size());
+        assertTrue(statistics.getPrepareStatementCount() <= 3,
+                "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findRowsInWindow_shouldLoadPageInOneQuery()
+    {
+        Calendar calendar = calendarWithDetailedEvents();
+
+        Statistics statistics = resetStatistics();
+
+        List<EventDto> result = eventRepository.findRowsInWindow(
+                        calendar.getId(),
+                        LocalDateTime.of(2025, 1, 1, 0, 0),
+                        LocalDateTime.of(2025, 2, 1, 0, 0)).stream()
+                .map(EventDto::fromRow)
+                .toList();
+
+        assertEquals(EVENTS, result.size());
+        assertTrue(result.stream().allMatch(dto -> dto.recurrence() != null && dto.reminder() != null));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findByIdGreaterThanOrderById_shouldReturnNextPageAfterCursor()
+    {
+        calendarWithDetailedEvents();
+        List<Long> ids = eventRepository.findAll().stream().map(Event::getId).sorted().toList();
+
+        List<Event> first = eventRepository.findByIdGreaterThanOrderById(0L, Limit.of(2));
+        List<Event> next = eventRepository.findByIdGreaterThanOrderById(first.getLast().getId(), Limit.of(2));
+
+        assertEquals(ids.subList(0, 2), first.stream().map(Event::getId).toList());
+        assertEquals(ids.subList(2, 4), next.stream().map(Event::getId).toList());
+    }
+
+    @Test
+    void streamAll_shouldExportEveryEventInIdOrder()
+    {
+        calendarWithDetailedEvents();
+
+        List<EventDto> exported = new ArrayList<>();
+        StreamingExport.forEach(entityManager, eventRepository.streamAll(), EventDto::fromEntity, exported::add);
+
+        assertEquals(EVENTS, exported.size());
+        assertTrue(exported.stream().allMatch(dto -> dto.reminder() != null));
+        assertEquals(exported.stream().map(EventDto::id).sorted().toList(),
+                exported.stream().map(EventDto::id).toList());
+    }
+
+    @Test
+    void findSeriesIntersecting_andOccurrenceKeys_shouldFindPendingSeriesAndItsExceptions()
+    {
+        User owner = userRepository.save(user("owner@test.com"));
+        Calendar calendar = calendarRepository.save(calendar(owner));
+
+        Event series = event(calendar, LocalDateTime.of(2024, 12, 2, 10, 0));
+        EventRecurrence recurrence = new EventRecurrence();
+        recurrence.setEvent(series);
+        recurrence.setFromDate(LocalDate.of(2024, 12, 2));
+        recurrence.setRecurrenceType(RecurrenceType.WEEKLY);
+        series.setRecurrence(recurrence);
+        series = eventRepository.save(series);
+
+        Event finished = event(calendar, LocalDateTime.of(2024, 1, 1, 10, 0));
+        EventRecurrence finishedRecurrence = new EventRecurrence();
+        finishedRecurrence.setEvent(finished);
+        finishedRecurrence.setFromDate(LocalDate.of(2024, 1, 1));
+        finishedRecurrence.setUntilDate(LocalDate.of(2024, 6, 1));
+        finishedRecurrence.setRecurrenceType(RecurrenceType.DAILY);
+        finished.setRecurrence(finishedRecurrence);
+        eventRepository.save(finished);
+
+        Event exception = event(calendar, LocalDateTime.of(2025, 1, 13, 10, 0));
+        exception.setSeries(series);
+        exception.setOriginalStart(LocalDateTime.of(2025, 1, 13, 10, 0));
+        exception.setDone(true);
+        eventRepository.save(exception);
+
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 2, 1, 0, 0);
+
+        List<Event> found = eventRepository.findSeriesIntersecting(calendar.getId(), from.toLocalDate(), to);
+
+        assertEquals(List.of(series.getId()), found.stream().map(Event::getId).toList());
+        assertEquals(
+                List.of(new OccurrenceKey(series.getId(), LocalDateTime.of(2025, 1, 13, 10, 0))),
+                eventRepository.findOccurrenceKeys(List.of(series.getId()), from, to));
+        assertTrue(eventRepository.findBySeriesIdAndOriginalStart(
+                series.getId(), LocalDateTime.of(2025, 1, 13, 10, 0)).isPresent());
+    }
+
+    @Test
+    void findVersion_shouldChangeOnEditDeleteAndRecurrenceTouch()
+    {
+        User owner = userRepository.save(user("owner@test.com"));
+        Calendar calendar = calendarRepository.save(calendar(owner));
+
+        Event plain = event(calendar, LocalDateTime.of(2025, 1, 10, 10, 0));
+        plain.setUpdatedAt(LocalDateTime.of(2025, 1, 1, 0, 0));
+        eventRepository.save(plain);
+
+        Event series = event(calendar, LocalDateTime.of(2025, 1, 13, 10, 0));
+        series.setUpdatedAt(LocalDateTime.of(2025, 1, 2, 0, 0));
+        EventRecurrence recurrence = new EventRecurrence();
+        recurrence.setEvent(series);
+        recurrence.setFromDate(LocalDate.of(2025, 1, 13));
+        recurrence.setRecurrenceType(RecurrenceType.WEEKLY);
+        series.setRecurrence(recurrence);
+        eventRepository.save(series);
+        entityManager.flush();
+        entityManager.clear();
+
+        CalendarVersion version = calendarRepository.findVersion(calendar.getId()).orElseThrow();
+        assertEquals(owner.getId(), version.ownerId());
+        assertEquals(2L, version.events());
+        assertEquals(LocalDateTime.of(2025, 1, 2, 0, 0), version.eventsUpdatedAt());
+
+        LocalDateTime touched = LocalDateTime.of(2025, 2, 1, 12, 0);
+        assertEquals(1, eventRepository.touchByRecurrenceId(recurrence.getId(), touched));
+        assertEquals(touched, calendarRepository.findVersion(calendar.getId()).orElseThrow().eventsUpdatedAt());
+        assertEquals(1L, eventRepository.findVersionById(series.getId()).orElseThrow().version());
+
+        eventRepository.deleteById(plain.getId());
+        entityManager.flush();
+        assertEquals(1L, calendarRepository.findVersion(calendar.getId()).orElseThrow().events());
+
+        Calendar empty = calendarRepository.save(calendar(owner));
+        entityManager.flush();
+        assertEquals(0L, calendarRepository.findVersion(empty.getId()).orElseThrow().events());
+    }
+
+    /**
+     * Календарь с EVENTS событиями, у каждого из которых есть повторение и напоминание.
+     * Контекст персистентности очищается, чтобы последующие запросы шли в базу
+     */
+    private Calendar calendarWithDetailedEvents()
+    {
+        User owner = userRepository.save(user("owner@test.com"));
+        Calendar calendar = calendarRepository.save(calendar(owner));
+
+        for (int i = 0; i < EVENTS; i++)
+        {
+            Event event = event(calendar, LocalDateTime.of(2025, 1, 10 + i, 10, 0));
+
+            EventRecurrence recurrence = new EventRecurrence();
+            recurrence.setEvent(event);
+            recurrence.setFromDate(LocalDate.of(2025, 1, 10 + i));
+            recurrence.setRecurrenceType(RecurrenceType.WEEKLY);
+            event.setRecurrence(recurrence);
+
+            Reminder reminder = new Reminder();
+            reminder.setEvent(event);
+            reminder.setRemindAt(event.getStartTime().minusHours(1));
+            reminder.setChannel(ReminderChannel.PUSH);
+            event.setReminder(reminder);
+
+            eventRepository.save(event);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        return calendar;
+    }
+
+    private Statistics resetStatistics()
+    {
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private User user(String email)
+    {
+        User u = new User();
+        u.setEmail(email);
+        u.setName("Test");
+        u.setSurname("User");
+        u.setRole(Role.USER);
+        u.setPasswordHash("hash");
+        u.setCreatedAt(LocalDateTime.now());
+        return u;
+    }
+
+    private Calendar calendar(User owner)
+    {
+        Calendar c = new Calendar();
+        c.setName("Calendar");
+        c.setOwner(owner);
+        return c;
+    }
+
+    private Event event(Calendar calendar, LocalDateTime startTime)
+    {
+        Event e = new Event();
+        e.setTitle("Event");
+        e.setStartTime(startTime);
+        e.setEndTime(startTime.plusHours(1));
+        e.setPriority(EventPriority.MEDIUM);
+        e.setDone(false);
+        e.setCalendar(calendar);
+        e.setCreatedAt(LocalDateTime.now());
+        return e;
+    }
+}
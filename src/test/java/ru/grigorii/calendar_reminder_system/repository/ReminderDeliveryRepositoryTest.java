@@ -0,0 +1,299 @@
+package ru.grigorii.calendar_reminder_system.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import ru.grigorii.calendar_reminder_system.model.*;
+import ru.grigorii.calendar_reminder_system.repository.projection.DeliveryBacklog;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ReminderDeliveryRepositoryTest
+{
+
+    @Autowired
+    private ReminderDeliveryRepository deliveryRepository;
+
+    @Autowired
+    private ReminderRepository reminderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CalendarRepository calendarRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private ReminderDeadLetterRepository deadLetterRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void save_shouldCascadeDeliveryFromReminder()
+    {
+        Calendar calendar = calendarRepository.save(calendar(userRepository.save(user("owner@test.com"))));
+        LocalDateTime remindAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS).minusMinutes(1);
+
+        Reminder reminder = reminder(eventRepository.save(event(calendar)), remindAt);
+        reminder.getDeliveries().add(ReminderDelivery.pendingFor(reminder));
+        reminderRepository.save(reminder);
+
+        List<ReminderDelivery> result = deliveryRepository.findAll();
+
+        assertEquals(1, result.size());
+        assertEquals(remindAt, result.getFirst().getDueAt());
+        assertNull(result.getFirst().getProcessedAt());
+    }
+
+    @Test
+    void lockDue_shouldReturnOnlyDueUnprocessedOrdered()
+    {
+        Calendar calendar = calendarRepository.save(calendar(userRepository.save(user("owner@test.com"))));
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        ReminderDelivery later = delivery(calendar, now.minusMinutes(1), null);
+        ReminderDelivery earlier = delivery(calendar, now.minusMinutes(10), null);
+        delivery(calendar, now.plusMinutes(5), null);
+        delivery(calendar, now.minusMinutes(20), now.minusMinutes(19));
+
+        List<ReminderDelivery> result = deliveryRepository.lockDue(now, Limit.of(10));
+
+        assertEquals(2, result.size());
+        assertEquals(earlier.getId(), result.get(0).getId());
+        assertEquals(later.getId(), result.get(1).getId());
+    }
+
+    @Test
+    void lockDue_shouldReturnDeliveriesMissedDuringLongDowntime()
+    {
+        Calendar calendar = calendarRepository.save(calendar(userRepository.save(user("owner@test.com"))));
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        // восстановление после простоя не ограничено окном догона диспетчера
+        ReminderDelivery missed = delivery(calendar, now.minusDays(3), null);
+
+        List<ReminderDelivery> result = deliveryRepository.lockDue(now, Limit.of(10));
+
+        assertEquals(List.of(missed.getId()), result.stream().map(ReminderDelivery::getId).toList());
+    }
+
+    @Test
+    void lockDue_shouldRespectLimit()
+    {
+        Calendar calendar = calendarRepository.save(calendar(userRepository.save(user("owner@test.com"))));
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        ReminderDelivery first = delivery(calendar, now.minusMinutes(3), null);
+        delivery(calendar, now.minusMinutes(2), null);
+        delivery(calendar, now.minusMinutes(1), null);
+
+        List<ReminderDelivery> result = deliveryRepository.lockDue(now, Limit.of(1));
+
+        assertEquals(1, result.size());
+        assertEquals(first.getId(), result.getFirst().getId());
+    }
+
+    @Test
+    void markProcessed_shouldExcludeFromLockDue()
+    {
+        Calendar calendar = calendarRepository.save(calendar(userRepository.save(user("owner@test.com"))));
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        ReminderDelivery processed = delivery(calendar, now.minusMinutes(2), null);
+        ReminderDelivery pending = delivery(calendar, now.minusMinutes(1), null);
+
+        int updated = deliveryRepository.markProcessed(List.of(processed.getId()), now);
+        List<ReminderDelivery> result = deliveryRepository.lockDue(now, Limit.of(10));
+
+        assertEquals(1, updated);
+        assertEquals(1, result.size());
+        assertEquals(pending.getId(), result.getFirst().getId());
+    }
+
+    @Test
+    void markProcessed_shouldMoveToInFlightAndCountAttempt()
+    {
+        Calendar calendar = calendarRepository.save(calendar(userRepository.save(user("owner@test.com"))));
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        ReminderDelivery delivery = delivery(calendar, now.minusMinutes(1), null);
+
+        deliveryRepository.markProcessed(List.of(delivery.getId()), now);
+        entityManager.clear();
+        ReminderDelivery result = deliveryRepository.findById(delivery.getId()).orElseThrow();
+
+        assertEquals(DeliveryStatus.IN_FLIGHT, result.getStatus());
+        assertEquals(1, result.getAttempts());
+    }
+
+    @Test
+    void lockStaleInFlight_shouldReturnOnlyDeliveriesClaimedBeforeCutoff()
+    {
+        Calendar calendar = calendarRepository.save(calendar(userRepository.save(user("owner@test.com"))));
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        ReminderDelivery stale = delivery(calendar, now.minusMinutes(30), null);
+        ReminderDelivery recent = delivery(calendar, now.minusMinutes(1), null);
+        ReminderDelivery sent = delivery(calendar, now.minusMinutes(30), null);
+
+        deliveryRepository.markProcessed(List.of(stale.getId(), sent.getId()), now.minusMinutes(20));
+        deliveryRepository.markProcessed(List.of(recent.getId()), now);
+        deliveryRepository.markSent(List.of(sent.getId()));
+        entityManager.clear();
+
+        List<ReminderDelivery> result = deliveryRepository.lockStaleInFlight(now.minusMinutes(10), Limit.of(10));
+
+        assertEquals(List.of(stale.getId()), result.stream().map(ReminderDelivery::getId).toList());
+    }
+
+    @Test
+    void lockInFlight_shouldSkipDeliveriesAlreadySent()
+    {
+        Calendar calendar = calendarRepository.save(calendar(userRepository.save(user("owner@test.com"))));
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        ReminderDelivery inFlight = delivery(calendar, now.minusMinutes(1), null);
+        ReminderDelivery sent = delivery(calendar, now.minusMinutes(1), null);
+
+        deliveryRepository.markProcessed(List.of(inFlight.getId(), sent.getId()), now);
+        deliveryRepository.markSent(List.of(sent.getId()));
+        entityManager.clear();
+
+        // поздний сбой или возврат по таймауту не должен вернуть отправленную доставку в outbox
+        List<ReminderDelivery> result = deliveryRepository.lockInFlight(List.of(inFlight.getId(), sent.getId()));
+
+        assertEquals(List.of(inFlight.getId()), result.stream().map(ReminderDelivery::getId).toList());
+    }
+
+    @Test
+    void findOpenDeadLetters_shouldSkipReplayedAndFilterByChannel()
+    {
+        Calendar calendar = calendarRepository.save(calendar(userRepository.save(user("owner@test.com"))));
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        ReminderDeadLetter open = deadLetter(delivery(calendar, now.minusMinutes(5), now));
+        ReminderDeadLetter replayed = deadLetter(delivery(calendar, now.minusMinutes(5), now));
+        replayed.setReplayedAt(now);
+        deadLetterRepository.save(replayed);
+
+        assertEquals(List.of(open.getId()),
+                deadLetterRepository.findOpen(null, 0L, Limit.of(10)).stream().map(ReminderDeadLetter::getId).toList());
+        assertEquals(List.of(open.getId()),
+                deadLetterRepository.findOpen(ReminderChannel.EMAIL, 0L, Limit.of(10)).stream().map(ReminderDeadLetter::getId).toList());
+        assertTrue(deadLetterRepository.findOpen(ReminderChannel.SMS, 0L, Limit.of(10)).isEmpty());
+        assertTrue(deadLetterRepository.findOpen(null, open.getId(), Limit.of(10)).isEmpty());
+    }
+
+    @Test
+    void findWithDetails_shouldFetchReminderEventAndOwner()
+    {
+        User owner = userRepository.save(user("owner@test.com"));
+        Calendar calendar = calendarRepository.save(calendar(owner));
+
+        ReminderDelivery delivery = delivery(calendar, LocalDateTime.now().truncatedTo(ChronoUnit.MICROS), null);
+
+        List<ReminderDelivery> result = deliveryRepository.findWithDetails(List.of(delivery.getId()));
+
+        assertEquals(1, result.size());
+        assertEquals("owner@test.com",
+                result.getFirst().getReminder().getEvent().getCalendar().getOwner().getEmail());
+    }
+
+    @Test
+    void findBacklog_shouldCountDueUnprocessedAndReturnOldest()
+    {
+        Calendar calendar = calendarRepository.save(calendar(userRepository.save(user("owner@test.com"))));
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        delivery(calendar, now.minusMinutes(1), null);
+        ReminderDelivery oldest = delivery(calendar, now.minusMinutes(10), null);
+        delivery(calendar, now.plusMinutes(5), null);
+        delivery(calendar, now.minusMinutes(20), now.minusMinutes(19));
+
+        DeliveryBacklog result = deliveryRepository.findBacklog(now);
+
+        assertEquals(2, result.pending());
+        assertEquals(oldest.getDueAt(), result.oldestDueAt());
+    }
+
+    @Test
+    void findBacklog_shouldBeEmpty_whenNothingIsDue()
+    {
+        DeliveryBacklog result = deliveryRepository.findBacklog(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+
+        assertEquals(0, result.pending());
+        assertNull(result.oldestDueAt());
+    }
+
+    private ReminderDelivery delivery(Calendar calendar, LocalDateTime dueAt, LocalDateTime processedAt)
+    {
+        Reminder reminder = reminderRepository.save(reminder(eventRepository.save(event(calendar)), dueAt));
+
+        ReminderDelivery d = ReminderDelivery.pendingFor(reminder);
+        d.setProcessedAt(processedAt);
+        return deliveryRepository.save(d);
+    }
+
+    private ReminderDeadLetter deadLetter(ReminderDelivery delivery)
+    {
+        delivery.setAttempts(6);
+        delivery.markDead("gateway down");
+        return deadLetterRepository.save(ReminderDeadLetter.of(deliveryRepository.save(delivery)));
+    }
+
+    private User user(String email)
+    {
+        User u = new User();
+        u.setEmail(email);
+        u.setName("Test");
+        u.setSurname("User");
+        u.setRole(Role.USER);
+        u.setPasswordHash("hash");
+        u.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        return u;
+    }
+
+    private Calendar calendar(User owner)
+    {
+        Calendar c = new Calendar();
+        c.setName("Calendar");
+        c.setOwner(owner);
+        return c;
+    }
+
+    private Event event(Calendar calendar)
+    {
+        Event e = new Event();
+        e.setTitle("Event");
+        e.setStartTime(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        e.setEndTime(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS).plusHours(1));
+        e.setPriority(EventPriority.MEDIUM);
+        e.setDone(false);
+        e.setCalendar(calendar);
+        e.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        return e;
+    }
+
+    private Reminder reminder(Event event, LocalDateTime remindAt)
+    {
+        Reminder r = new Reminder();
+        r.setEvent(event);
+        r.setRemindAt(remindAt);
+        r.setRead(false);
+        r.setChannel(ReminderChannel.EMAIL);
+        return r;
+    }
+}
@@ -0,0 +1,181 @@
+package ru.grigorii.calendar_reminder_system.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.grigorii.calendar_reminder_system.dto.BusyIntervalDto;
+import ru.grigorii.calendar_reminder_system.dto.TimeSlotDto;
+import ru.grigorii.calendar_reminder_system.model.*;
+import ru.grigorii.calendar_reminder_system.repository.EventRecurrenceRepository;
+import ru.grigorii.calendar_reminder_system.repository.EventRepository;
+import ru.grigorii.calendar_reminder_system.repository.projection.BusyInterval;
+import ru.grigorii.calendar_reminder_system.service.availability.AvailabilityIndex;
+import ru.grigorii.calendar_reminder_system.service.impl.AvailabilityServiceImplementation;
+import ru.grigorii.calendar_reminder_system.service.impl.EventRecurrenceServiceImplementation;
+import ru.grigorii.calendar_reminder_system.service.recurrence.OccurrenceCache;
+import ru.grigorii.calendar_reminder_system.service.recurrence.RecurrenceExpander;
+import ru.grigorii.calendar_reminder_system.service.recurrence.RecurrenceRuleCompiler;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityServiceTest
+{
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private EventRecurrenceRepository recurrenceRepository;
+
+    private AvailabilityIndex availabilityIndex;
+    private AvailabilityServiceImplementation service;
+
+    private final LocalDateTime tomorrow = LocalDate.now().plusDays(1).atStartOfDay();
+
+    @BeforeEach
+    void setUp()
+    {
+        OccurrenceCache occurrenceCache = new OccurrenceCache(
+                new RecurrenceExpander(new RecurrenceRuleCompiler(100)), new SimpleMeterRegistry(), 1000, 60000);
+        availabilityIndex = new AvailabilityIndex(new SimpleMeterRegistry(), 100, 60000);
+        service = new AvailabilityServiceImplementation(eventRepository, occurrenceCache, availabilityIndex, 31, 366);
+    }
+
+    @Test
+    void findBusy_shouldBuildIndexOnce_withStoredEventsAndVirtualOccurrences()
+    {
+        Event series = dailySeries(tomorrow.plusHours(9));
+
+        when(eventRepository.findBusyByOwner(eq(1L), any(), any()))
+                .thenReturn(List.of(
+                        new BusyInterval(100L, 10L, "Standup", tomorrow.plusHours(9), tomorrow.plusHours(9).plusMinutes(15)),
+                        new BusyInterval(200L, 10L, "Review", tomorrow.plusHours(10), tomorrow.plusHours(11))));
+        when(eventRepository.findSeriesByOwnerIntersecting(eq(1L), any(), any()))
+                .thenReturn(List.of(series));
+        when(eventRepository.findOccurrenceKeys(anyCollection(), any(), any()))
+                .thenReturn(List.of());
+
+        List<BusyIntervalDto> first = service.findBusy(1L, tomorrow, tomorrow.plusDays(2));
+        List<BusyIntervalDto> second = service.findBusy(1L, tomorrow.plusHours(10).plusMinutes(30), tomorrow.plusHours(12));
+
+        assertEquals(List.of(100L, 200L, 100L), first.stream().map(BusyIntervalDto::eventId).toList());
+        assertTrue(first.get(2).virtual());
+        assertEquals(tomorrow.plusDays(1).plusHours(9), first.get(2).start());
+        assertEquals(List.of(200L), second.stream().map(BusyIntervalDto::eventId).toList());
+        verify(eventRepository, times(1)).findBusyByOwner(eq(1L), any(), any());
+    }
+
+    @Test
+    void findFreeSlots_shouldReflectIncrementalReplaceAndRemove_withoutRebuilding()
+    {
+        when(eventRepository.findBusyByOwner(eq(1L), any(), any()))
+                .thenReturn(List.of(
+                        new BusyInterval(200L, 10L, "Review", tomorrow.plusHours(10), tomorrow.plusHours(11))));
+        when(eventRepository.findSeriesByOwnerIntersecting(eq(1L), any(), any()))
+                .thenReturn(List.of());
+
+        LocalDateTime from = tomorrow.plusHours(9);
+        LocalDateTime to = tomorrow.plusHours(13);
+
+        assertEquals(List.of(
+                new TimeSlotDto(from, tomorrow.plusHours(10)),
+                new TimeSlotDto(tomorrow.plusHours(11), to)
+        ), service.findFreeSlots(1L, from, to, Duration.ofMinutes(60)));
+
+        availabilityIndex.replace(1L, new BusyIntervalDto(
+                300L, 10L, "Lunch", tomorrow.plusHours(12), tomorrow.plusHours(13), false));
+        availabilityIndex.remove(1L, 200L);
+
+        assertEquals(List.of(
+                new TimeSlotDto(from, tomorrow.plusHours(12))
+        ), service.findFreeSlots(1L, from, to, Duration.ofMinutes(60)));
+        verify(eventRepository, times(1)).findBusyByOwner(eq(1L), any(), any());
+    }
+
+    @Test
+    void findBusy_shouldDropSeriesOccurrences_afterRecurrenceDeleted()
+    {
+        Event series = dailySeries(tomorrow.plusHours(9));
+        EventRecurrenceServiceImplementation recurrenceService = new EventRecurrenceServiceImplementation(
+                recurrenceRepository, eventRepository, new RecurrenceRuleCompiler(100), availabilityIndex);
+
+        when(eventRepository.findBusyByOwner(eq(1L), any(), any()))
+                .thenReturn(List.of(
+                        new BusyInterval(100L, 10L, "Standup", tomorrow.plusHours(9), tomorrow.plusHours(9).plusMinutes(15))));
+        when(eventRepository.findSeriesByOwnerIntersecting(eq(1L), any(), any()))
+                .thenReturn(List.of(series))
+                .thenReturn(List.of());
+        when(eventRepository.findOccurrenceKeys(anyCollection(), any(), any()))
+                .thenReturn(List.of());
+        when(recurrenceRepository.findById(7L))
+                .thenReturn(Optional.of(series.getRecurrence()));
+
+        assertEquals(2, service.findBusy(1L, tomorrow, tomorrow.plusDays(2)).size());
+
+        // удаление правила не трогает сущность события, индекс сбрасывает сам сервис повторений
+        recurrenceService.delete(7L);
+
+        List<BusyIntervalDto> result = service.findBusy(1L, tomorrow, tomorrow.plusDays(2));
+
+        assertEquals(List.of(100L), result.stream().map(BusyIntervalDto::eventId).toList());
+        assertFalse(result.getFirst().virtual());
+        verify(eventRepository, times(2)).findBusyByOwner(eq(1L), any(), any());
+    }
+
+    @Test
+    void findBusy_shouldQueryWindowDirectly_whenOutsideHorizon()
+    {
+        LocalDateTime from = tomorrow.plusYears(3);
+        LocalDateTime to = from.plusDays(7);
+
+        when(eventRepository.findBusyByOwner(eq(1L), any(), any()))
+                .thenReturn(List.of());
+        when(eventRepository.findSeriesByOwnerIntersecting(eq(1L), any(), any()))
+                .thenReturn(List.of());
+
+        assertTrue(service.findBusy(1L, from, to).isEmpty());
+
+        verify(eventRepository).findBusyByOwner(1L, from, to);
+    }
+
+    private Event dailySeries(LocalDateTime start)
+    {
+        User owner = new User();
+        owner.setId(1L);
+
+        Calendar calendar = new Calendar();
+        calendar.setId(10L);
+        calendar.setOwner(owner);
+
+        EventRecurrence recurrence = new EventRecurrence();
+        recurrence.setId(7L);
+        recurrence.setRecurrenceType(RecurrenceType.DAILY);
+        recurrence.setFromDate(start.toLocalDate());
+        recurrence.setUntilDate(start.toLocalDate().plusDays(1));
+
+        Event series = new Event();
+        series.setId(100L);
+        series.setTitle("Standup");
+        series.setStartTime(start);
+        series.setEndTime(start.plusMinutes(15));
+        series.setPriority(EventPriority.MEDIUM);
+        series.setCalendar(calendar);
+        series.setRecurrence(recurrence);
+        recurrence.setEvent(series);
+        return series;
+    }
+}
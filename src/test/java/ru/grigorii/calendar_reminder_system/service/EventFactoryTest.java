@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import ru.grigorii.calendar_reminder_system.dto.*;
 import ru.grigorii.calendar_reminder_system.model.*;
 import ru.grigorii.calendar_reminder_system.service.impl.EventFactory;
+import ru.grigorii.calendar_reminder_system.service.recurrence.RecurrenceRuleCompiler;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -20,7 +21,7 @@ class EventFactoryTest
     @BeforeEach
     void setUp()
     {
-        factory = new EventFactory();
+        factory = new EventFactory(new RecurrenceRuleCompiler(100));
         calendar = new Calendar();
     }
 
@@ -58,7 +59,8 @@ class EventFactoryTest
                 null,
                 LocalDate.now(),
                 LocalDate.now().plusDays(5),
-                RecurrenceType.DAILY
+                RecurrenceType.DAILY,
+                null
         );
 
         ReminderDto reminder = new ReminderDto(
@@ -136,27 +138,6 @@ class EventFactoryTest
         assertFalse(next.getDone());
     }
 
-    @Test
-    void copyRecurrence_shouldCopyCorrectly()
-    {
-        Event sourceEvent = new Event();
-        Event targetEvent = new Event();
-
-        EventRecurrence source = new EventRecurrence();
-        source.setRecurrenceType(RecurrenceType.WEEKLY);
-        source.setUntilDate(LocalDate.now().plusDays(10));
-
-        LocalDateTime nextStart = LocalDateTime.of(2025, 1, 5, 10, 0);
-
-        EventRecurrence copied =
-                factory.copyRecurrence(source, targetEvent, nextStart);
-
-        assertEquals(targetEvent, copied.getEvent());
-        assertEquals(nextStart.toLocalDate(), copied.getFromDate());
-        assertEquals(source.getUntilDate(), copied.getUntilDate());
-        assertEquals(source.getRecurrenceType(), copied.getRecurrenceType());
-    }
-
     @Test
     void copyReminder_shouldShiftRemindAt()
     {
@@ -181,4 +162,23 @@ class EventFactoryTest
         assertEquals(target, copied.getEvent());
         assertFalse(copied.getRead());
     }
+
+    @Test
+    void copyReminder_shouldAddPendingDelivery()
+    {
+        Reminder source = new Reminder();
+        source.setChannel(ReminderChannel.EMAIL);
+        source.setRemindAt(LocalDateTime.of(2025, 1, 1, 9, 0));
+
+        Reminder copied = factory.copyReminder(
+                source,
+                new Event(),
+                LocalDateTime.of(2025, 1, 2, 10, 0),
+                LocalDateTime.of(2025, 1, 1, 10, 0)
+        );
+
+        assertEquals(1, copied.getDeliveries().size());
+        assertEquals(copied.getRemindAt(), copied.getDeliveries().getFirst().getDueAt());
+        assertNull(copied.getDeliveries().getFirst().getProcessedAt());
+    }
 }
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.grigorii.calendar_reminder_system.dto.EventRecurrenceDto;
 import ru.grigorii.calendar_reminder_system.model.Event;
@@ -13,13 +14,17 @@ import ru.grigorii.calendar_reminder_system.model.EventRecurrence;
 import ru.grigorii.calendar_reminder_system.model.RecurrenceType;
 import ru.grigorii.calendar_reminder_system.repository.EventRecurrenceRepository;
 import ru.grigorii.calendar_reminder_system.repository.EventRepository;
+import ru.grigorii.calendar_reminder_system.service.availability.AvailabilityIndex;
+import ru.grigorii.calendar_reminder_system.service.exception.InvalidRecurrenceRuleException;
 import ru.grigorii.calendar_reminder_system.service.impl.EventRecurrenceServiceImplementation;
+import ru.grigorii.calendar_reminder_system.service.recurrence.RecurrenceRuleCompiler;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -34,6 +39,12 @@ class EventRecurrenceServiceTest
     @Mock
     private EventRepository eventRepository;
 
+    @Spy
+    private RecurrenceRuleCompiler ruleCompiler = new RecurrenceRuleCompiler(100);
+
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
     @InjectMocks
     private EventRecurrenceServiceImplementation service;
 
@@ -141,6 +152,69 @@ class EventRecurrenceServiceTest
         verify(recurrenceRepository).save(any(EventRecurrence.class));
     }
 
+    @Test
+    void create_shouldTakeTypeAndUntilDate_fromRrule()
+    {
+        EventRecurrenceDto dto = new EventRecurrenceDto(
+                null,
+                10L,
+                LocalDate.of(2025, 1, 6),
+                null,
+                RecurrenceType.NONE,
+                "rrule:freq=weekly;byday=mo,we;until=20250331"
+        );
+
+        when(eventRepository.findById(10L))
+                .thenReturn(Optional.of(event));
+        when(recurrenceRepository.save(any(EventRecurrence.class)))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        EventRecurrenceDto result = service.create(dto);
+
+        assertEquals(RecurrenceType.WEEKLY, result.type());
+        assertEquals(LocalDate.of(2025, 3, 31), result.untilDate());
+        assertEquals("RRULE:FREQ=WEEKLY;BYDAY=MO,WE;UNTIL=20250331", result.rrule());
+    }
+
+    @Test
+    void create_shouldReject_invalidRrule()
+    {
+        EventRecurrenceDto dto = new EventRecurrenceDto(
+                null,
+                10L,
+                LocalDate.now(),
+                null,
+                null,
+                "FREQ=HOURLY"
+        );
+
+        assertThrows(InvalidRecurrenceRuleException.class,
+                () -> service.create(dto));
+        verify(recurrenceRepository, never()).save(any());
+    }
+
+    @Test
+    void update_shouldClearRrule_whenTypeOnly()
+    {
+        recurrence.setRrule("FREQ=DAILY;COUNT=3");
+        EventRecurrenceDto dto = EventRecurrenceDto.forCreate(
+                10L,
+                LocalDate.now(),
+                null,
+                RecurrenceType.MONTHLY
+        );
+
+        when(recurrenceRepository.findById(100L))
+                .thenReturn(Optional.of(recurrence));
+        when(eventRepository.findById(10L))
+                .thenReturn(Optional.of(event));
+
+        EventRecurrenceDto result = service.update(100L, dto);
+
+        assertEquals(RecurrenceType.MONTHLY, result.type());
+        assertNull(result.rrule());
+    }
+
     @Test
     void update_shouldUpdateRecurrence()
     {
@@ -164,8 +238,8 @@ class EventRecurrenceServiceTest
     @Test
     void delete_shouldDelete()
     {
-        when(recurrenceRepository.existsById(100L))
-                .thenReturn(true);
+        when(recurrenceRepository.findById(100L))
+                .thenReturn(Optional.of(recurrence));
 
         service.delete(100L);
 
@@ -175,8 +249,8 @@ class EventRecurrenceServiceTest
     @Test
     void delete_shouldThrow_whenNotExists()
     {
-        when(recurrenceRepository.existsById(100L))
-                .thenReturn(false);
+        when(recurrenceRepository.findById(100L))
+                .thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class,
                 () -> service.delete(100L));
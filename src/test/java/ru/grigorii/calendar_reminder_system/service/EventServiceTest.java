@@ -1,19 +1,33 @@
 package ru.grigorii.calendar_reminder_system.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.grigorii.calendar_reminder_system.dto.CalendarViewDto;
 import ru.grigorii.calendar_reminder_system.dto.EventDto;
+import ru.grigorii.calendar_reminder_system.dto.EventOccurrenceDto;
 import ru.grigorii.calendar_reminder_system.model.*;
 import ru.grigorii.calendar_reminder_system.repository.CalendarRepository;
 import ru.grigorii.calendar_reminder_system.repository.EventRepository;
+import ru.grigorii.calendar_reminder_system.repository.projection.EventRow;
+import ru.grigorii.calendar_reminder_system.repository.projection.OccurrenceKey;
 import ru.grigorii.calendar_reminder_system.service.exception.CalendarAccessDeniedException;
+import ru.grigorii.calendar_reminder_system.service.exception.OccurrenceNotFoundException;
+import ru.grigorii.calendar_reminder_system.service.exception.VersionConflictException;
 import ru.grigorii.calendar_reminder_system.service.impl.EventFactory;
 import ru.grigorii.calendar_reminder_system.service.impl.EventServiceImplementation;
+import ru.grigorii.calendar_reminder_system.service.recurrence.OccurrenceCache;
+import ru.grigorii.calendar_reminder_system.service.recurrence.RecurrenceExpander;
+import ru.grigorii.calendar_reminder_system.service.recurrence.RecurrenceRuleCompiler;
+import ru.grigorii.calendar_reminder_system.service.support.OptimisticRetry;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -37,6 +51,16 @@ class EventServiceTest
     @Mock
     private EventFactory eventFactory;
 
+    @Spy
+    private RecurrenceExpander recurrenceExpander = new RecurrenceExpander(new RecurrenceRuleCompiler(100));
+
+    @Spy
+    private OccurrenceCache occurrenceCache =
+            new OccurrenceCache(recurrenceExpander, new SimpleMeterRegistry(), 1000, 60000);
+
+    @Spy
+    private OptimisticRetry optimisticRetry = new OptimisticRetry(TransactionOperations.withoutTransaction(), 3, 0);
+
     @InjectMocks
     private EventServiceImplementation service;
 
@@ -85,6 +109,37 @@ class EventServiceTest
                 () -> service.findByCalendar(10L, 999L));
     }
 
+    @Test
+    void findByCalendarInWindow_shouldQueryWindowBounds_forOwner()
+    {
+        CalendarViewDto view = CalendarViewDto.of(CalendarViewDto.Mode.WEEK, LocalDate.of(2025, 1, 1));
+
+        when(calendarRepository.findById(10L))
+                .thenReturn(Optional.of(calendar));
+        when(eventRepository.findRowsInWindow(
+                10L,
+                LocalDateTime.of(2024, 12, 30, 0, 0),
+                LocalDateTime.of(2025, 1, 6, 0, 0)))
+                .thenReturn(List.of(row()));
+
+        List<EventDto> result = service.findByCalendarInWindow(10L, view, 1L);
+
+        assertEquals(1, result.size());
+        verify(eventRepository, never()).findByCalendarId(any());
+    }
+
+    @Test
+    void findByCalendarInWindow_shouldThrow_whenNotOwner()
+    {
+        CalendarViewDto view = CalendarViewDto.of(CalendarViewDto.Mode.MONTH, LocalDate.of(2025, 1, 1));
+
+        when(calendarRepository.findById(10L))
+                .thenReturn(Optional.of(calendar));
+
+        assertThrows(CalendarAccessDeniedException.class,
+                () -> service.findByCalendarInWindow(10L, view, 999L));
+    }
+
     @Test
     void create_shouldCreateEvent_forOwner()
     {
@@ -133,6 +188,44 @@ class EventServiceTest
                 () -> service.create(dto, 999L));
     }
 
+    @Test
+    void createAll_shouldSaveAllEventsAtOnce_andLoadCalendarOnce()
+    {
+        EventDto first = new EventDto(
+                null, "First", null,
+                LocalDateTime.now(),
+                LocalDateTime.now().plusHours(1),
+                "LOW", false, 10L,
+                null, null, null
+        );
+        EventDto second = new EventDto(
+                null, "Second", null,
+                LocalDateTime.now(),
+                LocalDateTime.now().plusHours(1),
+                "HIGH", false, 10L,
+                null, null, null
+        );
+        Event secondEvent = new Event();
+        secondEvent.setId(101L);
+        secondEvent.setTitle("Second");
+        secondEvent.setCalendar(calendar);
+
+        when(calendarRepository.findById(10L))
+                .thenReturn(Optional.of(calendar));
+        when(eventFactory.createEvent(first, calendar))
+                .thenReturn(event);
+        when(eventFactory.createEvent(second, calendar))
+                .thenReturn(secondEvent);
+        when(eventRepository.saveAll(List.of(event, secondEvent)))
+                .thenReturn(List.of(event, secondEvent));
+
+        List<EventDto> result = service.createAll(List.of(first, second));
+
+        assertEquals(List.of(100L, 101L), result.stream().map(EventDto::id).toList());
+        verify(calendarRepository, times(1)).findById(10L);
+        verify(eventRepository, never()).save(any());
+    }
+
     @Test
     void delete_shouldDelete_forOwner()
     {
@@ -157,25 +250,375 @@ class EventServiceTest
     }
 
     @Test
-    void markDone_shouldCreateNextEvent_forRecurring()
+    void markDone_shouldMaterializeOccurrence_andAdvanceSeries_forRecurring()
     {
         EventRecurrence recurrence = new EventRecurrence();
         recurrence.setRecurrenceType(RecurrenceType.DAILY);
-        recurrence.setFromDate(LocalDate.now());
-        recurrence.setUntilDate(LocalDate.now().plusDays(5));
+        recurrence.setFromDate(LocalDate.of(2025, 1, 1));
+        recurrence.setUntilDate(LocalDate.of(2025, 1, 5));
         event.setRecurrence(recurrence);
+        event.setEndTime(LocalDateTime.of(2025, 1, 1, 11, 0));
 
-        Event nextEvent = new Event();
+        Reminder reminder = new Reminder();
+        reminder.setRemindAt(LocalDateTime.of(2025, 1, 1, 9, 45));
+        reminder.setRead(true);
+        event.setReminder(reminder);
+
+        Event completed = new Event();
 
         when(eventRepository.findById(100L))
                 .thenReturn(Optional.of(event));
+        when(eventFactory.createNextEvent(event, LocalDateTime.of(2025, 1, 1, 10, 0)))
+                .thenReturn(completed);
+
+        service.markDone(100L, 1L);
+
+        verify(eventRepository).save(completed);
+        assertTrue(completed.getDone());
+        assertSame(event, completed.getSeries());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 10, 0), completed.getOriginalStart());
+
+        assertFalse(event.getDone());
+        assertEquals(LocalDateTime.of(2025, 1, 2, 10, 0), event.getStartTime());
+        assertEquals(LocalDateTime.of(2025, 1, 2, 11, 0), event.getEndTime());
+        assertEquals(LocalDateTime.of(2025, 1, 2, 9, 45), reminder.getRemindAt());
+        assertFalse(reminder.getRead());
+        assertEquals(1, reminder.getDeliveries().size());
+    }
+
+    @Test
+    void markDone_shouldKeepMonthEnd_afterShortMonth_forMonthlySeries()
+    {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 31, 10, 0);
+        event.setStartTime(start);
+
+        EventRecurrence recurrence = new EventRecurrence();
+        recurrence.setRecurrenceType(RecurrenceType.MONTHLY);
+        recurrence.setFromDate(start.toLocalDate());
+        recurrence.setSeriesStart(start);
+        event.setRecurrence(recurrence);
+
+        when(eventRepository.findById(100L))
+                .thenReturn(Optional.of(event));
+        when(eventFactory.createNextEvent(any(), any()))
+                .thenAnswer(invocation -> new Event());
+
+        service.markDone(100L, 1L);
+        assertEquals(LocalDateTime.of(2025, 2, 28, 10, 0), event.getStartTime());
+
+        service.markDone(100L, 1L);
+        assertEquals(LocalDateTime.of(2025, 3, 31, 10, 0), event.getStartTime());
+
+        service.markDone(100L, 1L);
+        assertEquals(LocalDateTime.of(2025, 4, 30, 10, 0), event.getStartTime());
+        assertEquals(start, recurrence.getSeriesStart());
+    }
+
+    @Test
+    void markDone_shouldReturnToLeapDay_forYearlySeries()
+    {
+        LocalDateTime start = LocalDateTime.of(2024, 2, 29, 10, 0);
+        event.setStartTime(start);
+
+        // повторение, созданное до появления начала серии: оно фиксируется первым сдвигом
+        EventRecurrence recurrence = new EventRecurrence();
+        recurrence.setRecurrenceType(RecurrenceType.YEARLY);
+        recurrence.setFromDate(start.toLocalDate());
+        event.setRecurrence(recurrence);
+
+        when(eventRepository.findById(100L))
+                .thenReturn(Optional.of(event));
+        when(eventFactory.createNextEvent(any(), any()))
+                .thenAnswer(invocation -> new Event());
+
+        for (int year = 2025; year <= 2027; year++)
+        {
+            service.markDone(100L, 1L);
+            assertEquals(LocalDateTime.of(year, 2, 28, 10, 0), event.getStartTime());
+        }
+
+        service.markDone(100L, 1L);
+        assertEquals(LocalDateTime.of(2028, 2, 29, 10, 0), event.getStartTime());
+    }
+
+    @Test
+    void updateOccurrence_shouldMaterializeEditedOccurrence_andKeepSeries()
+    {
+        EventRecurrence recurrence = new EventRecurrence();
+        recurrence.setId(7L);
+        recurrence.setRecurrenceType(RecurrenceType.DAILY);
+        recurrence.setFromDate(LocalDate.of(2025, 1, 1));
+        event.setRecurrence(recurrence);
+        event.setEndTime(LocalDateTime.of(2025, 1, 1, 11, 0));
+
+        Reminder reminder = new Reminder();
+        reminder.setRemindAt(LocalDateTime.of(2025, 1, 1, 9, 45));
+        event.setReminder(reminder);
+
+        LocalDateTime occurrence = LocalDateTime.of(2025, 1, 3, 10, 0);
+        LocalDateTime moved = LocalDateTime.of(2100, 1, 3, 12, 0);
+        // фабрика создаёт вхождение в календаре серии
+        Event exception = new Event();
+        exception.setCalendar(calendar);
+        Reminder copy = new Reminder();
+        copy.setEvent(exception);
+        copy.setChannel(ReminderChannel.EMAIL);
+        copy.setRemindAt(moved.minusMinutes(15));
+
+        when(eventRepository.findById(100L))
+                .thenReturn(Optional.of(event));
+        when(eventFactory.createNextEvent(event, occurrence))
+                .thenReturn(exception);
+        when(eventFactory.copyReminder(reminder, exception, moved, event.getStartTime()))
+                .thenReturn(copy);
+
+        EventDto dto = new EventDto(null, "Moved", null, moved, moved.plusHours(1),
+                "HIGH", false, 10L, null, null, null);
+        service.updateOccurrence(100L, occurrence, dto);
+
+        verify(eventRepository).save(exception);
+        assertSame(event, exception.getSeries());
+        assertEquals(occurrence, exception.getOriginalStart());
+        assertEquals("Moved", exception.getTitle());
+        assertEquals(moved, exception.getStartTime());
+        assertSame(copy, exception.getReminder());
+
+        assertEquals("Title", event.getTitle());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 10, 0), event.getStartTime());
+    }
+
+    @Test
+    void updateOccurrence_shouldThrow_whenNotAnOccurrence()
+    {
+        EventRecurrence recurrence = new EventRecurrence();
+        recurrence.setRecurrenceType(RecurrenceType.WEEKLY);
+        recurrence.setFromDate(LocalDate.of(2025, 1, 1));
+        event.setRecurrence(recurrence);
+
+        when(eventRepository.findById(100L))
+                .thenReturn(Optional.of(event));
+
+        LocalDateTime start = LocalDateTime.of(2025, 1, 3, 10, 0);
+        EventDto dto = new EventDto(null, "Moved", null, start, start.plusHours(1),
+                "HIGH", false, 10L, null, null, null);
+
+        assertThrows(OccurrenceNotFoundException.class,
+                () -> service.updateOccurrence(100L, start, dto));
+        verify(eventRepository, never()).save(any());
+    }
+
+    @Test
+    void markDone_shouldSkipAlreadyCompletedOccurrences()
+    {
+        EventRecurrence recurrence = new EventRecurrence();
+        recurrence.setRecurrenceType(RecurrenceType.DAILY);
+        recurrence.setFromDate(LocalDate.of(2025, 1, 1));
+        event.setRecurrence(recurrence);
+
+        when(eventRepository.findById(100L))
+                .thenReturn(Optional.of(event));
+        when(eventRepository.findMaterializedStartsAfter(100L, LocalDateTime.of(2025, 1, 1, 10, 0)))
+                .thenReturn(List.of(LocalDateTime.of(2025, 1, 2, 10, 0)));
         when(eventFactory.createNextEvent(any(), any()))
-                .thenReturn(nextEvent);
+                .thenReturn(new Event());
+
+        service.markDone(100L, 1L);
+
+        assertEquals(LocalDateTime.of(2025, 1, 3, 10, 0), event.getStartTime());
+    }
+
+    @Test
+    void markDone_shouldCompleteSeries_whenLastOccurrence()
+    {
+        EventRecurrence recurrence = new EventRecurrence();
+        recurrence.setRecurrenceType(RecurrenceType.DAILY);
+        recurrence.setFromDate(LocalDate.of(2025, 1, 1));
+        recurrence.setUntilDate(LocalDate.of(2025, 1, 1));
+        event.setRecurrence(recurrence);
+
+        when(eventRepository.findById(100L))
+                .thenReturn(Optional.of(event));
 
         service.markDone(100L, 1L);
 
         assertTrue(event.getDone());
-        verify(eventRepository).save(nextEvent);
+        verify(eventRepository, never()).save(any());
+    }
+
+    @Test
+    void markDone_shouldNotCompleteNextOccurrence_whenRetriedAfterConcurrentCompletion()
+    {
+        EventRecurrence recurrence = new EventRecurrence();
+        recurrence.setRecurrenceType(RecurrenceType.DAILY);
+        recurrence.setFromDate(LocalDate.of(2025, 1, 1));
+        event.setRecurrence(recurrence);
+
+        // то же событие после коммита параллельного запроса: вхождение 1 января выполнено, серия сдвинута
+        Event advanced = new Event();
+        advanced.setId(100L);
+        advanced.setCalendar(calendar);
+        advanced.setDone(false);
+        advanced.setStartTime(LocalDateTime.of(2025, 1, 2, 10, 0));
+        advanced.setRecurrence(recurrence);
+
+        when(eventRepository.findById(100L))
+                .thenReturn(Optional.of(event), Optional.of(advanced));
+        when(eventFactory.createNextEvent(any(), any()))
+                .thenReturn(new Event());
+        when(eventRepository.save(any()))
+                .thenThrow(new DataIntegrityViolationException("uk_events_series_original_start"));
+
+        service.markDone(100L, 1L);
+
+        verify(eventRepository, times(1)).save(any());
+        verify(eventRepository).findBySeriesIdAndOriginalStart(100L, LocalDateTime.of(2025, 1, 1, 10, 0));
+        assertEquals(LocalDateTime.of(2025, 1, 2, 10, 0), advanced.getStartTime());
+        assertFalse(advanced.getDone());
+    }
+
+    @Test
+    void markOccurrenceDone_shouldDoNothing_whenSeriesAlreadyPassedOccurrence()
+    {
+        EventRecurrence recurrence = new EventRecurrence();
+        recurrence.setRecurrenceType(RecurrenceType.WEEKLY);
+        recurrence.setFromDate(LocalDate.of(2025, 1, 1));
+        event.setRecurrence(recurrence);
+        event.setStartTime(LocalDateTime.of(2025, 1, 8, 10, 0));
+
+        when(eventRepository.findById(100L))
+                .thenReturn(Optional.of(event));
+        when(eventRepository.findBySeriesIdAndOriginalStart(100L, LocalDateTime.of(2025, 1, 1, 10, 0)))
+                .thenReturn(Optional.empty());
+
+        service.markOccurrenceDone(100L, LocalDateTime.of(2025, 1, 1, 10, 0), 1L);
+
+        verify(eventRepository, never()).save(any());
+        assertEquals(LocalDateTime.of(2025, 1, 8, 10, 0), event.getStartTime());
+    }
+
+    @Test
+    void update_shouldReject_whenExpectedVersionIsStale()
+    {
+        EventDto dto = new EventDto(
+                null,
+                "New title",
+                null,
+                LocalDateTime.now(),
+                LocalDateTime.now().plusHours(1),
+                "MEDIUM",
+                false,
+                10L,
+                null,
+                null,
+                null
+        );
+
+        when(eventRepository.findById(100L))
+                .thenReturn(Optional.of(event));
+
+        assertThrows(VersionConflictException.class,
+                () -> service.update(100L, dto, 3L));
+
+        assertEquals("Title", event.getTitle());
+    }
+
+    @Test
+    void markOccurrenceDone_shouldMaterializeVirtualOccurrence()
+    {
+        EventRecurrence recurrence = new EventRecurrence();
+        recurrence.setRecurrenceType(RecurrenceType.WEEKLY);
+        recurrence.setFromDate(LocalDate.of(2025, 1, 1));
+        event.setRecurrence(recurrence);
+
+        LocalDateTime occurrence = LocalDateTime.of(2025, 1, 15, 10, 0);
+        Event materialized = new Event();
+
+        when(eventRepository.findById(100L))
+                .thenReturn(Optional.of(event));
+        when(eventRepository.findBySeriesIdAndOriginalStart(100L, occurrence))
+                .thenReturn(Optional.empty());
+        when(eventFactory.createNextEvent(event, occurrence))
+                .thenReturn(materialized);
+
+        service.markOccurrenceDone(100L, occurrence, 1L);
+
+        verify(eventRepository).save(materialized);
+        assertTrue(materialized.getDone());
+        assertEquals(occurrence, materialized.getOriginalStart());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 10, 0), event.getStartTime());
+    }
+
+    @Test
+    void markOccurrenceDone_shouldThrow_whenNotAnOccurrence()
+    {
+        EventRecurrence recurrence = new EventRecurrence();
+        recurrence.setRecurrenceType(RecurrenceType.WEEKLY);
+        recurrence.setFromDate(LocalDate.of(2025, 1, 1));
+        event.setRecurrence(recurrence);
+
+        when(eventRepository.findById(100L))
+                .thenReturn(Optional.of(event));
+
+        assertThrows(OccurrenceNotFoundException.class,
+                () -> service.markOccurrenceDone(100L, LocalDateTime.of(2025, 1, 16, 10, 0), 1L));
+    }
+
+    @Test
+    void findOccurrencesInWindow_shouldExpandSeries_andSkipMaterialized()
+    {
+        EventRecurrence recurrence = new EventRecurrence();
+        recurrence.setRecurrenceType(RecurrenceType.WEEKLY);
+        recurrence.setFromDate(LocalDate.of(2025, 1, 1));
+        event.setRecurrence(recurrence);
+        event.setPriority(EventPriority.MEDIUM);
+
+        CalendarViewDto view = CalendarViewDto.of(CalendarViewDto.Mode.MONTH, LocalDate.of(2025, 1, 1));
+
+        when(calendarRepository.findById(10L))
+                .thenReturn(Optional.of(calendar));
+        when(eventRepository.findRowsInWindow(10L, view.from(), view.to()))
+                .thenReturn(List.of(row()));
+        when(eventRepository.findSeriesIntersecting(10L, view.from().toLocalDate(), view.to()))
+                .thenReturn(List.of(event));
+        when(eventRepository.findOccurrenceKeys(List.of(100L), view.from(), view.to()))
+                .thenReturn(List.of(new OccurrenceKey(100L, LocalDateTime.of(2025, 1, 15, 10, 0))));
+
+        List<EventOccurrenceDto> result = service.findOccurrencesInWindow(10L, view, 1L);
+
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 1, 1, 10, 0),
+                LocalDateTime.of(2025, 1, 8, 10, 0),
+                LocalDateTime.of(2025, 1, 22, 10, 0),
+                LocalDateTime.of(2025, 1, 29, 10, 0)
+        ), result.stream().map(EventOccurrenceDto::startTime).toList());
+        assertFalse(result.getFirst().virtual());
+        assertTrue(result.get(1).virtual());
+    }
+
+    @Test
+    void findOccurrencesInWindow_shouldReuseCachedExpansion_forSameSeriesAndWindow()
+    {
+        EventRecurrence recurrence = new EventRecurrence();
+        recurrence.setId(7L);
+        recurrence.setRecurrenceType(RecurrenceType.DAILY);
+        recurrence.setFromDate(LocalDate.of(2025, 1, 1));
+        event.setRecurrence(recurrence);
+        event.setPriority(EventPriority.MEDIUM);
+
+        CalendarViewDto view = CalendarViewDto.of(CalendarViewDto.Mode.WEEK, LocalDate.of(2025, 1, 1));
+
+        when(calendarRepository.findById(10L))
+                .thenReturn(Optional.of(calendar));
+        when(eventRepository.findRowsInWindow(10L, view.from(), view.to()))
+                .thenReturn(List.of(row()));
+        when(eventRepository.findSeriesIntersecting(10L, view.from().toLocalDate(), view.to()))
+                .thenReturn(List.of(event));
+
+        List<EventOccurrenceDto> first = service.findOccurrencesInWindow(10L, view, 1L);
+        List<EventOccurrenceDto> second = service.findOccurrencesInWindow(10L, view, 1L);
+
+        assertEquals(first, second);
+        assertEquals(0.5, occurrenceCache.hitRate());
     }
 
     @Test
@@ -210,4 +653,14 @@ class EventServiceTest
         assertThrows(EntityNotFoundException.class,
                 () -> service.delete(100L));
     }
+
+    private EventRow row()
+    {
+        return new EventRow(
+                100L, "Title", null,
+                LocalDateTime.of(2025, 1, 1, 10, 0), null,
+                EventPriority.MEDIUM, false, 10L, null,
+                null, null, null, null, null,
+                null, null, null, null);
+    }
 }
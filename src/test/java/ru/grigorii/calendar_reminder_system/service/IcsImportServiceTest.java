@@ -0,0 +1,162 @@
+package ru.grigorii.calendar_reminder_system.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.grigorii.calendar_reminder_system.dto.IcsImportProgressDto;
+import ru.grigorii.calendar_reminder_system.model.*;
+import ru.grigorii.calendar_reminder_system.repository.CalendarRepository;
+import ru.grigorii.calendar_reminder_system.repository.EventRepository;
+import ru.grigorii.calendar_reminder_system.service.exception.CalendarAccessDeniedException;
+import ru.grigorii.calendar_reminder_system.service.impl.EventFactory;
+import ru.grigorii.calendar_reminder_system.service.impl.IcsImportServiceImplementation;
+import ru.grigorii.calendar_reminder_system.service.recurrence.RecurrenceRuleCompiler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IcsImportServiceTest
+{
+
+    @Mock
+    private CalendarRepository calendarRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    private IcsImportServiceImplementation importService;
+
+    private Calendar calendar;
+
+    @BeforeEach
+    void setUp()
+    {
+        importService = new IcsImportServiceImplementation(
+                calendarRepository,
+                eventRepository,
+                new EventFactory(new RecurrenceRuleCompiler(100)),
+                TransactionOperations.withoutTransaction(),
+                2,
+                1,
+                60000,
+                false
+        );
+
+        User owner = new User();
+        owner.setId(1L);
+
+        calendar = new Calendar();
+        calendar.setId(10L);
+        calendar.setOwner(owner);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        importService.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void start_shouldSaveEventsInChunks_skippingInvalidOnesAndPastReminders() throws Exception
+    {
+        Path file = ics(
+                event("Первое", "20990105T090000", "BEGIN:VALARM\nTRIGGER:-PT15M\nEND:VALARM"),
+                event("Второе", "20990106T090000", "RRULE:FREQ=WEEKLY;COUNT=3"),
+                event("Плохое правило", "20990107T090000", "RRULE:FREQ=HOURLY"),
+                event("Третье", "20990108T090000", ""),
+                event("Старое", "20200108T090000", "BEGIN:VALARM\nTRIGGER;VALUE=DATE-TIME:20200108T080000Z\nEND:VALARM"),
+                "BEGIN:VEVENT\nSUMMARY:Без начала\nEND:VEVENT"
+        );
+
+        when(calendarRepository.findById(10L)).thenReturn(Optional.of(calendar));
+        when(calendarRepository.getReferenceById(10L)).thenReturn(calendar);
+
+        IcsImportProgressDto progress = awaitFinished(importService.start(10L, file, 1L).id());
+
+        assertEquals("DONE", progress.state());
+        assertEquals(100, progress.percent());
+        assertEquals(4, progress.imported());
+        assertEquals(2, progress.skipped());
+        assertEquals(3, progress.chunks());
+        assertEquals(2, progress.errors().size());
+        assertFalse(Files.exists(file));
+
+        ArgumentCaptor<List<Event>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(eventRepository, times(3)).saveAll(chunks.capture());
+
+        List<Event> saved = chunks.getAllValues().stream().flatMap(List::stream).toList();
+        assertEquals(List.of("Первое", "Второе", "Третье", "Старое"), saved.stream().map(Event::getTitle).toList());
+        assertNotNull(saved.get(0).getReminder());
+        assertEquals(RecurrenceType.WEEKLY, saved.get(1).getRecurrence().getRecurrenceType());
+        assertNull(saved.get(3).getReminder());
+    }
+
+    @Test
+    void start_shouldRejectForeignCalendar() throws Exception
+    {
+        Path file = ics(event("Первое", "20990105T090000", ""));
+
+        when(calendarRepository.findById(10L)).thenReturn(Optional.of(calendar));
+
+        assertThrows(CalendarAccessDeniedException.class, () -> importService.start(10L, file, 2L));
+
+        verify(eventRepository, never()).saveAll(any());
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void find_shouldHideImportOfAnotherUser() throws Exception
+    {
+        Path file = ics(event("Первое", "20990105T090000", ""));
+
+        when(calendarRepository.findById(10L)).thenReturn(Optional.of(calendar));
+        when(calendarRepository.getReferenceById(10L)).thenReturn(calendar);
+
+        String importId = importService.start(10L, file, 1L).id();
+        awaitFinished(importId);
+
+        assertTrue(importService.find(importId, 2L).isEmpty());
+        assertTrue(importService.find("unknown", 1L).isEmpty());
+    }
+
+    private IcsImportProgressDto awaitFinished(String importId) throws InterruptedException
+    {
+        for (int i = 0; i < 500; i++)
+        {
+            IcsImportProgressDto progress = importService.find(importId, 1L).orElseThrow();
+            if (!progress.state().equals("RUNNING"))
+            {
+                return progress;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Import " + importId + " did not finish");
+    }
+
+    private static String event(String title, String start, String extra)
+    {
+        return "BEGIN:VEVENT\nSUMMARY:" + title + "\nDTSTART:" + start + "\nDURATION:PT1H\n"
+                + (extra.isEmpty() ? "" : extra + "\n") + "END:VEVENT";
+    }
+
+    private static Path ics(String... events) throws IOException
+    {
+        Path file = Files.createTempFile("ics-import-test-", ".ics");
+        Files.writeString(file, "BEGIN:VCALENDAR\nVERSION:2.0\n" + String.join("\n", events) + "\nEND:VCALENDAR\n");
+        return file;
+    }
+}
@@ -0,0 +1,108 @@
+package ru.grigorii.calendar_reminder_system.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import ru.grigorii.calendar_reminder_system.dto.DeadLetterReplayDto;
+import ru.grigorii.calendar_reminder_system.model.*;
+import ru.grigorii.calendar_reminder_system.repository.ReminderDeadLetterRepository;
+import ru.grigorii.calendar_reminder_system.service.exception.DeadLetterNotFoundException;
+import ru.grigorii.calendar_reminder_system.service.impl.ReminderDeliveryServiceImplementation;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderDeliveryServiceTest
+{
+    @Mock
+    private ReminderDeadLetterRepository deadLetterRepository;
+
+    @Test
+    void replay_shouldSpreadAttemptsAtConfiguredRate()
+    {
+        ReminderDeliveryServiceImplementation service =
+                new ReminderDeliveryServiceImplementation(deadLetterRepository, 10);
+
+        List<ReminderDeadLetter> letters = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+        {
+            letters.add(deadLetter((long) i));
+        }
+        when(deadLetterRepository.findOpen(ReminderChannel.EMAIL, 0L, Limit.of(5)))
+                .thenReturn(letters);
+
+        DeadLetterReplayDto result = service.replay(ReminderChannel.EMAIL, 5);
+
+        assertEquals(5, result.replayed());
+        for (int i = 0; i < letters.size(); i++)
+        {
+            ReminderDelivery delivery = letters.get(i).getDelivery();
+
+            assertEquals(DeliveryStatus.PENDING, delivery.getStatus());
+            assertEquals(0, delivery.getAttempts());
+            assertNull(delivery.getProcessedAt());
+            assertNotNull(letters.get(i).getReplayedAt());
+            if (i > 0)
+            {
+                assertTrue(delivery.getDueAt().isAfter(letters.get(i - 1).getDelivery().getDueAt()));
+            }
+        }
+        // 5 попыток с частотой 10 в секунду растянуты на полсекунды
+        assertTrue(Duration.between(result.firstAttemptAt(), result.lastAttemptAt()).toMillis() >= 300);
+        assertTrue(Duration.between(result.firstAttemptAt(), result.lastAttemptAt()).toMillis() < 500);
+    }
+
+    @Test
+    void replay_shouldDoNothing_whenAlreadyReplayed()
+    {
+        ReminderDeliveryServiceImplementation service =
+                new ReminderDeliveryServiceImplementation(deadLetterRepository, 10);
+
+        ReminderDeadLetter letter = deadLetter(1L);
+        letter.setReplayedAt(LocalDateTime.now().minusMinutes(1));
+        when(deadLetterRepository.findById(1L))
+                .thenReturn(Optional.of(letter));
+
+        DeadLetterReplayDto result = service.replay(1L);
+
+        assertEquals(0, result.replayed());
+        assertEquals(DeliveryStatus.DEAD, letter.getDelivery().getStatus());
+    }
+
+    @Test
+    void replay_shouldThrow_whenDeadLetterNotFound()
+    {
+        ReminderDeliveryServiceImplementation service =
+                new ReminderDeliveryServiceImplementation(deadLetterRepository, 10);
+
+        when(deadLetterRepository.findById(1L))
+                .thenReturn(Optional.empty());
+
+        assertThrows(DeadLetterNotFoundException.class, () -> service.replay(1L));
+    }
+
+    private ReminderDeadLetter deadLetter(Long id)
+    {
+        Reminder reminder = new Reminder();
+        reminder.setChannel(ReminderChannel.EMAIL);
+        reminder.setRemindAt(LocalDateTime.now().minusHours(1));
+
+        ReminderDelivery delivery = ReminderDelivery.pendingFor(reminder);
+        delivery.setAttempts(6);
+        delivery.setProcessedAt(LocalDateTime.now().minusMinutes(30));
+        delivery.markDead("gateway down");
+
+        ReminderDeadLetter letter = ReminderDeadLetter.of(delivery);
+        letter.setId(id);
+        return letter;
+    }
+}
@@ -6,13 +6,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.support.TransactionOperations;
 import ru.grigorii.calendar_reminder_system.dto.ReminderDto;
 import ru.grigorii.calendar_reminder_system.model.*;
 import ru.grigorii.calendar_reminder_system.repository.EventRepository;
 import ru.grigorii.calendar_reminder_system.repository.ReminderRepository;
+import ru.grigorii.calendar_reminder_system.service.exception.VersionConflictException;
 import ru.grigorii.calendar_reminder_system.service.impl.ReminderServiceImplementation;
+import ru.grigorii.calendar_reminder_system.service.notification.UnreadReminderCounter;
+import ru.grigorii.calendar_reminder_system.service.support.OptimisticRetry;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -32,6 +39,15 @@ class ReminderServiceTest
     @Mock
     private EventRepository eventRepository;
 
+    @Mock
+    private ObjectProvider<UnreadReminderCounter> unreadCounterProvider;
+
+    @Mock
+    private UnreadReminderCounter unreadCounter;
+
+    @Spy
+    private OptimisticRetry optimisticRetry = new OptimisticRetry(TransactionOperations.withoutTransaction(), 3, 0);
+
     @InjectMocks
     private ReminderServiceImplementation service;
 
@@ -81,15 +97,61 @@ class ReminderServiceTest
         assertEquals(2L, count);
     }
 
+    @Test
+    void countActive_shouldUseCounter_whenReady()
+    {
+        when(unreadCounterProvider.getIfAvailable())
+                .thenReturn(unreadCounter);
+        when(unreadCounter.isReady())
+                .thenReturn(true);
+        when(unreadCounter.count(1L))
+                .thenReturn(3L);
+
+        long count = service.countActive(1L);
+
+        assertEquals(3L, count);
+        verify(reminderRepository, never()).countActiveUnread(any(), any());
+    }
+
+    @Test
+    void countActive_shouldQueryDatabase_whenCounterNotReady()
+    {
+        when(unreadCounterProvider.getIfAvailable())
+                .thenReturn(unreadCounter);
+        when(unreadCounter.isReady())
+                .thenReturn(false);
+        when(reminderRepository.countActiveUnread(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(2L);
+
+        assertEquals(2L, service.countActive(1L));
+    }
+
     @Test
     void markAsRead_shouldMarkRead_whenOwnerMatches()
     {
+        LocalDateTime eventUpdatedAt = event.getUpdatedAt();
         when(reminderRepository.findById(10L))
                 .thenReturn(Optional.of(reminder));
 
         service.markAsRead(10L, 1L);
 
         assertTrue(reminder.getRead());
+        // событие не меняется, его версия и If-Match остаются прежними
+        assertEquals(eventUpdatedAt, event.getUpdatedAt());
+    }
+
+    @Test
+    void markAsRead_shouldRetry_afterConcurrentModification()
+    {
+        // первая попытка упирается в чужой коммит, повтор читает свежую строку
+        when(reminderRepository.findById(10L))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Reminder.class, 10L))
+                .thenReturn(Optional.of(reminder));
+
+        service.markAsRead(10L, 1L);
+
+        assertTrue(reminder.getRead());
+        verify(reminderRepository, times(2)).findById(10L);
     }
 
     @Test
@@ -163,12 +225,32 @@ class ReminderServiceTest
         when(eventRepository.findById(100L))
                 .thenReturn(Optional.of(event));
 
-        ReminderDto result = service.update(10L, dto);
+        ReminderDto result = service.update(10L, dto, null);
 
         assertEquals("SMS", result.channel());
         assertTrue(reminder.getRead());
     }
 
+    @Test
+    void update_shouldReject_whenExpectedVersionIsStale()
+    {
+        ReminderDto dto = new ReminderDto(
+                null,
+                100L,
+                LocalDateTime.now(),
+                "SMS",
+                true,
+                ""
+        );
+
+        when(reminderRepository.findById(10L))
+                .thenReturn(Optional.of(reminder));
+
+        assertThrows(VersionConflictException.class,
+                () -> service.update(10L, dto, 5L));
+        assertFalse(reminder.getRead());
+    }
+
     @Test
     void delete_shouldDelete()
     {
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -14,6 +15,7 @@ import ru.grigorii.calendar_reminder_system.dto.UserDto;
 import ru.grigorii.calendar_reminder_system.model.Role;
 import ru.grigorii.calendar_reminder_system.model.User;
 import ru.grigorii.calendar_reminder_system.repository.UserRepository;
+import ru.grigorii.calendar_reminder_system.security.AuthenticatedUser;
 import ru.grigorii.calendar_reminder_system.service.exception.UserAlreadyExistsException;
 import ru.grigorii.calendar_reminder_system.service.exception.UserNotFoundException;
 import ru.grigorii.calendar_reminder_system.service.impl.UserServiceImplementation;
@@ -66,6 +68,19 @@ class UserServiceTest
                 .anyMatch(a -> a.getAuthority().equals("ROLE_USER")));
     }
 
+    @Test
+    void loadUserByUsername_shouldReturnPrincipalWithIdAndRole()
+    {
+        when(userRepository.findByEmail("ivan@test.com"))
+                .thenReturn(Optional.of(user));
+
+        UserDetails details = service.loadUserByUsername("ivan@test.com");
+
+        AuthenticatedUser principal = assertInstanceOf(AuthenticatedUser.class, details);
+        assertEquals(1L, principal.getId());
+        assertEquals(Role.USER, principal.getRole());
+    }
+
     @Test
     void loadUserByUsername_shouldThrow_whenNotFound()
     {
@@ -206,6 +221,18 @@ class UserServiceTest
         assertEquals(1, result.size());
     }
 
+    @Test
+    void findPage_shouldReturnUsersAfterCursor()
+    {
+        when(userRepository.findByIdGreaterThanOrderById(0L, Limit.of(50)))
+                .thenReturn(List.of(user));
+
+        List<UserDto> result = service.findPage(0L, 50);
+
+        assertEquals(1, result.size());
+        assertEquals("ivan@test.com", result.getFirst().email());
+    }
+
     @Test
     void findById_shouldReturnUser()
     {
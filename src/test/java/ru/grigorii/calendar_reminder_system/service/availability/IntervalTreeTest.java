@@ -0,0 +1,109 @@
+package ru.grigorii.calendar_reminder_system.service.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTest
+{
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 1, 6, 0, 0);
+
+    @Test
+    void overlapping_shouldReturnIntersectingIntervalsInStartOrder_halfOpen()
+    {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.add(at(9, 0), at(10, 0), "standup");
+        tree.add(at(8, 0), at(18, 0), "workday");
+        tree.add(at(10, 0), at(11, 0), "review");
+        tree.add(at(12, 0), at(12, 0), "instant");
+        tree.add(at(14, 0), at(15, 0), "call");
+
+        assertEquals(List.of("workday", "standup"), values(tree.overlapping(at(9, 30), at(10, 0))));
+        assertEquals(List.of("workday", "review"), values(tree.overlapping(at(10, 0), at(10, 30))));
+        assertEquals(List.of("workday"), values(tree.overlapping(at(11, 30), at(13, 0))));
+        assertEquals(List.of(), values(tree.overlapping(at(18, 0), at(20, 0))));
+    }
+
+    @Test
+    void remove_shouldDropOnlyThatEntry_evenForEqualIntervals()
+    {
+        IntervalTree<String> tree = new IntervalTree<>();
+        IntervalTree.Entry<String> first = tree.add(at(9, 0), at(10, 0), "first");
+        tree.add(at(9, 0), at(10, 0), "second");
+
+        assertTrue(tree.remove(first));
+        assertFalse(tree.remove(first));
+        assertEquals(1, tree.size());
+        assertEquals(List.of("second"), values(tree.overlapping(at(9, 0), at(10, 0))));
+    }
+
+    @Test
+    void gaps_shouldReturnFreeSlotsOfRequestedLength()
+    {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.add(at(7, 0), at(9, 30), "early");
+        tree.add(at(10, 0), at(11, 0), "a");
+        tree.add(at(10, 30), at(12, 0), "b");
+        tree.add(at(13, 0), at(13, 15), "c");
+
+        List<IntervalTree.Gap> gaps = tree.gaps(at(9, 0), at(14, 0), Duration.ofMinutes(45));
+
+        assertEquals(List.of(
+                new IntervalTree.Gap(at(12, 0), at(13, 0)),
+                new IntervalTree.Gap(at(13, 15), at(14, 0))
+        ), gaps);
+    }
+
+    @Test
+    void overlapping_shouldMatchLinearScan_afterRandomInsertsAndRemoves()
+    {
+        Random random = new Random(42);
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        List<IntervalTree.Entry<Integer>> live = new ArrayList<>();
+
+        for (int i = 0; i < 2000; i++)
+        {
+            if (!live.isEmpty() && random.nextInt(4) == 0)
+            {
+                assertTrue(tree.remove(live.remove(random.nextInt(live.size()))));
+                continue;
+            }
+            LocalDateTime start = DAY.plusMinutes(random.nextInt(60 * 24 * 30));
+            live.add(tree.add(start, start.plusMinutes(random.nextInt(600)), i));
+        }
+
+        for (int q = 0; q < 200; q++)
+        {
+            LocalDateTime from = DAY.plusMinutes(random.nextInt(60 * 24 * 30));
+            LocalDateTime to = from.plusMinutes(1 + random.nextInt(3000));
+
+            List<IntervalTree.Entry<Integer>> expected = live.stream()
+                    .filter(e -> e.start().isBefore(to) && e.end().isAfter(from) && e.end().isAfter(e.start()))
+                    .sorted(Comparator.comparing((IntervalTree.Entry<Integer> e) -> e.start())
+                            .thenComparing(IntervalTree.Entry::end)
+                            .thenComparingLong(IntervalTree.Entry::seq))
+                    .toList();
+
+            assertEquals(expected, tree.overlapping(from, to));
+        }
+        assertEquals(live.size(), tree.size());
+    }
+
+    private static LocalDateTime at(int hour, int minute)
+    {
+        return DAY.withHour(hour).withMinute(minute);
+    }
+
+    private static <T> List<T> values(List<IntervalTree.Entry<T>> entries)
+    {
+        return entries.stream().map(IntervalTree.Entry::value).toList();
+    }
+}
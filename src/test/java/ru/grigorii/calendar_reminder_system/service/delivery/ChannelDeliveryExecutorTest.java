@@ -0,0 +1,188 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+import ru.grigorii.calendar_reminder_system.service.exception.ReminderSendException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelDeliveryExecutorTest
+{
+    private final List<ChannelDeliveryExecutor> executors = new ArrayList<>();
+
+    @AfterEach
+    void tearDown()
+    {
+        executors.forEach(executor -> executor.shutdown(1000));
+    }
+
+    @Test
+    void submit_shouldSendFullBatchesImmediately()
+    {
+        RecordingSender sender = new RecordingSender(ReminderChannel.PUSH);
+        ChannelDeliveryExecutor executor = executor(sender, new ChannelSettings(1, 10, 2, 60_000, false), (batch, error) -> {});
+
+        executor.submit(messages(ReminderChannel.PUSH, 4));
+
+        List<ReminderDigest> first = sender.await();
+        List<ReminderDigest> second = sender.await();
+
+        assertEquals(2, first.size());
+        assertEquals(2, second.size());
+    }
+
+    @Test
+    void submit_shouldFlushPartialBatchAfterWindow()
+    {
+        RecordingSender sender = new RecordingSender(ReminderChannel.EMAIL);
+        ChannelDeliveryExecutor executor = executor(sender, new ChannelSettings(1, 10, 100, 50, false), (batch, error) -> {});
+
+        executor.submit(messages(ReminderChannel.EMAIL, 1));
+        executor.submit(messages(ReminderChannel.EMAIL, 2));
+
+        assertEquals(3, sender.await().size());
+    }
+
+    @Test
+    void submit_shouldPassFailedBatchToOnFailure() throws InterruptedException
+    {
+        ReminderSender failing = new ReminderSender()
+        {
+            @Override
+            public ReminderChannel channel()
+            {
+                return ReminderChannel.SMS;
+            }
+
+            @Override
+            public void send(List<ReminderDigest> batch)
+            {
+                throw new ReminderSendException(ReminderChannel.SMS);
+            }
+        };
+        BlockingQueue<List<ReminderDigest>> failed = new LinkedBlockingQueue<>();
+        ChannelDeliveryExecutor executor = executor(failing, new ChannelSettings(1, 10, 1, 0, false), (batch, error) -> failed.add(batch));
+
+        executor.submit(messages(ReminderChannel.SMS, 1));
+
+        List<ReminderDigest> batch = failed.poll(5, TimeUnit.SECONDS);
+        assertNotNull(batch);
+        assertEquals(1, batch.size());
+    }
+
+    @Test
+    void submit_shouldNotLetSlowChannelBlockOthers() throws InterruptedException
+    {
+        CountDownLatch release = new CountDownLatch(1);
+        ReminderSender slow = new ReminderSender()
+        {
+            @Override
+            public ReminderChannel channel()
+            {
+                return ReminderChannel.SMS;
+            }
+
+            @Override
+            public void send(List<ReminderDigest> batch)
+            {
+                try
+                {
+                    release.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        BlockingQueue<List<ReminderDigest>> rejected = new LinkedBlockingQueue<>();
+        BlockingQueue<List<ReminderDigest>> failed = new LinkedBlockingQueue<>();
+        ChannelDeliveryExecutor sms = executor(slow, new ChannelSettings(1, 1, 1, 0, false),
+                (batch, error) -> failed.add(batch), rejected::add);
+
+        RecordingSender pushSender = new RecordingSender(ReminderChannel.PUSH);
+        ChannelDeliveryExecutor push = executor(pushSender, new ChannelSettings(1, 10, 1, 0, false), (batch, error) -> {});
+
+        // один батч в работе, один в очереди, третий не помещается
+        sms.submit(messages(ReminderChannel.SMS, 3));
+        push.submit(messages(ReminderChannel.PUSH, 1));
+
+        assertEquals(1, pushSender.await().size());
+        assertNotNull(rejected.poll(5, TimeUnit.SECONDS));
+        // переполнение очереди - не сбой отправки
+        assertTrue(failed.isEmpty());
+
+        release.countDown();
+    }
+
+    private ChannelDeliveryExecutor executor(ReminderSender sender,
+                                             ChannelSettings settings,
+                                             BiConsumer<List<ReminderDigest>, RuntimeException> onFailure)
+    {
+        return executor(sender, settings, onFailure, batch -> {});
+    }
+
+    private ChannelDeliveryExecutor executor(ReminderSender sender,
+                                             ChannelSettings settings,
+                                             BiConsumer<List<ReminderDigest>, RuntimeException> onFailure,
+                                             Consumer<List<ReminderDigest>> onRejected)
+    {
+        ChannelDeliveryExecutor executor = new ChannelDeliveryExecutor(sender, settings, batch -> {}, onFailure, onRejected);
+        executors.add(executor);
+        return executor;
+    }
+
+    private List<ReminderDigest> messages(ReminderChannel channel, int count)
+    {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> ReminderDigest.of(List.of(new ReminderMessage(id, id, 1L, "user@test.com", channel,
+                        "Event", LocalDateTime.now(), LocalDateTime.now()))))
+                .toList();
+    }
+
+    private static class RecordingSender implements ReminderSender
+    {
+        private final ReminderChannel channel;
+        private final BlockingQueue<List<ReminderDigest>> sent = new LinkedBlockingQueue<>();
+
+        RecordingSender(ReminderChannel channel)
+        {
+            this.channel = channel;
+        }
+
+        @Override
+        public ReminderChannel channel()
+        {
+            return channel;
+        }
+
+        @Override
+        public void send(List<ReminderDigest> batch)
+        {
+            sent.add(batch);
+        }
+
+        List<ReminderDigest> await()
+        {
+            try
+            {
+                List<ReminderDigest> batch = sent.poll(5, TimeUnit.SECONDS);
+                assertNotNull(batch, "batch was not sent in time");
+                return batch;
+            }
+            catch (InterruptedException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
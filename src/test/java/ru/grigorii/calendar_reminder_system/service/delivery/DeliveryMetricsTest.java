@@ -0,0 +1,123 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.Status;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+import ru.grigorii.calendar_reminder_system.repository.ReminderDeliveryRepository;
+import ru.grigorii.calendar_reminder_system.repository.projection.DeliveryBacklog;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DeliveryMetricsTest
+{
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ReminderDeliveryRepository deliveryRepository = mock(ReminderDeliveryRepository.class);
+
+    private DeliveryMetrics metrics;
+    private ReminderDeliveryHealthIndicator health;
+
+    @BeforeEach
+    void setUp()
+    {
+        metrics = new DeliveryMetrics(registry, deliveryRepository, 60_000);
+        health = new ReminderDeliveryHealthIndicator(metrics);
+    }
+
+    @Test
+    void sent_shouldRecordLagPerChannel()
+    {
+        metrics.sent(List.of(
+                message(ReminderChannel.EMAIL, LocalDateTime.now().minusSeconds(30)),
+                message(ReminderChannel.EMAIL, LocalDateTime.now().plusSeconds(30))
+        ));
+
+        Timer email = registry.get("reminder.delivery.lag").tag("channel", "email").timer();
+        assertEquals(2, email.count());
+        assertTrue(email.max(TimeUnit.SECONDS) >= 30);
+        assertEquals(0, registry.get("reminder.delivery.lag").tag("channel", "sms").timer().count());
+    }
+
+    @Test
+    void failedRetriedAndDead_shouldCountPerChannel()
+    {
+        metrics.failed(List.of(
+                message(ReminderChannel.PUSH, LocalDateTime.now()),
+                message(ReminderChannel.PUSH, LocalDateTime.now())
+        ));
+        metrics.retried(ReminderChannel.PUSH);
+        metrics.dead(ReminderChannel.PUSH);
+
+        assertEquals(2, registry.get("reminder.delivery.failures").tag("channel", "push").counter().count());
+        assertEquals(1, registry.get("reminder.delivery.retries").tag("channel", "push").counter().count());
+        assertEquals(1, registry.get("reminder.delivery.dead").tag("channel", "push").counter().count());
+    }
+
+    @Test
+    void health_shouldBeUp_whenBacklogIsWithinSlo()
+    {
+        when(deliveryRepository.findBacklog(any()))
+                .thenReturn(new DeliveryBacklog(3L, LocalDateTime.now().minusSeconds(5)));
+
+        metrics.refreshBacklog();
+        Health result = health.health();
+
+        assertEquals(Status.UP, result.getStatus());
+        assertEquals(3L, registry.get("reminder.delivery.backlog").gauge().value());
+    }
+
+    @Test
+    void health_shouldBeDegraded_whenOldestDeliveryExceedsSlo()
+    {
+        when(deliveryRepository.findBacklog(any()))
+                .thenReturn(new DeliveryBacklog(1L, LocalDateTime.now().minusMinutes(5)));
+
+        metrics.refreshBacklog();
+
+        assertEquals(ReminderDeliveryHealthIndicator.DEGRADED, health.health().getStatus());
+        assertTrue(registry.get("reminder.delivery.oldest.age").timeGauge().value(TimeUnit.MINUTES) >= 5);
+    }
+
+    @Test
+    void oldestAge_shouldDropToZero_whenBacklogDrains()
+    {
+        when(deliveryRepository.findBacklog(any()))
+                .thenReturn(new DeliveryBacklog(1L, LocalDateTime.now().minusMinutes(5)))
+                .thenReturn(new DeliveryBacklog(0L, null));
+
+        metrics.refreshBacklog();
+        assertTrue(metrics.oldestAge().toMinutes() >= 5);
+
+        metrics.refreshBacklog();
+        assertEquals(Duration.ZERO, metrics.oldestAge());
+        assertEquals(Status.UP, health.health().getStatus());
+    }
+
+    @Test
+    void health_shouldBeDegraded_whenRecentSendWasLate()
+    {
+        when(deliveryRepository.findBacklog(any()))
+                .thenReturn(new DeliveryBacklog(0L, null));
+
+        metrics.refreshBacklog();
+        metrics.sent(List.of(message(ReminderChannel.SMS, LocalDateTime.now().minusMinutes(2))));
+
+        assertEquals(ReminderDeliveryHealthIndicator.DEGRADED, health.health().getStatus());
+    }
+
+    private ReminderMessage message(ReminderChannel channel, LocalDateTime remindAt)
+    {
+        return new ReminderMessage(1L, 1L, 1L, "user@test.com", channel, "Event", remindAt.plusMinutes(15), remindAt);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+import ru.grigorii.calendar_reminder_system.repository.ReminderDeliveryRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class DeliveryRateLimiterTest
+{
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DeliveryMetrics metrics = new DeliveryMetrics(registry, mock(ReminderDeliveryRepository.class), 60_000);
+    private final AtomicLong clock = new AtomicLong();
+
+    private final MockEnvironment environment = new MockEnvironment()
+            .withProperty("reminder.channel.sms.rate-per-second", "1")
+            .withProperty("reminder.channel.sms.burst", "3");
+
+    @Test
+    void acquire_shouldDeferUserOverQuota_withoutTouchingOtherUsers()
+    {
+        DeliveryRateLimiter limiter = new DeliveryRateLimiter(metrics, environment, 60, 2, clock::get);
+
+        assertEquals(Duration.ZERO, limiter.acquire(message(1L, ReminderChannel.EMAIL)));
+        assertEquals(Duration.ZERO, limiter.acquire(message(1L, ReminderChannel.PUSH)));
+        assertEquals(Duration.ofSeconds(1), limiter.acquire(message(1L, ReminderChannel.EMAIL)));
+        assertEquals(Duration.ZERO, limiter.acquire(message(2L, ReminderChannel.EMAIL)));
+
+        assertEquals(2, registry.get("reminder.delivery.admitted").tag("channel", "email").counter().count());
+        assertEquals(1, registry.get("reminder.delivery.deferred")
+                .tags("channel", "email", "limit", "user").counter().count());
+    }
+
+    @Test
+    void acquire_shouldDeferOverChannelQuota()
+    {
+        DeliveryRateLimiter limiter = new DeliveryRateLimiter(metrics, environment, 0, 1, clock::get);
+
+        for (long user = 1; user <= 3; user++)
+        {
+            assertEquals(Duration.ZERO, limiter.acquire(message(user, ReminderChannel.SMS)));
+        }
+        assertEquals(Duration.ofSeconds(1), limiter.acquire(message(4L, ReminderChannel.SMS)));
+        // канал без настройки не ограничен
+        assertEquals(Duration.ZERO, limiter.acquire(message(4L, ReminderChannel.EMAIL)));
+
+        assertEquals(1, registry.get("reminder.delivery.deferred")
+                .tags("channel", "sms", "limit", "channel").counter().count());
+    }
+
+    @Test
+    void acquire_shouldReturnUserToken_whenChannelDefers()
+    {
+        DeliveryRateLimiter limiter = new DeliveryRateLimiter(metrics, environment, 60, 2, clock::get);
+
+        for (long user = 2; user <= 4; user++)
+        {
+            assertEquals(Duration.ZERO, limiter.acquire(message(user, ReminderChannel.SMS)));
+        }
+        assertEquals(Duration.ofSeconds(1), limiter.acquire(message(1L, ReminderChannel.SMS)));
+
+        // отсрочка каналом не расходует квоту пользователя
+        assertEquals(Duration.ZERO, limiter.acquire(message(1L, ReminderChannel.EMAIL)));
+        assertEquals(Duration.ZERO, limiter.acquire(message(1L, ReminderChannel.EMAIL)));
+    }
+
+    private ReminderDigest message(Long userId, ReminderChannel channel)
+    {
+        return ReminderDigest.of(List.of(new ReminderMessage(1L, 1L, userId, "user@test.com", channel, "Event",
+                LocalDateTime.now(), LocalDateTime.now())));
+    }
+}
@@ -0,0 +1,172 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.grigorii.calendar_reminder_system.model.*;
+import ru.grigorii.calendar_reminder_system.repository.ReminderDeadLetterRepository;
+import ru.grigorii.calendar_reminder_system.repository.ReminderDeliveryRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DeliveryRetrySchedulerTest
+{
+    private final ReminderDeliveryRepository deliveryRepository = mock(ReminderDeliveryRepository.class);
+    private final ReminderDeadLetterRepository deadLetterRepository = mock(ReminderDeadLetterRepository.class);
+    private final DeliveryRetryPolicy retryPolicy = new DeliveryRetryPolicy(3, 1000, 10_000);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private DeliveryRetryScheduler scheduler;
+    private ReminderDelivery delivery;
+
+    @BeforeEach
+    void setUp()
+    {
+        scheduler = new DeliveryRetryScheduler(
+                deliveryRepository,
+                deadLetterRepository,
+                retryPolicy,
+                new DeliveryMetrics(registry, deliveryRepository, 60_000),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                600_000,
+                100
+        );
+
+        Reminder reminder = new Reminder();
+        reminder.setId(10L);
+        reminder.setChannel(ReminderChannel.SMS);
+        reminder.setRemindAt(LocalDateTime.now().minusMinutes(1));
+
+        delivery = ReminderDelivery.pendingFor(reminder);
+        delivery.setId(100L);
+        delivery.setStatus(DeliveryStatus.IN_FLIGHT);
+        delivery.setProcessedAt(LocalDateTime.now());
+    }
+
+    @Test
+    void failed_shouldScheduleNextAttemptWithBackoff()
+    {
+        delivery.setAttempts(2);
+        when(deliveryRepository.lockInFlight(List.of(100L)))
+                .thenReturn(List.of(delivery));
+
+        LocalDateTime before = LocalDateTime.now();
+        scheduler.failed(List.of(message()), "gateway timeout");
+
+        assertEquals(DeliveryStatus.FAILED, delivery.getStatus());
+        assertNull(delivery.getProcessedAt());
+        assertEquals("gateway timeout", delivery.getLastError());
+        // вторая попытка: задержка от 1 до 2 секунд
+        assertFalse(delivery.getDueAt().isBefore(before.plusSeconds(1)));
+        assertFalse(delivery.getDueAt().isAfter(LocalDateTime.now().plusSeconds(2)));
+        verify(deadLetterRepository, never()).save(any());
+        assertEquals(1, registry.get("reminder.delivery.retries").tag("channel", "sms").counter().count());
+    }
+
+    @Test
+    void failed_shouldMoveToDeadLetter_whenAttemptsExhausted()
+    {
+        delivery.setAttempts(3);
+        when(deliveryRepository.lockInFlight(List.of(100L)))
+                .thenReturn(List.of(delivery));
+
+        scheduler.failed(List.of(message()), "gateway timeout");
+
+        assertEquals(DeliveryStatus.DEAD, delivery.getStatus());
+        assertNotNull(delivery.getProcessedAt());
+        verify(deadLetterRepository).save(argThat(letter ->
+                letter.getDelivery() == delivery && letter.getAttempts() == 3
+                        && "gateway timeout".equals(letter.getReason())));
+        assertEquals(1, registry.get("reminder.delivery.dead").tag("channel", "sms").counter().count());
+    }
+
+    @Test
+    void dead_shouldSkipRetries()
+    {
+        delivery.setAttempts(1);
+        when(deliveryRepository.lockInFlight(List.of(100L)))
+                .thenReturn(List.of(delivery));
+
+        scheduler.dead(List.of(message()), "No sender for SMS channel");
+
+        assertEquals(DeliveryStatus.DEAD, delivery.getStatus());
+        verify(deadLetterRepository).save(any());
+    }
+
+    @Test
+    void recoverStale_shouldRetryDeliveriesStuckInFlight()
+    {
+        delivery.setAttempts(1);
+        when(deliveryRepository.lockStaleInFlight(any(), any(Limit.class)))
+                .thenReturn(List.of(delivery));
+
+        scheduler.recoverStale();
+
+        assertEquals(DeliveryStatus.FAILED, delivery.getStatus());
+        assertNull(delivery.getProcessedAt());
+    }
+
+    @Test
+    void failed_shouldLeaveDeliveryAlone_whenNoLongerInFlight()
+    {
+        // доставку уже отметил отправленной или вернул по таймауту другой узел
+        when(deliveryRepository.lockInFlight(List.of(100L)))
+                .thenReturn(List.of());
+
+        scheduler.failed(List.of(message()), "gateway timeout");
+
+        verify(deadLetterRepository, never()).save(any());
+        assertEquals(0, registry.get("reminder.delivery.retries").tag("channel", "sms").counter().count());
+    }
+
+    @Test
+    void deferred_shouldReturnToOutboxWithoutCountingAttempt()
+    {
+        delivery.setAttempts(1);
+        when(deliveryRepository.lockInFlight(Set.of(100L)))
+                .thenReturn(List.of(delivery));
+
+        LocalDateTime before = LocalDateTime.now();
+        scheduler.deferred(Map.of(100L, Duration.ofSeconds(5)));
+
+        assertEquals(DeliveryStatus.PENDING, delivery.getStatus());
+        assertEquals(0, delivery.getAttempts());
+        assertNull(delivery.getProcessedAt());
+        // ожидание плюс случайная доля того же размера
+        assertFalse(delivery.getDueAt().isBefore(before.plusSeconds(5)));
+        assertFalse(delivery.getDueAt().isAfter(LocalDateTime.now().plusSeconds(10)));
+    }
+
+    @Test
+    void retryPolicy_shouldGrowExponentiallyWithJitterUpToCap()
+    {
+        for (int attempts = 1; attempts <= 70; attempts++)
+        {
+            long ceiling = Math.min(10_000, 1000L << Math.min(attempts - 1, 20));
+            Duration delay = retryPolicy.delay(attempts);
+
+            assertTrue(delay.toMillis() >= ceiling / 2, "attempt " + attempts);
+            assertTrue(delay.toMillis() <= ceiling, "attempt " + attempts);
+        }
+
+        assertFalse(retryPolicy.exhausted(2));
+        assertTrue(retryPolicy.exhausted(3));
+    }
+
+    private ReminderMessage message()
+    {
+        return new ReminderMessage(100L, 10L, 1L, "user@test.com", ReminderChannel.SMS, "Event",
+                LocalDateTime.now(), LocalDateTime.now().minusMinutes(1));
+    }
+}
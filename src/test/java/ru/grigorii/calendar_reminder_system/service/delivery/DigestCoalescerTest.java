@@ -0,0 +1,95 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DigestCoalescerTest
+{
+    private final BlockingQueue<ReminderDigest> digests = new LinkedBlockingQueue<>();
+    private final List<DigestCoalescer> coalescers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown()
+    {
+        coalescers.forEach(DigestCoalescer::shutdown);
+    }
+
+    @Test
+    void submit_shouldGroupBatchByUser_whenWindowIsZero()
+    {
+        DigestCoalescer coalescer = coalescer(0, 20);
+
+        coalescer.submit(List.of(message(1, 1L), message(2, 2L), message(3, 1L)));
+
+        assertEquals(2, digests.size());
+        ReminderDigest first = digests.poll();
+        assertEquals(1L, first.userId());
+        assertEquals(2, first.size());
+        assertEquals(1, digests.poll().size());
+    }
+
+    @Test
+    void submit_shouldCollectUserRemindersWithinWindow() throws InterruptedException
+    {
+        DigestCoalescer coalescer = coalescer(300, 20);
+
+        coalescer.submit(List.of(message(1, 1L)));
+        coalescer.submit(List.of(message(2, 1L), message(3, 2L)));
+
+        assertEquals(2, coalescer.pendingGroups());
+        ReminderDigest first = digests.poll(5, TimeUnit.SECONDS);
+        ReminderDigest second = digests.poll(5, TimeUnit.SECONDS);
+
+        assertNotNull(first);
+        assertNotNull(second);
+        assertEquals(3, first.size() + second.size());
+        assertEquals(0, coalescer.pendingGroups());
+    }
+
+    @Test
+    void submit_shouldSendFullDigestWithoutWaitingForWindow()
+    {
+        DigestCoalescer coalescer = coalescer(60_000, 2);
+
+        coalescer.submit(List.of(message(1, 1L), message(2, 1L), message(3, 1L)));
+
+        assertEquals(1, digests.size());
+        assertEquals(2, digests.poll().size());
+        assertEquals(1, coalescer.pendingGroups());
+    }
+
+    @Test
+    void shutdown_shouldFlushPendingGroups()
+    {
+        DigestCoalescer coalescer = coalescer(60_000, 20);
+
+        coalescer.submit(List.of(message(1, 1L), message(2, 1L)));
+        coalescer.shutdown();
+
+        assertEquals(1, digests.size());
+        assertEquals(2, digests.poll().size());
+    }
+
+    private DigestCoalescer coalescer(long windowMs, int maxSize)
+    {
+        DigestCoalescer coalescer = new DigestCoalescer(ReminderChannel.EMAIL, windowMs, maxSize, false, digests::addAll);
+        coalescers.add(coalescer);
+        return coalescer;
+    }
+
+    private ReminderMessage message(long deliveryId, Long userId)
+    {
+        return new ReminderMessage(deliveryId, deliveryId, userId, "user" + userId + "@test.com",
+                ReminderChannel.EMAIL, "Event " + deliveryId, LocalDateTime.now().plusHours(1), LocalDateTime.now());
+    }
+}
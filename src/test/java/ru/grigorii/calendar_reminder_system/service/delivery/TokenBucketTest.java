@@ -0,0 +1,104 @@
+package ru.grigorii.calendar_reminder_system.service.delivery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest
+{
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void tryAcquire_shouldAllowBurstThenReportWait()
+    {
+        TokenBucket bucket = new TokenBucket(10, 3, clock::get);
+
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.tryAcquire());
+    }
+
+    @Test
+    void release_shouldReturnTokenWithoutExceedingCapacity()
+    {
+        TokenBucket bucket = new TokenBucket(10, 2, clock::get);
+
+        bucket.release();
+        bucket.release();
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.tryAcquire());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(0, bucket.tryAcquire());
+        bucket.release();
+        assertEquals(0, bucket.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_shouldRefillOverTime()
+    {
+        TokenBucket bucket = new TokenBucket(10, 2, clock::get);
+        bucket.tryAcquire();
+        bucket.tryAcquire();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(40));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(60), bucket.tryAcquire());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(60));
+        assertEquals(0, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+    }
+
+    @Test
+    void tryAcquire_shouldNotAccumulateMoreThanCapacity()
+    {
+        TokenBucket bucket = new TokenBucket(10, 2, clock::get);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+    }
+
+    @Test
+    void tryAcquire_shouldNotOverAdmit_whenCalledConcurrently() throws InterruptedException
+    {
+        TokenBucket bucket = new TokenBucket(1, 100, clock::get);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++)
+        {
+            pool.execute(() -> {
+                try
+                {
+                    start.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                if (bucket.tryAcquire() == 0)
+                {
+                    admitted.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(100, admitted.get());
+    }
+}
@@ -0,0 +1,91 @@
+package ru.grigorii.calendar_reminder_system.service.delivery.file;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.grigorii.calendar_reminder_system.model.ReminderChannel;
+import ru.grigorii.calendar_reminder_system.service.delivery.ReminderDigest;
+import ru.grigorii.calendar_reminder_system.service.delivery.ReminderMessage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileReminderSenderTest
+{
+    @TempDir
+    Path directory;
+
+    @Test
+    void send_shouldAppendOneLinePerReminder() throws IOException
+    {
+        EmailFileReminderSender sender = new EmailFileReminderSender(directory, 0);
+
+        sender.send(List.of(digest(message("Standup", ReminderChannel.EMAIL))));
+        sender.send(List.of(digest(message("Review", ReminderChannel.EMAIL))));
+
+        List<String> lines = Files.readAllLines(directory.resolve("email.log"));
+
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("to=user@test.com"));
+        assertTrue(lines.get(0).contains("Standup"));
+        assertTrue(lines.get(1).contains("Review"));
+    }
+
+    @Test
+    void send_shouldWriteEachChannelToOwnFile() throws IOException
+    {
+        new PushFileReminderSender(directory, 0).send(List.of(digest(message("Push", ReminderChannel.PUSH))));
+        new SmsFileReminderSender(directory, 0).send(List.of(digest(message("Sms", ReminderChannel.SMS))));
+
+        assertTrue(Files.readString(directory.resolve("push.log")).contains("Push"));
+        assertTrue(Files.readString(directory.resolve("sms.log")).contains("Sms"));
+        assertFalse(Files.exists(directory.resolve("email.log")));
+    }
+
+    @Test
+    void format_shouldTruncateSmsText()
+    {
+        SmsFileReminderSender sender = new SmsFileReminderSender(directory, 0);
+
+        String line = sender.format(digest(message("x".repeat(500), ReminderChannel.SMS)));
+        String text = line.substring(line.lastIndexOf('\t') + 1);
+
+        assertEquals(160, text.length());
+    }
+
+    @Test
+    void send_shouldWriteDigestAsOneLine() throws IOException
+    {
+        EmailFileReminderSender sender = new EmailFileReminderSender(directory, 0);
+
+        sender.send(List.of(ReminderDigest.of(List.of(
+                message("Review", ReminderChannel.EMAIL, 2),
+                message("Standup", ReminderChannel.EMAIL, 1)))));
+
+        List<String> lines = Files.readAllLines(directory.resolve("email.log"));
+
+        assertEquals(1, lines.size());
+        assertTrue(lines.getFirst().contains("subject=Reminders: 2 events"));
+        assertTrue(lines.getFirst().indexOf("Standup") < lines.getFirst().indexOf("Review"));
+    }
+
+    private ReminderDigest digest(ReminderMessage message)
+    {
+        return ReminderDigest.of(List.of(message));
+    }
+
+    private ReminderMessage message(String title, ReminderChannel channel, int startsInHours)
+    {
+        LocalDateTime now = LocalDateTime.now();
+        return new ReminderMessage(1L, 1L, 1L, "user@test.com", channel, title, now.plusHours(startsInHours), now);
+    }
+
+    private ReminderMessage message(String title, ReminderChannel channel)
+    {
+        return message(title, channel, 1);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.grigorii.calendar_reminder_system.service.dispatch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest
+{
+
+    @Test
+    void add_shouldFireImmediately_whenAlreadyExpired()
+    {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 1000);
+        List<String> fired = new ArrayList<>();
+
+        wheel.add(995, "past", fired::add);
+
+        assertEquals(List.of("past"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advanceClock_shouldFireInOrder_withinLowestLevel()
+    {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 0);
+        List<String> fired = new ArrayList<>();
+
+        wheel.add(50, "b", fired::add);
+        wheel.add(20, "a", fired::add);
+
+        wheel.advanceClock(19, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advanceClock(20, fired::add);
+        assertEquals(List.of("a"), fired);
+
+        wheel.advanceClock(60, fired::add);
+        assertEquals(List.of("a", "b"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advanceClock_shouldCascadeFromOverflowWheels()
+    {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(10, 4, 0);
+        List<Long> fired = new ArrayList<>();
+
+        long[] expirations = {15, 45, 170, 600, 2_555, 10_000};
+        for (long expiration : expirations)
+        {
+            wheel.add(expiration, expiration, fired::add);
+        }
+        assertEquals(expirations.length, wheel.size());
+
+        for (long now = 0; now <= 10_000; now += 10)
+        {
+            long time = now;
+            wheel.advanceClock(now, e -> {
+                assertTrue(e <= time, "fired too early: " + e + " at " + time);
+                assertTrue(time - e < 10, "fired too late: " + e + " at " + time);
+                fired.add(e);
+            });
+        }
+
+        assertEquals(List.of(15L, 45L, 170L, 600L, 2_555L, 10_000L), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advanceClock_shouldFireOnFirstAdvancePastExpiration()
+    {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(10, 4, 0);
+        List<Long> fired = new ArrayList<>();
+        List<Long> firedAt = new ArrayList<>();
+
+        wheel.add(1_234, 1_234L, fired::add);
+
+        for (long now = 0; now <= 2_000; now += 100)
+        {
+            long time = now;
+            wheel.advanceClock(now, e -> {
+                fired.add(e);
+                firedAt.add(time);
+            });
+        }
+
+        assertEquals(List.of(1_234L), fired);
+        assertEquals(List.of(1_300L), firedAt);
+    }
+}
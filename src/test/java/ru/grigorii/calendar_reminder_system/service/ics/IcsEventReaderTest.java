@@ -0,0 +1,125 @@
+package ru.grigorii.calendar_reminder_system.service.ics;
+
+import org.junit.jupiter.api.Test;
+import ru.grigorii.calendar_reminder_system.dto.EventDto;
+import ru.grigorii.calendar_reminder_system.service.exception.IcsParseException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IcsEventReaderTest
+{
+    private static final ZoneId MOSCOW = ZoneId.of("Europe/Moscow");
+
+    @Test
+    void read_shouldMapEventAlarmAndRule_withUnfoldingEscapesAndTimeZones() throws IOException
+    {
+        IcsEventReader reader = reader("""
+                BEGIN:VCALENDAR
+                VERSION:2.0
+                BEGIN:VEVENT
+                UID:1
+                SUMMARY:Планёрка\\, ежен
+                 едельная
+                DESCRIPTION:Строка 1\\nСтрока 2
+                DTSTART;TZID=Europe/Berlin:20260105T090000
+                DURATION:PT30M
+                PRIORITY:1
+                RRULE:FREQ=WEEKLY;BYDAY=MO;COUNT=10
+                EXDATE;TZID=Europe/Berlin:20260112T090000,20260119T090000
+                BEGIN:VALARM
+                ACTION:EMAIL
+                TRIGGER:-PT15M
+                END:VALARM
+                BEGIN:VALARM
+                ACTION:DISPLAY
+                TRIGGER:-P1D
+                END:VALARM
+                END:VEVENT
+                BEGIN:VEVENT
+                SUMMARY:Отпуск
+                DTSTART;VALUE=DATE:20260701
+                DTEND:20260715T120000Z
+                END:VEVENT
+                END:VCALENDAR
+                """);
+
+        EventDto meeting = reader.read();
+
+        assertEquals("Планёрка, еженедельная", meeting.title());
+        assertEquals("Строка 1\nСтрока 2", meeting.description());
+        assertEquals(LocalDateTime.of(2026, 1, 5, 11, 0), meeting.startTime());
+        assertEquals(LocalDateTime.of(2026, 1, 5, 11, 30), meeting.endTime());
+        assertEquals("HIGH", meeting.priority());
+        assertEquals(10L, meeting.calendarId());
+        assertEquals(LocalDate.of(2026, 1, 5), meeting.recurrence().fromDate());
+        assertEquals("RRULE:FREQ=WEEKLY;BYDAY=MO;COUNT=10\nEXDATE:20260112T110000,20260119T110000",
+                meeting.recurrence().rrule());
+        assertEquals(LocalDateTime.of(2026, 1, 5, 10, 45), meeting.reminder().remindAt());
+        assertEquals("EMAIL", meeting.reminder().channel());
+
+        EventDto vacation = reader.read();
+
+        assertEquals(LocalDateTime.of(2026, 7, 1, 0, 0), vacation.startTime());
+        assertEquals(LocalDateTime.of(2026, 7, 15, 15, 0), vacation.endTime());
+        assertEquals("MEDIUM", vacation.priority());
+        assertNull(vacation.recurrence());
+        assertNull(vacation.reminder());
+
+        assertNull(reader.read());
+    }
+
+    @Test
+    void read_shouldSkipBrokenEvent_andContinueWithNextOne() throws IOException
+    {
+        IcsEventReader reader = reader("""
+                BEGIN:VCALENDAR
+                BEGIN:VEVENT
+                SUMMARY:Без начала
+                END:VEVENT
+                BEGIN:VEVENT
+                SUMMARY:Перенесённое вхождение
+                RECURRENCE-ID:20260112T090000
+                DTSTART:20260113T090000
+                END:VEVENT
+                BEGIN:VEVENT
+                DTSTART:20260301
+                END:VEVENT
+                END:VCALENDAR
+                """);
+
+        IcsParseException missingStart = assertThrows(IcsParseException.class, reader::read);
+        assertTrue(missingStart.getMessage().startsWith("Line 2:"));
+        assertThrows(IcsParseException.class, reader::read);
+
+        EventDto allDay = reader.read();
+
+        assertEquals("(без названия)", allDay.title());
+        assertEquals(LocalDateTime.of(2026, 3, 1, 0, 0), allDay.startTime());
+        assertEquals(LocalDateTime.of(2026, 3, 2, 0, 0), allDay.endTime());
+        assertNull(reader.read());
+    }
+
+    @Test
+    void read_shouldReportUnclosedEvent() throws IOException
+    {
+        IcsEventReader reader = reader("""
+                BEGIN:VCALENDAR
+                BEGIN:VEVENT
+                DTSTART:20260301T100000
+                """);
+
+        assertThrows(IcsParseException.class, reader::read);
+        assertNull(reader.read());
+    }
+
+    private static IcsEventReader reader(String ics)
+    {
+        return new IcsEventReader(new StringReader(ics), 10L, MOSCOW);
+    }
+}
@@ -0,0 +1,129 @@
+package ru.grigorii.calendar_reminder_system.service.ics;
+
+import org.junit.jupiter.api.Test;
+import ru.grigorii.calendar_reminder_system.dto.EventDto;
+import ru.grigorii.calendar_reminder_system.model.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IcsWriterTest
+{
+    private static final ZoneId MOSCOW = ZoneId.of("Europe/Moscow");
+
+    @Test
+    void write_shouldWriteSeriesWithRule_andCompletedOccurrenceAsOverride()
+    {
+        Event series = event(7L, "Планёрка", LocalDateTime.of(2026, 1, 19, 9, 0));
+        EventRecurrence recurrence = new EventRecurrence();
+        recurrence.setFromDate(LocalDate.of(2026, 1, 5));
+        recurrence.setRecurrenceType(RecurrenceType.WEEKLY);
+        recurrence.setRrule("FREQ=WEEKLY;BYDAY=MO\nEXDATE:20260112T090000");
+        series.setRecurrence(recurrence);
+
+        Event completed = event(8L, "Планёрка", LocalDateTime.of(2026, 1, 5, 9, 0));
+        completed.setSeries(series);
+        completed.setOriginalStart(LocalDateTime.of(2026, 1, 5, 9, 0));
+        completed.setDone(true);
+
+        List<String> lines = write(series, completed);
+
+        assertEquals(List.of(
+                "BEGIN:VCALENDAR",
+                "VERSION:2.0",
+                "PRODID:-//calendar-reminder-system//RU",
+                "CALSCALE:GREGORIAN",
+                "X-WR-CALNAME:Работа",
+                "X-WR-TIMEZONE:Europe/Moscow",
+                "BEGIN:VEVENT",
+                "UID:event-7@calendar-reminder-system",
+                "DTSTAMP:20260101T070000Z",
+                "DTSTART:20260105T090000",
+                "DTEND:20260105T093000",
+                "SUMMARY:Планёрка",
+                "PRIORITY:5",
+                "RRULE:FREQ=WEEKLY;BYDAY=MO",
+                "EXDATE:20260112T090000",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "UID:event-7@calendar-reminder-system",
+                "DTSTAMP:20260101T070000Z",
+                "RECURRENCE-ID:20260105T090000",
+                "DTSTART:20260105T090000",
+                "DTEND:20260105T093000",
+                "SUMMARY:Планёрка",
+                "PRIORITY:5",
+                "END:VEVENT",
+                "END:VCALENDAR"
+        ), lines);
+    }
+
+    @Test
+    void write_shouldEscapeFoldAndWriteAlarm_readableByImporter() throws IOException
+    {
+        Event event = event(9L, "Созвон; итоги, планы", LocalDateTime.of(2026, 3, 2, 15, 0));
+        event.setPriority(EventPriority.HIGH);
+        event.setDescription("Первая строка\nВторая строка, достаточно длинная, чтобы не поместиться в одну строку");
+
+        Reminder reminder = new Reminder();
+        reminder.setRemindAt(LocalDateTime.of(2026, 3, 2, 14, 45));
+        reminder.setChannel(ReminderChannel.PUSH);
+        event.setReminder(reminder);
+
+        StringWriter out = new StringWriter();
+        IcsWriter writer = new IcsWriter(out, MOSCOW);
+        writer.begin("Работа");
+        writer.write(event);
+        writer.end();
+
+        String ics = out.toString();
+        assertTrue(ics.contains("SUMMARY:Созвон\\; итоги\\, планы\r\n"));
+        assertTrue(ics.contains("TRIGGER:-PT15M\r\n"));
+        for (String line : ics.split("\r\n"))
+        {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+        }
+
+        EventDto imported = new IcsEventReader(new StringReader(ics), 1L, MOSCOW).read();
+
+        assertEquals("Созвон; итоги, планы", imported.title());
+        assertEquals(event.getDescription(), imported.description());
+        assertEquals(event.getStartTime(), imported.startTime());
+        assertEquals(event.getEndTime(), imported.endTime());
+        assertEquals("HIGH", imported.priority());
+        assertEquals(reminder.getRemindAt(), imported.reminder().remindAt());
+    }
+
+    private static List<String> write(Event... events)
+    {
+        StringWriter out = new StringWriter();
+        IcsWriter writer = new IcsWriter(out, MOSCOW);
+        writer.begin("Работа");
+        for (Event event : events)
+        {
+            writer.write(event);
+        }
+        writer.end();
+        return List.of(out.toString().split("\r\n"));
+    }
+
+    private static Event event(Long id, String title, LocalDateTime start)
+    {
+        Event event = new Event();
+        event.setId(id);
+        event.setTitle(title);
+        event.setStartTime(start);
+        event.setEndTime(start.plusMinutes(30));
+        event.setPriority(EventPriority.MEDIUM);
+        event.setUpdatedAt(LocalDateTime.of(2026, 1, 1, 10, 0));
+        return event;
+    }
+}
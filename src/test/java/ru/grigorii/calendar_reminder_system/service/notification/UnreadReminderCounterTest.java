@@ -0,0 +1,120 @@
+package ru.grigorii.calendar_reminder_system.service.notification;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.grigorii.calendar_reminder_system.repository.ReminderRepository;
+import ru.grigorii.calendar_reminder_system.repository.projection.ReminderSchedule;
+import ru.grigorii.calendar_reminder_system.service.dispatch.ReminderDueEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UnreadReminderCounterTest
+{
+
+    @Mock
+    private ReminderRepository reminderRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private UnreadReminderCounter counter;
+
+    @Test
+    void isReady_shouldBeFalse_untilRebuilt()
+    {
+        when(reminderRepository.findDueUnread(any(LocalDateTime.class)))
+                .thenReturn(List.of());
+
+        assertFalse(counter.isReady());
+
+        counter.rebuild();
+
+        assertTrue(counter.isReady());
+    }
+
+    @Test
+    void rebuild_shouldCountDueRemindersPerUser()
+    {
+        LocalDateTime now = LocalDateTime.now();
+        when(reminderRepository.findDueUnread(any(LocalDateTime.class)))
+                .thenReturn(List.of(
+                        new ReminderSchedule(10L, 1L, now),
+                        new ReminderSchedule(11L, 1L, now),
+                        new ReminderSchedule(20L, 2L, now)
+                ));
+
+        counter.rebuild();
+
+        assertEquals(2, counter.count(1L));
+        assertEquals(1, counter.count(2L));
+        assertEquals(0, counter.count(3L));
+    }
+
+    @Test
+    void markDue_shouldBeIdempotent()
+    {
+        counter.onReminderDue(new ReminderDueEvent(10L, 1L, LocalDateTime.now()));
+        counter.onReminderDue(new ReminderDueEvent(10L, 1L, LocalDateTime.now()));
+        counter.markDue(1L, 11L);
+
+        assertEquals(2, counter.count(1L));
+    }
+
+    @Test
+    void remove_shouldDecrementOnlyOwner()
+    {
+        counter.markDue(1L, 10L);
+        counter.markDue(2L, 20L);
+
+        counter.remove(10L);
+        counter.remove(10L);
+        counter.remove(99L);
+
+        assertEquals(0, counter.count(1L));
+        assertEquals(1, counter.count(2L));
+    }
+
+    @Test
+    void rebuild_shouldReplayChangesMadeWhileQuerying()
+    {
+        LocalDateTime now = LocalDateTime.now();
+        when(reminderRepository.findDueUnread(any(LocalDateTime.class)))
+                .thenAnswer(inv -> {
+                    // пока идёт запрос, одно напоминание прочитали, а другое наступило
+                    counter.remove(10L);
+                    counter.markDue(1L, 12L);
+                    return List.of(
+                            new ReminderSchedule(10L, 1L, now),
+                            new ReminderSchedule(11L, 1L, now)
+                    );
+                });
+
+        counter.rebuild();
+
+        assertEquals(2, counter.count(1L));
+    }
+
+    @Test
+    void markDueAndRemove_shouldPublishOnlyRealChanges()
+    {
+        counter.markDue(1L, 10L);
+        counter.markDue(1L, 10L);
+        counter.remove(10L);
+        counter.remove(10L);
+
+        verify(eventPublisher).publishEvent(new UnreadCountChangedEvent(1L, 1));
+        verify(eventPublisher).publishEvent(new UnreadCountChangedEvent(1L, 0));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+}
@@ -0,0 +1,58 @@
+package ru.grigorii.calendar_reminder_system.service.recurrence;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.grigorii.calendar_reminder_system.model.EventRecurrence;
+import ru.grigorii.calendar_reminder_system.model.RecurrenceType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccurrenceCacheTest
+{
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 10, 0);
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2025, 1, 8, 0, 0);
+
+    private final OccurrenceCache cache = new OccurrenceCache(
+            new RecurrenceExpander(new RecurrenceRuleCompiler(100)), new SimpleMeterRegistry(), 1000, 60000);
+
+    @Test
+    void between_shouldReuseExpansion_forSameSeriesAndWindow()
+    {
+        EventRecurrence recurrence = recurrence(1L);
+
+        List<LocalDateTime> first = cache.between(recurrence, START, FROM, TO);
+        List<LocalDateTime> second = cache.between(recurrence, START, FROM, TO);
+
+        assertEquals(7, first.size());
+        assertEquals(first, second);
+        assertEquals(0.5, cache.hitRate());
+    }
+
+    @Test
+    void between_shouldExpandAgain_whenSeriesStartMoves()
+    {
+        EventRecurrence recurrence = recurrence(1L);
+
+        cache.between(recurrence, START, FROM, TO);
+        List<LocalDateTime> moved = cache.between(recurrence, START.plusDays(2), FROM, TO);
+
+        // сдвинутое начало серии - другой ключ, старые вхождения не читаются
+        assertEquals(START.plusDays(2), moved.getFirst());
+        assertEquals(0.0, cache.hitRate());
+    }
+
+    private static EventRecurrence recurrence(Long id)
+    {
+        EventRecurrence recurrence = new EventRecurrence();
+        recurrence.setId(id);
+        recurrence.setRecurrenceType(RecurrenceType.DAILY);
+        recurrence.setFromDate(LocalDate.of(2025, 1, 1));
+        return recurrence;
+    }
+}
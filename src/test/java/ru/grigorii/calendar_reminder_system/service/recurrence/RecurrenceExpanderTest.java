@@ -0,0 +1,136 @@
+package ru.grigorii.calendar_reminder_system.service.recurrence;
+
+import org.junit.jupiter.api.Test;
+import ru.grigorii.calendar_reminder_system.model.EventRecurrence;
+import ru.grigorii.calendar_reminder_system.model.RecurrenceType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceExpanderTest
+{
+
+    private final RecurrenceExpander expander = new RecurrenceExpander(new RecurrenceRuleCompiler(100));
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    @Test
+    void between_shouldYieldWeeklyOccurrencesInsideWindowOnly()
+    {
+        EventRecurrence recurrence = recurrence(RecurrenceType.WEEKLY, null);
+
+        List<LocalDateTime> result = expander.between(recurrence, START,
+                        LocalDateTime.of(2025, 2, 1, 0, 0),
+                        LocalDateTime.of(2025, 3, 1, 0, 0))
+                .toList();
+
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 2, 5, 10, 0),
+                LocalDateTime.of(2025, 2, 12, 10, 0),
+                LocalDateTime.of(2025, 2, 19, 10, 0),
+                LocalDateTime.of(2025, 2, 26, 10, 0)
+        ), result);
+    }
+
+    @Test
+    void between_shouldStopAtUntilDate()
+    {
+        EventRecurrence recurrence = recurrence(RecurrenceType.DAILY, LocalDate.of(2025, 1, 3));
+
+        List<LocalDateTime> result = expander.between(recurrence, START,
+                        START, LocalDateTime.of(2025, 2, 1, 0, 0))
+                .toList();
+
+        assertEquals(List.of(
+                START,
+                START.plusDays(1),
+                START.plusDays(2)
+        ), result);
+    }
+
+    @Test
+    void between_shouldNotDriftForMonthEnd()
+    {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 31, 9, 0);
+        EventRecurrence recurrence = recurrence(RecurrenceType.MONTHLY, null);
+        recurrence.setFromDate(start.toLocalDate());
+
+        List<LocalDateTime> result = expander.between(recurrence, start,
+                        start, LocalDateTime.of(2025, 4, 1, 0, 0))
+                .toList();
+
+        assertEquals(List.of(
+                start,
+                LocalDateTime.of(2025, 2, 28, 9, 0),
+                LocalDateTime.of(2025, 3, 31, 9, 0)
+        ), result);
+    }
+
+    @Test
+    void between_shouldJumpToFarWindow_withoutWalkingFromStart()
+    {
+        EventRecurrence recurrence = recurrence(RecurrenceType.DAILY, null);
+
+        List<LocalDateTime> result = expander.between(recurrence, START,
+                        LocalDateTime.of(2125, 1, 1, 0, 0),
+                        LocalDateTime.of(2125, 1, 3, 0, 0))
+                .toList();
+
+        assertEquals(List.of(
+                LocalDateTime.of(2125, 1, 1, 10, 0),
+                LocalDateTime.of(2125, 1, 2, 10, 0)
+        ), result);
+    }
+
+    @Test
+    void firstAfter_shouldReturnNextOccurrence_orEmptyAfterUntil()
+    {
+        EventRecurrence recurrence = recurrence(RecurrenceType.DAILY, LocalDate.of(2025, 1, 2));
+
+        assertEquals(Optional.of(START.plusDays(1)), expander.firstAfter(recurrence, START, START));
+        assertEquals(Optional.empty(), expander.firstAfter(recurrence, START, START.plusDays(1)));
+    }
+
+    @Test
+    void isOccurrence_shouldMatchOnlyExactStarts()
+    {
+        EventRecurrence recurrence = recurrence(RecurrenceType.WEEKLY, null);
+
+        assertTrue(expander.isOccurrence(recurrence, START, START.plusWeeks(3)));
+        assertFalse(expander.isOccurrence(recurrence, START, START.plusWeeks(3).plusHours(1)));
+        assertFalse(expander.isOccurrence(recurrence, START, START.minusWeeks(1)));
+    }
+
+    @Test
+    void between_shouldUseRrule_anchoredAtFromDate_afterSeriesAdvanced()
+    {
+        EventRecurrence recurrence = recurrence(RecurrenceType.WEEKLY, null);
+        recurrence.setRrule("FREQ=WEEKLY;BYDAY=MO,WE,FR;COUNT=4");
+
+        // серия уже сдвинута на пятницу; COUNT по-прежнему отсчитывается от даты начала повторений (среда)
+        LocalDateTime head = LocalDateTime.of(2025, 1, 3, 10, 0);
+
+        List<LocalDateTime> result = expander.between(recurrence, head,
+                        START, LocalDateTime.of(2025, 2, 1, 0, 0))
+                .toList();
+
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 1, 3, 10, 0),
+                LocalDateTime.of(2025, 1, 6, 10, 0),
+                LocalDateTime.of(2025, 1, 8, 10, 0)
+        ), result);
+    }
+
+    private EventRecurrence recurrence(RecurrenceType type, LocalDate until)
+    {
+        EventRecurrence recurrence = new EventRecurrence();
+        recurrence.setRecurrenceType(type);
+        recurrence.setFromDate(START.toLocalDate());
+        recurrence.setUntilDate(until);
+        return recurrence;
+    }
+}
@@ -0,0 +1,142 @@
+package ru.grigorii.calendar_reminder_system.service.recurrence;
+
+import org.junit.jupiter.api.Test;
+import ru.grigorii.calendar_reminder_system.model.RecurrenceType;
+import ru.grigorii.calendar_reminder_system.service.exception.InvalidRecurrenceRuleException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceRuleTest
+{
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    @Test
+    void parse_shouldNormalizeText_andExposeFrequencyAndUntil()
+    {
+        RecurrenceRule rule = RecurrenceRule.parse(" rrule:freq=monthly;until=20250630 \n exdate:20250301 ");
+
+        assertEquals("RRULE:FREQ=MONTHLY;UNTIL=20250630\nEXDATE:20250301", rule.text());
+        assertEquals(RecurrenceType.MONTHLY, rule.frequency());
+        assertEquals(LocalDate.of(2025, 6, 30), rule.until().toLocalDate());
+    }
+
+    @Test
+    void parse_shouldRejectUnsupportedOrInconsistentRules()
+    {
+        assertThrows(InvalidRecurrenceRuleException.class, () -> RecurrenceRule.parse("FREQ=HOURLY"));
+        assertThrows(InvalidRecurrenceRuleException.class, () -> RecurrenceRule.parse("FREQ=DAILY;BYSETPOS=1"));
+        assertThrows(InvalidRecurrenceRuleException.class, () -> RecurrenceRule.parse("FREQ=DAILY;COUNT=2;UNTIL=20250101"));
+        assertThrows(InvalidRecurrenceRuleException.class, () -> RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=1MO"));
+        assertThrows(InvalidRecurrenceRuleException.class, () -> RecurrenceRule.parse("FREQ=MONTHLY;BYMONTHDAY=0"));
+        assertThrows(InvalidRecurrenceRuleException.class, () -> RecurrenceRule.parse("INTERVAL=2"));
+        assertThrows(InvalidRecurrenceRuleException.class, () -> RecurrenceRule.parse(" "));
+    }
+
+    @Test
+    void between_shouldExpandWeeklyByDay_withIntervalAndCount()
+    {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE;COUNT=5");
+
+        List<LocalDateTime> result = rule.between(START, START, LocalDateTime.of(2026, 1, 1, 0, 0)).toList();
+
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 1, 1, 10, 0),
+                LocalDateTime.of(2025, 1, 13, 10, 0),
+                LocalDateTime.of(2025, 1, 15, 10, 0),
+                LocalDateTime.of(2025, 1, 27, 10, 0),
+                LocalDateTime.of(2025, 1, 29, 10, 0)
+        ), result);
+    }
+
+    @Test
+    void between_shouldExpandMonthlyByMonthDay_andSkipMonthsWithoutThatDay()
+    {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=MONTHLY;BYMONTHDAY=31,-1");
+
+        List<LocalDateTime> result = rule.between(START,
+                        LocalDateTime.of(2025, 1, 1, 0, 0),
+                        LocalDateTime.of(2025, 4, 1, 0, 0))
+                .toList();
+
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 1, 31, 10, 0),
+                LocalDateTime.of(2025, 2, 28, 10, 0),
+                LocalDateTime.of(2025, 3, 31, 10, 0)
+        ), result);
+    }
+
+    @Test
+    void between_shouldExpandNumberedWeekdays()
+    {
+        RecurrenceRule monthly = RecurrenceRule.parse("FREQ=MONTHLY;BYDAY=2TU,-1FR");
+        RecurrenceRule yearly = RecurrenceRule.parse("FREQ=YEARLY;BYMONTH=11;BYDAY=4TH");
+
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 1, 14, 10, 0),
+                LocalDateTime.of(2025, 1, 31, 10, 0),
+                LocalDateTime.of(2025, 2, 11, 10, 0),
+                LocalDateTime.of(2025, 2, 28, 10, 0)
+        ), monthly.between(START, START, LocalDateTime.of(2025, 3, 1, 0, 0)).toList());
+
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 11, 27, 10, 0),
+                LocalDateTime.of(2026, 11, 26, 10, 0)
+        ), yearly.between(START, START, LocalDateTime.of(2027, 1, 1, 0, 0)).toList());
+    }
+
+    @Test
+    void between_shouldSkipExdates_butCountThem()
+    {
+        RecurrenceRule rule = RecurrenceRule.parse("""
+                RRULE:FREQ=DAILY;COUNT=4
+                EXDATE:20250102T100000
+                EXDATE;VALUE=DATE:20250103
+                """);
+
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 1, 1, 10, 0),
+                LocalDateTime.of(2025, 1, 4, 10, 0)
+        ), rule.between(START, START, LocalDateTime.of(2025, 2, 1, 0, 0)).toList());
+    }
+
+    @Test
+    void between_shouldJumpToFarWindow_withoutWalkingFromStart()
+    {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY;INTERVAL=3;BYMONTH=1,7");
+
+        List<LocalDateTime> result = rule.between(START,
+                        LocalDateTime.of(2125, 7, 1, 0, 0),
+                        LocalDateTime.of(2125, 7, 8, 0, 0))
+                .toList();
+
+        assertEquals(List.of(
+                LocalDateTime.of(2125, 7, 1, 10, 0),
+                LocalDateTime.of(2125, 7, 4, 10, 0),
+                LocalDateTime.of(2125, 7, 7, 10, 0)
+        ), result);
+    }
+
+    @Test
+    void between_shouldStopAtHorizon_forRulesThatNeverMatch()
+    {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=YEARLY;BYMONTH=2;BYMONTHDAY=30");
+
+        assertTrue(rule.between(START, START, LocalDateTime.MAX).findFirst().isEmpty());
+    }
+
+    @Test
+    void compiler_shouldCacheRuleByText()
+    {
+        RecurrenceRuleCompiler compiler = new RecurrenceRuleCompiler(100);
+
+        RecurrenceRule first = compiler.compile("FREQ=DAILY;INTERVAL=2");
+        RecurrenceRule second = compiler.compile("FREQ=DAILY;INTERVAL=2");
+
+        assertSame(first, second);
+    }
+}